@@ -0,0 +1,57 @@
+package com.gct.reportgenerator.config;
+
+import com.gct.reportgenerator.service.AuditLogWriter;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * SQL日志采样
+ *
+ * spring.jpa.show-sql会同步打印每一条语句，只适合开发环境。report.sql-log.sample-rate大于0时，
+ * 按该比例抽取Hibernate发出的语句交给AuditLogWriter异步写入SQL logger（JdbcTemplate的语句不在其中）。
+ * 生产配置（application-prod.yml）关闭show-sql并开启采样。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Configuration
+public class SqlLogSamplingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlLogSampling(AuditLogWriter auditLogWriter,
+                                                        @Value("${report.sql-log.sample-rate:0}") double sampleRate) {
+        return properties -> {
+            if (sampleRate > 0) {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SampledStatementInspector(auditLogWriter, sampleRate));
+            }
+        };
+    }
+
+    /**
+     * 按比例抽取语句，不修改SQL
+     */
+    static class SampledStatementInspector implements StatementInspector {
+
+        private final AuditLogWriter auditLogWriter;
+        private final double sampleRate;
+
+        SampledStatementInspector(AuditLogWriter auditLogWriter, double sampleRate) {
+            this.auditLogWriter = auditLogWriter;
+            this.sampleRate = sampleRate;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                auditLogWriter.sql(sql);
+            }
+            return sql;
+        }
+    }
+}
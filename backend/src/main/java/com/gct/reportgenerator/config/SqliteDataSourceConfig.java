@@ -0,0 +1,142 @@
+package com.gct.reportgenerator.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import org.sqlite.SQLiteConfig;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 应用数据库（SQLite）数据源
+ *
+ * SQLite同一时间只允许一个写事务，多个写连接只会在busy_timeout里轮询等锁；WAL模式下读写互不阻塞。因此分为两个连接池：
+ * <ul>
+ *   <li>写池：单连接，写事务在连接池中按顺序排队（见hikaricp.connections.pending指标）；
+ *       读写事务、事务外的语句与Flyway迁移都使用写池</li>
+ *   <li>读池：多连接，以只读方式打开，供 {@code @Transactional(readOnly = true)} 的事务使用</li>
+ * </ul>
+ * 事务开始时只读标记尚未绑定到当前线程，数据源外层包一层LazyConnectionDataSourceProxy，
+ * 到第一条语句时才按标记选择连接池。
+ *
+ * 每个连接打开时设置：journal_mode=WAL（写入数据库文件，持久生效）、synchronous（默认NORMAL：WAL下只在checkpoint时fsync，
+ * 掉电可能丢失最近提交的事务但不会损坏数据库）、cache_size、mmap_size、busy_timeout；写连接的事务在BEGIN时即获取写锁，
+ * 并设置journal_size_limit，WAL重用时截断到 report.sqlite.wal-size-limit（见WalCheckpointService）。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Configuration
+public class SqliteDataSourceConfig {
+
+    private final String url;
+    private final SQLiteConfig.SynchronousMode synchronous;
+    private final Duration busyTimeout;
+    private final DataSize cacheSize;
+    private final DataSize mmapSize;
+    private final DataSize walSizeLimit;
+    private final Duration connectionTimeout;
+
+    public SqliteDataSourceConfig(
+            @Value("${spring.datasource.url}") String url,
+            @Value("${report.sqlite.synchronous:NORMAL}") SQLiteConfig.SynchronousMode synchronous,
+            @Value("${report.sqlite.busy-timeout:5s}") Duration busyTimeout,
+            @Value("${report.sqlite.cache-size:16MB}") DataSize cacheSize,
+            @Value("${report.sqlite.mmap-size:256MB}") DataSize mmapSize,
+            @Value("${report.sqlite.wal-size-limit:64MB}") DataSize walSizeLimit,
+            @Value("${report.sqlite.connection-timeout:30s}") Duration connectionTimeout) {
+        this.url = url;
+        this.synchronous = synchronous;
+        this.busyTimeout = busyTimeout;
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.walSizeLimit = walSizeLimit;
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteWriterDataSource() {
+        HikariConfig config = poolConfig("sqlite-writer", 1, false);
+        // 启动时即建立连接：先把数据库切换为WAL，读池的只读连接才能打开
+        config.setMinimumIdle(1);
+        log.info("创建SQLite写连接池, synchronous: {}, cache_size: {}, mmap_size: {}", synchronous, cacheSize, mmapSize);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * 依赖写池，保证数据库已是WAL模式后再创建
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteReaderDataSource(
+            @Qualifier("sqliteWriterDataSource") HikariDataSource writer,
+            @Value("${report.sqlite.reader-pool-size:4}") int readerPoolSize) {
+        HikariConfig config = poolConfig("sqlite-reader", readerPoolSize, true);
+        config.setMinimumIdle(0);
+        log.info("创建SQLite读连接池, 最大连接数: {}", readerPoolSize);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * 应用使用的数据源：按当前事务的只读标记路由到读池或写池
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("sqliteWriterDataSource") HikariDataSource writer,
+                                 @Qualifier("sqliteReaderDataSource") HikariDataSource reader) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(Boolean.FALSE, writer, Boolean.TRUE, reader));
+        routing.setDefaultTargetDataSource(writer);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariConfig poolConfig(String poolName, int maxPoolSize, boolean readOnly) {
+        SQLiteConfig sqlite = new SQLiteConfig();
+        sqlite.setSynchronous(synchronous);
+        sqlite.setBusyTimeout((int) busyTimeout.toMillis());
+        // 负数表示以KiB为单位
+        sqlite.setCacheSize((int) -cacheSize.toKilobytes());
+        sqlite.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize.toBytes()));
+        if (readOnly) {
+            // SQLite不支持在连接建立后切换只读，以open_mode打开，journal_mode由写连接设置
+            sqlite.setReadOnly(true);
+        } else {
+            sqlite.setJournalMode(SQLiteConfig.JournalMode.WAL);
+            sqlite.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+            sqlite.setPragma(SQLiteConfig.Pragma.JOURNAL_SIZE_LIMIT, String.valueOf(walSizeLimit.toBytes()));
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setDataSourceProperties(sqlite.toProperties());
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setConnectionTimeout(connectionTimeout.toMillis());
+        config.setReadOnly(readOnly);
+        return config;
+    }
+
+    /**
+     * 只读事务使用读池，其他情况使用写池
+     */
+    static class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+    }
+}
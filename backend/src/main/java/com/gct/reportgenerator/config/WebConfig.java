@@ -24,13 +24,9 @@ public class WebConfig implements WebMvcConfigurer {
     
     @Override
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
-        // 暂时禁用AuthInterceptor用于US005测试
-        // TODO: 在US001, US002, US003完成后启用
-        /*
         registry.addInterceptor(Objects.requireNonNull(authInterceptor))
                 .addPathPatterns("/api/**")  // 拦截所有API请求
                 .order(1);  // 拦截器执行顺序
-        */
     }
     
     @Override
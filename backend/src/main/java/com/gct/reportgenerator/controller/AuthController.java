@@ -3,6 +3,7 @@ package com.gct.reportgenerator.controller;
 import com.gct.reportgenerator.dto.LoginRequest;
 import com.gct.reportgenerator.dto.LoginResponse;
 import com.gct.reportgenerator.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,9 +32,10 @@ public class AuthController {
      * @return 登录响应（token、用户信息）
      */
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        log.info("收到登录请求, 用户名: {}", request.getUsername());
-        LoginResponse response = authService.login(request);
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request,
+                                               HttpServletRequest httpRequest) {
+        log.debug("收到登录请求, 用户名: {}", request.getUsername());
+        LoginResponse response = authService.login(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
     
@@ -42,7 +44,7 @@ public class AuthController {
      */
     @PostMapping("/logout")
     public ResponseEntity<Void> logout() {
-        log.info("收到登出请求");
+        log.debug("收到登出请求");
         
         authService.logout();
         
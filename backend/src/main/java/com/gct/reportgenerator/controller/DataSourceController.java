@@ -0,0 +1,91 @@
+package com.gct.reportgenerator.controller;
+
+import com.gct.reportgenerator.dto.DataSourceDTO;
+import com.gct.reportgenerator.dto.DataSourceHealthDTO;
+import com.gct.reportgenerator.dto.DataSourceRequest;
+import com.gct.reportgenerator.service.DataSourceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 报表数据源管理接口（仅管理员）
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/data-sources")
+@RequiredArgsConstructor
+public class DataSourceController {
+
+    private final DataSourceService dataSourceService;
+
+    /**
+     * 获取数据源列表
+     */
+    @GetMapping
+    public ResponseEntity<List<DataSourceDTO>> listDataSources() {
+        return ResponseEntity.ok(dataSourceService.listDataSources());
+    }
+
+    /**
+     * 获取数据源配置
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<DataSourceDTO> getDataSource(@PathVariable Long id) {
+        return ResponseEntity.ok(dataSourceService.getDataSource(id));
+    }
+
+    /**
+     * 新增数据源
+     */
+    @PostMapping
+    public ResponseEntity<DataSourceDTO> createDataSource(@RequestBody DataSourceRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(dataSourceService.createDataSource(request));
+    }
+
+    /**
+     * 修改数据源
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<DataSourceDTO> updateDataSource(@PathVariable Long id, @RequestBody DataSourceRequest request) {
+        return ResponseEntity.ok(dataSourceService.updateDataSource(id, request));
+    }
+
+    /**
+     * 删除数据源
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteDataSource(@PathVariable Long id) {
+        dataSourceService.deleteDataSource(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 检查所有已创建的连接池
+     */
+    @GetMapping("/health")
+    public ResponseEntity<List<DataSourceHealthDTO>> checkActiveHealth() {
+        return ResponseEntity.ok(dataSourceService.checkActiveHealth());
+    }
+
+    /**
+     * 检查内置数据源
+     */
+    @GetMapping("/default/health")
+    public ResponseEntity<DataSourceHealthDTO> checkDefaultHealth() {
+        return ResponseEntity.ok(dataSourceService.checkHealth(null));
+    }
+
+    /**
+     * 检查数据源连通性
+     */
+    @GetMapping("/{id}/health")
+    public ResponseEntity<DataSourceHealthDTO> checkHealth(@PathVariable Long id) {
+        return ResponseEntity.ok(dataSourceService.checkHealth(id));
+    }
+}
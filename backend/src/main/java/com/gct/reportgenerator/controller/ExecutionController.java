@@ -0,0 +1,84 @@
+package com.gct.reportgenerator.controller;
+
+import com.gct.reportgenerator.dto.ExecutionStatsDTO;
+import com.gct.reportgenerator.dto.RunningExecutionDTO;
+import com.gct.reportgenerator.dto.UserExecutionStatsDTO;
+import com.gct.reportgenerator.service.ExecutionGovernor;
+import com.gct.reportgenerator.service.ExecutionLogRetentionService;
+import com.gct.reportgenerator.service.ExecutionStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 报表执行接口
+ *
+ * 管理员可查看与取消全部执行，其他用户只能操作自己发起的执行；执行排行仅管理员可用
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/executions")
+@RequiredArgsConstructor
+public class ExecutionController {
+
+    private final ExecutionGovernor executionGovernor;
+    private final ExecutionStatsService executionStatsService;
+    private final ExecutionLogRetentionService executionLogRetentionService;
+
+    /**
+     * 获取正在执行的查询（含已执行时间与已输出行数）
+     */
+    @GetMapping
+    public ResponseEntity<List<RunningExecutionDTO>> listRunning() {
+        return ResponseEntity.ok(executionGovernor.listRunning());
+    }
+
+    /**
+     * 取消执行
+     *
+     * 取消是异步的：语句被中断后执行线程才结束，返回202
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable Long id) {
+        executionGovernor.cancel(id);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * 报表排行
+     *
+     * @param orderBy executions、failures、error-rate、p95、avg-duration
+     */
+    @GetMapping("/stats/top-reports")
+    public ResponseEntity<List<ExecutionStatsDTO>> topReports(
+            @RequestParam(defaultValue = "executions") String orderBy,
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(executionStatsService.getTopReports(orderBy, hours, limit));
+    }
+
+    /**
+     * 用户排行（按执行次数）
+     */
+    @GetMapping("/stats/top-users")
+    public ResponseEntity<List<UserExecutionStatsDTO>> topUsers(
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(executionStatsService.getTopUsers(hours, limit));
+    }
+
+    /**
+     * 将数据库转换为增量自动清理模式（仅管理员，需开启vacuum-conversion-enabled）
+     *
+     * 执行一次全库VACUUM，期间阻塞所有写入，应在维护窗口调用
+     */
+    @PostMapping("/logs/incremental-vacuum")
+    public ResponseEntity<Map<String, Boolean>> enableIncrementalVacuum() {
+        return ResponseEntity.ok(Map.of("converted", executionLogRetentionService.enableIncrementalVacuum()));
+    }
+}
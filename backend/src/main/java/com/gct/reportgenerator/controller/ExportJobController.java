@@ -0,0 +1,82 @@
+package com.gct.reportgenerator.controller;
+
+import com.gct.reportgenerator.dto.ExportJobDTO;
+import com.gct.reportgenerator.dto.ExportJobRequest;
+import com.gct.reportgenerator.service.ExportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 异步导出任务接口
+ *
+ * 提交任务后轮询状态，完成后下载文件
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/export-jobs")
+@RequiredArgsConstructor
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    /**
+     * 提交导出任务
+     */
+    @PostMapping
+    public ResponseEntity<ExportJobDTO> submit(@RequestBody ExportJobRequest request) {
+        ExportJobDTO job = exportJobService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * 获取当前用户的导出任务列表
+     */
+    @GetMapping
+    public ResponseEntity<List<ExportJobDTO>> listJobs() {
+        return ResponseEntity.ok(exportJobService.listJobs());
+    }
+
+    /**
+     * 查询任务状态与进度
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportJobDTO> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(exportJobService.getJob(id));
+    }
+
+    /**
+     * 下载导出文件
+     */
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Resource> download(@PathVariable Long id) {
+        ExportJobService.ExportFile file = exportJobService.getFile(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(file.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(file.fileName(), StandardCharsets.UTF_8)
+                    .build()
+                    .toString())
+                .body(new FileSystemResource(file.path()));
+    }
+
+    /**
+     * 取消执行中的任务，或删除已结束的任务及其文件
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelOrDelete(@PathVariable Long id) {
+        exportJobService.cancelOrDelete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,33 +1,66 @@
 package com.gct.reportgenerator.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gct.reportgenerator.dto.PageResult;
 import com.gct.reportgenerator.dto.ReportCreateRequest;
 import com.gct.reportgenerator.dto.ReportDTO;
 import com.gct.reportgenerator.dto.ReportColumnDTO;
+import com.gct.reportgenerator.dto.ReportExecuteRequest;
+import com.gct.reportgenerator.dto.ReportPageDTO;
+import com.gct.reportgenerator.dto.ReportPageRequest;
+import com.gct.reportgenerator.dto.ReportPermissionRequest;
+import com.gct.reportgenerator.dto.ReportStatsDTO;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.service.ExecutionAdmission.AdmissionPermit;
+import com.gct.reportgenerator.service.ExecutionStatsService;
+import com.gct.reportgenerator.service.PreparedReportExecution;
+import com.gct.reportgenerator.service.ReportExecutionService;
+import com.gct.reportgenerator.service.ReportPageService;
+import com.gct.reportgenerator.service.ReportPermissionService;
 import com.gct.reportgenerator.service.ReportService;
+import com.gct.reportgenerator.util.CsvRowWriter;
+import com.gct.reportgenerator.util.JsonRowWriter;
+import com.gct.reportgenerator.util.XlsxRowWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
-@Slf4j
 @RestController
 @RequestMapping("/api/v1/reports")
 @RequiredArgsConstructor
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportExecutionService reportExecutionService;
+    private final ReportPageService reportPageService;
+    private final ExecutionStatsService executionStatsService;
+    private final ReportPermissionService reportPermissionService;
+    private final ObjectMapper objectMapper;
 
     /**
      * 创建报表
      */
     @PostMapping
     public ResponseEntity<ReportDTO> createReport(@RequestBody ReportCreateRequest request) {
-        log.info("POST /api/v1/reports - Creating report: {}", request.getName());
         ReportDTO report = reportService.createReport(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(report);
     }
@@ -37,17 +70,26 @@ public class ReportController {
      */
     @GetMapping
     public ResponseEntity<List<ReportDTO>> getAllReports() {
-        log.info("GET /api/v1/reports - Getting all reports");
         List<ReportDTO> reports = reportService.getAllReports();
         return ResponseEntity.ok(reports);
     }
 
+    /**
+     * 分页获取报表列表
+     */
+    @GetMapping("/page")
+    public ResponseEntity<PageResult<ReportDTO>> getReportPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Long creatorId) {
+        return ResponseEntity.ok(reportService.getReportPage(page, size, creatorId));
+    }
+
     /**
      * 获取报表完整配置
      */
     @GetMapping("/{id}/full")
     public ResponseEntity<ReportDTO> getReportFull(@PathVariable Long id) {
-        log.info("GET /api/v1/reports/{}/full - Getting full report configuration", id);
         ReportDTO report = reportService.getReportById(id);
         return ResponseEntity.ok(report);
     }
@@ -59,7 +101,6 @@ public class ReportController {
     public ResponseEntity<ReportDTO> updateReport(
             @PathVariable Long id,
             @RequestBody ReportCreateRequest request) {
-        log.info("PUT /api/v1/reports/{} - Updating report", id);
         ReportDTO report = reportService.updateReport(id, request);
         return ResponseEntity.ok(report);
     }
@@ -69,17 +110,44 @@ public class ReportController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteReport(@PathVariable Long id) {
-        log.info("DELETE /api/v1/reports/{} - Deleting report", id);
         reportService.deleteReport(id);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * 获取报表授权的角色
+     */
+    @GetMapping("/{id}/permissions")
+    public ResponseEntity<List<String>> getPermissions(@PathVariable Long id) {
+        return ResponseEntity.ok(reportPermissionService.getRoles(id));
+    }
+
+    /**
+     * 设置报表授权的角色（仅管理员与报表创建人）
+     */
+    @PutMapping("/{id}/permissions")
+    public ResponseEntity<List<String>> setPermissions(
+            @PathVariable Long id,
+            @RequestBody ReportPermissionRequest request) {
+        return ResponseEntity.ok(reportPermissionService.setRoles(id, request.getRoles()));
+    }
+
+    /**
+     * 获取报表执行统计（次数、失败率、耗时分位数、执行最多的用户）
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<ReportStatsDTO> getReportStats(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "10") int topUsers) {
+        return ResponseEntity.ok(executionStatsService.getReportStats(id, hours, topUsers));
+    }
+
     /**
      * 检查报表名称是否存在
      */
     @GetMapping("/check-name")
     public ResponseEntity<Map<String, Boolean>> checkNameExists(@RequestParam String name) {
-        log.info("GET /api/v1/reports/check-name - Checking name: {}", name);
         boolean exists = reportService.isNameExists(name);
         Map<String, Boolean> result = new HashMap<>();
         result.put("exists", exists);
@@ -90,12 +158,199 @@ public class ReportController {
      * 从SQL提取列信息
      */
     @PostMapping("/extract-columns")
-    public ResponseEntity<List<ReportColumnDTO>> extractColumns(@RequestBody ReportCreateRequest request) {
-        log.info("POST /api/v1/reports/extract-columns - Extracting columns from SQL");
+    public ResponseEntity<List<ReportColumnDTO>> extractColumns(
+            @RequestBody ReportCreateRequest request,
+            @RequestParam(defaultValue = "METADATA") String mode) {
         List<ReportColumnDTO> columns = reportService.extractColumnsFromSql(
             request.getSqlContent(), 
-            request.getParams()
+            request.getParams(),
+            request.getDataSourceId(),
+            mode
         );
         return ResponseEntity.ok(columns);
     }
+
+    /**
+     * 执行报表（流式返回结果）
+     *
+     * 参数校验与准入排队在请求线程完成（排队超时返回429），结果行在读取时即写出，不在内存中累积
+     */
+    @PostMapping("/{id}/execute")
+    public ResponseEntity<StreamingResponseBody> executeReport(
+            @PathVariable Long id,
+            @RequestBody(required = false) ReportExecuteRequest request,
+            HttpServletRequest httpRequest) {
+        PreparedReportExecution execution = reportExecutionService.prepare(
+            id,
+            request != null ? request.getParams() : null
+        );
+        AdmissionPermit permit = admit(execution, httpRequest);
+
+        StreamingResponseBody body = out -> {
+            JsonRowWriter writer = new JsonRowWriter(objectMapper.getFactory(), out);
+            try {
+                reportExecutionService.execute(execution, permit, writer);
+            } catch (BusinessException e) {
+                writer.fail(e.getCode(), e.getMessage());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * 分页执行报表
+     *
+     * 首页不传cursor，续页传入上一页返回的nextCursor
+     */
+    @PostMapping("/{id}/execute/page")
+    public ResponseEntity<ReportPageDTO> executeReportPage(
+            @PathVariable Long id,
+            @RequestBody ReportPageRequest request) {
+        ReportPageDTO page = reportPageService.executePage(id, request);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * 导出Excel（流式写出，内存占用与行数无关）
+     *
+     * 报表参数通过查询字符串传递，如 ?startDate=2024-01-01
+     */
+    @GetMapping("/{id}/export.xlsx")
+    public ResponseEntity<StreamingResponseBody> exportXlsx(
+            @PathVariable Long id,
+            @RequestParam Map<String, String> params,
+            HttpServletRequest httpRequest) {
+        PreparedReportExecution execution = reportExecutionService.prepare(id, new HashMap<>(params));
+        AdmissionPermit permit = admit(execution, httpRequest);
+
+        StreamingResponseBody body = out ->
+            reportExecutionService.execute(execution, permit, new XlsxRowWriter(out, execution.getReportName()));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(
+                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(execution.getReportName() + ".xlsx"))
+                .body(body);
+    }
+
+    /**
+     * 导出CSV（RFC 4180，UTF-8）
+     *
+     * 结果直接从ResultSet编码写出，以分块传输返回；请求头Accept-Encoding包含gzip时压缩输出
+     */
+    @GetMapping("/{id}/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @PathVariable Long id,
+            @RequestParam Map<String, String> params,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest httpRequest) {
+        return exportDelimited(id, params, acceptEncoding, ',', "csv", "text/csv;charset=UTF-8", httpRequest);
+    }
+
+    /**
+     * 导出TSV（UTF-8，制表符分隔）
+     */
+    @GetMapping("/{id}/export.tsv")
+    public ResponseEntity<StreamingResponseBody> exportTsv(
+            @PathVariable Long id,
+            @RequestParam Map<String, String> params,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest httpRequest) {
+        return exportDelimited(id, params, acceptEncoding, '\t', "tsv", "text/tab-separated-values;charset=UTF-8",
+                httpRequest);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportDelimited(Long id, Map<String, String> params,
+                                                                  String acceptEncoding, char delimiter,
+                                                                  String extension, String contentType,
+                                                                  HttpServletRequest httpRequest) {
+        PreparedReportExecution execution = reportExecutionService.prepare(id, new HashMap<>(params));
+        boolean gzip = acceptsGzip(acceptEncoding);
+        AdmissionPermit permit = admit(execution, httpRequest);
+
+        // 执行失败时不结束gzip流和分块传输，客户端可据此识别内容不完整
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new FastGzipOutputStream(out) : out;
+            reportExecutionService.execute(execution, permit, new CsvRowWriter(target, delimiter));
+            if (target instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+            out.flush();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(execution.getReportName() + "." + extension))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * 在请求线程获取执行许可，并在异步请求结束时兜底释放
+     *
+     * 许可通常由输出线程中的execute释放；异步请求超时、出错或执行器拒绝时输出不会运行，
+     * 由异步请求结束（完成、出错、超时都会触发）时的回调释放。许可重复关闭无效
+     */
+    private AdmissionPermit admit(PreparedReportExecution execution, HttpServletRequest httpRequest) {
+        AdmissionPermit permit = reportExecutionService.admit(execution);
+        WebAsyncUtils.getAsyncManager(httpRequest).registerCallableInterceptor(permit, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                permit.close();
+            }
+        });
+        return permit;
+    }
+
+    /**
+     * 解析Accept-Encoding，gzip（或*）且q值不为0时返回true
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            double quality = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String token = tokens[i].trim();
+                if (token.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(token.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (quality > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 使用最快压缩级别的gzip流，大导出时CPU不成为瓶颈
+     */
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+        private FastGzipOutputStream(OutputStream out) throws IOException {
+            super(out, 64 * 1024);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+
+    private String attachment(String filename) {
+        return ContentDisposition.attachment()
+                .filename(filename, StandardCharsets.UTF_8)
+                .build()
+                .toString();
+    }
 }
@@ -7,7 +7,6 @@ import com.gct.reportgenerator.dto.UserDTO;
 import com.gct.reportgenerator.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,7 +18,6 @@ import java.util.List;
  * @author GCT Team
  * @since 1.0.0
  */
-@Slf4j
 @RestController
 @RequestMapping("/api/v1/users")
 @RequiredArgsConstructor
@@ -34,7 +32,6 @@ public class UserController {
      */
     @GetMapping
     public ApiResponse<List<UserDTO>> getAllUsers() {
-        log.info("获取用户列表");
         List<UserDTO> users = userService.getAllUsers();
         return ApiResponse.success(users);
     }
@@ -47,7 +44,6 @@ public class UserController {
      */
     @GetMapping("/{id}")
     public ApiResponse<UserDTO> getUserById(@PathVariable Long id) {
-        log.info("获取用户详情: id={}", id);
         UserDTO user = userService.getUserById(id);
         return ApiResponse.success(user);
     }
@@ -61,7 +57,6 @@ public class UserController {
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public ApiResponse<UserDTO> createUser(@Valid @RequestBody CreateUserRequest request) {
-        log.info("创建用户: {}", request.getUsername());
         UserDTO user = userService.createUser(request);
         return ApiResponse.success(user, "用户创建成功");
     }
@@ -77,7 +72,6 @@ public class UserController {
     public ApiResponse<UserDTO> updateUser(
             @PathVariable Long id,
             @Valid @RequestBody UpdateUserRequest request) {
-        log.info("更新用户: id={}", id);
         UserDTO user = userService.updateUser(id, request);
         return ApiResponse.success(user, "用户更新成功");
     }
@@ -90,7 +84,6 @@ public class UserController {
      */
     @DeleteMapping("/{id}")
     public ApiResponse<Void> deleteUser(@PathVariable Long id) {
-        log.info("删除用户: id={}", id);
         userService.deleteUser(id);
         return ApiResponse.success(null, "用户删除成功");
     }
@@ -0,0 +1,28 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 数据源配置（不含密码）
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class DataSourceDTO {
+    private Long id;
+    private String name;
+    private String jdbcUrl;
+    private String driverClassName;
+    private String username;
+    private Boolean readOnly;
+    private Integer maxPoolSize;
+    private Integer minIdle;
+    private Long connectionTimeoutMs;
+    private Long idleTimeoutMs;
+    private Boolean enabled;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 数据源健康检查结果
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class DataSourceHealthDTO {
+
+    /**
+     * 数据源ID，内置数据源为null
+     */
+    private Long dataSourceId;
+
+    private String name;
+
+    /**
+     * UP, DOWN
+     */
+    private String status;
+
+    /**
+     * 获取连接并校验的耗时
+     */
+    private Long latencyMs;
+
+    private String errorMessage;
+
+    /**
+     * 连接池状态（连接池尚未创建时为null）
+     */
+    private Integer activeConnections;
+    private Integer idleConnections;
+    private Integer totalConnections;
+    private Integer threadsAwaitingConnection;
+
+    private LocalDateTime checkedAt;
+}
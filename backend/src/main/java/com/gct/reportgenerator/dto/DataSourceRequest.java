@@ -0,0 +1,27 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+/**
+ * 数据源新增/修改请求
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class DataSourceRequest {
+    private String name;
+    private String jdbcUrl;
+    private String driverClassName;
+    private String username;
+    /**
+     * 修改时为空表示不修改密码
+     */
+    private String password;
+    private Boolean readOnly;
+    private Integer maxPoolSize;
+    private Integer minIdle;
+    private Long connectionTimeoutMs;
+    private Long idleTimeoutMs;
+    private Boolean enabled;
+}
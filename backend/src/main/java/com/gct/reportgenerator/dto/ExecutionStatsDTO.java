@@ -0,0 +1,48 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 报表执行统计（某时间段或某小时的汇总）
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class ExecutionStatsDTO {
+
+    private Long reportId;
+
+    private String reportName;
+
+    /**
+     * 小时桶的开始时间，时间段汇总时为null
+     */
+    private LocalDateTime hourStart;
+
+    private Long executionCount;
+
+    private Long failureCount;
+
+    /**
+     * 失败率（0~1）
+     */
+    private Double errorRate;
+
+    private Long avgDurationMs;
+
+    private Long maxDurationMs;
+
+    /**
+     * 耗时分位数（毫秒，相对误差不超过1/16）
+     */
+    private Long p50DurationMs;
+
+    private Long p95DurationMs;
+
+    private Long p99DurationMs;
+
+    private Long totalRows;
+}
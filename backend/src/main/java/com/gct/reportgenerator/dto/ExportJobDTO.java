@@ -0,0 +1,25 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 导出任务状态
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class ExportJobDTO {
+    private Long id;
+    private Long reportId;
+    private String format;
+    private String status;
+    private Long rowsWritten;
+    private Long fileSize;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,18 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 导出任务提交请求
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class ExportJobRequest {
+    private Long reportId;
+    private String format; // CSV, TSV, XLSX
+    private Map<String, Object> params;
+}
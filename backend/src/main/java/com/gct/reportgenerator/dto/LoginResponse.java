@@ -18,10 +18,15 @@ import lombok.NoArgsConstructor;
 public class LoginResponse {
     
     /**
-     * JWT Token
+     * 登录令牌（HMAC签名），请求时以 Authorization: Bearer 发送
      */
     private String token;
     
+    /**
+     * 令牌有效期（秒）
+     */
+    private Long expiresIn;
+    
     /**
      * 用户ID
      */
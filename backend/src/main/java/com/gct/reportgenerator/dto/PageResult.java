@@ -0,0 +1,40 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 分页查询结果
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class PageResult<T> {
+
+    /**
+     * 当前页数据
+     */
+    private List<T> items;
+
+    /**
+     * 页码（从0开始）
+     */
+    private Integer page;
+
+    /**
+     * 每页条数
+     */
+    private Integer size;
+
+    /**
+     * 总条数
+     */
+    private Long total;
+
+    /**
+     * 总页数
+     */
+    private Integer totalPages;
+}
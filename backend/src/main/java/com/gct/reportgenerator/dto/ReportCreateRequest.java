@@ -8,6 +8,8 @@ public class ReportCreateRequest {
     private String name;
     private String description;
     private String sqlContent;
+    private Long dataSourceId;
+    private Integer queryTimeoutSeconds;
     private List<ReportParamDTO> params;
     private List<ReportColumnDTO> columns;
 }
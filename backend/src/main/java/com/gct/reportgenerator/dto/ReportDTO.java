@@ -11,6 +11,8 @@ public class ReportDTO {
     private String description;
     private String sqlContent;
     private Long creatorId;
+    private Long dataSourceId;
+    private Integer queryTimeoutSeconds;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<ReportParamDTO> params;
@@ -0,0 +1,20 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 报表执行请求
+ * 
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class ReportExecuteRequest {
+    
+    /**
+     * 参数值，key为SQL中的参数名（不含冒号）
+     */
+    private Map<String, Object> params;
+}
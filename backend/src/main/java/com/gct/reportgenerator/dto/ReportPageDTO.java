@@ -0,0 +1,46 @@
+package com.gct.reportgenerator.dto;
+
+import com.gct.reportgenerator.util.ResultColumn;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 报表分页执行结果
+ * 
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class ReportPageDTO {
+    
+    /**
+     * 结果列
+     */
+    private List<ResultColumn> columns;
+    
+    /**
+     * 当前页数据行
+     */
+    private List<List<Object>> rows;
+    
+    /**
+     * 每页行数
+     */
+    private Integer pageSize;
+    
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasMore;
+    
+    /**
+     * 下一页令牌（没有下一页时为null）
+     */
+    private String nextCursor;
+    
+    /**
+     * 分页方式：KEYSET, OFFSET
+     */
+    private String pagingMode;
+}
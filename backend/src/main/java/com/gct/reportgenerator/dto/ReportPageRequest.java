@@ -0,0 +1,45 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 报表分页执行请求
+ * 
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class ReportPageRequest {
+    
+    /**
+     * 参数值，key为SQL中的参数名（不含冒号）
+     */
+    private Map<String, Object> params;
+    
+    /**
+     * 每页行数（默认50，最大1000）
+     */
+    private Integer pageSize;
+    
+    /**
+     * 排序字段（结果集列名）
+     */
+    private String sortField;
+    
+    /**
+     * 排序方向：ASC, DESC
+     */
+    private String sortOrder;
+
+    /**
+     * 唯一键列（结果集列名，值唯一且非空），作为排序的最后一级；为空时只能使用OFFSET分页
+     */
+    private String keyField;
+
+    /**
+     * 上一页返回的续页令牌，首页为空
+     */
+    private String cursor;
+}
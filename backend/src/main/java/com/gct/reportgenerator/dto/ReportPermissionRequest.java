@@ -0,0 +1,20 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 报表权限设置请求
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class ReportPermissionRequest {
+
+    /**
+     * 可访问报表的角色（ADMIN/DESIGNER/VIEWER），整体替换原有设置
+     */
+    private List<String> roles;
+}
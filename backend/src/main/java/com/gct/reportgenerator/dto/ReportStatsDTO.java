@@ -0,0 +1,40 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 单个报表的执行统计
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class ReportStatsDTO {
+
+    private Long reportId;
+
+    /**
+     * 统计开始时间（整点，含）
+     */
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    /**
+     * 整个时间段的汇总
+     */
+    private ExecutionStatsDTO summary;
+
+    /**
+     * 按小时的统计（只含有执行的小时，按时间升序）
+     */
+    private List<ExecutionStatsDTO> hourly;
+
+    /**
+     * 执行次数最多的用户
+     */
+    private List<UserExecutionStatsDTO> topUsers;
+}
@@ -0,0 +1,49 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 正在执行的报表查询
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class RunningExecutionDTO {
+
+    private Long executionId;
+
+    private Long reportId;
+
+    private String reportName;
+
+    /**
+     * 发起用户，后台任务以提交用户计
+     */
+    private Long userId;
+
+    private String role;
+
+    private LocalDateTime startedAt;
+
+    private Long elapsedMillis;
+
+    private Long timeoutMillis;
+
+    /**
+     * 已输出行数（定期更新）
+     */
+    private Long rowsStreamed;
+
+    /**
+     * 已输出字节数（定期更新）
+     */
+    private Long bytesStreamed;
+
+    /**
+     * 已请求取消、等待执行线程结束
+     */
+    private Boolean cancelling;
+}
@@ -0,0 +1,21 @@
+package com.gct.reportgenerator.dto;
+
+import lombok.Data;
+
+/**
+ * 用户执行次数统计
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+public class UserExecutionStatsDTO {
+
+    private Long userId;
+
+    private String username;
+
+    private Long executionCount;
+
+    private Long failureCount;
+}
@@ -0,0 +1,64 @@
+package com.gct.reportgenerator.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "data_sources")
+public class DataSourceDefinition {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String name;
+
+    @Column(name = "jdbc_url", nullable = false, length = 500)
+    private String jdbcUrl;
+
+    @Column(name = "driver_class_name", length = 200)
+    private String driverClassName;
+
+    @Column(length = 100)
+    private String username;
+
+    @Column(length = 255)
+    private String password;
+
+    @Column(name = "read_only", nullable = false)
+    private Boolean readOnly = true;
+
+    @Column(name = "max_pool_size", nullable = false)
+    private Integer maxPoolSize = 5;
+
+    @Column(name = "min_idle", nullable = false)
+    private Integer minIdle = 0;
+
+    @Column(name = "connection_timeout_ms", nullable = false)
+    private Long connectionTimeoutMs = 30000L;
+
+    @Column(name = "idle_timeout_ms", nullable = false)
+    private Long idleTimeoutMs = 600000L;
+
+    @Column(nullable = false)
+    private Boolean enabled = true;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,47 @@
+package com.gct.reportgenerator.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "execution_logs")
+public class ExecutionLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "report_id", nullable = false)
+    private Long reportId;
+
+    @Column(name = "execute_time", nullable = false)
+    private LocalDateTime executeTime; // 开始执行（获得准入）的时间
+
+    @Column(name = "duration_ms", nullable = false)
+    private Long durationMs;
+
+    @Column(name = "queue_wait_ms", nullable = false)
+    private Long queueWaitMs; // 准入排队时间
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+
+    @Column(nullable = false)
+    private Boolean success;
+
+    @Column(name = "error_code", length = 50)
+    private String errorCode;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
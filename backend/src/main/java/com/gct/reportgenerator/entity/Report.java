@@ -24,6 +24,12 @@ public class Report {
     @Column(name = "creator_id", nullable = false)
     private Long creatorId;
 
+    @Column(name = "data_source_id")
+    private Long dataSourceId; // 为空时使用内置数据源
+
+    @Column(name = "query_timeout_seconds")
+    private Integer queryTimeoutSeconds; // 为空时只受角色超时限制
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -54,6 +54,13 @@ public class User {
     @Column(nullable = false)
     private Boolean enabled;
     
+    /**
+     * 令牌版本：登出、禁用、修改角色或密码时递增，签发时的版本与之不同的令牌失效
+     */
+    @Builder.Default
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion = 0;
+    
     /**
      * 创建时间
      */
@@ -1,6 +1,7 @@
 package com.gct.reportgenerator.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -28,13 +29,18 @@ public class GlobalExceptionHandler {
         // 根据错误代码返回不同的HTTP状态码
         HttpStatus status = switch (e.getCode()) {
             case "USER_NOT_FOUND", "INVALID_PASSWORD" -> HttpStatus.UNAUTHORIZED;
-            case "USER_DISABLED" -> HttpStatus.FORBIDDEN;
+            case "USER_DISABLED", "FORBIDDEN" -> HttpStatus.FORBIDDEN;
+            case "EXPORT_LIMIT_EXCEEDED", "EXPORT_QUEUE_FULL",
+                 "EXECUTION_QUEUE_FULL", "EXECUTION_QUEUE_TIMEOUT",
+                 "LOGIN_THROTTLED", "LOGIN_BUSY" -> HttpStatus.TOO_MANY_REQUESTS;
             default -> HttpStatus.BAD_REQUEST;
         };
         
-        return ResponseEntity
-            .status(status)
-            .body(new ErrorResponse(e.getCode(), e.getMessage()));
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (e instanceof TooManyRequestsException tooMany) {
+            response.header(HttpHeaders.RETRY_AFTER, Long.toString(tooMany.getRetryAfterSeconds()));
+        }
+        return response.body(new ErrorResponse(e.getCode(), e.getMessage()));
     }
     
     /**
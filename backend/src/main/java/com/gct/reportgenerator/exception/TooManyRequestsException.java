@@ -0,0 +1,24 @@
+package com.gct.reportgenerator.exception;
+
+/**
+ * 请求过多异常（HTTP 429），携带建议的重试等待时间
+ * 
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public class TooManyRequestsException extends BusinessException {
+    
+    private final long retryAfterSeconds;
+    
+    public TooManyRequestsException(String code, String message, long retryAfterSeconds) {
+        super(code, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    /**
+     * @return 建议的重试等待时间（秒），用于Retry-After响应头
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,76 +1,87 @@
 package com.gct.reportgenerator.interceptor;
 
+import com.gct.reportgenerator.service.AuthTokenService;
+import com.gct.reportgenerator.service.AuthenticatedUser;
 import com.gct.reportgenerator.service.SessionService;
+import com.gct.reportgenerator.service.UserAuthStateCache;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 /**
  * 登录拦截器
  * 
- * 拦截需要登录的请求，验证用户Session
+ * 拦截需要登录的请求，验证登录令牌（Authorization: Bearer &lt;token&gt;）：
+ * 令牌由AuthTokenService签发并自带用户信息，校验不访问Session，任意节点都能处理请求。
+ * 没有有效令牌时，report.auth.session-fallback开启的情况下再读取已有的Session（不会为匿名请求创建Session）。
+ * 两种方式得到的用户都要与UserAuthStateCache中的当前状态比对，已登出、禁用或角色变更的用户被拒绝。
  * 
  * @author GCT Team
  * @since 1.0.0
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class AuthInterceptor implements HandlerInterceptor {
     
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    private final AuthTokenService authTokenService;
     private final SessionService sessionService;
+    private final UserAuthStateCache userAuthStateCache;
+    private final boolean sessionFallback;
+    
+    public AuthInterceptor(AuthTokenService authTokenService, SessionService sessionService,
+                           UserAuthStateCache userAuthStateCache,
+                           @Value("${report.auth.session-fallback:true}") boolean sessionFallback) {
+        this.authTokenService = authTokenService;
+        this.sessionService = sessionService;
+        this.userAuthStateCache = userAuthStateCache;
+        this.sessionFallback = sessionFallback;
+    }
     
     @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) throws Exception {
         String requestURI = request.getRequestURI();
-        String method = request.getMethod();
         
-        log.debug("AuthInterceptor拦截请求: {} {}", method, requestURI);
-        
-        // 排除不需要认证的路径
-        if (isExcludePath(requestURI)) {
-            log.debug("路径{}无需认证，直接放行", requestURI);
+        // 排除不需要认证的路径与CORS预检请求
+        if (isExcludePath(requestURI) || CorsUtils.isPreFlightRequest(request)) {
             return true;
         }
         
-        // 检查用户是否已登录
-        if (!sessionService.isAuthenticated()) {
-            log.warn("用户未登录，拒绝访问: {} {}", method, requestURI);
+        AuthenticatedUser user = authenticate(request);
+        if (user == null) {
+            log.debug("用户未登录，拒绝访问: {} {}", request.getMethod(), requestURI);
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.setContentType("application/json;charset=UTF-8");
             response.getWriter().write("{\"code\":\"UNAUTHORIZED\",\"message\":\"用户未登录\"}");
             return false;
         }
         
-        // 获取用户信息并记录
-        try {
-            Long userId = sessionService.getCurrentUserId();
-            String username = sessionService.getCurrentUsername();
-            String role = sessionService.getCurrentUserRole();
-            
-            // 将用户信息设置到request attribute，供Controller使用
-            request.setAttribute("currentUserId", userId);
-            request.setAttribute("currentUsername", username);
-            request.setAttribute("currentUserRole", role);
-            
-            log.debug("用户认证通过，允许访问: {} {}, 用户: {}({})", 
-                method, requestURI, username, role);
-                
-        } catch (Exception e) {
-            log.error("获取Session用户信息失败: {}", e.getMessage());
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.setContentType("application/json;charset=UTF-8");
-            response.getWriter().write("{\"code\":\"UNAUTHORIZED\",\"message\":\"认证信息无效\"}");
-            return false;
-        }
-        
+        // 将用户信息设置到request attribute，供Controller使用
+        request.setAttribute("currentUserId", user.userId());
+        request.setAttribute("currentUsername", user.username());
+        request.setAttribute("currentUserRole", user.role());
         return true;
     }
     
+    private AuthenticatedUser authenticate(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            AuthenticatedUser user = authTokenService.verify(authorization.substring(BEARER_PREFIX.length()).trim());
+            if (user != null && userAuthStateCache.isValid(user)) {
+                return user;
+            }
+        }
+        AuthenticatedUser sessionUser = sessionFallback ? sessionService.findSessionUser(request) : null;
+        return sessionUser != null && userAuthStateCache.isValid(sessionUser) ? sessionUser : null;
+    }
+    
     /**
      * 判断路径是否需要排除认证
      * 
@@ -0,0 +1,10 @@
+package com.gct.reportgenerator.repository;
+
+import com.gct.reportgenerator.entity.DataSourceDefinition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DataSourceDefinitionRepository extends JpaRepository<DataSourceDefinition, Long> {
+    boolean existsByName(String name);
+}
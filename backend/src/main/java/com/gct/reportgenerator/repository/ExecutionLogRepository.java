@@ -0,0 +1,15 @@
+package com.gct.reportgenerator.repository;
+
+import com.gct.reportgenerator.entity.ExecutionLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 执行日志读取；写入由ExecutionLogWriter批量完成
+ */
+@Repository
+public interface ExecutionLogRepository extends JpaRepository<ExecutionLog, Long> {
+    List<ExecutionLog> findByReportIdOrderByIdDesc(Long reportId);
+}
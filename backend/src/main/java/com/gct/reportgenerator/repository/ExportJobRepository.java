@@ -0,0 +1,16 @@
+package com.gct.reportgenerator.repository;
+
+import com.gct.reportgenerator.entity.ExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+    List<ExportJob> findByUserIdOrderByIdDesc(Long userId);
+    List<ExportJob> findByStatusIn(Collection<String> statuses);
+    List<ExportJob> findByFinishedAtBefore(LocalDateTime time);
+}
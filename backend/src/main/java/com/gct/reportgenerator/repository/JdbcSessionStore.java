@@ -0,0 +1,81 @@
+package com.gct.reportgenerator.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 基于应用数据库（user_sessions、session_events表）的会话存储
+ *
+ * 单机部署时即为嵌入式存储；多个节点共享同一数据库文件（或迁移到共享数据库）时会话在节点间通用。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class JdbcSessionStore implements SessionStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void save(StoredSession session) {
+        jdbcTemplate.update("INSERT INTO user_sessions (id, user_id, username, role, created_at, expires_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT(id) DO UPDATE SET user_id = excluded.user_id, "
+                        + "username = excluded.username, role = excluded.role, expires_at = excluded.expires_at",
+                session.id(), session.userId(), session.username(), session.role(),
+                Timestamp.valueOf(session.createdAt()), Timestamp.valueOf(session.expiresAt()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StoredSession find(String id) {
+        List<StoredSession> sessions = jdbcTemplate.query(
+                "SELECT id, user_id, username, role, created_at, expires_at FROM user_sessions "
+                        + "WHERE id = ? AND expires_at > ?",
+                (rs, rowNum) -> new StoredSession(rs.getString(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                        rs.getTimestamp(5).toLocalDateTime(), rs.getTimestamp(6).toLocalDateTime()),
+                id, Timestamp.valueOf(LocalDateTime.now()));
+        return sessions.isEmpty() ? null : sessions.get(0);
+    }
+
+    @Override
+    public void extend(String id, LocalDateTime expiresAt) {
+        jdbcTemplate.update("UPDATE user_sessions SET expires_at = ? WHERE id = ?", Timestamp.valueOf(expiresAt), id);
+    }
+
+    @Override
+    @Transactional
+    public void delete(String id) {
+        jdbcTemplate.update("DELETE FROM user_sessions WHERE id = ?", id);
+        jdbcTemplate.update("INSERT INTO session_events (session_id, created_at) VALUES (?, ?)",
+                id, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long latestEventId() {
+        Long id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM session_events", Long.class);
+        return id != null ? id : 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Invalidation> invalidatedSince(long afterEventId, int limit) {
+        return jdbcTemplate.query("SELECT id, session_id FROM session_events WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Invalidation(rs.getLong(1), rs.getString(2)),
+                afterEventId, limit);
+    }
+
+    @Override
+    public int purge(LocalDateTime now, LocalDateTime eventsBefore) {
+        int sessions = jdbcTemplate.update("DELETE FROM user_sessions WHERE expires_at <= ?", Timestamp.valueOf(now));
+        jdbcTemplate.update("DELETE FROM session_events WHERE created_at < ?", Timestamp.valueOf(eventsBefore));
+        return sessions;
+    }
+}
@@ -0,0 +1,259 @@
+package com.gct.reportgenerator.repository;
+
+import com.gct.reportgenerator.dto.ReportColumnDTO;
+import com.gct.reportgenerator.dto.ReportDTO;
+import com.gct.reportgenerator.dto.ReportParamDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * 报表定义（报表、参数、列配置）的JDBC读写
+ *
+ * 读取时用一条UNION ALL查询同时取回报表、参数与列配置，一次往返完成。
+ *
+ * report_params、report_columns使用自增主键，逐条save时每行都是一次INSERT加一次取主键的往返，
+ * 且Hibernate无法对IDENTITY主键做JDBC批处理。这里改用JDBC：
+ * <ul>
+ *   <li>新增：每张表一条多行INSERT（按SQLite变量数上限分块）</li>
+ *   <li>修改：按位置与现有行比较，只更新内容变化的行，只删除多余的行，只插入新增的行</li>
+ * </ul>
+ * 列的显示顺序即主键顺序，按位置比较可保证修改后顺序与请求一致。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReportDefinitionJdbcRepository {
+
+    /**
+     * 单条INSERT的最大行数，保证绑定变量数不超过SQLite默认上限（32766）
+     */
+    private static final int MAX_ROWS_PER_INSERT = 500;
+
+    private static final TableSpec<ReportParamDTO> PARAMS = new TableSpec<>(
+            "report_params", List.of("param_name", "param_type", "required"),
+            param -> new Object[]{param.getParamName(), param.getParamType(),
+                    param.getRequired() != null ? param.getRequired() : false});
+
+    private static final TableSpec<ReportColumnDTO> COLUMNS = new TableSpec<>(
+            "report_columns", List.of("field_name", "display_name", "format_type"),
+            column -> new Object[]{column.getFieldName(), column.getDisplayName(), column.getFormatType()});
+
+    /**
+     * kind列区分行类型：0-报表，1-参数，2-列配置；同类按主键排序
+     */
+    private static final String LOAD_DEFINITION_SQL = """
+            SELECT 0 AS kind, id, name AS c1, description AS c2, sql_content AS c3, creator_id AS c4,
+                   created_at AS c5, updated_at AS c6, data_source_id AS c7,
+                   query_timeout_seconds AS c8
+            FROM reports WHERE id = ?
+            UNION ALL
+            SELECT 1, id, param_name, param_type, NULL, required, NULL, NULL, NULL, NULL
+            FROM report_params WHERE report_id = ?
+            UNION ALL
+            SELECT 2, id, field_name, display_name, format_type, NULL, NULL, NULL, NULL, NULL
+            FROM report_columns WHERE report_id = ?
+            ORDER BY kind, id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 一次查询加载报表完整定义
+     *
+     * @param reportId 报表ID
+     * @return 报表定义，报表不存在时为空
+     */
+    @Transactional(readOnly = true)
+    public Optional<ReportDTO> loadDefinition(Long reportId) {
+        ReportDTO report = new ReportDTO();
+        List<ReportParamDTO> params = new ArrayList<>();
+        List<ReportColumnDTO> columns = new ArrayList<>();
+        report.setParams(params);
+        report.setColumns(columns);
+
+        jdbcTemplate.query(LOAD_DEFINITION_SQL, rs -> {
+            switch (rs.getInt("kind")) {
+                case 0 -> {
+                    report.setId(rs.getLong("id"));
+                    report.setName(rs.getString("c1"));
+                    report.setDescription(rs.getString("c2"));
+                    report.setSqlContent(rs.getString("c3"));
+                    report.setCreatorId(rs.getLong("c4"));
+                    report.setCreatedAt(toLocalDateTime(rs.getTimestamp("c5")));
+                    report.setUpdatedAt(toLocalDateTime(rs.getTimestamp("c6")));
+                    long dataSourceId = rs.getLong("c7");
+                    report.setDataSourceId(rs.wasNull() ? null : dataSourceId);
+                    int queryTimeoutSeconds = rs.getInt("c8");
+                    report.setQueryTimeoutSeconds(rs.wasNull() ? null : queryTimeoutSeconds);
+                }
+                case 1 -> {
+                    ReportParamDTO param = new ReportParamDTO();
+                    param.setParamName(rs.getString("c1"));
+                    param.setParamType(rs.getString("c2"));
+                    param.setRequired(rs.getInt("c4") != 0);
+                    params.add(param);
+                }
+                default -> {
+                    ReportColumnDTO column = new ReportColumnDTO();
+                    column.setFieldName(rs.getString("c1"));
+                    column.setDisplayName(rs.getString("c2"));
+                    column.setFormatType(rs.getString("c3"));
+                    columns.add(column);
+                }
+            }
+        }, reportId, reportId, reportId);
+
+        return report.getId() != null ? Optional.of(report) : Optional.empty();
+    }
+
+    /**
+     * 批量插入参数配置
+     *
+     * @param reportId 报表ID
+     * @param params 参数配置
+     */
+    public void insertParams(Long reportId, List<ReportParamDTO> params) {
+        insert(PARAMS, reportId, params);
+    }
+
+    /**
+     * 批量插入列配置
+     *
+     * @param reportId 报表ID
+     * @param columns 列配置
+     */
+    public void insertColumns(Long reportId, List<ReportColumnDTO> columns) {
+        insert(COLUMNS, reportId, columns);
+    }
+
+    /**
+     * 将参数配置同步为目标列表，只写入有变化的行
+     *
+     * @param reportId 报表ID
+     * @param params 目标参数配置
+     * @return 实际写入（插入、更新、删除）的行数
+     */
+    public int syncParams(Long reportId, List<ReportParamDTO> params) {
+        return sync(PARAMS, reportId, params);
+    }
+
+    /**
+     * 将列配置同步为目标列表，只写入有变化的行
+     *
+     * @param reportId 报表ID
+     * @param columns 目标列配置
+     * @return 实际写入（插入、更新、删除）的行数
+     */
+    public int syncColumns(Long reportId, List<ReportColumnDTO> columns) {
+        return sync(COLUMNS, reportId, columns);
+    }
+
+    private <T> void insert(TableSpec<T> table, Long reportId, List<T> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_INSERT) {
+            List<T> chunk = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_INSERT));
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table.name)
+                    .append(" (report_id, ").append(String.join(", ", table.columns))
+                    .append(", created_at, updated_at) VALUES ");
+            String placeholders = "(" + "?, ".repeat(table.columns.size() + 2) + "?)";
+            List<Object> args = new ArrayList<>(chunk.size() * (table.columns.size() + 3));
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(placeholders);
+                args.add(reportId);
+                args.addAll(Arrays.asList(table.values.apply(chunk.get(i))));
+                args.add(now);
+                args.add(now);
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    private <T> int sync(TableSpec<T> table, Long reportId, List<T> target) {
+        List<T> rows = target != null ? target : List.of();
+        List<Object[]> existing = jdbcTemplate.query(
+                "SELECT id, " + String.join(", ", table.columns) + " FROM " + table.name
+                        + " WHERE report_id = ? ORDER BY id",
+                (rs, rowNum) -> {
+                    Object[] row = new Object[table.columns.size() + 1];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    return row;
+                },
+                reportId);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>();
+        int common = Math.min(existing.size(), rows.size());
+        for (int i = 0; i < common; i++) {
+            Object[] current = existing.get(i);
+            Object[] values = table.values.apply(rows.get(i));
+            if (!sameValues(current, values)) {
+                Object[] args = new Object[values.length + 2];
+                System.arraycopy(values, 0, args, 0, values.length);
+                args[values.length] = now;
+                args[values.length + 1] = current[0];
+                updates.add(args);
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE " + table.name + " SET "
+                    + String.join(" = ?, ", table.columns) + " = ?, updated_at = ? WHERE id = ?", updates);
+        }
+
+        int deleted = 0;
+        if (existing.size() > common) {
+            Object firstRemovedId = existing.get(common)[0];
+            deleted = jdbcTemplate.update("DELETE FROM " + table.name + " WHERE report_id = ? AND id >= ?",
+                    reportId, firstRemovedId);
+        }
+        if (rows.size() > common) {
+            insert(table, reportId, rows.subList(common, rows.size()));
+        }
+        return updates.size() + deleted + (rows.size() - common);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * 比较数据库中的行（首列为id）与目标值；SQLite中布尔值存为0/1
+     */
+    private static boolean sameValues(Object[] current, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            Object stored = current[i + 1];
+            Object value = values[i];
+            if (value instanceof Boolean bool) {
+                value = bool ? 1 : 0;
+                stored = stored instanceof Number number ? number.intValue() : stored;
+            }
+            if (!Objects.equals(stored, value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 表结构描述：表名、业务列及从DTO取值的方式
+     */
+    private record TableSpec<T>(String name, List<String> columns, Function<T, Object[]> values) {
+    }
+}
@@ -1,13 +1,31 @@
 package com.gct.reportgenerator.repository;
 
 import com.gct.reportgenerator.entity.Report;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ReportRepository extends JpaRepository<Report, Long> {
     List<Report> findByCreatorId(Long creatorId);
     List<Report> findByNameContaining(String name);
+    boolean existsByDataSourceId(Long dataSourceId);
+
+    /**
+     * 按名称精确查找报表ID（忽略ASCII大小写，使用uk_reports_name索引）
+     */
+    @Query(value = "SELECT id FROM reports WHERE name = :name COLLATE NOCASE LIMIT 1", nativeQuery = true)
+    Long findIdByName(@Param("name") String name);
+
+    List<ReportSummary> findAllProjectedBy(Sort sort);
+    Page<ReportSummary> findAllProjectedBy(Pageable pageable);
+    Page<ReportSummary> findProjectedByCreatorId(Long creatorId, Pageable pageable);
+    List<ReportSummary> findProjectedByIdIn(Collection<Long> ids, Sort sort);
 }
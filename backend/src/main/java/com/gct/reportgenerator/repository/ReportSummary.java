@@ -0,0 +1,28 @@
+package com.gct.reportgenerator.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 报表列表投影
+ *
+ * 只包含列表展示所需的字段，查询时不读取sql_content
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public interface ReportSummary {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Long getCreatorId();
+
+    Long getDataSourceId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
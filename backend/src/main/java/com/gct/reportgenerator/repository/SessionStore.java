@@ -0,0 +1,68 @@
+package com.gct.reportgenerator.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 登录会话存储
+ *
+ * 会话保存在所有节点共享的存储中，任意节点都能识别其他节点创建的会话；
+ * 删除会话时同时记录一条失效事件，其他节点轮询事件以清除本地缓存。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public interface SessionStore {
+
+    /**
+     * 保存会话（ID已存在时覆盖）
+     */
+    void save(StoredSession session);
+
+    /**
+     * 查询会话
+     *
+     * @param id 会话ID（Cookie值的摘要）
+     * @return 会话，不存在或已过期时返回null
+     */
+    StoredSession find(String id);
+
+    /**
+     * 延长会话有效期
+     */
+    void extend(String id, LocalDateTime expiresAt);
+
+    /**
+     * 删除会话并发布失效事件
+     */
+    void delete(String id);
+
+    /**
+     * @return 最新失效事件的ID，没有事件时为0
+     */
+    long latestEventId();
+
+    /**
+     * 查询某个事件之后的失效事件，按ID升序
+     *
+     * @param afterEventId 已处理的最后一个事件ID
+     * @param limit 最多返回条数
+     */
+    List<Invalidation> invalidatedSince(long afterEventId, int limit);
+
+    /**
+     * 删除已过期的会话与早于指定时间的失效事件
+     *
+     * @return 删除的会话数
+     */
+    int purge(LocalDateTime now, LocalDateTime eventsBefore);
+
+    /**
+     * 会话失效事件
+     *
+     * @param eventId 事件ID
+     * @param sessionId 失效的会话ID
+     */
+    record Invalidation(long eventId, String sessionId) {
+    }
+}
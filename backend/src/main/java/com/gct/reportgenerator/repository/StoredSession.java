@@ -0,0 +1,23 @@
+package com.gct.reportgenerator.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 存储中的登录会话
+ *
+ * @param id 会话ID（Cookie值的SHA-256摘要）
+ * @param userId 用户ID
+ * @param username 用户名
+ * @param role 角色
+ * @param createdAt 创建时间
+ * @param expiresAt 过期时间（空闲超时，访问时顺延）
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public record StoredSession(String id, Long userId, String username, String role,
+                            LocalDateTime createdAt, LocalDateTime expiresAt) {
+
+    public StoredSession withExpiresAt(LocalDateTime newExpiresAt) {
+        return new StoredSession(id, userId, username, role, createdAt, newExpiresAt);
+    }
+}
@@ -2,8 +2,11 @@ package com.gct.reportgenerator.repository;
 
 import com.gct.reportgenerator.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -40,4 +43,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT COALESCE(MAX(u.id), 0) FROM User u")
     Long findMaxId();
+    
+    /**
+     * 密码未被修改时更新密码哈希
+     * 
+     * @param id 用户ID
+     * @param expectedPassword 读取时的密码哈希
+     * @param newPassword 新的密码哈希
+     * @return 更新的行数
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :expectedPassword")
+    int updatePasswordIfUnchanged(@Param("id") Long id, @Param("expectedPassword") String expectedPassword,
+                                  @Param("newPassword") String newPassword);
+    
+    /**
+     * 递增令牌版本，使该用户已签发的登录令牌全部失效
+     * 
+     * @param id 用户ID
+     * @return 更新的行数
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
 }
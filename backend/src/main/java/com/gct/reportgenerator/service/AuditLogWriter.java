@@ -0,0 +1,310 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.util.CurrentUserContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 访问日志与审计日志的异步写出
+ *
+ * 请求线程不再拼接日志字符串，只把事件字段写入预分配的环形缓冲区：
+ * <ul>
+ *   <li>槽位对象启动时一次性创建并反复复用，发布事件只写入基本类型与已有的字符串引用，不产生新对象</li>
+ *   <li>多个请求线程以CAS领取序号，写完字段后发布该序号；后台线程按序号顺序消费</li>
+ *   <li>缓冲区满时丢弃新事件并计数（report.audit-log.dropped），不阻塞请求线程</li>
+ *   <li>后台线程用复用的StringBuilder格式化为一行key=value，分别写入ACCESS、AUDIT、SQL三个logger，
+ *       可在日志配置中单独输出到文件或关闭</li>
+ * </ul>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS");
+    private static final Logger AUDIT_LOG = LoggerFactory.getLogger("AUDIT");
+    private static final Logger SQL_LOG = LoggerFactory.getLogger("SQL");
+
+    private static final int KIND_ACCESS = 0;
+    private static final int KIND_AUDIT = 1;
+    private static final int KIND_SQL = 2;
+
+    /**
+     * 字段为空时的占位
+     */
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final boolean enabled;
+    private final long flushIntervalNanos;
+    private final int mask;
+    private final Event[] slots;
+
+    /**
+     * 每个槽位已发布的序号，消费者据此判断槽位是否写完
+     */
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Counter droppedCounter;
+
+    /**
+     * 下一个待消费的序号（只由后台线程写）
+     */
+    private volatile long consumed;
+    private volatile long written;
+    private volatile Thread consumer;
+    private volatile boolean running;
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    public AuditLogWriter(MeterRegistry meterRegistry,
+                          @Value("${report.audit-log.enabled:true}") boolean enabled,
+                          @Value("${report.audit-log.buffer-size:8192}") int bufferSize,
+                          @Value("${report.audit-log.flush-interval:200ms}") Duration flushInterval) {
+        this.enabled = enabled;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new Event[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Event();
+            // 初始为"上一轮"的序号：槽位i首次发布的序号是i
+            published.set(i, i - (long) capacity);
+        }
+        this.droppedCounter = Counter.builder("report.audit-log.dropped")
+                .description("缓冲区已满被丢弃的访问/审计日志数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "audit-log-writer");
+        thread.setDaemon(true);
+        consumer = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drain();
+    }
+
+    /**
+     * 记录一次HTTP访问
+     *
+     * @param method 请求方法
+     * @param route 匹配的路由模板（如 /api/v1/reports/{id}），未匹配时为请求路径
+     * @param status 响应状态码
+     * @param durationMicros 耗时（微秒）
+     * @param userId 用户ID，未登录时为null
+     */
+    public void access(String method, String route, int status, long durationMicros, Long userId) {
+        Event event = claim();
+        if (event == null) {
+            return;
+        }
+        event.kind = KIND_ACCESS;
+        event.text1 = method;
+        event.text2 = route;
+        event.status = status;
+        event.value = durationMicros;
+        event.userId = userId != null ? userId : NONE;
+        publish(event);
+    }
+
+    /**
+     * 记录一次数据修改，操作人为当前登录用户
+     *
+     * @param action 操作，如 REPORT_CREATE
+     * @param targetId 操作对象ID
+     * @param detail 补充信息，可为null
+     */
+    public void audit(String action, Long targetId, String detail) {
+        Long userId = CurrentUserContext.findCurrentUserId();
+        Event event = claim();
+        if (event == null) {
+            return;
+        }
+        event.kind = KIND_AUDIT;
+        event.text1 = action;
+        event.text2 = detail;
+        event.value = targetId != null ? targetId : NONE;
+        event.userId = userId != null ? userId : NONE;
+        publish(event);
+    }
+
+    /**
+     * 记录一条SQL（采样后的语句）
+     */
+    public void sql(String sql) {
+        Event event = claim();
+        if (event == null) {
+            return;
+        }
+        event.kind = KIND_SQL;
+        event.text1 = sql;
+        event.text2 = null;
+        publish(event);
+    }
+
+    /**
+     * 写出缓冲区中已发布的全部事件
+     *
+     * @return 写出的事件数
+     */
+    public synchronized int drain() {
+        int count = 0;
+        long sequence = consumed;
+        while (published.get((int) sequence & mask) == sequence) {
+            Event event = slots[(int) sequence & mask];
+            try {
+                write(event);
+            } catch (RuntimeException e) {
+                log.warn("访问日志写出失败: {}", e.getMessage());
+            }
+            event.text1 = null;
+            event.text2 = null;
+            sequence++;
+            consumed = sequence;
+            count++;
+        }
+        written += count;
+        return count;
+    }
+
+    /**
+     * @return 累计写出的事件数
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * @return 累计丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 领取一个空闲槽位，缓冲区已满时返回null
+     */
+    private Event claim() {
+        if (!enabled) {
+            return null;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed > mask) {
+                droppedCounter.increment();
+                dropped.incrementAndGet();
+                return null;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        Event event = slots[(int) sequence & mask];
+        event.sequence = sequence;
+        event.timestamp = System.currentTimeMillis();
+        return event;
+    }
+
+    private void publish(Event event) {
+        published.set((int) event.sequence & mask, event.sequence);
+        // 积压超过一半时唤醒后台线程，否则等下一个周期
+        if (event.sequence - consumed >= (mask + 1) / 2) {
+            Thread thread = consumer;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            drain();
+        }
+    }
+
+    private void write(Event event) {
+        Logger target = event.kind == KIND_ACCESS ? ACCESS_LOG : event.kind == KIND_AUDIT ? AUDIT_LOG : SQL_LOG;
+        if (!target.isInfoEnabled()) {
+            return;
+        }
+        StringBuilder sb = line;
+        sb.setLength(0);
+        sb.append("ts=").append(Instant.ofEpochMilli(event.timestamp));
+        switch (event.kind) {
+            case KIND_ACCESS -> {
+                sb.append(" method=").append(event.text1)
+                        .append(" route=").append(event.text2)
+                        .append(" status=").append(event.status)
+                        .append(" duration_us=").append(event.value);
+                appendUser(sb, event.userId);
+            }
+            case KIND_AUDIT -> {
+                sb.append(" action=").append(event.text1);
+                if (event.value != NONE) {
+                    sb.append(" target=").append(event.value);
+                }
+                appendUser(sb, event.userId);
+                if (event.text2 != null) {
+                    sb.append(" detail=\"").append(event.text2.replace("\"", "\\\"")).append('"');
+                }
+            }
+            default -> sb.append(" sql=\"").append(event.text1.replace('\n', ' ')).append('"');
+        }
+        target.info(sb.toString());
+    }
+
+    private static void appendUser(StringBuilder sb, long userId) {
+        if (userId != NONE) {
+            sb.append(" user=").append(userId);
+        }
+    }
+
+    /**
+     * 环形缓冲区槽位，字段由领取该序号的请求线程写入、后台线程读取（以published的发布/读取保证可见性）
+     */
+    private static final class Event {
+        private long sequence;
+        private int kind;
+        private long timestamp;
+        private String text1;
+        private String text2;
+        private int status;
+        private long value;
+        private long userId;
+    }
+}
@@ -5,41 +5,72 @@ import com.gct.reportgenerator.dto.LoginResponse;
 import com.gct.reportgenerator.entity.User;
 import com.gct.reportgenerator.exception.BusinessException;
 import com.gct.reportgenerator.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.gct.reportgenerator.util.CurrentUserContext;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
-
 /**
  * 认证服务层
+ *
+ * 密码校验在PasswordHashingService的有界线程池中进行；登录前先经过LoginRateLimiter，
+ * 失败次数过多的用户名或IP不再进行BCrypt校验。report.auth.rehash-on-login开启时，
+ * 登录成功后如果已保存的哈希强度低于report.auth.bcrypt-cost，在后台按新强度重新加密。
+ * 登录成功与登出经AuditLogWriter异步记录（LOGIN / LOGOUT），不在请求线程上写日志。
  * 
  * @author GCT Team
  * @since 1.0.0
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AuthService {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginRateLimiter loginRateLimiter;
     private final SessionService sessionService;
+    private final AuthTokenService authTokenService;
+    private final UserAuthStateCache userAuthStateCache;
+    private final AuditLogWriter auditLogWriter;
+    private final boolean sessionEnabled;
+    private final boolean rehashOnLogin;
+    
+    public AuthService(UserRepository userRepository, PasswordHashingService passwordHashingService,
+                       LoginRateLimiter loginRateLimiter, SessionService sessionService,
+                       AuthTokenService authTokenService, UserAuthStateCache userAuthStateCache,
+                       AuditLogWriter auditLogWriter,
+                       @Value("${report.auth.session-fallback:true}") boolean sessionEnabled,
+                       @Value("${report.auth.rehash-on-login:true}") boolean rehashOnLogin) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.sessionService = sessionService;
+        this.authTokenService = authTokenService;
+        this.userAuthStateCache = userAuthStateCache;
+        this.auditLogWriter = auditLogWriter;
+        this.sessionEnabled = sessionEnabled;
+        this.rehashOnLogin = rehashOnLogin;
+    }
     
     /**
      * 用户登录
      * 
      * @param request 登录请求
+     * @param clientIp 客户端IP，用于登录失败限流
      * @return 登录响应（包含token和用户信息）
      */
-    public LoginResponse login(LoginRequest request) {
-        log.info("用户登录开始, 用户名: {}", request.getUsername());
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        log.debug("用户登录开始, 用户名: {}", request.getUsername());
         
         try {
+            loginRateLimiter.check(request.getUsername(), clientIp);
+            
             // 查询用户
-            User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "用户名或密码错误"));
+            User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+            if (user == null) {
+                loginRateLimiter.recordFailure(request.getUsername(), clientIp);
+                throw new BusinessException("USER_NOT_FOUND", "用户名或密码错误");
+            }
             
             // 检查用户是否启用
             if (!user.getEnabled()) {
@@ -48,22 +79,30 @@ public class AuthService {
             }
             
             // 验证密码
-            if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+                loginRateLimiter.recordFailure(request.getUsername(), clientIp);
                 log.warn("密码验证失败, 用户名: {}", request.getUsername());
                 throw new BusinessException("INVALID_PASSWORD", "用户名或密码错误");
             }
+            loginRateLimiter.recordSuccess(request.getUsername(), clientIp);
+            if (rehashOnLogin && passwordHashingService.needsUpgrade(user.getPassword())) {
+                upgradePassword(user.getId(), user.getPassword(), request.getPassword());
+            }
             
-            // 创建Session
-            sessionService.createSession(user.getId(), user.getUsername(), user.getRole());
+            // 兼容只携带Cookie的客户端；只使用令牌的部署关闭后不再保存服务端状态
+            if (sessionEnabled) {
+                sessionService.createSession(user.getId(), user.getUsername(), user.getRole());
+            }
             
-            // 生成Token（保留UUID方式用于前端localStorage）
-            String token = "Bearer-" + UUID.randomUUID().toString();
+            // 签名令牌，前端保存在localStorage并以 Authorization: Bearer 发送
+            String token = authTokenService.issue(user.getId(), user.getUsername(), user.getRole(),
+                user.getTokenVersion());
             
-            log.info("用户登录成功, 用户ID: {}, 用户名: {}, 角色: {}", 
-                user.getId(), user.getUsername(), user.getRole());
+            auditLogWriter.audit("LOGIN", user.getId(), user.getRole());
             
             return LoginResponse.builder()
                 .token(token)
+                .expiresIn(authTokenService.getTtlSeconds())
                 .userId(user.getId())
                 .username(user.getUsername())
                 .role(user.getRole())
@@ -78,27 +117,32 @@ public class AuthService {
         }
     }
     
+    /**
+     * 在后台按当前强度重新加密密码，不影响本次登录的响应时间；
+     * 只在密码未被修改时更新，和修改密码并发时以修改后的密码为准
+     */
+    private void upgradePassword(Long userId, String currentHash, String rawPassword) {
+        passwordHashingService.encodeInBackground(rawPassword, newHash -> {
+            if (userRepository.updatePasswordIfUnchanged(userId, currentHash, newHash) > 0) {
+                log.info("密码哈希已升级, 用户ID: {}", userId);
+            }
+        });
+    }
+    
     /**
      * 用户登出
+     *
+     * 递增用户的令牌版本，该用户已签发的令牌（包括其它设备上的）全部失效；存在Session时一并销毁
      */
     public void logout() {
-        try {
-            Long userId = sessionService.getCurrentUserId();
-            String username = sessionService.getCurrentUsername();
-            
-            log.info("用户登出开始, 用户ID: {}, 用户名: {}", userId, username);
-            
-            // 销毁Session
+        Long userId = CurrentUserContext.findCurrentUserId();
+        if (userId != null) {
+            userRepository.incrementTokenVersion(userId);
+            userAuthStateCache.invalidate(userId);
+        }
+        if (sessionEnabled) {
             sessionService.destroySession();
-            
-            log.info("用户登出成功, 用户ID: {}, 用户名: {}", userId, username);
-            
-        } catch (BusinessException e) {
-            // Session不存在或已过期，记录警告但不抛出异常
-            log.warn("登出时Session不存在: {}", e.getMessage());
-        } catch (Exception e) {
-            log.error("用户登出失败, 错误信息: {}", e.getMessage(), e);
-            throw new BusinessException("LOGOUT_FAILED", "登出失败，请稍后重试");
         }
+        auditLogWriter.audit("LOGOUT", userId, null);
     }
 }
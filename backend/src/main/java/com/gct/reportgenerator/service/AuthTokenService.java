@@ -0,0 +1,137 @@
+package com.gct.reportgenerator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * 无状态登录令牌
+ *
+ * 令牌格式：base64url(载荷) + "." + base64url(HMAC-SHA256(载荷))，
+ * 载荷为 "v2|用户ID|角色|过期时间(epoch秒)|令牌版本|用户名"。服务端不保存令牌，
+ * 校验只需一次HMAC与一次字符串拆分，任何持有相同密钥的节点都能校验，不需要粘性会话或会话复制。
+ *
+ * 密钥通过 report.auth.token-secret（Base64，至少32字节）配置，多节点部署时必须一致；
+ * 未配置时启动时随机生成，仅适用于单节点，重启后已签发的令牌全部失效。
+ * 令牌版本为签发时users.token_version的值；登出、禁用、修改角色或密码时该值递增，
+ * AuthInterceptor通过UserAuthStateCache比对后拒绝旧令牌。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class AuthTokenService {
+
+    private static final String VERSION = "v2";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+
+    /**
+     * Mac不是线程安全的，每个线程复用一个实例
+     */
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    public AuthTokenService(@Value("${report.auth.token-secret:}") String secret,
+                            @Value("${report.auth.token-ttl:8h}") Duration ttl) {
+        byte[] secretBytes;
+        if (secret == null || secret.isBlank()) {
+            secretBytes = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(secretBytes);
+            log.warn("未配置report.auth.token-secret，使用随机密钥：仅适用于单节点，重启后需重新登录");
+        } else {
+            secretBytes = Base64.getDecoder().decode(secret.trim());
+            if (secretBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalArgumentException("report.auth.token-secret至少需要" + MIN_SECRET_BYTES + "字节");
+            }
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.ttlSeconds = ttl.toSeconds();
+    }
+
+    /**
+     * 签发令牌
+     *
+     * @param tokenVersion 用户当前的令牌版本
+     * @return 令牌，有效期为 report.auth.token-ttl
+     */
+    public String issue(Long userId, String username, String role, Integer tokenVersion) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlSeconds;
+        String payload = VERSION + "|" + userId + "|" + role + "|" + expiresAt + "|" + tokenVersion + "|" + username;
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * 校验令牌
+     *
+     * @param token 令牌
+     * @return 令牌中的用户，签名不符、格式错误或已过期时返回null
+     */
+    public AuthenticatedUser verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+            return null;
+        }
+
+        // 签名正确说明载荷由本服务生成，格式可信
+        String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", 6);
+        if (fields.length != 6 || !VERSION.equals(fields[0])) {
+            return null;
+        }
+        if (Long.parseLong(fields[3]) <= System.currentTimeMillis() / 1000) {
+            return null;
+        }
+        return new AuthenticatedUser(Long.valueOf(fields[1]), fields[5], fields[2], Integer.valueOf(fields[4]));
+    }
+
+    /**
+     * @return 令牌有效期（秒）
+     */
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法初始化" + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.gct.reportgenerator.service;
+
+/**
+ * 已认证的登录用户（来自登录令牌或Session）
+ *
+ * @param userId 用户ID
+ * @param username 用户名
+ * @param role 角色
+ * @param tokenVersion 签发令牌时用户的令牌版本，来自Session时为null
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public record AuthenticatedUser(Long userId, String username, String role, Integer tokenVersion) {
+}
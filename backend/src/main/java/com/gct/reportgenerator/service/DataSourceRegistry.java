@@ -0,0 +1,303 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.DataSourceHealthDTO;
+import com.gct.reportgenerator.entity.DataSourceDefinition;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.DataSourceDefinitionRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 报表数据源注册表
+ *
+ * 报表查询不使用应用自身的数据源（元数据读写），而是按报表的dataSourceId使用独立的连接池：
+ * <ul>
+ *   <li>dataSourceId为空：内置连接池，以只读方式连接应用数据库。应用数据库中有用户密码哈希和数据源连接密码，
+ *       报表SQL可以读取所有表，因此内置数据源默认关闭，需通过report.datasource.default.enabled显式开启</li>
+ *   <li>其他：data_sources表中定义的业务数据库，首次使用时创建连接池</li>
+ * </ul>
+ * 数据源配置修改或删除后移除对应连接池，下次使用时按新配置重建；被移除的连接池不会立即关闭：
+ * 空闲连接立即关闭，正在执行的报表继续使用原连接，全部归还后（或超过retire-timeout）再关闭连接池。
+ * SQLite不支持在连接建立后切换只读，只读的SQLite数据源通过open_mode连接属性打开。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class DataSourceRegistry {
+
+    /**
+     * 内置数据源在连接池表中的key
+     */
+    private static final long DEFAULT_KEY = 0L;
+
+    /**
+     * SQLITE_OPEN_READONLY
+     */
+    private static final String SQLITE_OPEN_READONLY = "1";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final DataSourceDefinitionRepository dataSourceDefinitionRepository;
+    private final boolean defaultEnabled;
+    private final String defaultUrl;
+    private final int defaultPoolSize;
+    private final Duration defaultConnectionTimeout;
+    private final long retireTimeoutNanos;
+
+    private final ConcurrentHashMap<Long, HikariDataSource> pools = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> lastStatus = new ConcurrentHashMap<>();
+
+    /**
+     * 已移除、等待使用中的连接归还后关闭的连接池
+     */
+    private final ConcurrentLinkedQueue<RetiredPool> retiredPools = new ConcurrentLinkedQueue<>();
+
+    public DataSourceRegistry(
+            DataSourceDefinitionRepository dataSourceDefinitionRepository,
+            @Value("${report.datasource.default.enabled:false}") boolean defaultEnabled,
+            @Value("${spring.datasource.url}") String defaultUrl,
+            @Value("${report.datasource.default.max-pool-size:4}") int defaultPoolSize,
+            @Value("${report.datasource.default.connection-timeout:30s}") Duration defaultConnectionTimeout,
+            @Value("${report.datasource.retire-timeout:30m}") Duration retireTimeout) {
+        this.dataSourceDefinitionRepository = dataSourceDefinitionRepository;
+        this.defaultEnabled = defaultEnabled;
+        this.defaultUrl = defaultUrl;
+        this.defaultPoolSize = defaultPoolSize;
+        this.defaultConnectionTimeout = defaultConnectionTimeout;
+        this.retireTimeoutNanos = retireTimeout.toNanos();
+    }
+
+    /**
+     * 获取报表查询使用的数据源
+     *
+     * @param dataSourceId 数据源ID，为空时使用内置数据源
+     * @return 数据源
+     * @throws BusinessException 数据源不存在或已停用、或未指定数据源且内置数据源未开启时抛出
+     */
+    public DataSource getDataSource(Long dataSourceId) {
+        if (dataSourceId == null) {
+            if (!defaultEnabled) {
+                throw new BusinessException("DATA_SOURCE_REQUIRED", "内置数据源未开启，请为报表指定数据源");
+            }
+            return pools.computeIfAbsent(DEFAULT_KEY, key -> createDefaultPool());
+        }
+        HikariDataSource pool = pools.get(dataSourceId);
+        if (pool != null) {
+            return pool;
+        }
+        // 在computeIfAbsent中读取配置：与evict()对同一key串行，
+        // 配置提交前创建的连接池会被提交后的evict()移除，evict()之后创建的连接池一定读到新配置
+        return pools.computeIfAbsent(dataSourceId, key -> createPool(loadEnabledDefinition(key)));
+    }
+
+    /**
+     * 获取数据源连接池的最大连接数
+     *
+     * @param dataSourceId 数据源ID，为空时使用内置数据源
+     * @return 最大连接数
+     * @throws BusinessException 数据源不存在或已停用时抛出
+     */
+    public int getMaxPoolSize(Long dataSourceId) {
+        return ((HikariDataSource) getDataSource(dataSourceId)).getMaximumPoolSize();
+    }
+
+    /**
+     * 移除数据源的连接池（配置修改或删除后调用）
+     *
+     * 空闲连接立即关闭；仍有连接在使用时连接池保留到连接全部归还后由closeRetiredPools()关闭，
+     * 正在执行的报表不受影响，新的执行使用按新配置创建的连接池。
+     *
+     * @param dataSourceId 数据源ID
+     */
+    public void evict(Long dataSourceId) {
+        HikariDataSource pool = pools.remove(dataSourceId);
+        lastStatus.remove(dataSourceId);
+        if (pool == null) {
+            return;
+        }
+        HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+        if (stats == null || stats.getActiveConnections() == 0) {
+            log.info("关闭数据源连接池: {}", pool.getPoolName());
+            pool.close();
+            return;
+        }
+        // 空闲连接立即关闭，使用中的连接归还时关闭
+        stats.softEvictConnections();
+        retiredPools.add(new RetiredPool(pool, System.nanoTime()));
+        log.info("数据源连接池已移除，{}个连接仍在使用，归还后关闭: {}", stats.getActiveConnections(), pool.getPoolName());
+    }
+
+    /**
+     * 关闭已移除且没有使用中连接的连接池；超过retire-timeout仍未归还的强制关闭
+     */
+    @Scheduled(fixedDelayString = "${report.datasource.retire-check-interval:PT5S}")
+    public void closeRetiredPools() {
+        long now = System.nanoTime();
+        retiredPools.removeIf(retired -> {
+            HikariPoolMXBean stats = retired.pool().getHikariPoolMXBean();
+            int active = stats != null ? stats.getActiveConnections() : 0;
+            boolean expired = now - retired.retiredAtNanos() >= retireTimeoutNanos;
+            if (active > 0 && !expired) {
+                return false;
+            }
+            if (active > 0) {
+                log.warn("数据源连接池超过等待时间仍有{}个连接在使用，强制关闭: {}", active, retired.pool().getPoolName());
+            } else {
+                log.info("关闭数据源连接池: {}", retired.pool().getPoolName());
+            }
+            retired.pool().close();
+            return true;
+        });
+    }
+
+    /**
+     * 检查数据源连通性（连接池不存在时会创建）
+     *
+     * @param dataSourceId 数据源ID，为空时检查内置数据源
+     * @return 检查结果
+     */
+    public DataSourceHealthDTO probe(Long dataSourceId) {
+        HikariDataSource pool = (HikariDataSource) getDataSource(dataSourceId);
+        return probe(dataSourceId, pool);
+    }
+
+    /**
+     * 检查所有已创建的连接池
+     *
+     * @return 检查结果
+     */
+    public List<DataSourceHealthDTO> probeActive() {
+        List<DataSourceHealthDTO> result = new ArrayList<>();
+        for (Map.Entry<Long, HikariDataSource> entry : pools.entrySet()) {
+            Long dataSourceId = entry.getKey() == DEFAULT_KEY ? null : entry.getKey();
+            result.add(probe(dataSourceId, entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * 定期检查已创建的连接池，状态变化时记录日志
+     */
+    @Scheduled(initialDelayString = "${report.datasource.health-interval:PT1M}",
+            fixedDelayString = "${report.datasource.health-interval:PT1M}")
+    public void probePeriodically() {
+        for (DataSourceHealthDTO health : probeActive()) {
+            Long key = health.getDataSourceId() != null ? health.getDataSourceId() : DEFAULT_KEY;
+            String previous = lastStatus.put(key, health.getStatus());
+            if (!health.getStatus().equals(previous) && (previous != null || "DOWN".equals(health.getStatus()))) {
+                log.warn("数据源状态变化: {} {} -> {} {}", health.getName(), previous, health.getStatus(),
+                        health.getErrorMessage() != null ? health.getErrorMessage() : "");
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pools.values().forEach(HikariDataSource::close);
+        pools.clear();
+        retiredPools.forEach(retired -> retired.pool().close());
+        retiredPools.clear();
+    }
+
+    private DataSourceDefinition loadEnabledDefinition(Long dataSourceId) {
+        DataSourceDefinition definition = dataSourceDefinitionRepository.findById(dataSourceId)
+                .orElseThrow(() -> new BusinessException("DATA_SOURCE_NOT_FOUND", "数据源不存在: " + dataSourceId));
+        if (!Boolean.TRUE.equals(definition.getEnabled())) {
+            throw new BusinessException("DATA_SOURCE_DISABLED", "数据源已停用: " + definition.getName());
+        }
+        return definition;
+    }
+
+    private DataSourceHealthDTO probe(Long dataSourceId, HikariDataSource pool) {
+        DataSourceHealthDTO health = new DataSourceHealthDTO();
+        health.setDataSourceId(dataSourceId);
+        health.setName(pool.getPoolName());
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection()) {
+            boolean valid = conn.isValid(VALIDATION_TIMEOUT_SECONDS);
+            health.setStatus(valid ? "UP" : "DOWN");
+            if (!valid) {
+                health.setErrorMessage("连接校验失败");
+            }
+        } catch (Exception e) {
+            health.setStatus("DOWN");
+            health.setErrorMessage(e.getMessage());
+        }
+        health.setLatencyMs((System.nanoTime() - start) / 1_000_000);
+
+        HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+        if (stats != null) {
+            health.setActiveConnections(stats.getActiveConnections());
+            health.setIdleConnections(stats.getIdleConnections());
+            health.setTotalConnections(stats.getTotalConnections());
+            health.setThreadsAwaitingConnection(stats.getThreadsAwaitingConnection());
+        }
+        health.setCheckedAt(LocalDateTime.now());
+        return health;
+    }
+
+    private HikariDataSource createDefaultPool() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("report-default");
+        config.setJdbcUrl(defaultUrl);
+        config.setMaximumPoolSize(defaultPoolSize);
+        config.setMinimumIdle(0);
+        config.setConnectionTimeout(defaultConnectionTimeout.toMillis());
+        config.setInitializationFailTimeout(-1);
+        applyReadOnly(config, true);
+        log.info("创建内置报表数据源连接池, 最大连接数: {}", defaultPoolSize);
+        return new HikariDataSource(config);
+    }
+
+    private HikariDataSource createPool(DataSourceDefinition definition) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("report-" + definition.getId() + "-" + definition.getName());
+        config.setJdbcUrl(definition.getJdbcUrl());
+        if (definition.getDriverClassName() != null && !definition.getDriverClassName().isBlank()) {
+            config.setDriverClassName(definition.getDriverClassName());
+        }
+        config.setUsername(definition.getUsername());
+        config.setPassword(definition.getPassword());
+        config.setMaximumPoolSize(definition.getMaxPoolSize());
+        config.setMinimumIdle(Math.min(definition.getMinIdle(), definition.getMaxPoolSize()));
+        config.setConnectionTimeout(definition.getConnectionTimeoutMs());
+        config.setIdleTimeout(definition.getIdleTimeoutMs());
+        // 数据库暂不可用时仍创建连接池，由获取连接时报错
+        config.setInitializationFailTimeout(-1);
+        applyReadOnly(config, !Boolean.FALSE.equals(definition.getReadOnly()));
+        log.info("创建报表数据源连接池: {}, 最大连接数: {}", config.getPoolName(), definition.getMaxPoolSize());
+        return new HikariDataSource(config);
+    }
+
+    private static void applyReadOnly(HikariConfig config, boolean readOnly) {
+        if (!readOnly) {
+            return;
+        }
+        if (config.getJdbcUrl().startsWith("jdbc:sqlite:")) {
+            config.addDataSourceProperty("open_mode", SQLITE_OPEN_READONLY);
+        }
+        // Hikari会对每个新连接调用setReadOnly，SQLite要求与打开方式一致
+        config.setReadOnly(true);
+    }
+
+    private record RetiredPool(HikariDataSource pool, long retiredAtNanos) {
+    }
+}
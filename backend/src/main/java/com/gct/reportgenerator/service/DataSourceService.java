@@ -0,0 +1,225 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.DataSourceDTO;
+import com.gct.reportgenerator.dto.DataSourceHealthDTO;
+import com.gct.reportgenerator.dto.DataSourceRequest;
+import com.gct.reportgenerator.entity.DataSourceDefinition;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.DataSourceDefinitionRepository;
+import com.gct.reportgenerator.repository.ReportRepository;
+import com.gct.reportgenerator.util.CurrentUserContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 数据源配置服务
+ *
+ * 数据源的增删改查仅限管理员；配置修改提交后关闭旧连接池并清除该数据源的结果列缓存
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataSourceService {
+
+    private final DataSourceDefinitionRepository dataSourceDefinitionRepository;
+    private final ReportRepository reportRepository;
+    private final DataSourceRegistry dataSourceRegistry;
+    private final ReportColumnMetadataService reportColumnMetadataService;
+
+    /**
+     * 获取数据源列表
+     */
+    @Transactional(readOnly = true)
+    public List<DataSourceDTO> listDataSources() {
+        ensureAdmin();
+        return dataSourceDefinitionRepository.findAll().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取数据源配置
+     */
+    @Transactional(readOnly = true)
+    public DataSourceDTO getDataSource(Long id) {
+        ensureAdmin();
+        return toDTO(findDefinition(id));
+    }
+
+    /**
+     * 新增数据源
+     */
+    @Transactional
+    public DataSourceDTO createDataSource(DataSourceRequest request) {
+        ensureAdmin();
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new BusinessException("INVALID_PARAM", "数据源名称不能为空");
+        }
+        if (dataSourceDefinitionRepository.existsByName(request.getName())) {
+            throw new BusinessException("DATA_SOURCE_EXISTS", "数据源名称已存在: " + request.getName());
+        }
+
+        DataSourceDefinition definition = new DataSourceDefinition();
+        apply(definition, request);
+        definition = dataSourceDefinitionRepository.save(definition);
+        log.info("Data source created: {} ({})", definition.getName(), definition.getId());
+        return toDTO(definition);
+    }
+
+    /**
+     * 修改数据源
+     */
+    @Transactional
+    public DataSourceDTO updateDataSource(Long id, DataSourceRequest request) {
+        ensureAdmin();
+        DataSourceDefinition definition = findDefinition(id);
+        if (request.getName() != null && !request.getName().equals(definition.getName())
+                && dataSourceDefinitionRepository.existsByName(request.getName())) {
+            throw new BusinessException("DATA_SOURCE_EXISTS", "数据源名称已存在: " + request.getName());
+        }
+
+        apply(definition, request);
+        definition = dataSourceDefinitionRepository.save(definition);
+        evictPoolAfterCommit(id);
+        log.info("Data source updated: {} ({})", definition.getName(), id);
+        return toDTO(definition);
+    }
+
+    /**
+     * 删除数据源（仍被报表使用时不允许删除）
+     */
+    @Transactional
+    public void deleteDataSource(Long id) {
+        ensureAdmin();
+        DataSourceDefinition definition = findDefinition(id);
+        if (reportRepository.existsByDataSourceId(id)) {
+            throw new BusinessException("DATA_SOURCE_IN_USE", "数据源仍被报表使用: " + definition.getName());
+        }
+        dataSourceDefinitionRepository.delete(definition);
+        evictPoolAfterCommit(id);
+        log.info("Data source deleted: {} ({})", definition.getName(), id);
+    }
+
+    /**
+     * 检查数据源连通性
+     *
+     * @param id 数据源ID，为空时检查内置数据源
+     */
+    public DataSourceHealthDTO checkHealth(Long id) {
+        ensureAdmin();
+        return dataSourceRegistry.probe(id);
+    }
+
+    /**
+     * 检查所有已创建的连接池
+     */
+    public List<DataSourceHealthDTO> checkActiveHealth() {
+        ensureAdmin();
+        return dataSourceRegistry.probeActive();
+    }
+
+    private DataSourceDefinition findDefinition(Long id) {
+        return dataSourceDefinitionRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("DATA_SOURCE_NOT_FOUND", "数据源不存在: " + id));
+    }
+
+    private void ensureAdmin() {
+        if (!CurrentUserContext.isAdmin()) {
+            throw new BusinessException("FORBIDDEN", "需要管理员权限");
+        }
+    }
+
+    /**
+     * 按请求更新配置，未提供的字段保持原值
+     */
+    private void apply(DataSourceDefinition definition, DataSourceRequest request) {
+        if (request.getName() != null) {
+            definition.setName(request.getName());
+        }
+        if (request.getJdbcUrl() != null) {
+            if (!request.getJdbcUrl().startsWith("jdbc:")) {
+                throw new BusinessException("INVALID_PARAM", "JDBC URL格式不正确");
+            }
+            definition.setJdbcUrl(request.getJdbcUrl());
+        }
+        if (definition.getJdbcUrl() == null) {
+            throw new BusinessException("INVALID_PARAM", "JDBC URL不能为空");
+        }
+        if (request.getDriverClassName() != null) {
+            definition.setDriverClassName(request.getDriverClassName());
+        }
+        if (request.getUsername() != null) {
+            definition.setUsername(request.getUsername());
+        }
+        if (request.getPassword() != null) {
+            definition.setPassword(request.getPassword());
+        }
+        if (request.getReadOnly() != null) {
+            definition.setReadOnly(request.getReadOnly());
+        }
+        if (request.getMaxPoolSize() != null) {
+            if (request.getMaxPoolSize() < 1) {
+                throw new BusinessException("INVALID_PARAM", "最大连接数必须大于0");
+            }
+            definition.setMaxPoolSize(request.getMaxPoolSize());
+        }
+        if (request.getMinIdle() != null) {
+            definition.setMinIdle(Math.max(0, request.getMinIdle()));
+        }
+        if (request.getConnectionTimeoutMs() != null) {
+            definition.setConnectionTimeoutMs(Math.max(250L, request.getConnectionTimeoutMs()));
+        }
+        if (request.getIdleTimeoutMs() != null) {
+            definition.setIdleTimeoutMs(request.getIdleTimeoutMs());
+        }
+        if (request.getEnabled() != null) {
+            definition.setEnabled(request.getEnabled());
+        }
+    }
+
+    private void evictPoolAfterCommit(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictPool(id);
+                }
+            });
+        } else {
+            evictPool(id);
+        }
+    }
+
+    private void evictPool(Long id) {
+        dataSourceRegistry.evict(id);
+        reportColumnMetadataService.invalidateDataSource(id);
+    }
+
+    private DataSourceDTO toDTO(DataSourceDefinition definition) {
+        DataSourceDTO dto = new DataSourceDTO();
+        dto.setId(definition.getId());
+        dto.setName(definition.getName());
+        dto.setJdbcUrl(definition.getJdbcUrl());
+        dto.setDriverClassName(definition.getDriverClassName());
+        dto.setUsername(definition.getUsername());
+        dto.setReadOnly(definition.getReadOnly());
+        dto.setMaxPoolSize(definition.getMaxPoolSize());
+        dto.setMinIdle(definition.getMinIdle());
+        dto.setConnectionTimeoutMs(definition.getConnectionTimeoutMs());
+        dto.setIdleTimeoutMs(definition.getIdleTimeoutMs());
+        dto.setEnabled(definition.getEnabled());
+        dto.setCreatedAt(definition.getCreatedAt());
+        dto.setUpdatedAt(definition.getUpdatedAt());
+        return dto;
+    }
+}
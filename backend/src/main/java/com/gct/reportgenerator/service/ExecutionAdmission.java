@@ -0,0 +1,357 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 报表执行准入控制
+ *
+ * 每个数据源一个准入闸门，同时执行数不超过该数据源连接池的最大连接数，排队的请求不占用连接：
+ * <ul>
+ *   <li>每个用户、每张报表同时执行数有上限，超出的请求排队</li>
+ *   <li>排队按用户加权公平调度（开始时间公平排队）：每个用户一个FIFO队列，
+ *       每次放行虚拟开始时间最小的队首，权重按角色配置，权重越大分到的并发越多；
+ *       同一用户的大量请求只会排在自己的队列里，不影响其他用户</li>
+ *   <li>排队超过最长等待时间或队列已满时拒绝（HTTP 429），并按平均执行时间估算Retry-After</li>
+ * </ul>
+ * 排队的请求阻塞所在的请求线程，因此排队总数（所有数据源合计）限制为max-queue，
+ * 且不超过Servlet线程数（server.tomcat.threads.max）的四分之一，排队请求不会占满容器线程。
+ * 排队时间记录为report.admission.wait指标，按数据源区分。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ExecutionAdmission {
+
+    /**
+     * 内置数据源在闸门表中的key
+     */
+    private static final long DEFAULT_KEY = 0L;
+
+    /**
+     * 无请求上下文（如内部调用）时的用户key
+     */
+    private static final long SYSTEM_USER = 0L;
+
+    private static final long MAX_RETRY_AFTER_SECONDS = 300;
+
+    private final DataSourceRegistry dataSourceRegistry;
+    private final MeterRegistry meterRegistry;
+    private final int perUserLimit;
+    private final int perReportLimit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final Map<String, Integer> roleWeights;
+
+    private final ConcurrentHashMap<Long, Gate> gates = new ConcurrentHashMap<>();
+
+    /**
+     * 所有数据源合计的排队（阻塞请求线程）数
+     */
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public ExecutionAdmission(
+            DataSourceRegistry dataSourceRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${report.admission.per-user-limit:2}") int perUserLimit,
+            @Value("${report.admission.per-report-limit:2}") int perReportLimit,
+            @Value("${report.admission.max-queue:40}") int maxQueue,
+            @Value("${report.admission.max-wait:10s}") Duration maxWait,
+            @Value("${server.tomcat.threads.max:200}") int servletThreads,
+            @Value("${report.admission.weight.admin:4}") int adminWeight,
+            @Value("${report.admission.weight.designer:2}") int designerWeight,
+            @Value("${report.admission.weight.viewer:1}") int viewerWeight) {
+        this.dataSourceRegistry = dataSourceRegistry;
+        this.meterRegistry = meterRegistry;
+        this.perUserLimit = perUserLimit;
+        this.perReportLimit = perReportLimit;
+        int queueCap = Math.max(1, servletThreads / 4);
+        if (maxQueue > queueCap) {
+            log.warn("report.admission.max-queue={}超过Servlet线程数{}的四分之一，按{}处理", maxQueue, servletThreads, queueCap);
+        }
+        this.maxQueue = Math.min(maxQueue, queueCap);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.roleWeights = Map.of("ADMIN", adminWeight, "DESIGNER", designerWeight, "VIEWER", viewerWeight);
+    }
+
+    /**
+     * 获取执行许可，必要时排队等待
+     *
+     * @param execution 已准备的执行
+     * @return 执行许可，执行结束后必须关闭
+     * @throws TooManyRequestsException 队列已满或等待超时时抛出
+     * @throws BusinessException 数据源不存在或已停用时抛出
+     */
+    public AdmissionPermit acquire(PreparedReportExecution execution) {
+        long key = execution.getDataSourceId() != null ? execution.getDataSourceId() : DEFAULT_KEY;
+        int capacity = dataSourceRegistry.getMaxPoolSize(execution.getDataSourceId());
+        Gate gate = gates.computeIfAbsent(key, this::createGate);
+        long userId = execution.getUserId() != null ? execution.getUserId() : SYSTEM_USER;
+        int weight = execution.getRole() != null ? Math.max(1, roleWeights.getOrDefault(execution.getRole(), 1)) : 1;
+
+        long start = System.nanoTime();
+        Ticket ticket;
+        try {
+            ticket = gate.enter(capacity, userId, execution.getReportId(), weight);
+        } finally {
+            gate.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return new AdmissionPermit(gate, ticket, System.nanoTime() - start);
+    }
+
+    private Gate createGate(long key) {
+        Gate gate = new Gate(key);
+        String dataSource = key == DEFAULT_KEY ? "default" : Long.toString(key);
+        gate.waitTimer = Timer.builder("report.admission.wait")
+                .description("报表执行排队等待时间")
+                .tag("dataSource", dataSource)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("report.admission.queued", gate, g -> g.queued)
+                .description("排队中的报表执行数")
+                .tag("dataSource", dataSource)
+                .register(meterRegistry);
+        Gauge.builder("report.admission.running", gate, g -> g.running)
+                .description("已准入的报表执行数")
+                .tag("dataSource", dataSource)
+                .register(meterRegistry);
+        return gate;
+    }
+
+    /**
+     * 执行许可，关闭时释放并放行排队的请求（重复关闭无效）
+     */
+    public static final class AdmissionPermit implements AutoCloseable {
+
+        private final Gate gate;
+        private final Ticket ticket;
+        private final long waitNanos;
+        private final long admittedAt = System.nanoTime();
+        private boolean released;
+
+        private AdmissionPermit(Gate gate, Ticket ticket, long waitNanos) {
+            this.gate = gate;
+            this.ticket = ticket;
+            this.waitNanos = waitNanos;
+        }
+
+        /**
+         * @return 排队等待时间（毫秒）
+         */
+        public long getWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            gate.release(ticket, System.nanoTime() - admittedAt);
+        }
+    }
+
+    private static final class Ticket {
+        private final long userId;
+        private final Long reportId;
+        private final double startTag;
+        private final Condition admitted;
+        private boolean granted;
+
+        private Ticket(long userId, Long reportId, double startTag, Condition admitted) {
+            this.userId = userId;
+            this.reportId = reportId;
+            this.startTag = startTag;
+            this.admitted = admitted;
+        }
+    }
+
+    /**
+     * 用户的排队队列；finishTag为该用户最后一个请求的虚拟结束时间
+     */
+    private static final class UserQueue {
+        private final ArrayDeque<Ticket> tickets = new ArrayDeque<>();
+        private double finishTag;
+    }
+
+    /**
+     * 单个数据源的准入闸门，所有状态由lock保护
+     */
+    private final class Gate {
+
+        private final long key;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, UserQueue> queues = new LinkedHashMap<>();
+        private final Map<Long, Integer> runningByUser = new HashMap<>();
+        private final Map<Long, Integer> runningByReport = new HashMap<>();
+        private Timer waitTimer;
+        private int capacity;
+        private volatile int running;
+        private volatile int queued;
+        private double virtualTime;
+
+        /**
+         * 平均执行时长（指数移动平均，纳秒），用于估算Retry-After
+         */
+        private double averageHoldNanos = TimeUnit.SECONDS.toNanos(5);
+
+        private Gate(long key) {
+            this.key = key;
+        }
+
+        Ticket enter(int capacity, long userId, Long reportId, int weight) {
+            lock.lock();
+            try {
+                this.capacity = capacity;
+                UserQueue queue = queues.computeIfAbsent(userId, id -> new UserQueue());
+                double startTag = Math.max(virtualTime, queue.finishTag);
+                queue.finishTag = startTag + 1.0 / weight;
+                Ticket ticket = new Ticket(userId, reportId, startTag, lock.newCondition());
+                queue.tickets.addLast(ticket);
+                queued++;
+                dispatch();
+                if (ticket.granted) {
+                    return ticket;
+                }
+                if (waiting.incrementAndGet() > maxQueue) {
+                    waiting.decrementAndGet();
+                    abandon(ticket);
+                    throw reject("EXECUTION_QUEUE_FULL", "报表执行排队人数过多，请稍后再试");
+                }
+
+                long remaining = maxWaitNanos;
+                try {
+                    while (!ticket.granted) {
+                        if (remaining <= 0) {
+                            abandon(ticket);
+                            log.warn("报表执行排队超时, 数据源: {}, 用户ID: {}, 报表ID: {}, 排队数: {}",
+                                    key, userId, reportId, queued);
+                            throw reject("EXECUTION_QUEUE_TIMEOUT", "报表执行排队超时，请稍后再试");
+                        }
+                        remaining = ticket.admitted.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (ticket.granted) {
+                        // 已获准入但线程被中断，归还许可
+                        finish(ticket);
+                    } else {
+                        abandon(ticket);
+                    }
+                    throw new BusinessException("EXECUTION_CANCELLED", "报表执行已被取消");
+                } finally {
+                    waiting.decrementAndGet();
+                }
+                return ticket;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(Ticket ticket, long holdNanos) {
+            lock.lock();
+            try {
+                averageHoldNanos = averageHoldNanos * 0.9 + holdNanos * 0.1;
+                finish(ticket);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void finish(Ticket ticket) {
+            running--;
+            decrement(runningByUser, ticket.userId);
+            decrement(runningByReport, ticket.reportId);
+            UserQueue queue = queues.get(ticket.userId);
+            if (queue != null) {
+                removeIfIdle(ticket.userId, queue);
+            }
+            dispatch();
+        }
+
+        /**
+         * 在容量范围内依次放行虚拟开始时间最小、且未超出用户和报表上限的队首请求
+         */
+        private void dispatch() {
+            while (running < capacity) {
+                UserQueue next = null;
+                for (UserQueue queue : queues.values()) {
+                    Ticket head = queue.tickets.peekFirst();
+                    if (head != null && eligible(head) && (next == null || head.startTag < next.tickets.peekFirst().startTag)) {
+                        next = queue;
+                    }
+                }
+                if (next == null) {
+                    return;
+                }
+
+                Ticket ticket = next.tickets.pollFirst();
+                queued--;
+                running++;
+                runningByUser.merge(ticket.userId, 1, Integer::sum);
+                runningByReport.merge(ticket.reportId, 1, Integer::sum);
+                virtualTime = Math.max(virtualTime, ticket.startTag);
+                ticket.granted = true;
+                ticket.admitted.signal();
+                removeIfIdle(ticket.userId, next);
+            }
+        }
+
+        private boolean eligible(Ticket ticket) {
+            return runningByUser.getOrDefault(ticket.userId, 0) < perUserLimit
+                    && runningByReport.getOrDefault(ticket.reportId, 0) < perReportLimit;
+        }
+
+        private void abandon(Ticket ticket) {
+            UserQueue queue = queues.get(ticket.userId);
+            if (queue != null && queue.tickets.remove(ticket)) {
+                queued--;
+                removeIfIdle(ticket.userId, queue);
+            }
+            // 队首离开后，后面的请求可能可以放行
+            dispatch();
+        }
+
+        /**
+         * 用户没有排队和执行中的请求时移除其队列，下次进入时从当前虚拟时间开始
+         */
+        private void removeIfIdle(long userId, UserQueue queue) {
+            if (queue.tickets.isEmpty() && !runningByUser.containsKey(userId)) {
+                queues.remove(userId);
+            }
+        }
+
+        private <K> void decrement(Map<K, Integer> counts, K key) {
+            counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        }
+
+        private TooManyRequestsException reject(String code, String message) {
+            // 前面的请求按平均执行时长、以全部容量并行处理所需的时间
+            double seconds = averageHoldNanos / 1e9 * (queued + 1) / Math.max(1, capacity);
+            long retryAfter = Math.min(MAX_RETRY_AFTER_SECONDS, Math.max(1, (long) Math.ceil(seconds)));
+            return new TooManyRequestsException(code, message, retryAfter);
+        }
+    }
+}
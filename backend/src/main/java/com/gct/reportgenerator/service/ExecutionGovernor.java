@@ -0,0 +1,176 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.RunningExecutionDTO;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.util.CurrentUserContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 报表执行管控
+ *
+ * <ul>
+ *   <li>超时：按调用者角色（ADMIN/DESIGNER/VIEWER）取超时上限，报表配置了更短的超时时以报表为准；
+ *       到期由定时任务调用Statement.cancel()，结果输出阶段同样计入</li>
+ *   <li>行数、字节数上限：执行线程逐行检查，超出即终止</li>
+ *   <li>登记所有正在执行的查询，管理员可查看全部并取消任意执行，其他用户只能查看和取消自己的</li>
+ * </ul>
+ * 不依赖驱动的setQueryTimeout：sqlite-jdbc将其实现为busy_timeout，且多数驱动不限制结果读取阶段。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ExecutionGovernor {
+
+    private final Duration adminTimeout;
+    private final Duration designerTimeout;
+    private final Duration viewerTimeout;
+    private final long maxRows;
+    private final long maxBytes;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<Long, RunningExecution> running = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timer;
+
+    public ExecutionGovernor(
+            @Value("${report.governor.timeout.admin:30m}") Duration adminTimeout,
+            @Value("${report.governor.timeout.designer:10m}") Duration designerTimeout,
+            @Value("${report.governor.timeout.viewer:5m}") Duration viewerTimeout,
+            @Value("${report.governor.max-rows:5000000}") long maxRows,
+            @Value("${report.governor.max-bytes:1073741824}") long maxBytes) {
+        this.adminTimeout = adminTimeout;
+        this.designerTimeout = designerTimeout;
+        this.viewerTimeout = viewerTimeout;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "report-governor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 确定执行限制
+     *
+     * @param role 调用者角色，未知时按VIEWER处理
+     * @param reportTimeoutSeconds 报表配置的超时（秒），可为空
+     * @return 执行限制
+     */
+    public ExecutionLimits limitsFor(String role, Integer reportTimeoutSeconds) {
+        long timeoutMillis = roleTimeout(role).toMillis();
+        if (reportTimeoutSeconds != null) {
+            timeoutMillis = Math.min(timeoutMillis, TimeUnit.SECONDS.toMillis(reportTimeoutSeconds));
+        }
+        return new ExecutionLimits(timeoutMillis, maxRows, maxBytes);
+    }
+
+    /**
+     * 登记一次执行并开始计时
+     *
+     * @param execution 已准备的执行
+     * @return 执行状态，执行结束后必须调用finish
+     */
+    public RunningExecution start(PreparedReportExecution execution) {
+        RunningExecution entry = new RunningExecution(sequence.incrementAndGet(), execution);
+        running.put(entry.getExecutionId(), entry);
+        entry.timeoutTask = timer.schedule(() -> {
+            if (entry.cancel("EXECUTION_TIMEOUT")) {
+                log.warn("报表执行超时, 执行ID: {}, 报表ID: {}, 已输出行数: {}",
+                        entry.getExecutionId(), entry.getReportId(), entry.getRowsStreamed());
+            }
+        }, execution.getLimits().timeoutMillis(), TimeUnit.MILLISECONDS);
+        return entry;
+    }
+
+    /**
+     * 结束登记
+     *
+     * @param entry 执行状态
+     */
+    public void finish(RunningExecution entry) {
+        entry.timeoutTask.cancel(false);
+        running.remove(entry.getExecutionId());
+    }
+
+    /**
+     * 正在执行的查询，按开始时间排序
+     *
+     * @return 管理员返回全部，其他用户只返回自己的
+     */
+    public List<RunningExecutionDTO> listRunning() {
+        boolean admin = CurrentUserContext.isAdmin();
+        Long userId = CurrentUserContext.getCurrentUserId();
+        return running.values().stream()
+                .filter(entry -> admin || userId.equals(entry.getUserId()))
+                .sorted(Comparator.comparingLong(RunningExecution::getExecutionId))
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 取消正在执行的查询
+     *
+     * @param executionId 执行ID
+     * @throws BusinessException 执行不存在（或已结束）、无权取消时抛出
+     */
+    public void cancel(long executionId) {
+        RunningExecution entry = running.get(executionId);
+        if (entry == null) {
+            throw new BusinessException("EXECUTION_NOT_FOUND", "执行不存在或已结束: " + executionId);
+        }
+        if (!CurrentUserContext.isAdmin() && !CurrentUserContext.getCurrentUserId().equals(entry.getUserId())) {
+            throw new BusinessException("FORBIDDEN", "无权取消其他用户的执行");
+        }
+        if (entry.cancel("EXECUTION_CANCELLED")) {
+            log.info("报表执行已取消, 执行ID: {}, 报表ID: {}, 操作用户: {}",
+                    executionId, entry.getReportId(), CurrentUserContext.getCurrentUserId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running.values().forEach(entry -> entry.cancel("EXECUTION_CANCELLED"));
+        timer.shutdownNow();
+    }
+
+    private Duration roleTimeout(String role) {
+        if ("ADMIN".equals(role)) {
+            return adminTimeout;
+        }
+        if ("DESIGNER".equals(role)) {
+            return designerTimeout;
+        }
+        return viewerTimeout;
+    }
+
+    private RunningExecutionDTO toDTO(RunningExecution entry) {
+        RunningExecutionDTO dto = new RunningExecutionDTO();
+        dto.setExecutionId(entry.getExecutionId());
+        dto.setReportId(entry.getReportId());
+        dto.setReportName(entry.getReportName());
+        dto.setUserId(entry.getUserId());
+        dto.setRole(entry.getRole());
+        dto.setStartedAt(entry.getStartedAt());
+        dto.setElapsedMillis(entry.getElapsedMillis());
+        dto.setTimeoutMillis(entry.getLimits().timeoutMillis());
+        dto.setRowsStreamed(entry.getRowsStreamed());
+        dto.setBytesStreamed(entry.getBytesStreamed());
+        dto.setCancelling(entry.getCancelReason() != null);
+        return dto;
+    }
+}
@@ -0,0 +1,15 @@
+package com.gct.reportgenerator.service;
+
+/**
+ * 报表执行限制
+ *
+ * 在请求线程中按调用者角色与报表配置确定，随PreparedReportExecution传到输出线程
+ *
+ * @param timeoutMillis 执行超时（毫秒），从取得连接开始计算，包含结果输出时间
+ * @param maxRows 最大输出行数
+ * @param maxBytes 最大输出字节数（按行处理器的输出统计）
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public record ExecutionLimits(long timeoutMillis, long maxRows, long maxBytes) {
+}
@@ -0,0 +1,23 @@
+package com.gct.reportgenerator.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 待写入的执行日志
+ *
+ * @param userId 发起用户ID
+ * @param reportId 报表ID
+ * @param executeTime 开始执行时间
+ * @param durationMs 执行耗时（毫秒）
+ * @param queueWaitMs 准入排队时间（毫秒）
+ * @param rowCount 输出行数
+ * @param success 是否成功
+ * @param errorCode 失败时的错误代码
+ * @param errorMessage 失败时的错误信息
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public record ExecutionLogRecord(Long userId, Long reportId, LocalDateTime executeTime, long durationMs,
+                                 long queueWaitMs, long rowCount, boolean success,
+                                 String errorCode, String errorMessage) {
+}
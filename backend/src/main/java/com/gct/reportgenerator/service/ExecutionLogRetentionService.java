@@ -0,0 +1,355 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.util.CurrentUserContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 执行日志保留与压缩
+ *
+ * 在SQLite上一次性删除大量旧日志会长时间占用唯一的写锁，阻塞前台写入。这里定期：
+ * <ul>
+ *   <li>按月归档超过保留期的日志：每块日志先追加写入 execution_logs-yyyy-MM.csv.gz（每块一个gzip成员，
+ *       可直接用zcat/GZIPInputStream读取整个文件）并落盘，再按ID删除；两块之间暂停，让出写锁</li>
+ *   <li>按块删除超出可查询范围的小时统计桶</li>
+ *   <li>数据库为增量自动清理模式时，分步执行 PRAGMA incremental_vacuum 把空闲页归还文件系统</li>
+ * </ul>
+ * 数据库不是增量清理模式时不回收空闲页。转换需要一次全库 VACUUM（期间持有写锁，耗时与数据库大小相关，
+ * 并临时占用与数据库等大的磁盘空间），因此不会自动执行：须配置 report.execution-log.retention.vacuum-conversion-enabled
+ * 后由管理员在维护窗口调用 POST /api/v1/executions/logs/incremental-vacuum 执行一次。
+ * 保留任务运行在独立的线程上：分块之间的暂停可能持续较长时间，不占用Spring共享的@Scheduled线程。
+ * 归档后、删除前中断会在下次运行时重复归档同一批日志，按id去重即可。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class ExecutionLogRetentionService {
+
+    private static final String ARCHIVE_HEADER =
+            "id,user_id,report_id,execute_time,duration_ms,queue_wait_ms,row_count,success,error_code,error_message";
+
+    /**
+     * SQLite PRAGMA auto_vacuum 的 INCREMENTAL 取值
+     */
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final Path archiveDir;
+    private final int chunkSize;
+    private final long chunkPauseMillis;
+    private final long maxRowsPerRun;
+    private final int vacuumPages;
+    private final boolean vacuumConversionEnabled;
+    private final Duration initialDelay;
+    private final Duration interval;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private volatile boolean stopping;
+
+    public ExecutionLogRetentionService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${report.execution-log.retention.enabled:true}") boolean enabled,
+            @Value("${report.execution-log.retention.max-age:90d}") Duration maxAge,
+            @Value("${report.execution-log.retention.archive-dir:archive/execution-logs}") String archiveDir,
+            @Value("${report.execution-log.retention.chunk-size:500}") int chunkSize,
+            @Value("${report.execution-log.retention.chunk-pause:200ms}") Duration chunkPause,
+            @Value("${report.execution-log.retention.max-rows-per-run:100000}") long maxRowsPerRun,
+            @Value("${report.execution-log.retention.vacuum-pages:256}") int vacuumPages,
+            @Value("${report.execution-log.retention.vacuum-conversion-enabled:false}") boolean vacuumConversionEnabled,
+            @Value("${report.execution-log.retention.initial-delay:15m}") Duration initialDelay,
+            @Value("${report.execution-log.retention.interval:PT1H}") Duration interval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.archiveDir = Paths.get(archiveDir);
+        this.chunkSize = chunkSize;
+        this.chunkPauseMillis = chunkPause.toMillis();
+        this.maxRowsPerRun = maxRowsPerRun;
+        this.vacuumPages = vacuumPages;
+        this.vacuumConversionEnabled = vacuumConversionEnabled;
+        this.initialDelay = initialDelay;
+        this.interval = interval;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "execution-log-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::purgeExpired, initialDelay.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 将数据库转换为增量自动清理模式（auto_vacuum只在VACUUM时生效，仅管理员）
+     *
+     * @return 是否执行了转换（已是增量模式时返回false）
+     * @throws BusinessException 未开启转换或非管理员时抛出
+     */
+    public boolean enableIncrementalVacuum() {
+        if (!CurrentUserContext.isAdmin()) {
+            throw new BusinessException("FORBIDDEN", "需要管理员权限");
+        }
+        if (!vacuumConversionEnabled) {
+            throw new BusinessException("VACUUM_CONVERSION_DISABLED",
+                    "未开启数据库清理模式转换（report.execution-log.retention.vacuum-conversion-enabled）");
+        }
+        if (autoVacuumMode() == AUTO_VACUUM_INCREMENTAL) {
+            return false;
+        }
+        log.warn("开始转换数据库为增量自动清理模式，VACUUM期间写入将被阻塞");
+        long start = System.currentTimeMillis();
+        // 设置与VACUUM必须在同一连接上执行
+        jdbcTemplate.execute((Statement stmt) -> {
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("VACUUM");
+            return null;
+        });
+        log.info("数据库已转换为增量自动清理模式, 耗时: {}ms", System.currentTimeMillis() - start);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 定期执行保留策略
+     */
+    void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            purge();
+        } catch (IOException | RuntimeException e) {
+            // 未捕获的异常会终止后续的定期执行
+            log.error("执行日志保留任务失败", e);
+        }
+    }
+
+    /**
+     * 归档并删除过期日志，清理过期统计桶，回收空闲页
+     *
+     * @return 本次归档的日志数
+     */
+    public long purge() throws IOException {
+        long start = System.currentTimeMillis();
+        long archived = archiveExpiredLogs(LocalDateTime.now().minus(maxAge));
+        long buckets = deleteExpiredStats(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS)
+                .minusHours(ExecutionStatsService.MAX_HOURS));
+        long pages = vacuumIncrementally();
+        if (archived > 0 || buckets > 0 || pages > 0) {
+            log.info("执行日志保留任务完成, 归档日志: {}, 删除统计桶: {}, 回收页: {}, 耗时: {}ms",
+                    archived, buckets, pages, System.currentTimeMillis() - start);
+        }
+        return archived;
+    }
+
+    /**
+     * 从最早的月份开始按块归档，每个月份写入各自的文件
+     */
+    private long archiveExpiredLogs(LocalDateTime cutoff) throws IOException {
+        long total = 0;
+        while (total < maxRowsPerRun && !stopping) {
+            Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(execute_time) FROM execution_logs", Timestamp.class);
+            if (oldest == null || !oldest.toLocalDateTime().isBefore(cutoff)) {
+                break;
+            }
+            YearMonth month = YearMonth.from(oldest.toLocalDateTime());
+            LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+            // 最早的日志在该月，早于月末（且早于截止时间）的日志都属于该月
+            Timestamp end = Timestamp.valueOf(monthEnd.isBefore(cutoff) ? monthEnd : cutoff);
+            Path file = archiveDir.resolve("execution_logs-" + month + ".csv.gz");
+
+            List<Long> ids;
+            do {
+                int limit = (int) Math.min(chunkSize, maxRowsPerRun - total);
+                ids = archiveChunk(file, end, limit);
+                deleteByIds(ids);
+                total += ids.size();
+                pause();
+            } while (ids.size() == chunkSize && total < maxRowsPerRun && !stopping);
+        }
+        return total;
+    }
+
+    /**
+     * 归档一块日志，落盘后返回其ID
+     */
+    private List<Long> archiveChunk(Path file, Timestamp end, int limit) throws IOException {
+        List<String> lines = new ArrayList<>(limit);
+        List<Long> ids = new ArrayList<>(limit);
+        jdbcTemplate.query("SELECT id, user_id, report_id, execute_time, duration_ms, queue_wait_ms, row_count, "
+                        + "success, error_code, error_message FROM execution_logs WHERE execute_time < ? "
+                        + "ORDER BY execute_time, id LIMIT ?",
+                rs -> {
+                    ids.add(rs.getLong(1));
+                    lines.add(rs.getLong(1) + "," + rs.getLong(2) + "," + rs.getLong(3) + ","
+                            + rs.getTimestamp(4).toLocalDateTime() + "," + rs.getLong(5) + "," + rs.getLong(6) + ","
+                            + rs.getLong(7) + "," + rs.getBoolean(8) + "," + csv(rs.getString(9)) + ","
+                            + csv(rs.getString(10)));
+                },
+                end, limit);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Files.createDirectories(archiveDir);
+        boolean newFile = !Files.exists(file) || Files.size(file) == 0;
+        try (FileOutputStream fileOut = new FileOutputStream(file.toFile(), true)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(fileOut, 64 * 1024);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+            if (newFile) {
+                writer.write(ARCHIVE_HEADER);
+                writer.write('\n');
+            }
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+            writer.flush();
+            gzip.finish();
+            // 归档落盘后才能删除
+            fileOut.getFD().sync();
+        }
+        return ids;
+    }
+
+    private void deleteByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.update("DELETE FROM execution_logs WHERE id IN (" + placeholders + ")", ids.toArray());
+    }
+
+    /**
+     * 按块删除早于最长统计时间段的小时桶
+     */
+    private long deleteExpiredStats(LocalDateTime cutoff) {
+        long total = 0;
+        for (String table : List.of("execution_stats_hourly", "execution_user_stats_hourly")) {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update("DELETE FROM " + table + " WHERE rowid IN (SELECT rowid FROM " + table
+                        + " WHERE hour_start < ? LIMIT ?)", Timestamp.valueOf(cutoff), chunkSize);
+                total += deleted;
+                if (deleted > 0) {
+                    pause();
+                }
+            } while (deleted == chunkSize && !stopping);
+        }
+        return total;
+    }
+
+    /**
+     * 分步回收空闲页，每步只短暂持有写锁
+     *
+     * @return 回收的页数
+     */
+    private long vacuumIncrementally() {
+        if (autoVacuumMode() != AUTO_VACUUM_INCREMENTAL) {
+            return 0;
+        }
+        long total = 0;
+        while (!stopping) {
+            long freed = vacuumStep();
+            total += freed;
+            if (freed < vacuumPages) {
+                break;
+            }
+            pause();
+        }
+        return total;
+    }
+
+    /**
+     * 回收最多vacuum-pages个空闲页
+     *
+     * incremental_vacuum每回收一页返回一行（无列），sqlite-jdbc的execute只执行一步，只回收一页；
+     * executeUpdate执行到语句结束
+     *
+     * @return 回收的页数
+     */
+    long vacuumStep() {
+        long before = freelistCount();
+        if (before == 0) {
+            return 0;
+        }
+        jdbcTemplate.update("PRAGMA incremental_vacuum(" + vacuumPages + ")");
+        return before - freelistCount();
+    }
+
+    private int autoVacuumMode() {
+        Integer mode = jdbcTemplate.queryForObject("PRAGMA auto_vacuum", Integer.class);
+        return mode != null ? mode : 0;
+    }
+
+    private long freelistCount() {
+        Long count = jdbcTemplate.queryForObject("PRAGMA freelist_count", Long.class);
+        return count != null ? count : 0;
+    }
+
+    private void pause() {
+        if (chunkPauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(chunkPauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopping = true;
+        }
+    }
+
+    /**
+     * RFC 4180转义
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
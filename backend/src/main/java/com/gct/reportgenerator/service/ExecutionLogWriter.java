@@ -0,0 +1,259 @@
+package com.gct.reportgenerator.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 执行日志异步批量写入
+ *
+ * SQLite同一时间只允许一个写事务，每次执行都单独INSERT会与元数据写入争抢写锁。这里：
+ * <ul>
+ *   <li>执行线程只把日志放入无锁队列，不访问数据库</li>
+ *   <li>后台线程每隔flush-interval或积累batch-size条时，用一条多行INSERT写入一批</li>
+ *   <li>队列有容量上限：数据库跟不上时新日志被丢弃并计数（report.execution-log.dropped），不阻塞执行线程</li>
+ *   <li>整批写入失败时逐条重试，只丢弃写不进去的行（如报表已被删除）</li>
+ *   <li>同一事务中把写入的日志汇总进按小时的执行统计（ExecutionStatsService）</li>
+ * </ul>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ExecutionLogWriter {
+
+    private static final String INSERT_PREFIX = "INSERT INTO execution_logs (user_id, report_id, execute_time, duration_ms, "
+            + "queue_wait_ms, row_count, success, error_code, error_message, created_at, updated_at) VALUES ";
+
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 单条INSERT的最大行数，保证绑定变量数不超过SQLite默认上限（32766）
+     */
+    private static final int MAX_ROWS_PER_INSERT = 2000;
+
+    /**
+     * 错误信息最大长度
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutionStatsService executionStatsService;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final ConcurrentLinkedQueue<ExecutionLogRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+
+    private volatile Thread flusher;
+    private volatile boolean running;
+
+    public ExecutionLogWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              ExecutionStatsService executionStatsService, MeterRegistry meterRegistry,
+                              @Value("${report.execution-log.enabled:true}") boolean enabled,
+                              @Value("${report.execution-log.queue-capacity:10000}") int capacity,
+                              @Value("${report.execution-log.batch-size:200}") int batchSize,
+                              @Value("${report.execution-log.flush-interval:500ms}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.executionStatsService = executionStatsService;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = Math.min(batchSize, MAX_ROWS_PER_INSERT);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.droppedCounter = Counter.builder("report.execution-log.dropped")
+                .description("队列已满被丢弃的执行日志数")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("report.execution-log.written")
+                .description("已写入的执行日志数")
+                .register(meterRegistry);
+        Gauge.builder("report.execution-log.queued", size, AtomicInteger::get)
+                .description("等待写入的执行日志数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::flushLoop, "execution-log-writer");
+        thread.setDaemon(true);
+        flusher = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread thread = flusher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 写出剩余日志
+        flush();
+    }
+
+    /**
+     * 提交一条执行日志（不阻塞、不访问数据库）
+     *
+     * @param record 执行日志
+     * @return 是否已入队，队列已满或未启用时返回false
+     */
+    public boolean submit(ExecutionLogRecord record) {
+        if (!enabled || record.userId() == null) {
+            return false;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            droppedCounter.increment();
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                log.warn("执行日志队列已满，日志被丢弃, 累计丢弃: {}", dropped.get());
+            }
+            return false;
+        }
+        queue.offer(record);
+        if (size.get() >= batchSize) {
+            Thread thread = flusher;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 写出队列中的全部日志
+     *
+     * 串行执行，保证小时统计桶的读-改-写不会并发
+     *
+     * @return 写入的行数
+     */
+    public synchronized int flush() {
+        int written = 0;
+        List<ExecutionLogRecord> batch;
+        while (!(batch = drain()).isEmpty()) {
+            written += write(batch);
+        }
+        return written;
+    }
+
+    /**
+     * @return 累计丢弃的日志数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void flushLoop() {
+        while (running) {
+            if (size.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("执行日志写入失败", e);
+            }
+        }
+    }
+
+    private List<ExecutionLogRecord> drain() {
+        List<ExecutionLogRecord> batch = new ArrayList<>(Math.min(batchSize, Math.max(1, size.get())));
+        ExecutionLogRecord record;
+        while (batch.size() < batchSize && (record = queue.poll()) != null) {
+            batch.add(record);
+        }
+        size.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private int write(List<ExecutionLogRecord> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW_PLACEHOLDERS.length() + 2))
+                    .append(INSERT_PREFIX);
+            List<Object> args = new ArrayList<>(batch.size() * 11);
+            for (int i = 0; i < batch.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDERS);
+                addArgs(args, batch.get(i), now);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(sql.toString(), args.toArray());
+                executionStatsService.record(batch);
+            });
+            writtenCounter.increment(batch.size());
+            return batch.size();
+        } catch (DataAccessException e) {
+            log.warn("执行日志批量写入失败，逐条重试, 条数: {}, 错误信息: {}", batch.size(), e.getMessage());
+        }
+
+        List<ExecutionLogRecord> written = new ArrayList<>(batch.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            for (ExecutionLogRecord record : batch) {
+                List<Object> args = new ArrayList<>(11);
+                addArgs(args, record, now);
+                try {
+                    jdbcTemplate.update(INSERT_PREFIX + ROW_PLACEHOLDERS, args.toArray());
+                    written.add(record);
+                } catch (DataAccessException e) {
+                    droppedCounter.increment();
+                    dropped.incrementAndGet();
+                    log.warn("执行日志写入失败，已丢弃, 报表ID: {}, 错误信息: {}", record.reportId(), e.getMessage());
+                }
+            }
+            if (!written.isEmpty()) {
+                executionStatsService.record(written);
+            }
+        });
+        writtenCounter.increment(written.size());
+        return written.size();
+    }
+
+    private static void addArgs(List<Object> args, ExecutionLogRecord record, Timestamp now) {
+        args.add(record.userId());
+        args.add(record.reportId());
+        args.add(Timestamp.valueOf(record.executeTime()));
+        args.add(record.durationMs());
+        args.add(record.queueWaitMs());
+        args.add(record.rowCount());
+        args.add(record.success());
+        args.add(record.errorCode());
+        String message = record.errorMessage();
+        args.add(message != null && message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        args.add(now);
+        args.add(now);
+    }
+}
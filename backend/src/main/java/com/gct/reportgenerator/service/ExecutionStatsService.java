@@ -0,0 +1,308 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ExecutionStatsDTO;
+import com.gct.reportgenerator.dto.ReportStatsDTO;
+import com.gct.reportgenerator.dto.UserExecutionStatsDTO;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.util.CurrentUserContext;
+import com.gct.reportgenerator.util.LatencyHistogram;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 报表执行统计服务
+ *
+ * 统计不从execution_logs实时计算，而是在执行日志写入时按（报表, 小时）增量汇总：
+ * 次数、失败数、耗时合计/最大值、行数和可合并的耗时直方图，另按（报表, 小时, 用户）汇总次数。
+ * 查询只读取时间段内的小时桶，耗时与日志总量无关，只取决于时间段长度（和报表数）。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExecutionStatsService {
+
+    /**
+     * 最长统计时间段（小时）
+     */
+    static final int MAX_HOURS = 24 * 90;
+
+    private static final int MAX_LIMIT = 100;
+
+    private static final String UPSERT_REPORT_BUCKET = "INSERT INTO execution_stats_hourly (report_id, hour_start, "
+            + "execution_count, failure_count, total_duration_ms, max_duration_ms, total_rows, latency_histogram) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (report_id, hour_start) DO UPDATE SET "
+            + "execution_count = execution_count + excluded.execution_count, "
+            + "failure_count = failure_count + excluded.failure_count, "
+            + "total_duration_ms = total_duration_ms + excluded.total_duration_ms, "
+            + "max_duration_ms = MAX(max_duration_ms, excluded.max_duration_ms), "
+            + "total_rows = total_rows + excluded.total_rows, "
+            + "latency_histogram = excluded.latency_histogram";
+
+    private static final String UPSERT_USER_BUCKET = "INSERT INTO execution_user_stats_hourly (report_id, hour_start, "
+            + "user_id, execution_count, failure_count) VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT (report_id, hour_start, user_id) DO UPDATE SET "
+            + "execution_count = execution_count + excluded.execution_count, "
+            + "failure_count = failure_count + excluded.failure_count";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReportPermissionService reportPermissionService;
+
+    /**
+     * 将一批执行日志汇总进小时桶
+     *
+     * 须在写入这些日志的同一事务中调用（由ExecutionLogWriter保证），汇总与日志同时提交或回滚。
+     * 直方图无法在SQL中合并，先读出已有直方图再整体写回；ExecutionLogWriter串行写入，不存在并发覆盖。
+     *
+     * @param records 已写入的执行日志
+     */
+    public void record(List<ExecutionLogRecord> records) {
+        Map<BucketKey, Bucket> buckets = new LinkedHashMap<>();
+        Map<UserBucketKey, long[]> userBuckets = new LinkedHashMap<>();
+        for (ExecutionLogRecord record : records) {
+            LocalDateTime hourStart = record.executeTime().truncatedTo(ChronoUnit.HOURS);
+            buckets.computeIfAbsent(new BucketKey(record.reportId(), hourStart), key -> new Bucket()).add(record);
+            long[] counts = userBuckets.computeIfAbsent(
+                    new UserBucketKey(record.reportId(), hourStart, record.userId()), key -> new long[2]);
+            counts[0]++;
+            if (!record.success()) {
+                counts[1]++;
+            }
+        }
+
+        for (Map.Entry<BucketKey, Bucket> entry : buckets.entrySet()) {
+            BucketKey key = entry.getKey();
+            Bucket bucket = entry.getValue();
+            Timestamp hourStart = Timestamp.valueOf(key.hourStart());
+            List<byte[]> existing = jdbcTemplate.query(
+                    "SELECT latency_histogram FROM execution_stats_hourly WHERE report_id = ? AND hour_start = ?",
+                    (rs, rowNum) -> rs.getBytes(1), key.reportId(), hourStart);
+            LatencyHistogram histogram = bucket.histogram;
+            if (!existing.isEmpty()) {
+                histogram.add(LatencyHistogram.fromBytes(existing.get(0)));
+            }
+            jdbcTemplate.update(UPSERT_REPORT_BUCKET, key.reportId(), hourStart, bucket.executions, bucket.failures,
+                    bucket.totalDuration, bucket.maxDuration, bucket.totalRows, histogram.toBytes());
+        }
+        for (Map.Entry<UserBucketKey, long[]> entry : userBuckets.entrySet()) {
+            UserBucketKey key = entry.getKey();
+            jdbcTemplate.update(UPSERT_USER_BUCKET, key.reportId(), Timestamp.valueOf(key.hourStart()), key.userId(),
+                    entry.getValue()[0], entry.getValue()[1]);
+        }
+    }
+
+    /**
+     * 获取报表最近一段时间的执行统计
+     *
+     * @param reportId 报表ID
+     * @param hours 最近小时数（含当前小时）
+     * @param topUsers 返回执行次数最多的用户数
+     */
+    @Transactional(readOnly = true)
+    public ReportStatsDTO getReportStats(Long reportId, int hours, int topUsers) {
+        checkRange(hours, topUsers);
+        reportPermissionService.checkAccess(reportId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = windowStart(now, hours);
+
+        Accumulator total = new Accumulator();
+        List<ExecutionStatsDTO> hourly = new ArrayList<>();
+        jdbcTemplate.query("SELECT hour_start, execution_count, failure_count, total_duration_ms, max_duration_ms, "
+                        + "total_rows, latency_histogram FROM execution_stats_hourly "
+                        + "WHERE report_id = ? AND hour_start >= ? ORDER BY hour_start",
+                rs -> {
+                    Accumulator hour = new Accumulator();
+                    hour.add(rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6),
+                            LatencyHistogram.fromBytes(rs.getBytes(7)));
+                    total.merge(hour);
+                    ExecutionStatsDTO dto = hour.toDTO(reportId, null);
+                    dto.setHourStart(rs.getTimestamp(1).toLocalDateTime());
+                    hourly.add(dto);
+                },
+                reportId, Timestamp.valueOf(from));
+
+        ReportStatsDTO stats = new ReportStatsDTO();
+        stats.setReportId(reportId);
+        stats.setFrom(from);
+        stats.setTo(now);
+        stats.setSummary(total.toDTO(reportId, null));
+        stats.setHourly(hourly);
+        stats.setTopUsers(queryTopUsers(reportId, from, topUsers));
+        return stats;
+    }
+
+    /**
+     * 获取最近一段时间排名靠前的报表（仅管理员）
+     *
+     * @param orderBy 排序指标：executions、failures、error-rate、p95、avg-duration
+     * @param hours 最近小时数（含当前小时）
+     * @param limit 返回数量
+     */
+    @Transactional(readOnly = true)
+    public List<ExecutionStatsDTO> getTopReports(String orderBy, int hours, int limit) {
+        ensureAdmin();
+        checkRange(hours, limit);
+        Comparator<ExecutionStatsDTO> comparator = switch (orderBy) {
+            case "executions" -> Comparator.comparing(ExecutionStatsDTO::getExecutionCount);
+            case "failures" -> Comparator.comparing(ExecutionStatsDTO::getFailureCount);
+            case "error-rate" -> Comparator.comparing(ExecutionStatsDTO::getErrorRate);
+            case "p95" -> Comparator.comparing(ExecutionStatsDTO::getP95DurationMs);
+            case "avg-duration" -> Comparator.comparing(ExecutionStatsDTO::getAvgDurationMs);
+            default -> throw new BusinessException("INVALID_PARAM", "不支持的排序指标: " + orderBy);
+        };
+
+        Map<Long, Accumulator> byReport = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        jdbcTemplate.query("SELECT s.report_id, r.name, s.execution_count, s.failure_count, s.total_duration_ms, "
+                        + "s.max_duration_ms, s.total_rows, s.latency_histogram FROM execution_stats_hourly s "
+                        + "JOIN reports r ON r.id = s.report_id WHERE s.hour_start >= ?",
+                rs -> {
+                    long reportId = rs.getLong(1);
+                    names.putIfAbsent(reportId, rs.getString(2));
+                    byReport.computeIfAbsent(reportId, id -> new Accumulator()).add(rs.getLong(3), rs.getLong(4),
+                            rs.getLong(5), rs.getLong(6), rs.getLong(7), LatencyHistogram.fromBytes(rs.getBytes(8)));
+                },
+                Timestamp.valueOf(windowStart(LocalDateTime.now(), hours)));
+
+        return byReport.entrySet().stream()
+                .map(entry -> entry.getValue().toDTO(entry.getKey(), names.get(entry.getKey())))
+                .sorted(comparator.reversed().thenComparing(ExecutionStatsDTO::getReportId))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * 获取最近一段时间执行次数最多的用户（仅管理员）
+     */
+    @Transactional(readOnly = true)
+    public List<UserExecutionStatsDTO> getTopUsers(int hours, int limit) {
+        ensureAdmin();
+        checkRange(hours, limit);
+        return queryTopUsers(null, windowStart(LocalDateTime.now(), hours), limit);
+    }
+
+    private List<UserExecutionStatsDTO> queryTopUsers(Long reportId, LocalDateTime from, int limit) {
+        String sql = "SELECT s.user_id, u.username, SUM(s.execution_count), SUM(s.failure_count) "
+                + "FROM execution_user_stats_hourly s LEFT JOIN users u ON u.id = s.user_id WHERE s.hour_start >= ? "
+                + (reportId != null ? "AND s.report_id = ? " : "")
+                + "GROUP BY s.user_id, u.username ORDER BY 3 DESC, s.user_id LIMIT ?";
+        Object[] args = reportId != null
+                ? new Object[]{Timestamp.valueOf(from), reportId, limit}
+                : new Object[]{Timestamp.valueOf(from), limit};
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            UserExecutionStatsDTO dto = new UserExecutionStatsDTO();
+            dto.setUserId(rs.getLong(1));
+            dto.setUsername(rs.getString(2));
+            dto.setExecutionCount(rs.getLong(3));
+            dto.setFailureCount(rs.getLong(4));
+            return dto;
+        }, args);
+    }
+
+    private static LocalDateTime windowStart(LocalDateTime now, int hours) {
+        return now.truncatedTo(ChronoUnit.HOURS).minusHours(hours - 1L);
+    }
+
+    private static void checkRange(int hours, int limit) {
+        if (hours < 1 || hours > MAX_HOURS) {
+            throw new BusinessException("INVALID_PARAM", "统计时间段必须在1到" + MAX_HOURS + "小时之间");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BusinessException("INVALID_PARAM", "返回数量必须在1到" + MAX_LIMIT + "之间");
+        }
+    }
+
+    private void ensureAdmin() {
+        if (!CurrentUserContext.isAdmin()) {
+            throw new BusinessException("FORBIDDEN", "需要管理员权限");
+        }
+    }
+
+    private record BucketKey(Long reportId, LocalDateTime hourStart) {
+    }
+
+    private record UserBucketKey(Long reportId, LocalDateTime hourStart, Long userId) {
+    }
+
+    /**
+     * 一批日志在同一小时桶内的增量
+     */
+    private static final class Bucket {
+        private long executions;
+        private long failures;
+        private long totalDuration;
+        private long maxDuration;
+        private long totalRows;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private void add(ExecutionLogRecord record) {
+            executions++;
+            if (!record.success()) {
+                failures++;
+            }
+            totalDuration += record.durationMs();
+            maxDuration = Math.max(maxDuration, record.durationMs());
+            totalRows += record.rowCount();
+            histogram.record(record.durationMs());
+        }
+    }
+
+    /**
+     * 合并多个小时桶
+     */
+    private static final class Accumulator {
+        private long executions;
+        private long failures;
+        private long totalDuration;
+        private long maxDuration;
+        private long totalRows;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private void add(long executions, long failures, long totalDuration, long maxDuration, long totalRows,
+                         LatencyHistogram histogram) {
+            this.executions += executions;
+            this.failures += failures;
+            this.totalDuration += totalDuration;
+            this.maxDuration = Math.max(this.maxDuration, maxDuration);
+            this.totalRows += totalRows;
+            this.histogram.add(histogram);
+        }
+
+        private void merge(Accumulator other) {
+            add(other.executions, other.failures, other.totalDuration, other.maxDuration, other.totalRows,
+                    other.histogram);
+        }
+
+        private ExecutionStatsDTO toDTO(Long reportId, String reportName) {
+            ExecutionStatsDTO dto = new ExecutionStatsDTO();
+            dto.setReportId(reportId);
+            dto.setReportName(reportName);
+            dto.setExecutionCount(executions);
+            dto.setFailureCount(failures);
+            dto.setErrorRate(executions > 0 ? (double) failures / executions : 0.0);
+            dto.setAvgDurationMs(executions > 0 ? totalDuration / executions : 0L);
+            dto.setMaxDurationMs(maxDuration);
+            // 桶上界可能超过实际最大值
+            dto.setP50DurationMs(Math.min(maxDuration, histogram.valueAtPercentile(50)));
+            dto.setP95DurationMs(Math.min(maxDuration, histogram.valueAtPercentile(95)));
+            dto.setP99DurationMs(Math.min(maxDuration, histogram.valueAtPercentile(99)));
+            dto.setTotalRows(totalRows);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,512 @@
+package com.gct.reportgenerator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gct.reportgenerator.dto.ExportJobDTO;
+import com.gct.reportgenerator.dto.ExportJobRequest;
+import com.gct.reportgenerator.entity.ExportJob;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ExportJobRepository;
+import com.gct.reportgenerator.util.CsvRowWriter;
+import com.gct.reportgenerator.util.CurrentUserContext;
+import com.gct.reportgenerator.util.ReportRowHandler;
+import com.gct.reportgenerator.util.ResultColumn;
+import com.gct.reportgenerator.util.XlsxRowWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 异步导出任务服务
+ *
+ * 大数据量导出不再占用请求线程：提交后立即返回任务ID，由有界线程池在后台执行，
+ * 结果写入本地临时目录，完成后再下载。
+ * <ul>
+ *   <li>线程数与等待队列长度固定，队列满时拒绝提交</li>
+ *   <li>每个用户同时排队或执行的任务数有上限</li>
+ *   <li>执行中按已写出行数报告进度，可随时取消</li>
+ *   <li>任务状态保存在export_jobs表，重启后已完成的文件仍可下载，未完成的任务标记为失败</li>
+ * </ul>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class ExportJobService {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    private static final String PART_SUFFIX = ".part";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final ExportJobRepository exportJobRepository;
+    private final ReportExecutionService reportExecutionService;
+    private final ObjectMapper objectMapper;
+    private final Path spoolDir;
+    private final int perUserLimit;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 排队或执行中的任务，key为任务ID
+     */
+    private final ConcurrentHashMap<Long, ActiveJob> activeJobs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicInteger> activeByUser = new ConcurrentHashMap<>();
+
+    public ExportJobService(
+            ExportJobRepository exportJobRepository,
+            ReportExecutionService reportExecutionService,
+            ObjectMapper objectMapper,
+            @Value("${report.export.dir:${java.io.tmpdir}/gct-exports}") String spoolDir,
+            @Value("${report.export.pool-size:4}") int poolSize,
+            @Value("${report.export.queue-capacity:50}") int queueCapacity,
+            @Value("${report.export.per-user-limit:2}") int perUserLimit,
+            @Value("${report.export.retention:24h}") Duration retention) {
+        this.exportJobRepository = exportJobRepository;
+        this.reportExecutionService = reportExecutionService;
+        this.objectMapper = objectMapper;
+        this.spoolDir = Paths.get(spoolDir);
+        this.perUserLimit = perUserLimit;
+        this.retention = retention;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "export-job-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 启动时清理上次运行遗留的状态：未完成的任务标记为失败并删除半成品文件
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        Files.createDirectories(spoolDir);
+
+        List<ExportJob> interrupted = exportJobRepository.findByStatusIn(List.of(STATUS_QUEUED, STATUS_RUNNING));
+        for (ExportJob job : interrupted) {
+            job.setStatus(STATUS_FAILED);
+            job.setErrorMessage("服务重启，导出任务中断");
+            job.setFinishedAt(LocalDateTime.now());
+        }
+        exportJobRepository.saveAll(interrupted);
+
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(spoolDir, "*" + PART_SUFFIX)) {
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+        if (!interrupted.isEmpty()) {
+            log.warn("{}个导出任务因服务重启被标记为失败", interrupted.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        activeJobs.values().forEach(job -> job.cancelled = true);
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交导出任务
+     *
+     * 参数在提交时即校验，校验失败不会创建任务
+     *
+     * @param request 导出请求
+     * @return 任务状态
+     * @throws BusinessException 格式不支持、参数不合法、超出用户并发上限或队列已满时抛出
+     */
+    public ExportJobDTO submit(ExportJobRequest request) {
+        Long userId = CurrentUserContext.getCurrentUserId();
+        ExportFormat format = ExportFormat.of(request.getFormat());
+        PreparedReportExecution execution = reportExecutionService.prepare(request.getReportId(), request.getParams());
+
+        AtomicInteger active = activeByUser.computeIfAbsent(userId, id -> new AtomicInteger());
+        if (active.incrementAndGet() > perUserLimit) {
+            active.decrementAndGet();
+            throw new BusinessException("EXPORT_LIMIT_EXCEEDED",
+                    "同时进行的导出任务不能超过" + perUserLimit + "个，请等待已有任务完成");
+        }
+
+        ExportJob job = new ExportJob();
+        try {
+            job.setReportId(request.getReportId());
+            job.setUserId(userId);
+            job.setFormat(format.name());
+            job.setParams(toJson(request.getParams()));
+            job.setStatus(STATUS_QUEUED);
+            job.setFileName(execution.getReportName() + "_" + LocalDateTime.now().format(FILE_TIME)
+                    + "." + format.extension);
+            job = exportJobRepository.save(job);
+        } catch (RuntimeException e) {
+            active.decrementAndGet();
+            throw e;
+        }
+
+        ActiveJob activeJob = new ActiveJob(job.getId(), userId);
+        activeJob.task = () -> run(activeJob, execution, format);
+        activeJobs.put(job.getId(), activeJob);
+        try {
+            executor.execute(activeJob.task);
+        } catch (RejectedExecutionException e) {
+            release(activeJob);
+            finish(job.getId(), STATUS_FAILED, 0, null, "导出队列已满");
+            throw new BusinessException("EXPORT_QUEUE_FULL", "导出任务过多，请稍后再试");
+        }
+
+        log.info("导出任务已提交, 任务ID: {}, 报表ID: {}, 格式: {}, 用户ID: {}",
+                job.getId(), job.getReportId(), format, userId);
+        return toDTO(job);
+    }
+
+    /**
+     * 查询任务状态
+     *
+     * @param jobId 任务ID
+     * @return 任务状态，执行中的任务返回实时行数
+     */
+    @Transactional(readOnly = true)
+    public ExportJobDTO getJob(Long jobId) {
+        return toDTO(findOwnJob(jobId));
+    }
+
+    /**
+     * 查询当前用户的导出任务
+     *
+     * @return 任务列表，按提交时间倒序
+     */
+    @Transactional(readOnly = true)
+    public List<ExportJobDTO> listJobs() {
+        return exportJobRepository.findByUserIdOrderByIdDesc(CurrentUserContext.getCurrentUserId()).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 取消或删除任务
+     *
+     * 排队或执行中的任务被取消；已结束的任务连同导出文件一起删除
+     *
+     * @param jobId 任务ID
+     */
+    public void cancelOrDelete(Long jobId) {
+        ExportJob job = findOwnJob(jobId);
+        ActiveJob activeJob = activeJobs.get(jobId);
+        if (activeJob != null) {
+            if (activeJob.started.compareAndSet(false, true)) {
+                // 尚未开始执行，直接从队列移除
+                executor.remove(activeJob.task);
+                release(activeJob);
+                finish(jobId, STATUS_CANCELLED, 0, null, null);
+            } else {
+                activeJob.cancelled = true;
+            }
+            log.info("导出任务已取消, 任务ID: {}", jobId);
+            return;
+        }
+
+        deleteFile(job);
+        exportJobRepository.delete(job);
+        log.info("导出任务已删除, 任务ID: {}", jobId);
+    }
+
+    /**
+     * 获取已完成任务的导出文件
+     *
+     * @param jobId 任务ID
+     * @return 导出文件
+     * @throws BusinessException 任务未完成或文件已被清理时抛出
+     */
+    public ExportFile getFile(Long jobId) {
+        ExportJob job = findOwnJob(jobId);
+        if (!STATUS_COMPLETED.equals(job.getStatus())) {
+            throw new BusinessException("EXPORT_NOT_READY", "导出任务尚未完成");
+        }
+        ExportFormat format = ExportFormat.of(job.getFormat());
+        Path path = filePath(job.getId(), format);
+        if (!Files.exists(path)) {
+            throw new BusinessException("EXPORT_FILE_MISSING", "导出文件已过期或被清理");
+        }
+        return new ExportFile(path, job.getFileName(), format.mediaType);
+    }
+
+    /**
+     * 清理超过保留期的已结束任务及其文件
+     */
+    @Scheduled(initialDelayString = "PT10M", fixedDelayString = "PT1H")
+    public void purgeExpired() {
+        List<ExportJob> expired = exportJobRepository.findByFinishedAtBefore(LocalDateTime.now().minus(retention));
+        for (ExportJob job : expired) {
+            if (!activeJobs.containsKey(job.getId())) {
+                deleteFile(job);
+                exportJobRepository.delete(job);
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("清理过期导出任务{}个", expired.size());
+        }
+    }
+
+    /**
+     * 在工作线程中执行导出
+     */
+    private void run(ActiveJob activeJob, PreparedReportExecution execution, ExportFormat format) {
+        if (!activeJob.started.compareAndSet(false, true)) {
+            return;
+        }
+        Long jobId = activeJob.jobId;
+        Path target = filePath(jobId, format);
+        Path part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        try {
+            markRunning(jobId);
+            long rows;
+            try (OutputStream out = Files.newOutputStream(part)) {
+                rows = reportExecutionService.execute(execution,
+                        new ProgressRowHandler(format.writer(out, execution.getReportName()), activeJob));
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finish(jobId, STATUS_COMPLETED, rows, Files.size(target), null);
+            log.info("导出任务完成, 任务ID: {}, 行数: {}, 文件大小: {}", jobId, rows, Files.size(target));
+        } catch (ExportCancelledException e) {
+            finish(jobId, STATUS_CANCELLED, activeJob.rowsWritten, null, null);
+        } catch (BusinessException e) {
+            log.warn("导出任务失败, 任务ID: {}, 错误信息: {}", jobId, e.getMessage());
+            finish(jobId, STATUS_FAILED, activeJob.rowsWritten, null, e.getMessage());
+        } catch (Exception e) {
+            log.error("导出任务失败, 任务ID: {}", jobId, e);
+            finish(jobId, STATUS_FAILED, activeJob.rowsWritten, null, "导出失败: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                log.warn("删除临时文件失败: {}", part);
+            }
+            release(activeJob);
+        }
+    }
+
+    private void markRunning(Long jobId) {
+        ExportJob job = exportJobRepository.findById(jobId)
+                .orElseThrow(() -> new BusinessException("EXPORT_JOB_NOT_FOUND", "导出任务不存在: " + jobId));
+        job.setStatus(STATUS_RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        exportJobRepository.save(job);
+    }
+
+    private void finish(Long jobId, String status, long rows, Long fileSize, String errorMessage) {
+        exportJobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(status);
+            job.setRowsWritten(rows);
+            job.setFileSize(fileSize);
+            job.setErrorMessage(errorMessage);
+            job.setFinishedAt(LocalDateTime.now());
+            exportJobRepository.save(job);
+        });
+    }
+
+    private void release(ActiveJob activeJob) {
+        activeJobs.remove(activeJob.jobId, activeJob);
+        AtomicInteger active = activeByUser.get(activeJob.userId);
+        if (active != null) {
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * 查找任务，非本人的任务（管理员除外）按不存在处理
+     */
+    private ExportJob findOwnJob(Long jobId) {
+        ExportJob job = exportJobRepository.findById(jobId)
+                .orElseThrow(() -> new BusinessException("EXPORT_JOB_NOT_FOUND", "导出任务不存在: " + jobId));
+        if (!job.getUserId().equals(CurrentUserContext.getCurrentUserId()) && !CurrentUserContext.isAdmin()) {
+            throw new BusinessException("EXPORT_JOB_NOT_FOUND", "导出任务不存在: " + jobId);
+        }
+        return job;
+    }
+
+    private void deleteFile(ExportJob job) {
+        try {
+            Files.deleteIfExists(filePath(job.getId(), ExportFormat.of(job.getFormat())));
+        } catch (IOException e) {
+            log.warn("删除导出文件失败, 任务ID: {}, 错误信息: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private Path filePath(Long jobId, ExportFormat format) {
+        return spoolDir.resolve(jobId + "." + format.extension);
+    }
+
+    private ExportJobDTO toDTO(ExportJob job) {
+        ExportJobDTO dto = new ExportJobDTO();
+        dto.setId(job.getId());
+        dto.setReportId(job.getReportId());
+        dto.setFormat(job.getFormat());
+        dto.setStatus(job.getStatus());
+        dto.setRowsWritten(job.getRowsWritten());
+        dto.setFileSize(job.getFileSize());
+        dto.setErrorMessage(job.getErrorMessage());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+
+        ActiveJob activeJob = activeJobs.get(job.getId());
+        if (activeJob != null && activeJob.started.get()) {
+            dto.setRowsWritten(activeJob.rowsWritten);
+        }
+        return dto;
+    }
+
+    private String toJson(Map<String, Object> params) {
+        if (params == null || params.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(params);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("INVALID_PARAM", "参数无法序列化");
+        }
+    }
+
+    /**
+     * 导出文件
+     *
+     * @param path 文件路径
+     * @param fileName 下载文件名
+     * @param mediaType 内容类型
+     */
+    public record ExportFile(Path path, String fileName, String mediaType) {
+    }
+
+    /**
+     * 支持的导出格式
+     */
+    private enum ExportFormat {
+        CSV("csv", "text/csv;charset=UTF-8"),
+        TSV("tsv", "text/tab-separated-values;charset=UTF-8"),
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+        private final String extension;
+        private final String mediaType;
+
+        ExportFormat(String extension, String mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        static ExportFormat of(String format) {
+            if (format != null) {
+                for (ExportFormat value : values()) {
+                    if (value.name().equalsIgnoreCase(format)) {
+                        return value;
+                    }
+                }
+            }
+            throw new BusinessException("INVALID_EXPORT_FORMAT", "不支持的导出格式: " + format);
+        }
+
+        ReportRowHandler writer(OutputStream out, String reportName) {
+            return switch (this) {
+                case CSV -> new CsvRowWriter(out, ',');
+                case TSV -> new CsvRowWriter(out, '\t');
+                case XLSX -> new XlsxRowWriter(out, reportName);
+            };
+        }
+    }
+
+    /**
+     * 排队或执行中的任务
+     */
+    private static final class ActiveJob {
+        private final Long jobId;
+        private final Long userId;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private Runnable task;
+        private volatile boolean cancelled;
+        private volatile long rowsWritten;
+
+        private ActiveJob(Long jobId, Long userId) {
+            this.jobId = jobId;
+            this.userId = userId;
+        }
+    }
+
+    /**
+     * 记录进度并响应取消的行处理器
+     */
+    private static final class ProgressRowHandler implements ReportRowHandler {
+        private final ReportRowHandler delegate;
+        private final ActiveJob activeJob;
+        private long rows;
+
+        private ProgressRowHandler(ReportRowHandler delegate, ActiveJob activeJob) {
+            this.delegate = delegate;
+            this.activeJob = activeJob;
+        }
+
+        @Override
+        public void start(List<ResultColumn> columns) throws IOException {
+            delegate.start(columns);
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            if (activeJob.cancelled) {
+                throw new ExportCancelledException();
+            }
+            delegate.row(rs);
+            activeJob.rowsWritten = ++rows;
+        }
+
+        @Override
+        public void end(long rowCount) throws IOException {
+            delegate.end(rowCount);
+        }
+
+        @Override
+        public long bytesWritten() {
+            return delegate.bytesWritten();
+        }
+    }
+
+    private static final class ExportCancelledException extends IOException {
+        private ExportCancelledException() {
+            super("导出任务已取消");
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录失败限流
+ *
+ * 统计窗口（report.auth.login-limit.window）内的登录失败次数，超过上限后在窗口结束前直接拒绝登录（HTTP 429），
+ * 不再进行BCrypt校验，暴力破解不会消耗CPU：
+ * <ul>
+ *   <li>用户名+IP：达到max-failures-per-user-ip后拒绝该IP对该用户名的登录</li>
+ *   <li>用户名：达到max-failures-per-user后，只拒绝窗口内自身也有失败记录的IP，
+ *       没有失败记录的IP不受影响——攻击者无法通过猜错密码锁定他人账号</li>
+ *   <li>IP：达到max-failures-per-ip后拒绝该IP的所有登录</li>
+ * </ul>
+ * 只统计失败：同一出口IP下的大量正常登录不受影响。登录成功时清除该用户名及该用户名+IP的失败计数。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    private final int maxFailuresPerUserIp;
+    private final int maxFailuresPerUser;
+    private final int maxFailuresPerIp;
+    private final long windowNanos;
+    private final Counter throttledCounter;
+
+    private final ConcurrentHashMap<String, Window> userIpFailures = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> userFailures = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> ipFailures = new ConcurrentHashMap<>();
+
+    public LoginRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${report.auth.login-limit.max-failures-per-user-ip:5}") int maxFailuresPerUserIp,
+            @Value("${report.auth.login-limit.max-failures-per-user:20}") int maxFailuresPerUser,
+            @Value("${report.auth.login-limit.max-failures-per-ip:50}") int maxFailuresPerIp,
+            @Value("${report.auth.login-limit.window:15m}") Duration window) {
+        this.maxFailuresPerUserIp = maxFailuresPerUserIp;
+        this.maxFailuresPerUser = maxFailuresPerUser;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.windowNanos = window.toNanos();
+        this.throttledCounter = Counter.builder("report.auth.login.throttled")
+                .description("因登录失败次数过多被直接拒绝的登录数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 登录前检查
+     *
+     * @throws TooManyRequestsException 失败次数已达上限时抛出
+     */
+    public void check(String username, String ip) {
+        long now = System.nanoTime();
+        long retryAfterNanos = blockedFor(userIpFailures.get(userIpKey(username, ip)), maxFailuresPerUserIp, now);
+        if (ip != null) {
+            Window ipWindow = ipFailures.get(ip);
+            retryAfterNanos = Math.max(retryAfterNanos, blockedFor(ipWindow, maxFailuresPerIp, now));
+            if (ipWindow != null && !ipWindow.isExpired(now, windowNanos)) {
+                // 用户名维度只限制窗口内有失败记录的IP
+                retryAfterNanos = Math.max(retryAfterNanos,
+                        blockedFor(userFailures.get(userKey(username)), maxFailuresPerUser, now));
+            }
+        }
+        if (retryAfterNanos > 0) {
+            throttledCounter.increment();
+            log.warn("登录失败次数过多，拒绝登录, 用户名: {}, IP: {}", username, ip);
+            throw new TooManyRequestsException("LOGIN_THROTTLED", "登录失败次数过多，请稍后重试",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L)));
+        }
+    }
+
+    /**
+     * 记录一次登录失败
+     */
+    public void recordFailure(String username, String ip) {
+        long now = System.nanoTime();
+        increment(userIpFailures, userIpKey(username, ip), now);
+        increment(userFailures, userKey(username), now);
+        if (ip != null) {
+            increment(ipFailures, ip, now);
+        }
+    }
+
+    /**
+     * 登录成功，清除该用户名及该用户名+IP的失败计数（IP计数保留，避免用一个已知账号为暴力破解“重置”IP）
+     */
+    public void recordSuccess(String username, String ip) {
+        userIpFailures.remove(userIpKey(username, ip));
+        userFailures.remove(userKey(username));
+    }
+
+    /**
+     * 清理已过期的窗口
+     */
+    @Scheduled(fixedDelayString = "${report.auth.login-limit.cleanup-interval:PT5M}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        userIpFailures.values().removeIf(window -> window.isExpired(now, windowNanos));
+        userFailures.values().removeIf(window -> window.isExpired(now, windowNanos));
+        ipFailures.values().removeIf(window -> window.isExpired(now, windowNanos));
+    }
+
+    private long blockedFor(Window window, int maxFailures, long now) {
+        if (window == null) {
+            return 0;
+        }
+        if (window.failures < maxFailures || window.isExpired(now, windowNanos)) {
+            return 0;
+        }
+        return window.startNanos + windowNanos - now;
+    }
+
+    private void increment(ConcurrentHashMap<String, Window> failures, String key, long now) {
+        failures.compute(key, (k, window) -> {
+            if (window == null || window.isExpired(now, windowNanos)) {
+                window = new Window(now);
+            }
+            window.failures++;
+            return window;
+        });
+    }
+
+    private static String userKey(String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+
+    private static String userIpKey(String username, String ip) {
+        return userKey(username) + '@' + (ip != null ? ip : "");
+    }
+
+    /**
+     * 固定窗口：从第一次失败开始计时，计数只在compute中修改
+     */
+    private static final class Window {
+
+        private final long startNanos;
+        private volatile int failures;
+
+        private Window(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        private boolean isExpired(long now, long windowNanos) {
+            return now - startNanos >= windowNanos;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 密码哈希计算
+ *
+ * BCrypt每次校验耗时几十毫秒的CPU，集中登录时如果在请求线程上计算会占满CPU，拖慢同节点的报表执行。
+ * 这里把校验与加密放到专用的有界线程池中（report.auth.hash-pool-size），同时占用的CPU核数有上限；
+ * 队列满或等待超时时拒绝（HTTP 429），不无限堆积。
+ * 排队数与执行中的任务数记录为report.auth.hash.queued、report.auth.hash.active指标。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class PasswordHashingService {
+
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    private final PasswordEncoder passwordEncoder;
+    private final long timeoutNanos;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${report.auth.hash-pool-size:0}") int poolSize,
+            @Value("${report.auth.hash-queue-capacity:200}") int queueCapacity,
+            @Value("${report.auth.hash-timeout:10s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutNanos = timeout.toNanos();
+
+        // 默认使用一半的CPU核数，另一半留给报表执行
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("report.auth.hash.queued", executor, e -> e.getQueue().size())
+                .description("排队中的密码哈希计算数")
+                .register(meterRegistry);
+        Gauge.builder("report.auth.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("执行中的密码哈希计算数")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("report.auth.hash.rejected")
+                .description("队列已满或等待超时被拒绝的密码哈希计算数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 校验密码，阻塞直到计算完成
+     *
+     * @throws TooManyRequestsException 队列已满或等待超时时抛出
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * 已保存的哈希强度是否低于当前配置，需要重新加密
+     */
+    public boolean needsUpgrade(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * 在哈希线程池中异步加密，不等待结果；队列已满时放弃，下次登录再试
+     *
+     * @param rawPassword 明文密码
+     * @param callback 加密完成后在哈希线程中调用
+     */
+    public void encodeInBackground(String rawPassword, Consumer<String> callback) {
+        try {
+            executor.execute(() -> {
+                try {
+                    callback.accept(passwordEncoder.encode(rawPassword));
+                } catch (Exception e) {
+                    log.warn("后台密码加密失败: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("密码哈希队列已满，跳过后台加密");
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw busy();
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("密码哈希计算失败", e.getCause());
+        }
+    }
+
+    private TooManyRequestsException busy() {
+        return new TooManyRequestsException("LOGIN_BUSY", "登录人数过多，请稍后重试", RETRY_AFTER_SECONDS);
+    }
+}
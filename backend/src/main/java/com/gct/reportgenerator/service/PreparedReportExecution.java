@@ -0,0 +1,81 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ReportColumnDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 已完成参数校验与绑定准备的报表执行
+ *
+ * 在请求线程中生成（校验错误可直接返回4xx），在输出线程中执行
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class PreparedReportExecution {
+
+    /**
+     * 报表ID
+     */
+    private final Long reportId;
+
+    /**
+     * 报表名称
+     */
+    private final String reportName;
+
+    /**
+     * 报表数据源ID，为空时使用内置数据源
+     */
+    private final Long dataSourceId;
+
+    /**
+     * 报表原始SQL的SHA-256摘要
+     */
+    private final String sqlHash;
+
+    /**
+     * 已将命名参数替换为?的SQL
+     */
+    private final String sql;
+
+    /**
+     * 按占位符顺序排列的参数值
+     */
+    private final Object[] args;
+
+    /**
+     * 报表列配置
+     */
+    private final List<ReportColumnDTO> columns;
+
+    /**
+     * 发起用户ID与角色（在请求线程中取得，后台执行时不在请求上下文中）
+     */
+    private final Long userId;
+    private final String role;
+
+    /**
+     * 执行限制
+     */
+    private final ExecutionLimits limits;
+
+    /**
+     * 基于当前执行派生新的SQL（如外层包裹分页），追加的参数排在原参数之后
+     *
+     * @param wrappedSql 新SQL
+     * @param extraArgs 追加参数
+     * @return 新的执行对象
+     */
+    public PreparedReportExecution derive(String wrappedSql, Object... extraArgs) {
+        Object[] merged = new Object[args.length + extraArgs.length];
+        System.arraycopy(args, 0, merged, 0, args.length);
+        System.arraycopy(extraArgs, 0, merged, args.length, extraArgs.length);
+        return new PreparedReportExecution(reportId, reportName, dataSourceId, sqlHash, wrappedSql, merged, columns,
+                userId, role, limits);
+    }
+}
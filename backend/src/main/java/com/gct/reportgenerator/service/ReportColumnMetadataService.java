@@ -0,0 +1,180 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ReportColumnDTO;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.util.SqlTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 报表列元数据服务
+ *
+ * 只预编译报表SQL、不执行，从PreparedStatement的ResultSetMetaData读取结果列，
+ * 并按JDBC类型推断格式类型：
+ * <ul>
+ *   <li>DECIMAL/NUMERIC且小数位为2：CURRENCY</li>
+ *   <li>其他数值类型：NUMBER</li>
+ *   <li>DATE/TIME/TIMESTAMP：DATE</li>
+ *   <li>其余：TEXT</li>
+ * </ul>
+ * SQLite对没有声明类型的表达式列（如COALESCE、拼接）统一报告NUMERIC，这类无来源表的NUMERIC列按TEXT处理。
+ * 结果按（SQL摘要, 数据源）缓存：数据源配置修改或删除后清除该数据源的条目，
+ * 条目超过report.column-metadata-cache.ttl后重新读取，以反映底层表结构的变化。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class ReportColumnMetadataService {
+
+    private final DataSourceRegistry dataSourceRegistry;
+    private final SqlTemplateCache sqlTemplateCache;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    /**
+     * 访问顺序的LinkedHashMap，头部为最久未访问
+     */
+    private final LinkedHashMap<String, CachedColumns> columnsByHash;
+
+    public ReportColumnMetadataService(DataSourceRegistry dataSourceRegistry, SqlTemplateCache sqlTemplateCache,
+                                       @Value("${report.column-metadata-cache.max-entries:2000}") int maxEntries,
+                                       @Value("${report.column-metadata-cache.ttl:10m}") Duration ttl) {
+        this.dataSourceRegistry = dataSourceRegistry;
+        this.sqlTemplateCache = sqlTemplateCache;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.columnsByHash = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedColumns> eldest) {
+                return size() > ReportColumnMetadataService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 获取SQL的结果列（不执行SQL）
+     *
+     * @param sqlContent 报表SQL（可包含:param命名参数）
+     * @param dataSourceId 数据源ID，为空时使用内置数据源
+     * @return 结果列，displayName默认为列名
+     * @throws BusinessException SQL不是查询语句或无法预编译时抛出
+     */
+    public List<ReportColumnDTO> describe(String sqlContent, Long dataSourceId) {
+        SqlTemplate template = sqlTemplateCache.get(sqlContent);
+        if (!template.isQuery()) {
+            throw new BusinessException("INVALID_SQL", "报表SQL只能是查询语句");
+        }
+
+        // 同一SQL在不同数据源上的结果列可能不同
+        String key = template.getSqlHash() + "@" + dataSourceId;
+        CachedColumns cached;
+        synchronized (columnsByHash) {
+            cached = columnsByHash.get(key);
+        }
+        if (cached == null || System.nanoTime() - cached.loadedAtNanos() >= ttlNanos) {
+            cached = new CachedColumns(loadColumns(template, dataSourceId), System.nanoTime());
+            synchronized (columnsByHash) {
+                columnsByHash.put(key, cached);
+            }
+        }
+        return copyOf(cached.columns());
+    }
+
+    /**
+     * 清除数据源的结果列缓存（数据源配置修改或删除后调用）
+     *
+     * @param dataSourceId 数据源ID
+     */
+    public void invalidateDataSource(Long dataSourceId) {
+        String suffix = "@" + dataSourceId;
+        synchronized (columnsByHash) {
+            columnsByHash.keySet().removeIf(key -> key.endsWith(suffix));
+        }
+    }
+
+    private List<ReportColumnDTO> loadColumns(SqlTemplate template, Long dataSourceId) {
+        long startTime = System.currentTimeMillis();
+        try (Connection conn = dataSourceRegistry.getDataSource(dataSourceId).getConnection();
+             PreparedStatement ps = conn.prepareStatement(template.getSql())) {
+            ResultSetMetaData meta = ps.getMetaData();
+            if (meta == null) {
+                throw new BusinessException("SQL_PARSE_ERROR", "无法获取SQL结果列");
+            }
+
+            int count = meta.getColumnCount();
+            List<ReportColumnDTO> columns = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                ReportColumnDTO column = new ReportColumnDTO();
+                column.setFieldName(meta.getColumnLabel(i));
+                column.setDisplayName(meta.getColumnLabel(i));
+                column.setFormatType(formatTypeOf(meta, i));
+                columns.add(column);
+            }
+            log.info("读取SQL结果列完成, 列数: {}, 耗时: {}ms", count, System.currentTimeMillis() - startTime);
+            return columns;
+        } catch (SQLException e) {
+            log.warn("读取SQL结果列失败: {}", e.getMessage());
+            throw new BusinessException("SQL_PARSE_ERROR", "解析SQL失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按JDBC类型推断格式类型
+     */
+    static String formatTypeOf(ResultSetMetaData meta, int column) throws SQLException {
+        int type = meta.getColumnType(column);
+        switch (type) {
+            case Types.DECIMAL, Types.NUMERIC -> {
+                if (type == Types.NUMERIC && isBlank(meta.getTableName(column)) && meta.getScale(column) == 0) {
+                    // 无声明类型的表达式列，类型未知
+                    return "TEXT";
+                }
+                return meta.getScale(column) == 2 ? "CURRENCY" : "NUMBER";
+            }
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                 Types.REAL, Types.FLOAT, Types.DOUBLE -> {
+                return "NUMBER";
+            }
+            case Types.DATE, Types.TIME, Types.TIMESTAMP,
+                 Types.TIME_WITH_TIMEZONE, Types.TIMESTAMP_WITH_TIMEZONE -> {
+                return "DATE";
+            }
+            default -> {
+                return "TEXT";
+            }
+        }
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.isEmpty();
+    }
+
+    private static List<ReportColumnDTO> copyOf(List<ReportColumnDTO> columns) {
+        List<ReportColumnDTO> result = new ArrayList<>(columns.size());
+        for (ReportColumnDTO source : columns) {
+            ReportColumnDTO column = new ReportColumnDTO();
+            column.setFieldName(source.getFieldName());
+            column.setDisplayName(source.getDisplayName());
+            column.setFormatType(source.getFormatType());
+            result.add(column);
+        }
+        return result;
+    }
+
+    private record CachedColumns(List<ReportColumnDTO> columns, long loadedAtNanos) {
+    }
+}
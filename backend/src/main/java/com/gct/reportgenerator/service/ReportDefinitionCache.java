@@ -0,0 +1,132 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ReportDTO;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ReportDefinitionJdbcRepository;
+import com.gct.reportgenerator.util.SqlTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 报表定义缓存
+ *
+ * 报表定义（SQL、参数、列配置）每次执行都要读取，而修改很少。
+ * 缓存按报表ID保存完整定义及其编译后的SQL模板（执行时不再对SQL求摘要或扫描），
+ * 超过条目上限时淘汰最久未访问的报表；
+ * 报表修改或删除提交后失效，失效前已开始的加载结果不会写回缓存。
+ * 缓存中的对象由多个线程共享，调用方不得修改。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ReportDefinitionCache {
+
+    private final ReportDefinitionJdbcRepository reportDefinitionJdbcRepository;
+    private final SqlTemplateCache sqlTemplateCache;
+    private final int maxEntries;
+
+    /**
+     * 访问顺序的LinkedHashMap，头部为最久未访问
+     */
+    private final LinkedHashMap<Long, Definition> entries;
+    private final ConcurrentHashMap<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public ReportDefinitionCache(ReportDefinitionJdbcRepository reportDefinitionJdbcRepository,
+                                 SqlTemplateCache sqlTemplateCache,
+                                 @Value("${report.definition-cache.max-entries:10000}") int maxEntries) {
+        this.reportDefinitionJdbcRepository = reportDefinitionJdbcRepository;
+        this.sqlTemplateCache = sqlTemplateCache;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Definition> eldest) {
+                return size() > ReportDefinitionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 获取报表定义
+     *
+     * @param reportId 报表ID
+     * @return 报表定义（共享实例，只读）
+     * @throws BusinessException 报表不存在时抛出
+     */
+    public ReportDTO get(Long reportId) {
+        return getDefinition(reportId).report();
+    }
+
+    /**
+     * 获取报表定义及其SQL模板
+     *
+     * @param reportId 报表ID
+     * @return 报表定义与模板（共享实例，只读）
+     * @throws BusinessException 报表不存在时抛出
+     */
+    public Definition getDefinition(Long reportId) {
+        synchronized (entries) {
+            Definition cached = entries.get(reportId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long generation = generation(reportId).get();
+        ReportDTO report = load(reportId);
+        Definition loaded = new Definition(report, sqlTemplateCache.get(report.getSqlContent()));
+        synchronized (entries) {
+            if (generation(reportId).get() == generation) {
+                entries.put(reportId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 不经过缓存直接从数据库加载报表定义
+     *
+     * 用于写事务内读取刚写入的数据，结果不写入缓存
+     *
+     * @param reportId 报表ID
+     * @return 报表定义
+     * @throws BusinessException 报表不存在时抛出
+     */
+    public ReportDTO load(Long reportId) {
+        return reportDefinitionJdbcRepository.loadDefinition(reportId)
+                .orElseThrow(() -> new BusinessException("REPORT_NOT_FOUND", "报表不存在: " + reportId));
+    }
+
+    /**
+     * 失效指定报表的定义
+     *
+     * @param reportId 报表ID
+     */
+    public void invalidate(Long reportId) {
+        generation(reportId).incrementAndGet();
+        synchronized (entries) {
+            entries.remove(reportId);
+        }
+        log.debug("报表定义缓存失效, 报表ID: {}", reportId);
+    }
+
+    private AtomicLong generation(Long reportId) {
+        return generations.computeIfAbsent(reportId, id -> new AtomicLong());
+    }
+
+    /**
+     * 报表定义与其编译后的SQL模板
+     *
+     * @param report 报表定义
+     * @param template SQL模板
+     */
+    public record Definition(ReportDTO report, SqlTemplate template) {
+    }
+}
@@ -0,0 +1,324 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ReportColumnDTO;
+import com.gct.reportgenerator.dto.ReportDTO;
+import com.gct.reportgenerator.dto.ReportParamDTO;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.service.ExecutionAdmission.AdmissionPermit;
+import com.gct.reportgenerator.util.CurrentUserContext;
+import com.gct.reportgenerator.util.ReportRowHandler;
+import com.gct.reportgenerator.util.ResultColumn;
+import com.gct.reportgenerator.util.SqlTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 报表执行服务
+ *
+ * 使用预先编译的SQL模板，将:param命名参数按槽位绑定为JDBC预编译参数，
+ * 在报表所属数据源的连接池上以较小的fetchSize逐行读取结果并交给ReportRowHandler输出；
+ * 并发准入由ExecutionAdmission控制，超时、行数与字节数上限及取消由ExecutionGovernor管控
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportExecutionService {
+
+    /**
+     * 每输出64行更新一次进度并检查取消
+     */
+    private static final long PROGRESS_INTERVAL_MASK = 63;
+
+    private final ReportDefinitionCache reportDefinitionCache;
+    private final DataSourceRegistry dataSourceRegistry;
+    private final ExecutionGovernor executionGovernor;
+    private final ExecutionAdmission executionAdmission;
+    private final ExecutionLogWriter executionLogWriter;
+    private final ReportPermissionService reportPermissionService;
+
+    @Value("${report.execution.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * 准备报表执行：从定义缓存获取报表定义、校验并转换参数值
+     *
+     * @param reportId 报表ID
+     * @param paramValues 参数值（key为参数名）
+     * @return 可执行对象
+     * @throws BusinessException 报表不存在、无权访问、SQL不是查询语句或参数不合法时抛出
+     */
+    public PreparedReportExecution prepare(Long reportId, Map<String, Object> paramValues) {
+        ReportDefinitionCache.Definition definition = reportDefinitionCache.getDefinition(reportId);
+        ReportDTO report = definition.report();
+        reportPermissionService.checkAccess(report);
+
+        SqlTemplate template = definition.template();
+        if (!template.isQuery()) {
+            throw new BusinessException("INVALID_SQL", "报表SQL只能是查询语句");
+        }
+
+        Map<String, ReportParamDTO> paramConfig = new HashMap<>();
+        for (ReportParamDTO param : report.getParams()) {
+            paramConfig.put(param.getParamName(), param);
+        }
+        Map<String, Object> values = paramValues != null ? paramValues : Collections.emptyMap();
+
+        Map<String, SqlParameterValue> bound = new HashMap<>();
+        for (String name : template.getParamNames()) {
+            ReportParamDTO param = paramConfig.get(name);
+            Object raw = values.get(name);
+            if (isBlank(raw) && param != null && Boolean.TRUE.equals(param.getRequired())) {
+                throw new BusinessException("PARAM_REQUIRED", "缺少必填参数: " + name);
+            }
+            String paramType = param != null ? param.getParamType() : "STRING";
+            Object value = convertParamValue(name, paramType, raw);
+            bound.put(name, new SqlParameterValue(value instanceof Date ? Types.DATE : sqlTypeOf(paramType), value));
+        }
+
+        List<String> slots = template.getSlots();
+        Object[] args = new Object[slots.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = bound.get(slots.get(i));
+        }
+        String role = CurrentUserContext.findCurrentUserRole();
+        return new PreparedReportExecution(report.getId(), report.getName(), report.getDataSourceId(), template.getSqlHash(),
+                template.getSql(), args, report.getColumns(), CurrentUserContext.findCurrentUserId(), role,
+                executionGovernor.limitsFor(role, report.getQueryTimeoutSeconds()));
+    }
+
+    /**
+     * 获取执行许可（可能排队等待）
+     *
+     * 流式输出的接口在请求线程中获取许可，排队超时可直接返回429；许可随后交给输出线程的execute释放，
+     * 调用方须保证execute未运行时（如异步请求超时）也关闭许可
+     *
+     * @param execution 已准备的执行
+     * @return 执行许可
+     * @throws BusinessException 排队超时或队列已满时抛出（HTTP 429）
+     */
+    public AdmissionPermit admit(PreparedReportExecution execution) {
+        return executionAdmission.acquire(execution);
+    }
+
+    /**
+     * 获取执行许可后执行报表并逐行输出
+     *
+     * @param execution 已准备的执行
+     * @param handler 行处理器
+     * @return 输出行数
+     * @throws BusinessException 排队超时、SQL执行失败、超时、被取消或超出行数/字节数上限时抛出
+     */
+    public long execute(PreparedReportExecution execution, ReportRowHandler handler) throws IOException {
+        return execute(execution, admit(execution), handler);
+    }
+
+    /**
+     * 执行报表并逐行输出，结束时释放许可
+     *
+     * 执行期间登记在ExecutionGovernor中，受超时、行数与字节数上限约束，可被取消；
+     * 结束后（无论成功与否）提交一条执行日志
+     *
+     * @param execution 已准备的执行
+     * @param permit 已获取的执行许可
+     * @param handler 行处理器
+     * @return 输出行数
+     * @throws BusinessException SQL执行失败、超时、被取消或超出行数/字节数上限时抛出
+     */
+    public long execute(PreparedReportExecution execution, AdmissionPermit permit, ReportRowHandler handler)
+            throws IOException {
+        try (permit) {
+            LocalDateTime startedAt = LocalDateTime.now();
+            RunningExecution running = executionGovernor.start(execution);
+            String errorCode = null;
+            String errorMessage = null;
+            try {
+                return run(execution, running, handler);
+            } catch (BusinessException e) {
+                errorCode = e.getCode();
+                errorMessage = e.getMessage();
+                throw e;
+            } catch (IOException e) {
+                // 多为客户端断开
+                errorCode = "OUTPUT_ERROR";
+                errorMessage = e.getMessage();
+                throw e;
+            } catch (RuntimeException e) {
+                errorCode = "SYSTEM_ERROR";
+                errorMessage = e.getMessage();
+                throw e;
+            } finally {
+                executionGovernor.finish(running);
+                executionLogWriter.submit(new ExecutionLogRecord(execution.getUserId(), execution.getReportId(),
+                        startedAt, running.getElapsedMillis(), permit.getWaitMillis(), running.getRowsStreamed(),
+                        errorCode == null, errorCode, errorMessage));
+            }
+        }
+    }
+
+    private long run(PreparedReportExecution execution, RunningExecution running, ReportRowHandler handler)
+            throws IOException {
+        long startTime = System.currentTimeMillis();
+        long rowCount = 0;
+        ExecutionLimits limits = execution.getLimits();
+
+        try (Connection conn = dataSourceRegistry.getDataSource(execution.getDataSourceId()).getConnection();
+             PreparedStatement ps = conn.prepareStatement(execution.getSql(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            running.attach(ps);
+            ps.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(execution.getArgs()).setValues(ps);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                handler.start(resolveColumns(rs.getMetaData(), execution.getColumns()));
+                while (rs.next()) {
+                    if (rowCount == limits.maxRows()) {
+                        throw new BusinessException("EXECUTION_ROW_LIMIT", "结果行数超过上限: " + limits.maxRows());
+                    }
+                    handler.row(rs);
+                    rowCount++;
+                    long bytes = handler.bytesWritten();
+                    if (bytes > limits.maxBytes()) {
+                        throw new BusinessException("EXECUTION_BYTE_LIMIT", "结果大小超过上限: " + limits.maxBytes() + "字节");
+                    }
+                    if ((rowCount & PROGRESS_INTERVAL_MASK) == 0) {
+                        running.progress(rowCount, bytes);
+                        // 输出阻塞期间到期的取消不会中断语句，在此补充检查
+                        if (running.getCancelReason() != null) {
+                            throw terminated(running);
+                        }
+                    }
+                }
+                handler.end(rowCount);
+            }
+        } catch (SQLException e) {
+            if (running.getCancelReason() != null) {
+                throw terminated(running);
+            }
+            log.error("报表执行失败, 报表ID: {}, 错误信息: {}", execution.getReportId(), e.getMessage());
+            throw new BusinessException("SQL_EXECUTION_ERROR", "报表执行失败: " + e.getMessage());
+        } finally {
+            running.progress(rowCount, handler.bytesWritten());
+        }
+
+        log.info("报表执行完成, 报表ID: {}, 行数: {}, 耗时: {}ms",
+                execution.getReportId(), rowCount, System.currentTimeMillis() - startTime);
+        return rowCount;
+    }
+
+    private BusinessException terminated(RunningExecution running) {
+        log.warn("报表执行终止, 执行ID: {}, 报表ID: {}, 原因: {}, 已输出行数: {}",
+                running.getExecutionId(), running.getReportId(), running.getCancelReason(), running.getRowsStreamed());
+        if ("EXECUTION_TIMEOUT".equals(running.getCancelReason())) {
+            return new BusinessException("EXECUTION_TIMEOUT",
+                    "报表执行超时（超过" + running.getLimits().timeoutMillis() / 1000 + "秒）");
+        }
+        return new BusinessException("EXECUTION_CANCELLED", "报表执行已被取消");
+    }
+
+    /**
+     * 合并结果集元数据与报表列配置
+     */
+    private List<ResultColumn> resolveColumns(ResultSetMetaData meta, List<ReportColumnDTO> configured) throws SQLException {
+        Map<String, ReportColumnDTO> byField = new HashMap<>();
+        for (ReportColumnDTO column : configured) {
+            byField.put(column.getFieldName().toLowerCase(Locale.ROOT), column);
+        }
+
+        int count = meta.getColumnCount();
+        List<ResultColumn> columns = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String label = meta.getColumnLabel(i);
+            ReportColumnDTO config = byField.get(label.toLowerCase(Locale.ROOT));
+            columns.add(new ResultColumn(
+                    label,
+                    config != null ? config.getDisplayName() : label,
+                    config != null ? config.getFormatType() : "TEXT",
+                    meta.getColumnType(i)));
+        }
+        return columns;
+    }
+
+    /**
+     * 按报表参数类型转换参数值
+     */
+    private Object convertParamValue(String name, String paramType, Object raw) {
+        if (isBlank(raw)) {
+            return null;
+        }
+        try {
+            switch (paramType) {
+                case "NUMBER" -> {
+                    if (raw instanceof Integer || raw instanceof Long) {
+                        return ((Number) raw).longValue();
+                    }
+                    return new BigDecimal(raw.toString().trim());
+                }
+                case "DATE" -> {
+                    String text = raw.toString().trim();
+                    if (text.length() == 10) {
+                        return Date.valueOf(LocalDate.parse(text));
+                    }
+                    return Timestamp.valueOf(LocalDateTime.parse(text.replace(' ', 'T')));
+                }
+                case "BOOLEAN" -> {
+                    if (raw instanceof Boolean bool) {
+                        return bool;
+                    }
+                    String text = raw.toString().trim();
+                    if ("true".equalsIgnoreCase(text) || "1".equals(text)) {
+                        return Boolean.TRUE;
+                    }
+                    if ("false".equalsIgnoreCase(text) || "0".equals(text)) {
+                        return Boolean.FALSE;
+                    }
+                    throw new IllegalArgumentException(text);
+                }
+                default -> {
+                    return raw.toString();
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("INVALID_PARAM", "参数值不合法: " + name + "=" + raw);
+        }
+    }
+
+    private int sqlTypeOf(String paramType) {
+        return switch (paramType) {
+            case "NUMBER" -> Types.NUMERIC;
+            case "DATE" -> Types.TIMESTAMP;
+            case "BOOLEAN" -> Types.BOOLEAN;
+            default -> Types.VARCHAR;
+        };
+    }
+
+    private boolean isBlank(Object value) {
+        return value == null || (value instanceof String text && text.trim().isEmpty());
+    }
+}
@@ -0,0 +1,104 @@
+package com.gct.reportgenerator.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 报表名称查重的否定缓存
+ *
+ * 前端每次输入都会调用名称查重，绝大多数名称并不存在。这里只缓存"不存在"的结果：
+ * <ul>
+ *   <li>TTL过期（默认30秒），条目数上限内淘汰最久未访问的名称</li>
+ *   <li>报表新增或改名提交后清空；清空前已开始的查询结果不会写回缓存</li>
+ * </ul>
+ * 名称按SQLite的NOCASE规则比较（只忽略ASCII大小写）。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Component
+public class ReportNameCache {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    /**
+     * 访问顺序的LinkedHashMap，value为写入时间
+     */
+    private final LinkedHashMap<String, Long> absent;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ReportNameCache(
+            @Value("${report.name-check.negative-ttl:30s}") Duration ttl,
+            @Value("${report.name-check.max-entries:1000}") int maxEntries) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.absent = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > ReportNameCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 判断名称是否存在，已知不存在时不查询数据库
+     *
+     * @param name 报表名称
+     * @param loader 查询数据库
+     * @return 是否存在
+     */
+    public boolean exists(String name, Predicate<String> loader) {
+        String key = foldCase(name);
+        long now = System.currentTimeMillis();
+        synchronized (absent) {
+            Long cachedAt = absent.get(key);
+            if (cachedAt != null) {
+                if (now - cachedAt < ttlMillis) {
+                    return false;
+                }
+                absent.remove(key);
+            }
+        }
+
+        long startGeneration = generation.get();
+        boolean exists = loader.test(name);
+        if (!exists) {
+            synchronized (absent) {
+                if (generation.get() == startGeneration) {
+                    absent.put(key, now);
+                }
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * 清空缓存（报表新增或改名后调用）
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        synchronized (absent) {
+            absent.clear();
+        }
+    }
+
+    /**
+     * 与SQLite NOCASE一致，只转换ASCII大写字母
+     */
+    private static String foldCase(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,422 @@
+package com.gct.reportgenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gct.reportgenerator.dto.ReportPageDTO;
+import com.gct.reportgenerator.dto.ReportPageRequest;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.util.RowCollector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.JDBCType;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * 报表分页执行服务
+ *
+ * 指定唯一键列（keyField）时，将报表SQL包裹为keyset（seek）查询：按"排序字段 NULLS LAST, 唯一键"排序，
+ * 续页从上一页最后一行的(排序值, 键值)之后开始定位，不再扫描之前的页。唯一键保证顺序是全序，
+ * 排序值相同的行在每次查询中的先后一致，不重不漏。进入排序值为NULL的尾部后只按键值定位。
+ * 未指定唯一键时退化为LIMIT/OFFSET。
+ *
+ * 令牌中的排序值与键值连同其JDBC类型一起编码，续页时按该类型绑定，日期、时间、DECIMAL等不会退化为字符串比较。
+ * 每页结果经ReportResultCache缓存。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportPageService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private static final String MODE_KEYSET = "KEYSET";
+    private static final String MODE_OFFSET = "OFFSET";
+
+    private final ReportExecutionService reportExecutionService;
+    private final ReportResultCache reportResultCache;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 分页执行报表
+     *
+     * @param reportId 报表ID
+     * @param request 分页请求
+     * @return 当前页结果及下一页令牌
+     */
+    public ReportPageDTO executePage(Long reportId, ReportPageRequest request) {
+        int pageSize = request.getPageSize() != null ? request.getPageSize() : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BusinessException("INVALID_PAGE_SIZE", "每页行数必须在1-" + MAX_PAGE_SIZE + "之间");
+        }
+
+        String sortField = request.getSortField();
+        if (sortField != null && !IDENTIFIER.matcher(sortField).matches()) {
+            throw new BusinessException("INVALID_SORT_FIELD", "排序字段不合法: " + sortField);
+        }
+        String keyField = request.getKeyField();
+        if (keyField != null && !IDENTIFIER.matcher(keyField).matches()) {
+            throw new BusinessException("INVALID_SORT_FIELD", "唯一键列不合法: " + keyField);
+        }
+        if (sortField != null && sortField.equalsIgnoreCase(keyField)) {
+            sortField = null;
+        }
+        boolean descending = "DESC".equalsIgnoreCase(request.getSortOrder());
+        PageOrder order = new PageOrder(sortField, keyField, descending);
+
+        PreparedReportExecution base = reportExecutionService.prepare(reportId, request.getParams());
+        String queryHash = queryHash(reportId, request.getParams(), order);
+        PageCursor cursor = request.getCursor() != null ? decodeCursor(request.getCursor(), queryHash) : null;
+
+        ReportResultCache.CacheKey key = ReportResultCache.key(reportId, base.getSqlHash(), request.getParams(),
+                pageSize + "|" + order + "|" + request.getCursor());
+        return reportResultCache.get(key, () -> loadPage(base, order, cursor, pageSize, queryHash));
+    }
+
+    /**
+     * 执行SQL读取一页数据
+     */
+    private ReportPageDTO loadPage(PreparedReportExecution base, PageOrder order, PageCursor cursor,
+                                   int pageSize, String queryHash) {
+        String mode = order.keyField != null && (cursor == null || MODE_KEYSET.equals(cursor.mode))
+                ? MODE_KEYSET : MODE_OFFSET;
+        long position = cursor != null ? cursor.position : 0;
+
+        PreparedReportExecution paged = MODE_KEYSET.equals(mode)
+                ? keysetQuery(base, order, cursor, pageSize)
+                : offsetQuery(base, order, position, pageSize);
+
+        RowCollector collector = new RowCollector();
+        try {
+            reportExecutionService.execute(paged, collector);
+        } catch (IOException e) {
+            throw new BusinessException("SQL_EXECUTION_ERROR", "报表执行失败: " + e.getMessage());
+        }
+
+        List<List<Object>> rows = collector.getRows();
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+        }
+
+        ReportPageDTO page = new ReportPageDTO();
+        page.setColumns(collector.getColumns());
+        page.setRows(rows);
+        page.setPageSize(pageSize);
+        page.setHasMore(hasMore);
+        page.setPagingMode(mode);
+        if (hasMore) {
+            page.setNextCursor(encodeCursor(nextCursor(mode, order, collector, rows, position, queryHash)));
+        }
+        return page;
+    }
+
+    /**
+     * 生成keyset查询
+     *
+     * 排序统一为"排序字段 NULLS LAST, 唯一键"，续页条件包含IS NULL以保留尾部的NULL行
+     */
+    private PreparedReportExecution keysetQuery(PreparedReportExecution base, PageOrder order,
+                                                PageCursor cursor, int pageSize) {
+        String sort = order.sortField != null ? quote(order.sortField) : null;
+        String key = quote(order.keyField);
+        String after = order.descending ? " < ?" : " > ?";
+        StringBuilder sql = new StringBuilder("SELECT * FROM (")
+                .append(stripTerminator(base.getSql()))
+                .append(") gct_page");
+
+        List<Object> args = new ArrayList<>();
+        boolean nullTail = cursor != null && sort != null && cursor.sortValue == null;
+        if (cursor != null) {
+            Object keyValue = cursor.keyValue.toParameter();
+            if (sort == null) {
+                sql.append(" WHERE ").append(key).append(after);
+                args.add(keyValue);
+            } else if (nullTail) {
+                sql.append(" WHERE ").append(sort).append(" IS NULL AND ").append(key).append(after);
+                args.add(keyValue);
+            } else {
+                Object sortValue = cursor.sortValue.toParameter();
+                sql.append(" WHERE (").append(sort).append(after)
+                   .append(" OR (").append(sort).append(" = ? AND ").append(key).append(after).append(')')
+                   .append(" OR ").append(sort).append(" IS NULL)");
+                args.add(sortValue);
+                args.add(sortValue);
+                args.add(keyValue);
+            }
+        }
+        sql.append(" ORDER BY ").append(nullTail ? orderByKey(order) : orderBy(order)).append(" LIMIT ?");
+        args.add(pageSize + 1);
+        return base.derive(sql.toString(), args.toArray());
+    }
+
+    /**
+     * 生成LIMIT/OFFSET查询
+     */
+    private PreparedReportExecution offsetQuery(PreparedReportExecution base, PageOrder order,
+                                                long position, int pageSize) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM (")
+                .append(stripTerminator(base.getSql()))
+                .append(") gct_page");
+        if (order.sortField != null || order.keyField != null) {
+            sql.append(" ORDER BY ").append(orderBy(order));
+        }
+        sql.append(" LIMIT ? OFFSET ?");
+        return base.derive(sql.toString(), pageSize + 1, position);
+    }
+
+    private String orderBy(PageOrder order) {
+        String direction = order.descending ? "DESC" : "ASC";
+        if (order.sortField == null) {
+            return orderByKey(order);
+        }
+        String sort = quote(order.sortField) + " " + direction + " NULLS LAST";
+        return order.keyField != null ? sort + ", " + orderByKey(order) : sort;
+    }
+
+    private String orderByKey(PageOrder order) {
+        return quote(order.keyField) + (order.descending ? " DESC" : " ASC");
+    }
+
+    private String quote(String identifier) {
+        return "\"" + identifier + "\"";
+    }
+
+    /**
+     * 计算下一页令牌
+     *
+     * 最后一行的键值为NULL或值的类型无法编码时，改用OFFSET继续
+     */
+    private PageCursor nextCursor(String mode, PageOrder order, RowCollector collector, List<List<Object>> rows,
+                                  long position, String queryHash) {
+        PageCursor next = new PageCursor();
+        next.hash = queryHash;
+        next.position = position + rows.size();
+        next.mode = MODE_OFFSET;
+        if (!MODE_KEYSET.equals(mode)) {
+            return next;
+        }
+
+        List<Object> last = rows.get(rows.size() - 1);
+        CursorValue keyValue = CursorValue.of(last.get(columnIndex(collector, order.keyField)));
+        if (keyValue == null) {
+            return next;
+        }
+        if (order.sortField != null) {
+            Object sortValue = last.get(columnIndex(collector, order.sortField));
+            if (sortValue != null) {
+                next.sortValue = CursorValue.of(sortValue);
+                if (next.sortValue == null) {
+                    return next;
+                }
+            }
+        }
+        next.mode = MODE_KEYSET;
+        next.keyValue = keyValue;
+        return next;
+    }
+
+    private int columnIndex(RowCollector collector, String field) {
+        for (int i = 0; i < collector.getColumns().size(); i++) {
+            if (collector.getColumns().get(i).getFieldName().equalsIgnoreCase(field)) {
+                return i;
+            }
+        }
+        throw new BusinessException("INVALID_SORT_FIELD", "排序字段不存在: " + field);
+    }
+
+    private String stripTerminator(String sql) {
+        int end = sql.length();
+        while (end > 0 && (Character.isWhitespace(sql.charAt(end - 1)) || sql.charAt(end - 1) == ';')) {
+            end--;
+        }
+        return sql.substring(0, end);
+    }
+
+    /**
+     * 查询指纹：令牌只能用于相同报表、参数与排序的续页
+     */
+    private String queryHash(Long reportId, Map<String, Object> params, PageOrder order) {
+        Map<String, Object> sorted = params != null ? new TreeMap<>(params) : new TreeMap<>();
+        String text = reportId + "|" + sorted + "|" + order;
+        return Integer.toHexString(text.hashCode());
+    }
+
+    private String encodeCursor(PageCursor cursor) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("m", cursor.mode);
+        map.put("p", cursor.position);
+        map.put("h", cursor.hash);
+        if (MODE_KEYSET.equals(cursor.mode)) {
+            map.put("k", cursor.keyValue.toMap());
+            if (cursor.sortValue != null) {
+                map.put("s", cursor.sortValue.toMap());
+            }
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(map));
+        } catch (IOException e) {
+            throw new BusinessException("SYSTEM_ERROR", "生成分页令牌失败");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private PageCursor decodeCursor(String token, String queryHash) {
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token.getBytes(StandardCharsets.US_ASCII));
+            Map<String, Object> map = objectMapper.readValue(json, Map.class);
+            PageCursor cursor = new PageCursor();
+            cursor.mode = (String) map.get("m");
+            cursor.position = ((Number) map.get("p")).longValue();
+            cursor.hash = (String) map.get("h");
+            if (!queryHash.equals(cursor.hash)) {
+                throw new BusinessException("INVALID_CURSOR", "分页令牌与当前查询条件不匹配");
+            }
+            if (MODE_KEYSET.equals(cursor.mode)) {
+                cursor.keyValue = CursorValue.fromMap((Map<String, Object>) map.get("k"));
+                cursor.sortValue = map.get("s") != null ? CursorValue.fromMap((Map<String, Object>) map.get("s")) : null;
+                // 校验值能否按类型还原
+                cursor.keyValue.toParameter();
+                if (cursor.sortValue != null) {
+                    cursor.sortValue.toParameter();
+                }
+            }
+            return cursor;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException("INVALID_CURSOR", "分页令牌无效");
+        }
+    }
+
+    /**
+     * 排序字段、唯一键与方向
+     */
+    private record PageOrder(String sortField, String keyField, boolean descending) {
+
+        @Override
+        public String toString() {
+            return sortField + "|" + keyField + "|" + descending;
+        }
+    }
+
+    /**
+     * 续页令牌内容
+     */
+    private static class PageCursor {
+        private String mode;
+        private long position;
+        private String hash;
+        private CursorValue sortValue;
+        private CursorValue keyValue;
+    }
+
+    /**
+     * 令牌中的列值：JDBC类型 + 文本形式，续页时还原为该类型的Java值并按该类型绑定
+     *
+     * @param type JDBC类型名（java.sql.JDBCType）
+     * @param text 文本形式
+     */
+    private record CursorValue(JDBCType type, String text) {
+
+        /**
+         * 按结果集中取到的Java值确定类型
+         *
+         * @return 值为NULL或类型无法编码（如二进制）时返回null
+         */
+        static CursorValue of(Object value) {
+            if (value instanceof String string) {
+                return new CursorValue(JDBCType.VARCHAR, string);
+            }
+            if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+                return new CursorValue(JDBCType.BIGINT, value.toString());
+            }
+            if (value instanceof BigInteger integer) {
+                return new CursorValue(JDBCType.DECIMAL, integer.toString());
+            }
+            if (value instanceof BigDecimal decimal) {
+                return new CursorValue(JDBCType.DECIMAL, decimal.toPlainString());
+            }
+            if (value instanceof Float || value instanceof Double) {
+                return new CursorValue(JDBCType.DOUBLE, Double.toString(((Number) value).doubleValue()));
+            }
+            if (value instanceof Boolean) {
+                return new CursorValue(JDBCType.BOOLEAN, value.toString());
+            }
+            if (value instanceof Timestamp timestamp) {
+                return new CursorValue(JDBCType.TIMESTAMP, timestamp.toLocalDateTime().toString());
+            }
+            if (value instanceof java.sql.Date date) {
+                return new CursorValue(JDBCType.DATE, date.toLocalDate().toString());
+            }
+            if (value instanceof Time time) {
+                return new CursorValue(JDBCType.TIME, time.toLocalTime().toString());
+            }
+            if (value instanceof java.util.Date date) {
+                return new CursorValue(JDBCType.TIMESTAMP, new Timestamp(date.getTime()).toLocalDateTime().toString());
+            }
+            if (value instanceof LocalDateTime || value instanceof LocalDate || value instanceof LocalTime) {
+                JDBCType type = value instanceof LocalDateTime ? JDBCType.TIMESTAMP
+                        : value instanceof LocalDate ? JDBCType.DATE : JDBCType.TIME;
+                return new CursorValue(type, value.toString());
+            }
+            if (value instanceof OffsetDateTime) {
+                return new CursorValue(JDBCType.TIMESTAMP_WITH_TIMEZONE, value.toString());
+            }
+            return null;
+        }
+
+        static CursorValue fromMap(Map<String, Object> map) {
+            return new CursorValue(JDBCType.valueOf((String) map.get("t")), (String) Objects.requireNonNull(map.get("v")));
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("t", type.getName());
+            map.put("v", text);
+            return map;
+        }
+
+        /**
+         * @return 按JDBC类型绑定的参数
+         */
+        SqlParameterValue toParameter() {
+            Object value = switch (type) {
+                case BIGINT -> Long.valueOf(text);
+                case DECIMAL -> new BigDecimal(text);
+                case DOUBLE -> Double.valueOf(text);
+                case BOOLEAN -> Boolean.valueOf(text);
+                case TIMESTAMP -> Timestamp.valueOf(LocalDateTime.parse(text));
+                case DATE -> java.sql.Date.valueOf(LocalDate.parse(text));
+                case TIME -> Time.valueOf(LocalTime.parse(text));
+                case TIMESTAMP_WITH_TIMEZONE -> OffsetDateTime.parse(text);
+                case VARCHAR -> text;
+                default -> throw new IllegalArgumentException("不支持的类型: " + type);
+            };
+            return new SqlParameterValue(type.getVendorTypeNumber(), value);
+        }
+    }
+}
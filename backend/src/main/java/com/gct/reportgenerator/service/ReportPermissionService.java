@@ -0,0 +1,278 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ReportDTO;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.util.CurrentUserContext;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.UnaryOperator;
+
+/**
+ * 报表访问权限
+ *
+ * 规则：管理员与报表创建人始终可访问；其他用户的角色在report_permissions中被授权时可访问。
+ * 没有登录用户的内部调用（无请求上下文）不做检查，HTTP请求的登录由拦截器保证。
+ *
+ * 授权关系常驻内存：角色 -> 报表ID位图、创建人 -> 报表ID位图，检查只是一次位测试，不查询数据库；
+ * 列表按可见位图直接算出当前页的报表ID，只读取这些行。
+ * 索引启动时全量加载，之后在授权修改、报表创建与删除的事务提交后增量更新；
+ * 更新时复制受影响的位图再整体替换快照，读取无需加锁。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportPermissionService {
+
+    private static final Set<String> ROLES = Set.of("ADMIN", "DESIGNER", "VIEWER");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReportDefinitionCache reportDefinitionCache;
+    private final AuditLogWriter auditLogWriter;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    /**
+     * 从数据库全量加载权限索引
+     */
+    @PostConstruct
+    public synchronized void reload() {
+        Map<String, BitSet> byRole = new HashMap<>();
+        jdbcTemplate.query("SELECT report_id, role FROM report_permissions",
+                rs -> {
+                    byRole.computeIfAbsent(rs.getString(2), role -> new BitSet()).set(bit(rs.getLong(1)));
+                });
+        Map<Long, BitSet> byCreator = new HashMap<>();
+        jdbcTemplate.query("SELECT id, creator_id FROM reports",
+                rs -> {
+                    byCreator.computeIfAbsent(rs.getLong(2), creator -> new BitSet()).set(bit(rs.getLong(1)));
+                });
+        snapshot = new Snapshot(byRole, byCreator);
+        log.info("报表权限索引已加载, 授权角色数: {}, 创建人数: {}", byRole.size(), byCreator.size());
+    }
+
+    /**
+     * 检查当前用户能否读取/执行报表
+     *
+     * @param reportId 报表ID
+     * @return 报表定义（来自缓存，不可修改）
+     * @throws BusinessException 报表不存在或无权访问时抛出
+     */
+    public ReportDTO checkAccess(Long reportId) {
+        ReportDTO report = reportDefinitionCache.get(reportId);
+        checkAccess(report);
+        return report;
+    }
+
+    /**
+     * 检查当前用户能否读取/执行报表
+     *
+     * 不在请求上下文中（后台线程、内部调用）时不检查；请求中没有登录用户时拒绝
+     *
+     * @throws BusinessException 未登录或无权访问时抛出
+     */
+    public void checkAccess(ReportDTO report) {
+        if (!CurrentUserContext.hasRequestContext()) {
+            return;
+        }
+        Long userId = CurrentUserContext.getCurrentUserId();
+        String role = CurrentUserContext.findCurrentUserRole();
+        if ("ADMIN".equals(role) || userId.equals(report.getCreatorId())) {
+            return;
+        }
+        BitSet granted = role != null ? snapshot.byRole.get(role) : null;
+        if (granted == null || !granted.get(bit(report.getId()))) {
+            throw new BusinessException("FORBIDDEN", "无权访问该报表");
+        }
+    }
+
+    /**
+     * 当前用户是否不受报表权限限制（管理员或不在请求上下文中的内部调用）
+     *
+     * @throws BusinessException 请求中没有登录用户时抛出
+     */
+    public boolean canAccessAll() {
+        if (!CurrentUserContext.hasRequestContext()) {
+            return true;
+        }
+        // 请求中没有登录用户时抛出UNAUTHORIZED
+        CurrentUserContext.getCurrentUserId();
+        return "ADMIN".equals(CurrentUserContext.findCurrentUserRole());
+    }
+
+    /**
+     * 当前用户可访问的报表（canAccessAll为true时不应使用）
+     *
+     * @return 报表ID位图（副本）
+     */
+    public BitSet visibleReports() {
+        Snapshot current = snapshot;
+        BitSet visible = new BitSet();
+        String role = CurrentUserContext.findCurrentUserRole();
+        if (role != null && current.byRole.containsKey(role)) {
+            visible.or(current.byRole.get(role));
+        }
+        BitSet created = current.byCreator.get(CurrentUserContext.findCurrentUserId());
+        if (created != null) {
+            visible.or(created);
+        }
+        return visible;
+    }
+
+    /**
+     * 某用户创建的报表
+     *
+     * @return 报表ID位图（只读）
+     */
+    public BitSet reportsCreatedBy(Long creatorId) {
+        BitSet created = snapshot.byCreator.get(creatorId);
+        return created != null ? created : new BitSet();
+    }
+
+    /**
+     * 获取报表授权的角色
+     */
+    public List<String> getRoles(Long reportId) {
+        ReportDTO report = reportDefinitionCache.get(reportId);
+        checkAccess(report);
+        List<String> roles = new ArrayList<>();
+        snapshot.byRole.forEach((role, reports) -> {
+            if (reports.get(bit(reportId))) {
+                roles.add(role);
+            }
+        });
+        roles.sort(null);
+        return roles;
+    }
+
+    /**
+     * 设置报表授权的角色（整体替换），仅管理员与报表创建人可操作
+     *
+     * @param reportId 报表ID
+     * @param roles 角色列表
+     * @return 设置后的角色
+     */
+    @Transactional
+    public List<String> setRoles(Long reportId, Collection<String> roles) {
+        ReportDTO report = reportDefinitionCache.get(reportId);
+        if (!CurrentUserContext.isAdmin() && !CurrentUserContext.getCurrentUserId().equals(report.getCreatorId())) {
+            throw new BusinessException("FORBIDDEN", "只有管理员或报表创建人可以设置权限");
+        }
+        Set<String> granted = new TreeSet<>();
+        for (String role : roles != null ? roles : List.<String>of()) {
+            if (!ROLES.contains(role)) {
+                throw new BusinessException("INVALID_PARAM", "角色不合法: " + role);
+            }
+            granted.add(role);
+        }
+
+        jdbcTemplate.update("DELETE FROM report_permissions WHERE report_id = ?", reportId);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (String role : granted) {
+            jdbcTemplate.update("INSERT INTO report_permissions (report_id, role, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?)", reportId, role, now, now);
+        }
+        afterCommit(() -> {
+            replaceRoles(reportId, granted);
+            auditLogWriter.audit("REPORT_PERMISSIONS", reportId, String.join(",", granted));
+        });
+        return new ArrayList<>(granted);
+    }
+
+    /**
+     * 报表创建后登记创建人（事务提交后生效）
+     */
+    public void reportCreated(Long reportId, Long creatorId) {
+        afterCommit(() -> update(current -> {
+            Map<Long, BitSet> byCreator = new HashMap<>(current.byCreator);
+            byCreator.put(creatorId, withBit(byCreator.get(creatorId), reportId, true));
+            return new Snapshot(current.byRole, byCreator);
+        }));
+    }
+
+    /**
+     * 报表删除时移除其授权（事务提交后从索引中移除）
+     */
+    public void reportDeleted(Long reportId) {
+        jdbcTemplate.update("DELETE FROM report_permissions WHERE report_id = ?", reportId);
+        afterCommit(() -> update(current -> {
+            Map<String, BitSet> byRole = new HashMap<>();
+            current.byRole.forEach((role, reports) -> byRole.put(role, withBit(reports, reportId, false)));
+            Map<Long, BitSet> byCreator = new HashMap<>();
+            current.byCreator.forEach((creator, reports) -> byCreator.put(creator, withBit(reports, reportId, false)));
+            return new Snapshot(byRole, byCreator);
+        }));
+    }
+
+    private void replaceRoles(Long reportId, Set<String> granted) {
+        update(current -> {
+            Map<String, BitSet> byRole = new HashMap<>(current.byRole);
+            for (String role : ROLES) {
+                BitSet reports = byRole.get(role);
+                if (reports != null || granted.contains(role)) {
+                    byRole.put(role, withBit(reports, reportId, granted.contains(role)));
+                }
+            }
+            return new Snapshot(byRole, current.byCreator);
+        });
+    }
+
+    private synchronized void update(UnaryOperator<Snapshot> change) {
+        snapshot = change.apply(snapshot);
+    }
+
+    /**
+     * 复制位图后设置一位，已是目标值时直接返回原位图
+     */
+    private static BitSet withBit(BitSet reports, Long reportId, boolean value) {
+        int bit = bit(reportId);
+        if (reports != null && reports.get(bit) == value) {
+            return reports;
+        }
+        BitSet copy = reports != null ? (BitSet) reports.clone() : new BitSet();
+        copy.set(bit, value);
+        return copy;
+    }
+
+    private static int bit(long reportId) {
+        return Math.toIntExact(reportId);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 索引快照，发布后不再修改
+     */
+    private record Snapshot(Map<String, BitSet> byRole, Map<Long, BitSet> byCreator) {
+    }
+}
@@ -0,0 +1,241 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ReportPageDTO;
+import com.gct.reportgenerator.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 报表结果缓存
+ *
+ * 以（报表ID, SQL摘要, 规范化参数, 分页条件）为key缓存分页结果：
+ * <ul>
+ *   <li>TTL过期（默认5分钟）</li>
+ *   <li>按估算字节数限制总容量，超出时淘汰最久未访问的条目（LRU）</li>
+ *   <li>相同key的并发请求只执行一次SQL（single-flight）</li>
+ * </ul>
+ * 报表修改或删除时按报表ID失效；失效前已开始的加载结果不会写回缓存。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ReportResultCache {
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final long maxBytes;
+
+    /**
+     * 访问顺序的LinkedHashMap，头部为最久未访问
+     */
+    private final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<ReportPageDTO>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+    private long totalBytes;
+
+    public ReportResultCache(
+            @Value("${report.cache.enabled:true}") boolean enabled,
+            @Value("${report.cache.ttl:5m}") Duration ttl,
+            @Value("${report.cache.max-bytes:67108864}") long maxBytes) {
+        this.enabled = enabled;
+        this.ttlMillis = ttl.toMillis();
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 生成缓存key
+     *
+     * @param reportId 报表ID
+     * @param sqlHash 报表SQL摘要
+     * @param params 参数值
+     * @param variant 其他影响结果的条件（如分页、排序）
+     * @return 缓存key
+     */
+    public static CacheKey key(Long reportId, String sqlHash, Map<String, Object> params, String variant) {
+        StringBuilder normalized = new StringBuilder();
+        if (params != null) {
+            for (Map.Entry<String, Object> e : new TreeMap<>(params).entrySet()) {
+                normalized.append(e.getKey()).append('=').append(normalize(e.getValue())).append('\u0001');
+            }
+        }
+        return new CacheKey(reportId, sqlHash, normalized.toString(), variant);
+    }
+
+    /**
+     * 读取缓存，未命中时调用loader加载并写入缓存
+     *
+     * @param key 缓存key
+     * @param loader 结果加载器（执行SQL）
+     * @return 结果
+     */
+    public ReportPageDTO get(CacheKey key, Supplier<ReportPageDTO> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        ReportPageDTO cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<ReportPageDTO> future = new CompletableFuture<>();
+        CompletableFuture<ReportPageDTO> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        long generation = generation(key.reportId()).get();
+        try {
+            ReportPageDTO result = loader.get();
+            if (generation(key.reportId()).get() == generation) {
+                store(key, result);
+            }
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 失效指定报表的全部缓存
+     *
+     * @param reportId 报表ID
+     */
+    public void invalidate(Long reportId) {
+        generation(reportId).incrementAndGet();
+        int removed = 0;
+        synchronized (entries) {
+            Iterator<Map.Entry<CacheKey, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<CacheKey, Entry> e = it.next();
+                if (e.getKey().reportId().equals(reportId)) {
+                    totalBytes -= e.getValue().bytes;
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        log.debug("报表结果缓存失效, 报表ID: {}, 条目数: {}", reportId, removed);
+    }
+
+    private ReportPageDTO lookup(CacheKey key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(key);
+                totalBytes -= entry.bytes;
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private void store(CacheKey key, ReportPageDTO value) {
+        long bytes = estimateBytes(value);
+        // 单条超过总容量1/4的结果不缓存，避免一次性清空缓存
+        if (bytes > maxBytes / 4) {
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(key, new Entry(value, bytes, System.currentTimeMillis() + ttlMillis));
+            if (previous != null) {
+                totalBytes -= previous.bytes;
+            }
+            totalBytes += bytes;
+
+            Iterator<Entry> it = entries.values().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                totalBytes -= it.next().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    private ReportPageDTO await(CompletableFuture<ReportPageDTO> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("SQL_EXECUTION_ERROR", "报表执行失败");
+        }
+    }
+
+    private AtomicLong generation(Long reportId) {
+        return generations.computeIfAbsent(reportId, id -> new AtomicLong());
+    }
+
+    /**
+     * 估算结果占用的堆内存字节数
+     */
+    private static long estimateBytes(ReportPageDTO page) {
+        long bytes = 256;
+        for (List<Object> row : page.getRows()) {
+            bytes += 40 + 8L * row.size();
+            for (Object value : row) {
+                if (value instanceof String text) {
+                    bytes += 40 + 2L * text.length();
+                } else if (value != null) {
+                    bytes += 24;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static String normalize(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Number number) {
+            try {
+                return new BigDecimal(number.toString()).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+                return number.toString();
+            }
+        }
+        return value.toString().trim();
+    }
+
+    /**
+     * 缓存key
+     */
+    public record CacheKey(Long reportId, String sqlHash, String params, String variant) {
+    }
+
+    private static final class Entry {
+        private final ReportPageDTO value;
+        private final long bytes;
+        private final long expiresAt;
+
+        private Entry(ReportPageDTO value, long bytes, long expiresAt) {
+            this.value = value;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
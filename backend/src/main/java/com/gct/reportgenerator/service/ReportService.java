@@ -2,18 +2,25 @@ package com.gct.reportgenerator.service;
 
 import com.gct.reportgenerator.dto.*;
 import com.gct.reportgenerator.entity.Report;
-import com.gct.reportgenerator.entity.ReportColumn;
-import com.gct.reportgenerator.entity.ReportParam;
 import com.gct.reportgenerator.exception.BusinessException;
-import com.gct.reportgenerator.repository.ReportColumnRepository;
-import com.gct.reportgenerator.repository.ReportParamRepository;
+import com.gct.reportgenerator.repository.DataSourceDefinitionRepository;
+import com.gct.reportgenerator.repository.ReportDefinitionJdbcRepository;
 import com.gct.reportgenerator.repository.ReportRepository;
+import com.gct.reportgenerator.repository.ReportSummary;
 import com.gct.reportgenerator.util.CurrentUserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,17 +29,32 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ReportService {
     
+    /**
+     * 报表列表每页最大条数
+     */
+    private static final int MAX_LIST_PAGE_SIZE = 200;
+
+    /**
+     * 按ID批量读取列表项时每条查询的最大ID数
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+
     private final ReportRepository reportRepository;
-    private final ReportParamRepository reportParamRepository;
-    private final ReportColumnRepository reportColumnRepository;
+    private final DataSourceDefinitionRepository dataSourceDefinitionRepository;
+    private final ReportDefinitionJdbcRepository reportDefinitionJdbcRepository;
+    private final ReportResultCache reportResultCache;
+    private final ReportDefinitionCache reportDefinitionCache;
+    private final ReportNameCache reportNameCache;
+    private final SqlTemplateCache sqlTemplateCache;
+    private final ReportColumnMetadataService reportColumnMetadataService;
+    private final ReportPermissionService reportPermissionService;
+    private final AuditLogWriter auditLogWriter;
 
     /**
      * 创建报表（带事务处理）
      */
     @Transactional
     public ReportDTO createReport(ReportCreateRequest request) {
-        log.info("Creating report: {}", request.getName());
-        
         // 验证当前用户
         Long currentUserId = CurrentUserContext.getCurrentUserId();
         if (currentUserId == null) {
@@ -45,97 +67,138 @@ public class ReportService {
         report.setDescription(request.getDescription());
         report.setSqlContent(request.getSqlContent());
         report.setCreatorId(currentUserId);
+        report.setDataSourceId(checkDataSource(request.getDataSourceId()));
+        report.setQueryTimeoutSeconds(checkQueryTimeout(request.getQueryTimeoutSeconds()));
         
-        // 保存报表
-        report = reportRepository.save(report);
-        log.info("Report saved with ID: {}", report.getId());
-
-        // 保存参数配置
-        if (request.getParams() != null && !request.getParams().isEmpty()) {
-            for (ReportParamDTO paramDTO : request.getParams()) {
-                ReportParam param = new ReportParam();
-                param.setReportId(report.getId());
-                param.setParamName(paramDTO.getParamName());
-                param.setParamType(paramDTO.getParamType());
-                param.setRequired(paramDTO.getRequired() != null ? paramDTO.getRequired() : false);
-                reportParamRepository.save(param);
-            }
-            log.info("Saved {} parameters for report {}", request.getParams().size(), report.getId());
+        // 保存报表（并发创建同名报表时由唯一索引拦截）
+        ensureNameAvailable(request.getName(), null);
+        try {
+            report = reportRepository.save(report);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException("REPORT_NAME_EXISTS", "报表名称已存在: " + request.getName());
         }
 
-        // 保存列配置
-        if (request.getColumns() != null && !request.getColumns().isEmpty()) {
-            for (ReportColumnDTO columnDTO : request.getColumns()) {
-                ReportColumn column = new ReportColumn();
-                column.setReportId(report.getId());
-                column.setFieldName(columnDTO.getFieldName());
-                column.setDisplayName(columnDTO.getDisplayName());
-                column.setFormatType(columnDTO.getFormatType());
-                reportColumnRepository.save(column);
-            }
-            log.info("Saved {} columns for report {}", request.getColumns().size(), report.getId());
-        }
+        // 批量保存参数与列配置（每张表一条多行INSERT）
+        reportDefinitionJdbcRepository.insertParams(report.getId(), request.getParams());
+        reportDefinitionJdbcRepository.insertColumns(report.getId(), request.getColumns());
+        invalidateNamesAfterCommit();
+        reportPermissionService.reportCreated(report.getId(), currentUserId);
+        auditAfterCommit("REPORT_CREATE", report.getId(), report.getName());
 
-        // 返回完整报表信息
-        return getReportById(report.getId());
+        // 预先编译SQL模板，执行时不再解析
+        sqlTemplateCache.get(report.getSqlContent());
+
+        // 返回完整报表信息（事务内读取，不经过缓存）
+        return reportDefinitionCache.load(report.getId());
     }
 
     /**
      * 获取报表完整配置
+     *
+     * 定义来自缓存，返回副本供调用方修改
+     *
+     * @throws BusinessException 报表不存在或无权访问时抛出
      */
-    @Transactional(readOnly = true)
     public ReportDTO getReportById(Long id) {
-        Report report = reportRepository.findById(id)
-                .orElseThrow(() -> new BusinessException("REPORT_NOT_FOUND", "报表不存在: " + id));
+        return copyOf(reportPermissionService.checkAccess(id));
+    }
 
-        ReportDTO dto = new ReportDTO();
-        dto.setId(report.getId());
-        dto.setName(report.getName());
-        dto.setDescription(report.getDescription());
-        dto.setSqlContent(report.getSqlContent());
-        dto.setCreatorId(report.getCreatorId());
-        dto.setCreatedAt(report.getCreatedAt());
-        dto.setUpdatedAt(report.getUpdatedAt());
+    /**
+     * 获取当前用户可访问的报表列表（不读取SQL内容）
+     */
+    @Transactional(readOnly = true)
+    public List<ReportDTO> getAllReports() {
+        if (reportPermissionService.canAccessAll()) {
+            return reportRepository.findAllProjectedBy(Sort.by("id")).stream()
+                    .map(ReportService::toListItem)
+                    .collect(Collectors.toList());
+        }
 
-        // 加载参数
-        List<ReportParam> params = reportParamRepository.findByReportId(id);
-        dto.setParams(params.stream().map(param -> {
-            ReportParamDTO paramDTO = new ReportParamDTO();
-            paramDTO.setParamName(param.getParamName());
-            paramDTO.setParamType(param.getParamType());
-            paramDTO.setRequired(param.getRequired());
-            return paramDTO;
-        }).collect(Collectors.toList()));
+        BitSet visible = reportPermissionService.visibleReports();
+        List<ReportDTO> reports = new ArrayList<>(visible.cardinality());
+        List<Long> ids = new ArrayList<>(MAX_IDS_PER_QUERY);
+        for (int id = visible.nextSetBit(0); id >= 0; id = visible.nextSetBit(id + 1)) {
+            ids.add((long) id);
+            if (ids.size() == MAX_IDS_PER_QUERY) {
+                reports.addAll(findListItems(ids, Sort.by("id")));
+                ids.clear();
+            }
+        }
+        reports.addAll(findListItems(ids, Sort.by("id")));
+        return reports;
+    }
 
-        // 加载列配置
-        List<ReportColumn> columns = reportColumnRepository.findByReportId(id);
-        dto.setColumns(columns.stream().map(column -> {
-            ReportColumnDTO columnDTO = new ReportColumnDTO();
-            columnDTO.setFieldName(column.getFieldName());
-            columnDTO.setDisplayName(column.getDisplayName());
-            columnDTO.setFormatType(column.getFormatType());
-            return columnDTO;
-        }).collect(Collectors.toList()));
+    /**
+     * 分页获取报表列表（不读取SQL内容），按ID倒序
+     *
+     * @param page 页码（从0开始）
+     * @param size 每页条数
+     * @param creatorId 创建人ID，为空时不过滤
+     */
+    @Transactional(readOnly = true)
+    public PageResult<ReportDTO> getReportPage(int page, int size, Long creatorId) {
+        if (page < 0) {
+            throw new BusinessException("INVALID_PARAM", "页码不能小于0");
+        }
+        if (size < 1 || size > MAX_LIST_PAGE_SIZE) {
+            throw new BusinessException("INVALID_PAGE_SIZE", "每页条数必须在1-" + MAX_LIST_PAGE_SIZE + "之间");
+        }
+
+        // 自己创建的报表始终可访问，无需按权限过滤
+        boolean ownReports = creatorId != null && creatorId.equals(CurrentUserContext.findCurrentUserId());
+        if (!ownReports && !reportPermissionService.canAccessAll()) {
+            return getVisibleReportPage(page, size, creatorId);
+        }
+
+        PageRequest pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+        Page<ReportSummary> result = creatorId != null
+                ? reportRepository.findProjectedByCreatorId(creatorId, pageable)
+                : reportRepository.findAllProjectedBy(pageable);
 
+        PageResult<ReportDTO> dto = new PageResult<>();
+        dto.setItems(result.getContent().stream().map(ReportService::toListItem).collect(Collectors.toList()));
+        dto.setPage(page);
+        dto.setSize(size);
+        dto.setTotal(result.getTotalElements());
+        dto.setTotalPages(result.getTotalPages());
         return dto;
     }
 
     /**
-     * 获取所有报表列表
+     * 按可见报表位图分页：在内存中从最大ID倒序跳过前几页，只按主键读取当前页的行
      */
-    @Transactional(readOnly = true)
-    public List<ReportDTO> getAllReports() {
-        return reportRepository.findAll().stream()
-                .map(report -> {
-                    ReportDTO dto = new ReportDTO();
-                    dto.setId(report.getId());
-                    dto.setName(report.getName());
-                    dto.setDescription(report.getDescription());
-                    dto.setCreatorId(report.getCreatorId());
-                    dto.setCreatedAt(report.getCreatedAt());
-                    dto.setUpdatedAt(report.getUpdatedAt());
-                    return dto;
-                })
+    private PageResult<ReportDTO> getVisibleReportPage(int page, int size, Long creatorId) {
+        BitSet visible = reportPermissionService.visibleReports();
+        if (creatorId != null) {
+            visible.and(reportPermissionService.reportsCreatedBy(creatorId));
+        }
+        int total = visible.cardinality();
+
+        List<Long> ids = new ArrayList<>(size);
+        long skip = (long) page * size;
+        for (int id = visible.length() - 1; id >= 0 && ids.size() < size; id = visible.previousSetBit(id - 1)) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                ids.add((long) id);
+            }
+        }
+
+        PageResult<ReportDTO> dto = new PageResult<>();
+        dto.setItems(findListItems(ids, Sort.by(Sort.Direction.DESC, "id")));
+        dto.setPage(page);
+        dto.setSize(size);
+        dto.setTotal((long) total);
+        dto.setTotalPages((total + size - 1) / size);
+        return dto;
+    }
+
+    private List<ReportDTO> findListItems(List<Long> ids, Sort sort) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return reportRepository.findProjectedByIdIn(ids, sort).stream()
+                .map(ReportService::toListItem)
                 .collect(Collectors.toList());
     }
 
@@ -144,52 +207,36 @@ public class ReportService {
      */
     @Transactional
     public ReportDTO updateReport(Long id, ReportCreateRequest request) {
-        log.info("Updating report: {}", id);
-        
         // 验证报表存在
         Report report = reportRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("REPORT_NOT_FOUND", "报表不存在: " + id));
 
         // 更新基本信息
+        boolean renamed = !report.getName().equals(request.getName());
+        if (renamed) {
+            ensureNameAvailable(request.getName(), id);
+        }
         report.setName(request.getName());
         report.setDescription(request.getDescription());
         report.setSqlContent(request.getSqlContent());
-        reportRepository.save(report);
-
-        // 删除旧的参数配置
-        reportParamRepository.deleteByReportId(id);
-        reportParamRepository.flush();
-
-        // 保存新的参数配置
-        if (request.getParams() != null && !request.getParams().isEmpty()) {
-            for (ReportParamDTO paramDTO : request.getParams()) {
-                ReportParam param = new ReportParam();
-                param.setReportId(id);
-                param.setParamName(paramDTO.getParamName());
-                param.setParamType(paramDTO.getParamType());
-                param.setRequired(paramDTO.getRequired() != null ? paramDTO.getRequired() : false);
-                reportParamRepository.save(param);
-            }
+        report.setDataSourceId(checkDataSource(request.getDataSourceId()));
+        report.setQueryTimeoutSeconds(checkQueryTimeout(request.getQueryTimeoutSeconds()));
+        try {
+            reportRepository.saveAndFlush(report);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException("REPORT_NAME_EXISTS", "报表名称已存在: " + request.getName());
         }
-
-        // 删除旧的列配置
-        reportColumnRepository.deleteByReportId(id);
-        reportColumnRepository.flush();
-
-        // 保存新的列配置
-        if (request.getColumns() != null && !request.getColumns().isEmpty()) {
-            for (ReportColumnDTO columnDTO : request.getColumns()) {
-                ReportColumn column = new ReportColumn();
-                column.setReportId(id);
-                column.setFieldName(columnDTO.getFieldName());
-                column.setDisplayName(columnDTO.getDisplayName());
-                column.setFormatType(columnDTO.getFormatType());
-                reportColumnRepository.save(column);
-            }
+        if (renamed) {
+            invalidateNamesAfterCommit();
         }
+        sqlTemplateCache.get(report.getSqlContent());
 
-        log.info("Report {} updated successfully", id);
-        return getReportById(id);
+        // 与现有参数、列配置逐行比较，只写入有变化的行
+        int changedParams = reportDefinitionJdbcRepository.syncParams(id, request.getParams());
+        int changedColumns = reportDefinitionJdbcRepository.syncColumns(id, request.getColumns());
+        evictCachesAfterCommit(id);
+        auditAfterCommit("REPORT_UPDATE", id, "changed params: " + changedParams + ", changed columns: " + changedColumns);
+        return reportDefinitionCache.load(id);
     }
 
     /**
@@ -197,8 +244,6 @@ public class ReportService {
      */
     @Transactional
     public void deleteReport(Long id) {
-        log.info("Deleting report: {}", id);
-        
         // 验证报表存在
         if (!reportRepository.existsById(id)) {
             throw new BusinessException("REPORT_NOT_FOUND", "报表不存在: " + id);
@@ -206,28 +251,165 @@ public class ReportService {
 
         // 由于数据库设置了ON DELETE CASCADE，删除报表会自动删除相关的参数和列配置
         reportRepository.deleteById(id);
-        
-        log.info("Report {} deleted successfully", id);
+        reportPermissionService.reportDeleted(id);
+        evictCachesAfterCommit(id);
+        auditAfterCommit("REPORT_DELETE", id, null);
+    }
+
+    private static ReportDTO toListItem(ReportSummary report) {
+        ReportDTO dto = new ReportDTO();
+        dto.setId(report.getId());
+        dto.setName(report.getName());
+        dto.setDescription(report.getDescription());
+        dto.setCreatorId(report.getCreatorId());
+        dto.setDataSourceId(report.getDataSourceId());
+        dto.setCreatedAt(report.getCreatedAt());
+        dto.setUpdatedAt(report.getUpdatedAt());
+        return dto;
+    }
+
+    private static ReportDTO copyOf(ReportDTO source) {
+        ReportDTO dto = new ReportDTO();
+        dto.setId(source.getId());
+        dto.setName(source.getName());
+        dto.setDescription(source.getDescription());
+        dto.setSqlContent(source.getSqlContent());
+        dto.setCreatorId(source.getCreatorId());
+        dto.setDataSourceId(source.getDataSourceId());
+        dto.setQueryTimeoutSeconds(source.getQueryTimeoutSeconds());
+        dto.setCreatedAt(source.getCreatedAt());
+        dto.setUpdatedAt(source.getUpdatedAt());
+        dto.setParams(source.getParams().stream().map(param -> {
+            ReportParamDTO paramDTO = new ReportParamDTO();
+            paramDTO.setParamName(param.getParamName());
+            paramDTO.setParamType(param.getParamType());
+            paramDTO.setRequired(param.getRequired());
+            return paramDTO;
+        }).collect(Collectors.toList()));
+        dto.setColumns(source.getColumns().stream().map(column -> {
+            ReportColumnDTO columnDTO = new ReportColumnDTO();
+            columnDTO.setFieldName(column.getFieldName());
+            columnDTO.setDisplayName(column.getDisplayName());
+            columnDTO.setFormatType(column.getFormatType());
+            return columnDTO;
+        }).collect(Collectors.toList()));
+        return dto;
+    }
+
+    /**
+     * 事务提交后记录审计日志，回滚的修改不记录
+     */
+    private void auditAfterCommit(String action, Long reportId, String detail) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditLogWriter.audit(action, reportId, detail);
+                }
+            });
+        } else {
+            auditLogWriter.audit(action, reportId, detail);
+        }
     }
 
     /**
-     * 检查报表名称是否已存在
+     * 事务提交后清空名称否定缓存
+     */
+    private void invalidateNamesAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reportNameCache.invalidate();
+                }
+            });
+        } else {
+            reportNameCache.invalidate();
+        }
+    }
+
+    /**
+     * 事务提交后失效报表相关缓存，避免并发读取在提交前重新写入旧数据
+     */
+    private void evictCachesAfterCommit(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reportResultCache.invalidate(id);
+                    reportDefinitionCache.invalidate(id);
+                }
+            });
+        } else {
+            reportResultCache.invalidate(id);
+            reportDefinitionCache.invalidate(id);
+        }
+    }
+
+    /**
+     * 检查报表名称是否已存在（精确匹配，忽略ASCII大小写）
      */
     public boolean isNameExists(String name) {
-        log.info("Checking if report name exists: {}", name);
-        return reportRepository.findByNameContaining(name).stream()
-                .anyMatch(report -> report.getName().equals(name));
+        log.debug("Checking if report name exists: {}", name);
+        return reportNameCache.exists(name.trim(), candidate -> reportRepository.findIdByName(candidate) != null);
+    }
+
+    /**
+     * 校验报表指定的数据源存在
+     */
+    private Long checkDataSource(Long dataSourceId) {
+        if (dataSourceId != null && !dataSourceDefinitionRepository.existsById(dataSourceId)) {
+            throw new BusinessException("DATA_SOURCE_NOT_FOUND", "数据源不存在: " + dataSourceId);
+        }
+        return dataSourceId;
+    }
+
+    /**
+     * 校验报表查询超时时间（秒）
+     */
+    private Integer checkQueryTimeout(Integer queryTimeoutSeconds) {
+        if (queryTimeoutSeconds != null && queryTimeoutSeconds <= 0) {
+            throw new BusinessException("INVALID_PARAM", "查询超时时间必须大于0秒");
+        }
+        return queryTimeoutSeconds;
+    }
+
+    /**
+     * 校验名称未被其他报表使用
+     */
+    private void ensureNameAvailable(String name, Long selfId) {
+        Long existingId = name != null ? reportRepository.findIdByName(name) : null;
+        if (existingId != null && !existingId.equals(selfId)) {
+            throw new BusinessException("REPORT_NAME_EXISTS", "报表名称已存在: " + name);
+        }
     }
 
     /**
      * 从SQL提取列信息
+     *
+     * @param dataSourceId 报表数据源ID，为空时使用内置数据源
+     * @param mode METADATA（默认）：预编译SQL读取结果列元数据，不执行查询；
+     *             PARSE：按逗号拆分SELECT子句，格式类型固定为TEXT
      */
-    public List<ReportColumnDTO> extractColumnsFromSql(String sqlContent, List<ReportParamDTO> params) {
-        log.info("Extracting columns from SQL");
-        
+    public List<ReportColumnDTO> extractColumnsFromSql(String sqlContent, List<ReportParamDTO> params,
+                                                       Long dataSourceId, String mode) {
         if (sqlContent == null || sqlContent.trim().isEmpty()) {
             throw new BusinessException("INVALID_SQL", "SQL内容不能为空");
         }
+        if (mode == null || "METADATA".equalsIgnoreCase(mode)) {
+            return reportColumnMetadataService.describe(sqlContent, dataSourceId);
+        }
+        if (!"PARSE".equalsIgnoreCase(mode)) {
+            throw new BusinessException("INVALID_PARAM", "不支持的列提取方式: " + mode);
+        }
+        return parseColumnsFromSql(sqlContent);
+    }
+
+    /**
+     * 从SELECT子句文本拆分列信息
+     */
+    private List<ReportColumnDTO> parseColumnsFromSql(String sqlContent) {
+        log.debug("Extracting columns from SQL");
 
         // 这里简化实现，实际应该执行SQL查询并获取ResultSetMetaData
         // 为了演示，我们使用正则表达式从SELECT子句提取列名
@@ -272,7 +454,7 @@ public class ReportService {
             throw new BusinessException("SQL_PARSE_ERROR", "解析SQL失败: " + e.getMessage());
         }
         
-        log.info("Extracted {} columns from SQL", columns.size());
+        log.debug("Extracted {} columns from SQL", columns.size());
         return columns;
     }
 
@@ -0,0 +1,98 @@
+package com.gct.reportgenerator.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 正在执行的报表查询
+ *
+ * 由执行线程更新进度，其他线程（取消接口、超时检查）读取状态或调用cancel
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Getter
+public class RunningExecution {
+
+    private final long executionId;
+    private final Long reportId;
+    private final String reportName;
+    private final Long userId;
+    private final String role;
+    private final ExecutionLimits limits;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+
+    private volatile Statement statement;
+    private volatile long rowsStreamed;
+    private volatile long bytesStreamed;
+
+    /**
+     * 终止原因（错误代码），为空表示未被终止
+     */
+    private volatile String cancelReason;
+
+    ScheduledFuture<?> timeoutTask;
+
+    RunningExecution(long executionId, PreparedReportExecution execution) {
+        this.executionId = executionId;
+        this.reportId = execution.getReportId();
+        this.reportName = execution.getReportName();
+        this.userId = execution.getUserId();
+        this.role = execution.getRole();
+        this.limits = execution.getLimits();
+    }
+
+    /**
+     * 已执行时间（毫秒）
+     */
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    void attach(Statement statement) {
+        this.statement = statement;
+        if (cancelReason != null) {
+            // 取得语句前已被取消
+            cancelStatement();
+        }
+    }
+
+    void progress(long rows, long bytes) {
+        this.rowsStreamed = rows;
+        this.bytesStreamed = bytes;
+    }
+
+    /**
+     * 终止执行：记录原因并调用Statement.cancel()，执行线程随后以对应错误结束
+     *
+     * @param reason 错误代码
+     * @return 本次调用是否生效（已被终止时返回false）
+     */
+    synchronized boolean cancel(String reason) {
+        if (cancelReason != null) {
+            return false;
+        }
+        cancelReason = reason;
+        cancelStatement();
+        return true;
+    }
+
+    private void cancelStatement() {
+        Statement current = statement;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.cancel();
+        } catch (SQLException e) {
+            log.warn("取消报表查询失败, 执行ID: {}, 错误信息: {}", executionId, e.getMessage());
+        }
+    }
+}
@@ -1,148 +1,367 @@
 package com.gct.reportgenerator.service;
 
 import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.SessionStore;
+import com.gct.reportgenerator.repository.StoredSession;
+import com.gct.reportgenerator.util.HashUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Session管理服务
- * 
- * 提供Session的创建、销毁、查询等功能
- * 
+ *
+ * 提供Session的创建、销毁、查询等功能。
+ *
+ * 会话保存在SessionStore（默认为应用数据库）中，不依赖容器内存中的HttpSession，多个节点共享同一存储即可互认会话，
+ * 重启后会话仍然有效。客户端持有随机会话ID（Cookie），存储中只保存其SHA-256摘要。
+ *
+ * 每个节点在存储前面有一层短TTL的本地近缓存，热路径上的查询只读内存。销毁会话时写入失效事件，
+ * 各节点按 report.session.event-poll-interval 轮询事件并清除近缓存，因此失效最迟在
+ * min(轮询间隔, report.session.near-cache-ttl) 后在所有节点生效。
+ *
  * @author GCT Team
  * @since 1.0.0
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class SessionService {
-    
-    private static final String SESSION_USER_ID = "userId";
-    private static final String SESSION_USERNAME = "username";
-    private static final String SESSION_ROLE = "role";
-    
+
+    /**
+     * 本次请求中创建的会话ID（响应Cookie还未回到客户端）
+     */
+    private static final String REQUEST_SESSION_ID = SessionService.class.getName() + ".SESSION_ID";
+
+    /**
+     * 兼容已有HttpSession的客户端：会话ID同时保存在HttpSession属性中
+     */
+    private static final String HTTP_SESSION_ID = "sessionId";
+
+    private static final int SESSION_ID_BYTES = 32;
+    private static final int EVENT_BATCH_SIZE = 500;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SessionStore sessionStore;
+    private final Duration timeout;
+    private final Duration touchInterval;
+    private final long nearCacheTtlNanos;
+    private final Duration eventRetention;
+    private final String cookieName;
+    private final boolean cookieSecure;
+    private final boolean cookieHttpOnly;
+    private final String cookieSameSite;
+
+    /**
+     * 近缓存：存储ID → 会话
+     */
+    private final Map<String, CachedSession> nearCache = new ConcurrentHashMap<>();
+
+    private volatile long lastEventId;
+
+    public SessionService(SessionStore sessionStore,
+                          @Value("${spring.session.timeout:30m}") Duration timeout,
+                          @Value("${report.session.touch-interval:1m}") Duration touchInterval,
+                          @Value("${report.session.near-cache-ttl:5s}") Duration nearCacheTtl,
+                          @Value("${report.session.event-retention:1h}") Duration eventRetention,
+                          @Value("${spring.session.cookie.name:GCT_SESSION}") String cookieName,
+                          @Value("${spring.session.cookie.secure:false}") boolean cookieSecure,
+                          @Value("${spring.session.cookie.http-only:true}") boolean cookieHttpOnly,
+                          @Value("${spring.session.cookie.same-site:strict}") String cookieSameSite) {
+        this.sessionStore = sessionStore;
+        this.timeout = timeout;
+        this.touchInterval = touchInterval;
+        this.nearCacheTtlNanos = nearCacheTtl.toNanos();
+        this.eventRetention = eventRetention;
+        this.cookieName = cookieName;
+        this.cookieSecure = cookieSecure;
+        this.cookieHttpOnly = cookieHttpOnly;
+        this.cookieSameSite = cookieSameSite;
+    }
+
+    /**
+     * 启动前的失效事件与本节点无关（近缓存为空），从最新事件开始轮询
+     */
+    @PostConstruct
+    void initEventCursor() {
+        lastEventId = sessionStore.latestEventId();
+    }
+
     /**
      * 创建Session，保存用户信息
-     * 
+     *
      * @param userId 用户ID
      * @param username 用户名
      * @param role 角色
      */
     public void createSession(Long userId, String username, String role) {
-        HttpSession session = getHttpSession();
-        session.setAttribute(SESSION_USER_ID, userId);
-        session.setAttribute(SESSION_USERNAME, username);
-        session.setAttribute(SESSION_ROLE, role);
-        
-        log.info("Session创建成功, 用户ID: {}, 用户名: {}, 角色: {}, SessionID: {}", 
-            userId, username, role, session.getId());
-    }
-    
+        HttpServletRequest request = getHttpRequest();
+
+        // 登录时更换会话ID，旧会话作废
+        String previousId = resolveSessionId(request);
+        if (previousId != null) {
+            invalidate(HashUtil.sha256Hex(previousId));
+        }
+
+        byte[] bytes = new byte[SESSION_ID_BYTES];
+        RANDOM.nextBytes(bytes);
+        String sessionId = ENCODER.encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+        StoredSession session = new StoredSession(HashUtil.sha256Hex(sessionId), userId, username, role,
+                now, now.plus(timeout));
+        sessionStore.save(session);
+        nearCache.put(session.id(), new CachedSession(session, System.nanoTime()));
+
+        request.setAttribute(REQUEST_SESSION_ID, sessionId);
+        HttpSession httpSession = request.getSession(false);
+        if (httpSession != null) {
+            httpSession.setAttribute(HTTP_SESSION_ID, sessionId);
+        }
+        writeCookie(sessionId, -1);
+
+        log.debug("Session创建成功, 用户ID: {}, 用户名: {}, 角色: {}", userId, username, role);
+    }
+
     /**
      * 销毁Session
      */
     public void destroySession() {
         try {
-            HttpSession session = getHttpSession();
-            String sessionId = session.getId();
-            Long userId = (Long) session.getAttribute(SESSION_USER_ID);
-            
-            session.invalidate();
-            
-            log.info("Session销毁成功, 用户ID: {}, SessionID: {}", userId, sessionId);
+            HttpServletRequest request = getHttpRequest();
+            String sessionId = resolveSessionId(request);
+            request.removeAttribute(REQUEST_SESSION_ID);
+            HttpSession httpSession = request.getSession(false);
+            if (httpSession != null) {
+                httpSession.invalidate();
+            }
+            if (sessionId == null) {
+                return;
+            }
+            invalidate(HashUtil.sha256Hex(sessionId));
+            writeCookie("", 0);
+
+            log.debug("Session销毁成功");
         } catch (Exception e) {
             log.warn("Session销毁失败: {}", e.getMessage());
         }
     }
-    
+
     /**
      * 获取当前登录用户ID
-     * 
+     *
      * @return 用户ID
      * @throws BusinessException 如果Session不存在或用户未登录
      */
     public Long getCurrentUserId() {
-        HttpSession session = getHttpSession();
-        Long userId = (Long) session.getAttribute(SESSION_USER_ID);
-        
-        if (userId == null) {
-            log.warn("Session中未找到用户信息, SessionID: {}", session.getId());
-            throw new BusinessException("UNAUTHORIZED", "用户未登录");
-        }
-        
-        return userId;
+        return requireCurrentSession().userId();
     }
-    
+
     /**
      * 获取当前登录用户名
-     * 
+     *
      * @return 用户名
      * @throws BusinessException 如果Session不存在或用户未登录
      */
     public String getCurrentUsername() {
-        HttpSession session = getHttpSession();
-        String username = (String) session.getAttribute(SESSION_USERNAME);
-        
-        if (username == null) {
-            log.warn("Session中未找到用户信息, SessionID: {}", session.getId());
-            throw new BusinessException("UNAUTHORIZED", "用户未登录");
-        }
-        
-        return username;
+        return requireCurrentSession().username();
     }
-    
+
     /**
      * 获取当前登录用户角色
-     * 
+     *
      * @return 角色
      * @throws BusinessException 如果Session不存在或用户未登录
      */
     public String getCurrentUserRole() {
-        HttpSession session = getHttpSession();
-        String role = (String) session.getAttribute(SESSION_ROLE);
-        
-        if (role == null) {
-            log.warn("Session中未找到用户信息, SessionID: {}", session.getId());
-            throw new BusinessException("UNAUTHORIZED", "用户未登录");
-        }
-        
-        return role;
+        return requireCurrentSession().role();
     }
-    
+
     /**
      * 检查用户是否已登录
-     * 
+     *
      * @return true-已登录，false-未登录
      */
     public boolean isAuthenticated() {
         try {
-            HttpSession session = getHttpSession();
-            Long userId = (Long) session.getAttribute(SESSION_USER_ID);
-            return userId != null;
+            return lookup(resolveSessionId(getHttpRequest())) != null;
         } catch (Exception e) {
             return false;
         }
     }
-    
+
+    /**
+     * 读取已有Session中的登录用户，不创建Session
+     *
+     * @param request 当前请求
+     * @return 登录用户，没有Session或未登录时返回null
+     */
+    public AuthenticatedUser findSessionUser(HttpServletRequest request) {
+        StoredSession session = lookup(resolveSessionId(request));
+        if (session == null) {
+            return null;
+        }
+        return new AuthenticatedUser(session.userId(), session.username(), session.role(), null);
+    }
+
+    /**
+     * 轮询失效事件，清除近缓存中已销毁的会话和超过TTL的条目
+     */
+    @Scheduled(fixedDelayString = "${report.session.event-poll-interval:PT1S}")
+    public void pollInvalidations() {
+        List<SessionStore.Invalidation> events;
+        do {
+            events = sessionStore.invalidatedSince(lastEventId, EVENT_BATCH_SIZE);
+            for (SessionStore.Invalidation event : events) {
+                nearCache.remove(event.sessionId());
+                lastEventId = event.eventId();
+            }
+        } while (events.size() == EVENT_BATCH_SIZE);
+
+        long now = System.nanoTime();
+        nearCache.values().removeIf(cached -> cached.isStale(now, nearCacheTtlNanos));
+    }
+
+    /**
+     * 清理过期会话和过期的失效事件
+     */
+    @Scheduled(fixedDelayString = "${report.session.purge-interval:PT10M}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = sessionStore.purge(now, now.minus(eventRetention));
+        if (purged > 0) {
+            log.debug("清理过期Session: {}", purged);
+        }
+    }
+
+    private StoredSession requireCurrentSession() {
+        StoredSession session = lookup(resolveSessionId(getHttpRequest()));
+        if (session == null) {
+            log.warn("未找到有效Session");
+            throw new BusinessException("UNAUTHORIZED", "用户未登录");
+        }
+        return session;
+    }
+
     /**
-     * 获取当前HTTP Session
-     * 
-     * @return HttpSession
+     * 按会话ID查找有效会话：先查近缓存，未命中或过期再查存储；按touch-interval延长有效期
      */
-    private HttpSession getHttpSession() {
-        ServletRequestAttributes attributes = 
+    private StoredSession lookup(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        String id = HashUtil.sha256Hex(sessionId);
+        long nanos = System.nanoTime();
+        CachedSession cached = nearCache.get(id);
+        StoredSession session;
+        if (cached != null && !cached.isStale(nanos, nearCacheTtlNanos)) {
+            session = cached.session();
+        } else {
+            session = sessionStore.find(id);
+            if (session == null) {
+                nearCache.remove(id);
+                return null;
+            }
+            nearCache.put(id, new CachedSession(session, nanos));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!session.expiresAt().isAfter(now)) {
+            nearCache.remove(id);
+            return null;
+        }
+        // 上次延长时间 = expiresAt - timeout
+        if (session.expiresAt().minus(timeout).plus(touchInterval).isBefore(now)) {
+            session = session.withExpiresAt(now.plus(timeout));
+            sessionStore.extend(id, session.expiresAt());
+            nearCache.put(id, new CachedSession(session, nanos));
+        }
+        return session;
+    }
+
+    private void invalidate(String id) {
+        nearCache.remove(id);
+        sessionStore.delete(id);
+    }
+
+    /**
+     * 会话ID来源：本次请求刚创建的 → Cookie → 已有HttpSession
+     */
+    private String resolveSessionId(HttpServletRequest request) {
+        Object created = request.getAttribute(REQUEST_SESSION_ID);
+        if (created instanceof String sessionId) {
+            return sessionId;
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookieName.equals(cookie.getName()) && !cookie.getValue().isEmpty()) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        HttpSession httpSession = request.getSession(false);
+        if (httpSession != null) {
+            try {
+                return (String) httpSession.getAttribute(HTTP_SESSION_ID);
+            } catch (IllegalStateException e) {
+                // HttpSession已失效
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void writeCookie(String value, long maxAgeSeconds) {
+        ServletRequestAttributes attributes =
             (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        
+        HttpServletResponse response = attributes != null ? attributes.getResponse() : null;
+        if (response == null) {
+            return;
+        }
+        ResponseCookie cookie = ResponseCookie.from(cookieName, value)
+                .path("/")
+                .httpOnly(cookieHttpOnly)
+                .secure(cookieSecure)
+                .sameSite(cookieSameSite)
+                .maxAge(maxAgeSeconds)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private HttpServletRequest getHttpRequest() {
+        ServletRequestAttributes attributes =
+            (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+
         if (attributes == null) {
             throw new BusinessException("SYSTEM_ERROR", "无法获取请求上下文");
         }
-        
-        HttpServletRequest request = attributes.getRequest();
-        return request.getSession(true);  // 如果不存在则创建
+
+        return attributes.getRequest();
+    }
+
+    private record CachedSession(StoredSession session, long loadedAtNanos) {
+
+        boolean isStale(long nowNanos, long ttlNanos) {
+            return nowNanos - loadedAtNanos >= ttlNanos;
+        }
     }
 }
@@ -0,0 +1,65 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.util.HashUtil;
+import com.gct.reportgenerator.util.SqlTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 报表SQL模板缓存
+ *
+ * 以SQL摘要为key缓存编译后的SqlTemplate。报表保存时预先编译，ReportDefinitionCache加载定义时取用并与定义一起缓存，
+ * 执行时不经过这里（不必对整段SQL求摘要）；
+ * 不同报表的SQL相同时共用同一模板。SQL内容决定模板，修改SQL即换用新key，无需失效。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class SqlTemplateCache {
+
+    private final int maxEntries;
+
+    /**
+     * 访问顺序的LinkedHashMap，头部为最久未访问
+     */
+    private final LinkedHashMap<String, SqlTemplate> templates;
+
+    public SqlTemplateCache(@Value("${report.sql-template-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.templates = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SqlTemplate> eldest) {
+                return size() > SqlTemplateCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 获取SQL模板，未缓存时编译并缓存
+     *
+     * @param sqlContent 报表原始SQL
+     * @return SQL模板
+     */
+    public SqlTemplate get(String sqlContent) {
+        String sqlHash = HashUtil.sha256Hex(sqlContent);
+        synchronized (templates) {
+            SqlTemplate cached = templates.get(sqlHash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        SqlTemplate template = SqlTemplate.compile(sqlContent, sqlHash);
+        synchronized (templates) {
+            templates.putIfAbsent(sqlHash, template);
+        }
+        log.debug("编译报表SQL模板, 摘要: {}, 参数槽位: {}", sqlHash, template.getSlots().size());
+        return template;
+    }
+}
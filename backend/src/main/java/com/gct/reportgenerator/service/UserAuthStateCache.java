@@ -0,0 +1,102 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.entity.User;
+import com.gct.reportgenerator.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录用户当前状态的近缓存
+ *
+ * AuthInterceptor对每个请求比对令牌或Session中的用户与users表的当前状态：
+ * 用户已删除或禁用、角色已变更、令牌版本已递增时拒绝请求。
+ * <ul>
+ *   <li>每个用户的状态缓存report.auth.user-state-ttl（默认5秒），未命中时经只读连接池查询</li>
+ *   <li>本节点的修改在提交后立即清除对应条目；其它节点的修改最迟在TTL后生效</li>
+ * </ul>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Component
+public class UserAuthStateCache {
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+
+    private final Map<Long, CachedState> states = new ConcurrentHashMap<>();
+
+    /**
+     * 清除时递增，清除前开始的查询结果不会写回缓存
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserAuthStateCache(UserRepository userRepository,
+                              @Value("${report.auth.user-state-ttl:5s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * 判断登录用户是否仍然有效
+     *
+     * @param user 令牌或Session中的用户
+     * @return 用户存在、已启用、角色未变且令牌版本一致（来自Session时不比较版本）时返回true
+     */
+    public boolean isValid(AuthenticatedUser user) {
+        UserState state = getState(user.userId());
+        if (state == null || !state.enabled() || !state.role().equals(user.role())) {
+            return false;
+        }
+        return user.tokenVersion() == null || user.tokenVersion().equals(state.tokenVersion());
+    }
+
+    /**
+     * 清除用户的缓存状态（修改提交后调用）
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        synchronized (states) {
+            generation.incrementAndGet();
+            states.remove(userId);
+        }
+    }
+
+    private UserState getState(Long userId) {
+        long now = System.nanoTime();
+        CachedState cached = states.get(userId);
+        if (cached != null && now - cached.loadedAtNanos() < ttlNanos) {
+            return cached.state();
+        }
+
+        long startGeneration = generation.get();
+        UserState state = userRepository.findById(userId)
+                .map(UserAuthStateCache::toState)
+                .orElse(null);
+        synchronized (states) {
+            if (generation.get() == startGeneration) {
+                states.put(userId, new CachedState(state, now));
+            }
+        }
+        return state;
+    }
+
+    private static UserState toState(User user) {
+        return new UserState(user.getRole(), Boolean.TRUE.equals(user.getEnabled()), user.getTokenVersion());
+    }
+
+    private record UserState(String role, boolean enabled, Integer tokenVersion) {
+    }
+
+    /**
+     * state为null表示用户不存在
+     */
+    private record CachedState(UserState state, long loadedAtNanos) {
+    }
+}
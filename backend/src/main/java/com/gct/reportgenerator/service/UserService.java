@@ -11,6 +11,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,6 +30,7 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserAuthStateCache userAuthStateCache;
     
     /**
      * 创建用户
@@ -82,21 +85,31 @@ public class UserService {
                 .orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "用户不存在"));
         
         // 更新密码（如果提供）
+        boolean revokeTokens = false;
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
             String encryptedPassword = passwordEncoder.encode(request.getPassword());
             user.setPassword(encryptedPassword);
+            revokeTokens = true;
         }
         
         // 更新角色
         if (request.getRole() != null) {
+            revokeTokens |= !request.getRole().equals(user.getRole());
             user.setRole(request.getRole());
         }
         
         // 更新启用状态
         if (request.getEnabled() != null) {
+            revokeTokens |= !request.getEnabled().equals(user.getEnabled());
             user.setEnabled(request.getEnabled());
         }
         
+        // 密码、角色或启用状态变更后，已签发的令牌失效
+        if (revokeTokens) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+            invalidateAuthStateAfterCommit(id);
+        }
+        
         // 保存更新
         User updatedUser = userRepository.save(user);
         log.info("用户更新成功: id={}, username={}", updatedUser.getId(), updatedUser.getUsername());
@@ -120,6 +133,7 @@ public class UserService {
         
         // 删除用户
         userRepository.deleteById(id);
+        invalidateAuthStateAfterCommit(id);
         log.info("用户删除成功: id={}", id);
     }
     
@@ -129,6 +143,7 @@ public class UserService {
      * @param id 用户ID
      * @return 用户DTO
      */
+    @Transactional(readOnly = true)
     public UserDTO getUserById(Long id) {
         log.debug("获取用户详情: id={}", id);
         
@@ -143,6 +158,7 @@ public class UserService {
      * 
      * @return 用户DTO列表
      */
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
         log.debug("获取所有用户列表");
         
@@ -152,6 +168,19 @@ public class UserService {
                 .collect(Collectors.toList());
     }
     
+    private void invalidateAuthStateAfterCommit(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userAuthStateCache.invalidate(id);
+                }
+            });
+        } else {
+            userAuthStateCache.invalidate(id);
+        }
+    }
+    
     /**
      * 将User实体转换为UserDTO
      * 
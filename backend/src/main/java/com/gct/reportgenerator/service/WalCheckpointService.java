@@ -0,0 +1,103 @@
+package com.gct.reportgenerator.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 应用数据库的WAL检查点
+ *
+ * SQLite在每次提交后WAL超过1000页时执行被动检查点，但只有在没有读事务使用WAL时，下一次写入才能从文件开头重用WAL。
+ * 读池的只读事务持续重叠时（读写分离后的常态）这个时机永远不会出现，WAL文件会一直增长，
+ * 读事务查找页面的开销随之上升。这里定期检查WAL的帧数，超过 report.sqlite.wal-size-limit 时执行
+ * PRAGMA wal_checkpoint(RESTART)：在写连接上等待已有的读事务结束（不阻塞新的读事务），
+ * 之后的写入从头重用WAL，写连接的journal_size_limit再把文件截断到同样的大小。
+ * <ul>
+ *   <li>语句在事务外执行，经写池的唯一连接，与其他写事务排队而不是竞争写锁</li>
+ *   <li>等待读事务期间写入暂停，最长为busy_timeout；超时后本次放弃，下个周期重试</li>
+ * </ul>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class WalCheckpointService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long walSizeLimitBytes;
+    private final Duration interval;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    public WalCheckpointService(JdbcTemplate jdbcTemplate,
+                                @Value("${report.sqlite.wal-size-limit:64MB}") DataSize walSizeLimit,
+                                @Value("${report.sqlite.wal-checkpoint-interval:1s}") Duration interval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walSizeLimitBytes = walSizeLimit.toBytes();
+        this.interval = interval;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "sqlite-wal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (DataAccessException e) {
+            // 未捕获的异常会终止后续的定期执行
+            log.warn("WAL检查点失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * WAL超过上限时执行RESTART检查点
+     *
+     * @return 是否执行并完成了RESTART检查点
+     */
+    public boolean checkpoint() {
+        // PASSIVE不等待读事务，返回WAL当前的帧数（非WAL模式时为-1）
+        long frames = walCheckpoint("PASSIVE")[1];
+        Long pageSize = jdbcTemplate.queryForObject("PRAGMA page_size", Long.class);
+        if (frames <= 0 || pageSize == null || frames * pageSize < walSizeLimitBytes) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        long[] result = walCheckpoint("RESTART");
+        if (result[0] != 0) {
+            log.debug("WAL检查点等待读事务超时, WAL帧数: {}", frames);
+            return false;
+        }
+        log.debug("WAL检查点完成, 帧数: {}, 耗时: {}ms", frames, System.currentTimeMillis() - start);
+        return true;
+    }
+
+    /**
+     * @return busy（1表示未能完成）、WAL帧数、已写回数据库的帧数
+     */
+    private long[] walCheckpoint(String mode) {
+        return jdbcTemplate.queryForObject("PRAGMA wal_checkpoint(" + mode + ")",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+    }
+}
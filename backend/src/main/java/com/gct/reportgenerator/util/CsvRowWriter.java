@@ -0,0 +1,355 @@
+package com.gct.reportgenerator.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * CSV/TSV流式输出
+ *
+ * 从ResultSet直接编码为UTF-8写入一个可复用的字节缓冲区，缓冲区满时整块写出，
+ * 不为每行构建对象；整数列按getLong读取并直接写出数字，不产生装箱和字符串。
+ * <ul>
+ *   <li>CSV：RFC 4180，字段含分隔符、引号或换行时加双引号，行以CRLF结束</li>
+ *   <li>TSV：不加引号，字段中的制表符、换行和反斜杠转义为 \t \n \r \\，行以LF结束</li>
+ *   <li>表头使用ReportColumn.displayName；CURRENCY固定两位小数，DATE输出ISO格式，
+ *       PERCENTAGE输出原始比例值，便于程序处理</li>
+ * </ul>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public class CsvRowWriter implements ReportRowHandler {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 单个字符编码后的最大字节数（含转义）
+     */
+    private static final int MAX_CHAR_BYTES = 4;
+
+    private final OutputStream out;
+    private final byte delimiter;
+    private final boolean tsv;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] digits = new byte[20];
+    private int position;
+    private long flushed;
+
+    private String[] formatTypes;
+    private int[] jdbcTypes;
+
+    /**
+     * @param out 输出流
+     * @param delimiter 分隔符，',' 为CSV，'\t' 为TSV
+     */
+    public CsvRowWriter(OutputStream out, char delimiter) {
+        this.out = out;
+        this.delimiter = (byte) delimiter;
+        this.tsv = delimiter == '\t';
+    }
+
+    @Override
+    public void start(List<ResultColumn> columns) throws IOException {
+        formatTypes = new String[columns.size()];
+        jdbcTypes = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            ResultColumn column = columns.get(i);
+            formatTypes[i] = column.getFormatType();
+            jdbcTypes[i] = column.getJdbcType();
+            if (i > 0) {
+                put(delimiter);
+            }
+            writeText(column.getDisplayName());
+        }
+        endLine();
+
+        // 表头先行刷出，客户端无需等待第一批数据
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void row(ResultSet rs) throws SQLException, IOException {
+        for (int i = 0; i < formatTypes.length; i++) {
+            if (i > 0) {
+                put(delimiter);
+            }
+            writeCell(rs, i + 1, formatTypes[i], jdbcTypes[i]);
+        }
+        endLine();
+    }
+
+    @Override
+    public void end(long rowCount) throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public long bytesWritten() {
+        return flushed + position;
+    }
+
+    private void writeCell(ResultSet rs, int index, String formatType, int jdbcType) throws SQLException, IOException {
+        if (isIntegerType(jdbcType)) {
+            long value = rs.getLong(index);
+            if (rs.wasNull()) {
+                return;
+            }
+            writeLong(value);
+            if ("CURRENCY".equals(formatType)) {
+                putAscii(".00");
+            }
+            return;
+        }
+
+        switch (formatType) {
+            case "NUMBER", "PERCENTAGE" -> writeNumber(rs.getObject(index));
+            case "CURRENCY" -> writeCurrency(rs.getObject(index));
+            case "DATE" -> writeDate(rs.getObject(index));
+            default -> writeText(rs.getString(index));
+        }
+    }
+
+    private void writeNumber(Object value) throws IOException {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+                writeLong((long) number);
+            } else {
+                putAscii(Double.toString(number));
+            }
+        } else if (value instanceof BigDecimal decimal) {
+            putAscii(decimal.toPlainString());
+        } else if (value != null) {
+            writeText(value.toString());
+        }
+    }
+
+    /**
+     * 金额固定两位小数：在long范围内按"分"取整后直接写出，避免BigDecimal
+     */
+    private void writeCurrency(Object value) throws IOException {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            writeLong(((Number) value).longValue());
+            putAscii(".00");
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isFinite(number) && Math.abs(number) < 1e13) {
+                writeCents(Math.round(number * 100));
+            } else {
+                putAscii(Double.toString(number));
+            }
+        } else if (value instanceof BigDecimal decimal) {
+            putAscii(decimal.setScale(2, RoundingMode.HALF_UP).toPlainString());
+        } else if (value != null) {
+            writeText(value.toString());
+        }
+    }
+
+    private void writeDate(Object value) throws IOException {
+        if (value instanceof java.sql.Date date) {
+            putAscii(date.toLocalDate().toString());
+        } else if (value instanceof java.util.Date date) {
+            LocalDateTime dateTime = new java.sql.Timestamp(date.getTime()).toLocalDateTime();
+            LocalDate day = dateTime.toLocalDate();
+            putAscii(day.toString());
+            put((byte) ' ');
+            writePadded(dateTime.getHour());
+            put((byte) ':');
+            writePadded(dateTime.getMinute());
+            put((byte) ':');
+            writePadded(dateTime.getSecond());
+        } else if (value != null) {
+            writeText(value.toString());
+        }
+    }
+
+    private void writePadded(int value) throws IOException {
+        put((byte) ('0' + value / 10));
+        put((byte) ('0' + value % 10));
+    }
+
+    private void writeCents(long cents) throws IOException {
+        if (cents < 0) {
+            put((byte) '-');
+            cents = -cents;
+        }
+        writeLong(cents / 100);
+        long fraction = cents % 100;
+        put((byte) '.');
+        put((byte) ('0' + fraction / 10));
+        put((byte) ('0' + fraction % 10));
+    }
+
+    /**
+     * 不经过String直接写出整数
+     */
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            putAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        int i = digits.length;
+        do {
+            digits[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        int length = digits.length - i;
+        ensure(length);
+        System.arraycopy(digits, i, buffer, position, length);
+        position += length;
+    }
+
+    private void writeText(String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        if (tsv) {
+            writeEscaped(text);
+            return;
+        }
+        if (!needsQuote(text)) {
+            writeUtf8(text);
+            return;
+        }
+        put((byte) '"');
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == '"') {
+                writeUtf8(text, start, i + 1);
+                start = i;
+            }
+        }
+        writeUtf8(text, start, length);
+        put((byte) '"');
+    }
+
+    private boolean needsQuote(String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeEscaped(String text) throws IOException {
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            char escape = switch (c) {
+                case '\t' -> 't';
+                case '\n' -> 'n';
+                case '\r' -> 'r';
+                case '\\' -> '\\';
+                default -> 0;
+            };
+            if (escape != 0) {
+                writeUtf8(text, start, i);
+                put((byte) '\\');
+                put((byte) escape);
+                start = i + 1;
+            }
+        }
+        writeUtf8(text, start, length);
+    }
+
+    private void writeUtf8(String text) throws IOException {
+        writeUtf8(text, 0, text.length());
+    }
+
+    /**
+     * 将text[from, to)按UTF-8编码写入缓冲区
+     */
+    private void writeUtf8(String text, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            if (position + MAX_CHAR_BYTES > BUFFER_SIZE) {
+                flushBuffer();
+            }
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 孤立的代理字符无法编码，按标准替换为 '?'
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void putAscii(String text) throws IOException {
+        int length = text.length();
+        if (length > digits.length) {
+            writeUtf8(text);
+            return;
+        }
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void endLine() throws IOException {
+        if (!tsv) {
+            put((byte) '\r');
+        }
+        put((byte) '\n');
+    }
+
+    private void put(byte b) throws IOException {
+        if (position == BUFFER_SIZE) {
+            flushBuffer();
+        }
+        buffer[position++] = b;
+    }
+
+    private void ensure(int length) throws IOException {
+        if (position + length > BUFFER_SIZE) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            flushed += position;
+            position = 0;
+        }
+    }
+
+    private static boolean isIntegerType(int jdbcType) {
+        return jdbcType == Types.BIGINT || jdbcType == Types.INTEGER
+                || jdbcType == Types.SMALLINT || jdbcType == Types.TINYINT;
+    }
+}
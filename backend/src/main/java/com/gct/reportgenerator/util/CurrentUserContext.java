@@ -82,6 +82,35 @@ public class CurrentUserContext {
         return "ADMIN".equals(role) || "DESIGNER".equals(role);
     }
     
+    /**
+     * 是否在HTTP请求上下文中（后台线程与内部调用返回false）
+     * 
+     * @return true-在请求上下文中
+     */
+    public static boolean hasRequestContext() {
+        return findCurrentRequest() != null;
+    }
+    
+    /**
+     * 获取当前用户ID，不在请求上下文中（如后台线程）或未登录时返回null
+     * 
+     * @return 用户ID
+     */
+    public static Long findCurrentUserId() {
+        HttpServletRequest request = findCurrentRequest();
+        return request != null ? (Long) request.getAttribute("currentUserId") : null;
+    }
+    
+    /**
+     * 获取当前用户角色，不在请求上下文中（如后台线程）或未登录时返回null
+     * 
+     * @return 角色
+     */
+    public static String findCurrentUserRole() {
+        HttpServletRequest request = findCurrentRequest();
+        return request != null ? (String) request.getAttribute("currentUserRole") : null;
+    }
+    
     /**
      * 获取当前HTTP请求
      * 
@@ -97,4 +126,10 @@ public class CurrentUserContext {
         
         return attributes.getRequest();
     }
-}
\ No newline at end of file
+    
+    private static HttpServletRequest findCurrentRequest() {
+        ServletRequestAttributes attributes = 
+            (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes != null ? attributes.getRequest() : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.gct.reportgenerator.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 摘要工具类
+ * 
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public class HashUtil {
+    
+    private HashUtil() {
+    }
+    
+    /**
+     * 计算字符串的SHA-256摘要
+     * 
+     * @param text 文本
+     * @return 十六进制摘要，text为null时返回空串
+     */
+    public static String sha256Hex(String text) {
+        if (text == null) {
+            return "";
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.gct.reportgenerator.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JSON流式结果输出
+ *
+ * 输出格式：{"columns":[...],"rows":[[...],...],"rowCount":N}
+ * 每读取一行即写入输出流，内存占用与结果集大小无关
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public class JsonRowWriter implements ReportRowHandler {
+
+    private final JsonGenerator generator;
+    private final CountingOutputStream counter;
+    private int[] jdbcTypes;
+    private boolean rowsOpen;
+
+    public JsonRowWriter(JsonFactory jsonFactory, OutputStream out) throws IOException {
+        this.counter = new CountingOutputStream(out);
+        this.generator = jsonFactory.createGenerator(counter, JsonEncoding.UTF8);
+    }
+
+    @Override
+    public void start(List<ResultColumn> columns) throws IOException {
+        jdbcTypes = new int[columns.size()];
+
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("columns");
+        for (int i = 0; i < columns.size(); i++) {
+            ResultColumn column = columns.get(i);
+            jdbcTypes[i] = column.getJdbcType();
+            generator.writeStartObject();
+            generator.writeStringField("fieldName", column.getFieldName());
+            generator.writeStringField("displayName", column.getDisplayName());
+            generator.writeStringField("formatType", column.getFormatType());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("rows");
+        rowsOpen = true;
+
+        // 列信息先行刷出，客户端无需等待第一批数据
+        generator.flush();
+    }
+
+    @Override
+    public void row(ResultSet rs) throws SQLException, IOException {
+        generator.writeStartArray();
+        for (int i = 0; i < jdbcTypes.length; i++) {
+            writeValue(rs, i + 1, jdbcTypes[i]);
+        }
+        generator.writeEndArray();
+    }
+
+    @Override
+    public void end(long rowCount) throws IOException {
+        generator.writeEndArray();
+        rowsOpen = false;
+        generator.writeNumberField("rowCount", rowCount);
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    /**
+     * 已写入输出流的字节数（不含生成器缓冲区中的内容）
+     */
+    @Override
+    public long bytesWritten() {
+        return counter.getCount();
+    }
+
+    /**
+     * 输出执行错误
+     *
+     * 若结果已开始输出，则关闭rows数组并追加error字段，保证响应仍是合法JSON
+     *
+     * @param code 错误代码
+     * @param message 错误信息
+     */
+    public void fail(String code, String message) throws IOException {
+        if (rowsOpen) {
+            generator.writeEndArray();
+            rowsOpen = false;
+        } else if (jdbcTypes == null) {
+            generator.writeStartObject();
+        }
+        generator.writeObjectFieldStart("error");
+        generator.writeStringField("code", code);
+        generator.writeStringField("message", message);
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    private void writeValue(ResultSet rs, int index, int jdbcType) throws SQLException, IOException {
+        switch (jdbcType) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> {
+                long value = rs.getLong(index);
+                if (rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+            case Types.DOUBLE, Types.FLOAT, Types.REAL -> {
+                double value = rs.getDouble(index);
+                if (rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+            default -> writeObject(rs.getObject(index));
+        }
+    }
+
+    private void writeObject(Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (value instanceof Number number) {
+            generator.writeNumber(number.doubleValue());
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof byte[]) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.gct.reportgenerator.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 对数-线性分桶的耗时直方图（HDR风格）
+ *
+ * 0~15毫秒每毫秒一个桶；之后每个2的幂区间等分为16个桶，相对误差不超过1/16。
+ * 桶数固定，可直接相加合并，因此按小时汇总后仍能计算任意时间段的分位数。
+ * 序列化为稀疏的变长整数（非空桶的下标差与计数），通常只有几十字节。
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 覆盖到Long.MAX_VALUE所需的桶数
+     */
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+
+    /**
+     * 记录一次耗时
+     *
+     * @param value 耗时（毫秒），负数按0计
+     */
+    public void record(long value) {
+        counts[indexOf(Math.max(0, value))]++;
+        totalCount++;
+    }
+
+    /**
+     * 合并另一个直方图
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * 计算分位数
+     *
+     * @param percentile 百分位（0~100）
+     * @return 该分位所在桶的上界，没有记录时返回0
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100.0, percentile) / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(BUCKETS - 1);
+    }
+
+    /**
+     * 序列化：版本号，随后每个非空桶写入（与上一个非空桶的下标差, 计数）两个变长整数
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        out.write(FORMAT_VERSION);
+        int previous = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                writeVarLong(out, i - previous);
+                writeVarLong(out, counts[i]);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 反序列化
+     *
+     * @param bytes toBytes的结果，null或空数组返回空直方图
+     */
+    public static LatencyHistogram fromBytes(byte[] bytes) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        if (bytes == null || bytes.length == 0) {
+            return histogram;
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("不支持的直方图格式");
+        }
+        int index = 0;
+        while (in.hasRemaining()) {
+            index += (int) readVarLong(in);
+            long count = readVarLong(in);
+            histogram.counts[index] += count;
+            histogram.totalCount += count;
+        }
+        return histogram;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof LatencyHistogram other && Arrays.equals(counts, other.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+}
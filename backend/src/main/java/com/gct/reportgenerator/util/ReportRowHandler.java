@@ -0,0 +1,48 @@
+package com.gct.reportgenerator.util;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 报表结果行处理器
+ * 
+ * 报表执行时逐行回调，实现类直接从ResultSet读取当前行并输出，
+ * 不在内存中累积结果集
+ * 
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public interface ReportRowHandler {
+    
+    /**
+     * 结果集打开后、读取第一行前调用
+     * 
+     * @param columns 结果列
+     */
+    void start(List<ResultColumn> columns) throws IOException;
+    
+    /**
+     * 处理当前行（ResultSet已定位到该行）
+     * 
+     * @param rs 结果集
+     */
+    void row(ResultSet rs) throws SQLException, IOException;
+    
+    /**
+     * 所有行处理完毕后调用
+     * 
+     * @param rowCount 总行数
+     */
+    void end(long rowCount) throws IOException;
+    
+    /**
+     * 已输出的字节数，用于执行时的字节数上限检查
+     * 
+     * @return 字节数，不输出字节的处理器返回0
+     */
+    default long bytesWritten() {
+        return 0;
+    }
+}
@@ -0,0 +1,37 @@
+package com.gct.reportgenerator.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 报表结果列描述
+ * 
+ * 由ResultSetMetaData与报表列配置（ReportColumn）合并而来
+ * 
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Data
+@AllArgsConstructor
+public class ResultColumn {
+    
+    /**
+     * 字段名（结果集列标签）
+     */
+    private String fieldName;
+    
+    /**
+     * 显示名称
+     */
+    private String displayName;
+    
+    /**
+     * 格式类型：TEXT, NUMBER, DATE, CURRENCY, PERCENTAGE
+     */
+    private String formatType;
+    
+    /**
+     * JDBC类型（java.sql.Types）
+     */
+    private int jdbcType;
+}
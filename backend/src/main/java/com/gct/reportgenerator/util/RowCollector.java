@@ -0,0 +1,47 @@
+package com.gct.reportgenerator.util;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 收集结果行的处理器
+ *
+ * 仅用于行数有上限的场景（如分页），不要用于全量结果
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public class RowCollector implements ReportRowHandler {
+
+    private final List<List<Object>> rows = new ArrayList<>();
+    private List<ResultColumn> columns;
+
+    @Override
+    public void start(List<ResultColumn> columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public void row(ResultSet rs) throws SQLException {
+        int count = columns.size();
+        List<Object> row = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            row.add(rs.getObject(i));
+        }
+        rows.add(row);
+    }
+
+    @Override
+    public void end(long rowCount) {
+    }
+
+    public List<ResultColumn> getColumns() {
+        return columns;
+    }
+
+    public List<List<Object>> getRows() {
+        return rows;
+    }
+}
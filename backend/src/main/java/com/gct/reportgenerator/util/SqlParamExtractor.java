@@ -3,86 +3,134 @@ package com.gct.reportgenerator.util;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * SQL参数提取工具类
  * 从SQL语句中提取命名参数（:paramName格式）
+ *
+ * 单遍扫描SQL，跳过以下内容中的冒号：
+ * <ul>
+ *   <li>单引号字符串（'It''s'）与双引号标识符（"a""b"），两个连续引号为转义</li>
+ *   <li>单行注释（--）与多行注释（/* 到 *&#47;）</li>
+ *   <li>PostgreSQL类型转换 ::</li>
+ * </ul>
+ * 除参数名外不分配对象
  */
 @Slf4j
 public class SqlParamExtractor {
 
-    // 匹配 :paramName 格式的命名参数
-    private static final Pattern PARAM_PATTERN = Pattern.compile(":(\\w+)");
-    
-    // 匹配单行注释 --
-    private static final Pattern SINGLE_LINE_COMMENT_PATTERN = Pattern.compile("--[^\n]*");
-    
-    // 匹配多行注释 /* */
-    private static final Pattern MULTI_LINE_COMMENT_PATTERN = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
-    
-    // 匹配字符串字面量（单引号和双引号）
-    private static final Pattern STRING_LITERAL_PATTERN = Pattern.compile("'([^']*)'|\"([^\"]*)\"");
+    /**
+     * SQL中的一处参数引用
+     *
+     * @param name 参数名（不含冒号）
+     * @param start 冒号在SQL中的位置
+     * @param end 参数名结束位置（不含）
+     */
+    public record ParamOccurrence(String name, int start, int end) {
+    }
+
+    /**
+     * 按出现顺序扫描SQL中的全部参数引用（不去重）
+     *
+     * @param sql SQL语句
+     * @return 参数引用列表
+     */
+    public static List<ParamOccurrence> scan(String sql) {
+        if (sql == null) {
+            return Collections.emptyList();
+        }
+
+        List<ParamOccurrence> result = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            switch (c) {
+                case '\'', '"' -> i = skipQuoted(sql, i + 1, c);
+                case '-' -> i = i + 1 < length && sql.charAt(i + 1) == '-' ? skipLineComment(sql, i + 2) : i + 1;
+                case '/' -> i = i + 1 < length && sql.charAt(i + 1) == '*' ? skipBlockComment(sql, i + 2) : i + 1;
+                case ':' -> {
+                    if (i + 1 < length && sql.charAt(i + 1) == ':') {
+                        // 类型转换 value::type
+                        i += 2;
+                        break;
+                    }
+                    int end = i + 1;
+                    while (end < length && isWordChar(sql.charAt(end))) {
+                        end++;
+                    }
+                    if (end > i + 1) {
+                        result.add(new ParamOccurrence(sql.substring(i + 1, end), i, end));
+                    }
+                    i = end;
+                }
+                default -> i++;
+            }
+        }
+        return result;
+    }
 
     /**
      * 从SQL语句中提取所有参数名称
-     * 
+     *
      * @param sql SQL语句
      * @return 参数名称列表（去重且保持顺序）
      */
     public static List<String> extractParams(String sql) {
-        if (sql == null || sql.trim().isEmpty()) {
+        if (sql == null || sql.isBlank()) {
             return Collections.emptyList();
         }
 
-        log.debug("Extracting parameters from SQL: {}", sql);
-
-        // 1. 移除注释
-        String cleanedSql = removeComments(sql);
-        
-        // 2. 移除字符串字面量（避免提取字符串中的:paramName）
-        cleanedSql = removeStringLiterals(cleanedSql);
-
-        // 3. 提取参数
         Set<String> paramNames = new LinkedHashSet<>(); // 使用LinkedHashSet保持顺序并去重
-        Matcher matcher = PARAM_PATTERN.matcher(cleanedSql);
-        
-        while (matcher.find()) {
-            String paramName = matcher.group(1);
-            paramNames.add(paramName);
+        for (ParamOccurrence occurrence : scan(sql)) {
+            paramNames.add(occurrence.name());
         }
 
         List<String> result = new ArrayList<>(paramNames);
         log.debug("Extracted {} parameters: {}", result.size(), result);
-        
+
         return result;
     }
 
     /**
-     * 移除SQL中的注释
+     * 跳过引号内容，返回结束引号之后的位置；两个连续引号视为转义
      */
-    private static String removeComments(String sql) {
-        // 移除单行注释
-        String result = SINGLE_LINE_COMMENT_PATTERN.matcher(sql).replaceAll("");
-        
-        // 移除多行注释
-        result = MULTI_LINE_COMMENT_PATTERN.matcher(result).replaceAll("");
-        
-        return result;
+    private static int skipQuoted(String sql, int from, char quote) {
+        int length = sql.length();
+        int i = from;
+        while (i < length) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private static int skipLineComment(String sql, int from) {
+        int end = sql.indexOf('\n', from);
+        return end < 0 ? sql.length() : end + 1;
+    }
+
+    private static int skipBlockComment(String sql, int from) {
+        int end = sql.indexOf("*/", from);
+        return end < 0 ? sql.length() : end + 2;
     }
 
     /**
-     * 移除SQL中的字符串字面量
-     * 替换为占位符，避免字符串内容干扰参数提取
+     * 与正则\w一致：ASCII字母、数字和下划线
      */
-    private static String removeStringLiterals(String sql) {
-        return STRING_LITERAL_PATTERN.matcher(sql).replaceAll("''");
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
     }
 
     /**
      * 验证SQL中的参数是否与提供的参数列表匹配
-     * 
+     *
      * @param sql SQL语句
      * @param providedParams 提供的参数名称列表
      * @return 包含missing（缺失）和extra（多余）参数的Map
@@ -111,7 +159,7 @@ public class SqlParamExtractor {
         Map<String, List<String>> result = new HashMap<>();
         result.put("missing", missing);
         result.put("extra", extra);
-        
+
         return result;
     }
 
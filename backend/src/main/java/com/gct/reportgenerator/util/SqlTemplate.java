@@ -0,0 +1,100 @@
+package com.gct.reportgenerator.util;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 编译后的报表SQL模板
+ *
+ * 将:param命名参数替换为JDBC的?占位符，并按占位符顺序记录参数名（同一参数出现多次时重复记录），
+ * 执行时只需按槽位取值，无需再次解析SQL
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@Getter
+public class SqlTemplate {
+
+    /**
+     * 原始SQL的SHA-256摘要
+     */
+    private final String sqlHash;
+
+    /**
+     * 已将命名参数替换为?的SQL
+     */
+    private final String sql;
+
+    /**
+     * 按占位符顺序排列的参数名（含重复）
+     */
+    private final List<String> slots;
+
+    /**
+     * 去重后的参数名（保持出现顺序）
+     */
+    private final List<String> paramNames;
+
+    /**
+     * 是否为查询语句（SELECT / WITH）
+     */
+    private final boolean query;
+
+    private SqlTemplate(String sqlHash, String sql, List<String> slots, boolean query) {
+        this.sqlHash = sqlHash;
+        this.sql = sql;
+        this.slots = Collections.unmodifiableList(slots);
+        Set<String> names = new LinkedHashSet<>(slots);
+        this.paramNames = List.copyOf(names);
+        this.query = query;
+    }
+
+    /**
+     * 编译SQL
+     *
+     * @param sqlContent 报表原始SQL
+     * @param sqlHash sqlContent的SHA-256摘要
+     * @return SQL模板
+     */
+    public static SqlTemplate compile(String sqlContent, String sqlHash) {
+        List<SqlParamExtractor.ParamOccurrence> occurrences = SqlParamExtractor.scan(sqlContent);
+        StringBuilder sql = new StringBuilder(sqlContent.length());
+        List<String> slots = new ArrayList<>(occurrences.size());
+        int last = 0;
+        for (SqlParamExtractor.ParamOccurrence occurrence : occurrences) {
+            sql.append(sqlContent, last, occurrence.start()).append('?');
+            slots.add(occurrence.name());
+            last = occurrence.end();
+        }
+        sql.append(sqlContent, last, sqlContent.length());
+        return new SqlTemplate(sqlHash, sql.toString(), slots, startsWithQuery(sqlContent));
+    }
+
+    /**
+     * 跳过前导空白、括号与注释后，判断是否以SELECT或WITH开头
+     */
+    private static boolean startsWithQuery(String sql) {
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c) || c == '(') {
+                i++;
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else {
+                break;
+            }
+        }
+        return sql.regionMatches(true, i, "select", 0, 6) || sql.regionMatches(true, i, "with", 0, 4);
+    }
+}
@@ -0,0 +1,403 @@
+package com.gct.reportgenerator.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * XLSX流式输出
+ *
+ * 直接按OOXML格式写zip流：工作表XML逐行写出，不在内存中构建工作簿，
+ * 内存占用只与输出缓冲和共享字符串表上限有关，与报表行数无关。
+ * <ul>
+ *   <li>重复出现的短文本写入共享字符串表（sharedStrings.xml），表满后其余文本使用内联字符串</li>
+ *   <li>列样式由ReportColumn.formatType决定：NUMBER、DATE、CURRENCY、PERCENTAGE</li>
+ *   <li>超过Excel单表行数上限时自动续写到下一个工作表</li>
+ * </ul>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public class XlsxRowWriter implements ReportRowHandler {
+
+    /**
+     * Excel单个工作表最大行数（含表头）
+     */
+    private static final int MAX_SHEET_ROWS = 1_048_576;
+
+    /**
+     * 共享字符串表的条目数上限及可共享文本的最大长度
+     */
+    private static final int MAX_SHARED_STRINGS = 65_536;
+    private static final int MAX_SHARED_LENGTH = 64;
+
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+
+    // 样式索引，对应styles.xml中cellXfs的顺序
+    private static final int STYLE_HEADER = 1;
+    private static final int STYLE_INTEGER = 2;
+    private static final int STYLE_DECIMAL = 3;
+    private static final int STYLE_CURRENCY = 4;
+    private static final int STYLE_PERCENTAGE = 5;
+    private static final int STYLE_DATE = 6;
+    private static final int STYLE_DATETIME = 7;
+
+    private final CountingOutputStream counter;
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private final String sheetName;
+    private final Map<String, Integer> sharedStrings = new HashMap<>();
+    private final List<String> sharedStringOrder = new ArrayList<>();
+
+    private List<ResultColumn> columns;
+    private String[] formatTypes;
+    private int[] jdbcTypes;
+    private int sheetCount;
+    private int sheetRow;
+    private long sharedStringRefs;
+
+    public XlsxRowWriter(OutputStream out, String sheetName) {
+        this.counter = new CountingOutputStream(out);
+        this.zip = new ZipOutputStream(counter, StandardCharsets.UTF_8);
+        this.zip.setLevel(1);
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        this.sheetName = sanitizeSheetName(sheetName);
+    }
+
+    @Override
+    public void start(List<ResultColumn> columns) throws IOException {
+        this.columns = columns;
+        this.formatTypes = new String[columns.size()];
+        this.jdbcTypes = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            formatTypes[i] = columns.get(i).getFormatType();
+            jdbcTypes[i] = columns.get(i).getJdbcType();
+        }
+        openSheet();
+    }
+
+    @Override
+    public void row(ResultSet rs) throws SQLException, IOException {
+        if (sheetRow >= MAX_SHEET_ROWS) {
+            closeSheet();
+            openSheet();
+        }
+        sheetRow++;
+        writer.write("<row r=\"");
+        writer.write(Integer.toString(sheetRow));
+        writer.write("\">");
+        for (int i = 0; i < formatTypes.length; i++) {
+            writeCell(rs, i + 1, formatTypes[i], jdbcTypes[i]);
+        }
+        writer.write("</row>");
+    }
+
+    @Override
+    public void end(long rowCount) throws IOException {
+        closeSheet();
+        writeStaticParts();
+        writer.flush();
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * 已写入输出流的压缩后字节数
+     */
+    @Override
+    public long bytesWritten() {
+        return counter.getCount();
+    }
+
+    private void openSheet() throws IOException {
+        sheetCount++;
+        sheetRow = 1;
+        writer.flush();
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetCount + ".xml"));
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        writer.write("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">");
+        writer.write("<sheetViews><sheetView workbookViewId=\"0\"><pane ySplit=\"1\" topLeftCell=\"A2\" "
+                + "activePane=\"bottomLeft\" state=\"frozen\"/></sheetView></sheetViews>");
+        writer.write("<sheetData><row r=\"1\">");
+        for (ResultColumn column : columns) {
+            writeInlineString(column.getDisplayName(), STYLE_HEADER);
+        }
+        writer.write("</row>");
+    }
+
+    private void closeSheet() throws IOException {
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private void writeCell(ResultSet rs, int index, String formatType, int jdbcType) throws SQLException, IOException {
+        switch (formatType) {
+            case "NUMBER", "CURRENCY", "PERCENTAGE" -> {
+                Object value = rs.getObject(index);
+                Double number = toNumber(value);
+                if (number != null) {
+                    writeNumber(number, numberStyle(formatType, value, jdbcType));
+                } else {
+                    writeText(value);
+                }
+            }
+            case "DATE" -> {
+                Object value = rs.getObject(index);
+                if (value instanceof java.util.Date date) {
+                    writeDate(new java.sql.Timestamp(date.getTime()).toLocalDateTime(), !(date instanceof java.sql.Date));
+                } else if (value instanceof String text && !writeDateText(text)) {
+                    writeText(text);
+                } else if (!(value instanceof String)) {
+                    writeText(value);
+                }
+            }
+            default -> writeText(rs.getString(index));
+        }
+    }
+
+    private int numberStyle(String formatType, Object value, int jdbcType) {
+        return switch (formatType) {
+            case "CURRENCY" -> STYLE_CURRENCY;
+            case "PERCENTAGE" -> STYLE_PERCENTAGE;
+            default -> value instanceof Long || value instanceof Integer
+                    || jdbcType == Types.INTEGER || jdbcType == Types.BIGINT ? STYLE_INTEGER : STYLE_DECIMAL;
+        };
+    }
+
+    private Double toNumber(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Double.parseDouble(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean writeDateText(String text) throws IOException {
+        String value = text.trim();
+        try {
+            if (value.length() == 10) {
+                writeDate(LocalDate.parse(value).atStartOfDay(), false);
+            } else {
+                writeDate(LocalDateTime.parse(value.replace(' ', 'T')), true);
+            }
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private void writeDate(LocalDateTime dateTime, boolean withTime) throws IOException {
+        double serial = ChronoUnit.DAYS.between(EXCEL_EPOCH, dateTime.toLocalDate())
+                + dateTime.toLocalTime().toNanoOfDay() / 86_400_000_000_000d;
+        writeNumber(serial, withTime ? STYLE_DATETIME : STYLE_DATE);
+    }
+
+    private void writeNumber(double value, int style) throws IOException {
+        writer.write("<c s=\"");
+        writer.write(Integer.toString(style));
+        writer.write("\"><v>");
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            writer.write(Long.toString((long) value));
+        } else {
+            writer.write(Double.toString(value));
+        }
+        writer.write("</v></c>");
+    }
+
+    private void writeText(Object value) throws IOException {
+        if (value == null) {
+            writer.write("<c/>");
+            return;
+        }
+        String text = value.toString();
+        if (text.length() <= MAX_SHARED_LENGTH) {
+            Integer index = sharedStrings.get(text);
+            if (index == null && sharedStrings.size() < MAX_SHARED_STRINGS) {
+                index = sharedStrings.size();
+                sharedStrings.put(text, index);
+                sharedStringOrder.add(text);
+            }
+            if (index != null) {
+                sharedStringRefs++;
+                writer.write("<c t=\"s\"><v>");
+                writer.write(Integer.toString(index));
+                writer.write("</v></c>");
+                return;
+            }
+        }
+        writeInlineString(text, 0);
+    }
+
+    private void writeInlineString(String text, int style) throws IOException {
+        writer.write("<c t=\"inlineStr\"");
+        if (style != 0) {
+            writer.write(" s=\"");
+            writer.write(Integer.toString(style));
+            writer.write('"');
+        }
+        writer.write("><is><t xml:space=\"preserve\">");
+        writeEscaped(text);
+        writer.write("</t></is></c>");
+    }
+
+    private void writeEscaped(String text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> writer.write("&lt;");
+                case '>' -> writer.write("&gt;");
+                case '&' -> writer.write("&amp;");
+                case '"' -> writer.write("&quot;");
+                default -> {
+                    // XML 1.0不允许的控制字符直接丢弃
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 写出工作表以外的固定部件，工作表数量与共享字符串在此时才确定
+     */
+    private void writeStaticParts() throws IOException {
+        putEntry("xl/sharedStrings.xml");
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        writer.write("<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"");
+        writer.write(Long.toString(sharedStringRefs));
+        writer.write("\" uniqueCount=\"");
+        writer.write(Integer.toString(sharedStringOrder.size()));
+        writer.write("\">");
+        for (String text : sharedStringOrder) {
+            writer.write("<si><t xml:space=\"preserve\">");
+            writeEscaped(text);
+            writer.write("</t></si>");
+        }
+        writer.write("</sst>");
+        closeEntry();
+
+        putEntry("xl/styles.xml");
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<numFmts count=\"3\">"
+                + "<numFmt numFmtId=\"164\" formatCode=\"&quot;¥&quot;#,##0.00\"/>"
+                + "<numFmt numFmtId=\"165\" formatCode=\"yyyy\\-mm\\-dd\"/>"
+                + "<numFmt numFmtId=\"166\" formatCode=\"yyyy\\-mm\\-dd\\ hh:mm:ss\"/>"
+                + "</numFmts>"
+                + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+                + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+                + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+                + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+                + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                + "<cellXfs count=\"8\">"
+                + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>"
+                + "<xf numFmtId=\"3\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "<xf numFmtId=\"4\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "<xf numFmtId=\"164\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "<xf numFmtId=\"10\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "<xf numFmtId=\"165\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "<xf numFmtId=\"166\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "</cellXfs>"
+                + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+                + "</styleSheet>");
+        closeEntry();
+
+        putEntry("xl/workbook.xml");
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+                + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>");
+        for (int i = 1; i <= sheetCount; i++) {
+            writer.write("<sheet name=\"");
+            writeEscaped(sheetCount == 1 ? sheetName : sheetName + "_" + i);
+            writer.write("\" sheetId=\"" + i + "\" r:id=\"rId" + i + "\"/>");
+        }
+        writer.write("</sheets></workbook>");
+        closeEntry();
+
+        putEntry("xl/_rels/workbook.xml.rels");
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 1; i <= sheetCount; i++) {
+            writer.write("<Relationship Id=\"rId" + i + "\" "
+                    + "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" "
+                    + "Target=\"worksheets/sheet" + i + ".xml\"/>");
+        }
+        writer.write("<Relationship Id=\"rIdStyles\" "
+                + "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" "
+                + "Target=\"styles.xml\"/>"
+                + "<Relationship Id=\"rIdStrings\" "
+                + "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/sharedStrings\" "
+                + "Target=\"sharedStrings.xml\"/></Relationships>");
+        closeEntry();
+
+        putEntry("_rels/.rels");
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" "
+                + "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" "
+                + "Target=\"xl/workbook.xml\"/></Relationships>");
+        closeEntry();
+
+        putEntry("[Content_Types].xml");
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" "
+                + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                + "<Override PartName=\"/xl/styles.xml\" "
+                + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+                + "<Override PartName=\"/xl/sharedStrings.xml\" "
+                + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>");
+        for (int i = 1; i <= sheetCount; i++) {
+            writer.write("<Override PartName=\"/xl/worksheets/sheet" + i + ".xml\" "
+                    + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        writer.write("</Types>");
+        closeEntry();
+    }
+
+    private void putEntry(String name) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+    }
+
+    private void closeEntry() throws IOException {
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    /**
+     * 工作表名称不能包含 \ / ? * [ ] : 且不超过31个字符
+     */
+    private static String sanitizeSheetName(String name) {
+        String cleaned = name == null || name.isBlank() ? "Sheet" : name.replaceAll("[\\\\/?*\\[\\]:]", "_");
+        return cleaned.length() > 28 ? cleaned.substring(0, 28) : cleaned;
+    }
+}
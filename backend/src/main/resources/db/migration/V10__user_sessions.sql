@@ -0,0 +1,24 @@
+-- V10__user_sessions.sql
+-- Shared login sessions (JdbcSessionStore), readable by every backend node
+
+-- id is the SHA-256 of the session cookie value, so the table alone cannot be used to hijack a session
+CREATE TABLE user_sessions (
+    id VARCHAR(64) PRIMARY KEY,
+    user_id INTEGER NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    role VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_user_sessions_user_id ON user_sessions(user_id);
+CREATE INDEX idx_user_sessions_expires_at ON user_sessions(expires_at);
+
+-- Invalidation events; each node polls rows after the last id it has seen and evicts them from its near-cache
+CREATE TABLE session_events (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    session_id VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_session_events_created_at ON session_events(created_at);
@@ -0,0 +1,5 @@
+-- V11__user_token_version.sql
+-- Per-user token epoch: login tokens carry the value they were issued with and are rejected once it changes
+-- (logout, disable, role or password change)
+
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,25 @@
+-- V4__create_export_jobs.sql
+-- Asynchronous export jobs
+
+CREATE TABLE export_jobs (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    report_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    format VARCHAR(10) NOT NULL CHECK(format IN ('CSV', 'TSV', 'XLSX')),
+    params TEXT,
+    status VARCHAR(20) NOT NULL CHECK(status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    rows_written INTEGER NOT NULL DEFAULT 0,
+    file_name VARCHAR(255),
+    file_size INTEGER,
+    error_message TEXT,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (report_id) REFERENCES reports(id) ON DELETE CASCADE
+);
+
+-- Create indexes for faster lookups
+CREATE INDEX idx_export_jobs_user_id ON export_jobs(user_id, status);
+CREATE INDEX idx_export_jobs_status ON export_jobs(status);
@@ -0,0 +1,12 @@
+-- V5__unique_report_name.sql
+-- Report names are unique (case-insensitive)
+
+-- Rename existing duplicates, keeping the oldest report's name unchanged
+UPDATE reports
+SET name = name || ' (' || id || ')'
+WHERE id NOT IN (SELECT MIN(id) FROM reports GROUP BY name COLLATE NOCASE);
+
+-- Replace the plain index with a unique NOCASE index; exact-match lookups
+-- must compare with COLLATE NOCASE to use it
+DROP INDEX idx_reports_name;
+CREATE UNIQUE INDEX uk_reports_name ON reports(name COLLATE NOCASE);
@@ -0,0 +1,24 @@
+-- V6__create_data_sources.sql
+-- Business databases that reports run against
+
+CREATE TABLE data_sources (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    jdbc_url VARCHAR(500) NOT NULL,
+    driver_class_name VARCHAR(200),
+    username VARCHAR(100),
+    password VARCHAR(255),
+    read_only BOOLEAN NOT NULL DEFAULT 1,
+    max_pool_size INTEGER NOT NULL DEFAULT 5 CHECK(max_pool_size > 0),
+    min_idle INTEGER NOT NULL DEFAULT 0 CHECK(min_idle >= 0),
+    connection_timeout_ms INTEGER NOT NULL DEFAULT 30000,
+    idle_timeout_ms INTEGER NOT NULL DEFAULT 600000,
+    enabled BOOLEAN NOT NULL DEFAULT 1,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- NULL means the built-in read-only pool on the application database
+ALTER TABLE reports ADD COLUMN data_source_id INTEGER REFERENCES data_sources(id);
+
+CREATE INDEX idx_reports_data_source_id ON reports(data_source_id);
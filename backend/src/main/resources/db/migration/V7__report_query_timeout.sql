@@ -0,0 +1,4 @@
+-- V7__report_query_timeout.sql
+-- Per-report statement timeout; the effective timeout is the lower of this and the caller's role limit
+
+ALTER TABLE reports ADD COLUMN query_timeout_seconds INTEGER CHECK(query_timeout_seconds IS NULL OR query_timeout_seconds > 0);
@@ -0,0 +1,8 @@
+-- V8__execution_log_details.sql
+-- Timings, row count and error details for report executions
+
+ALTER TABLE execution_logs ADD COLUMN duration_ms INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE execution_logs ADD COLUMN queue_wait_ms INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE execution_logs ADD COLUMN row_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE execution_logs ADD COLUMN error_code VARCHAR(50);
+ALTER TABLE execution_logs ADD COLUMN error_message TEXT;
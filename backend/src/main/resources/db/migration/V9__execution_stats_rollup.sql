@@ -0,0 +1,32 @@
+-- V9__execution_stats_rollup.sql
+-- Hourly pre-aggregated execution statistics, maintained incrementally as execution logs are written
+
+-- Per-report hourly buckets; latency_histogram is a serialized log-linear latency histogram (LatencyHistogram)
+CREATE TABLE execution_stats_hourly (
+    report_id INTEGER NOT NULL,
+    hour_start TIMESTAMP NOT NULL,
+    execution_count INTEGER NOT NULL DEFAULT 0,
+    failure_count INTEGER NOT NULL DEFAULT 0,
+    total_duration_ms INTEGER NOT NULL DEFAULT 0,
+    max_duration_ms INTEGER NOT NULL DEFAULT 0,
+    total_rows INTEGER NOT NULL DEFAULT 0,
+    latency_histogram BLOB NOT NULL,
+    PRIMARY KEY (report_id, hour_start),
+    FOREIGN KEY (report_id) REFERENCES reports(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_execution_stats_hourly_hour_start ON execution_stats_hourly(hour_start);
+
+-- Per-report, per-user hourly execution counts for top-user rankings
+CREATE TABLE execution_user_stats_hourly (
+    report_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    hour_start TIMESTAMP NOT NULL,
+    execution_count INTEGER NOT NULL DEFAULT 0,
+    failure_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (report_id, hour_start, user_id),
+    FOREIGN KEY (report_id) REFERENCES reports(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_execution_user_stats_hourly_hour_start ON execution_user_stats_hourly(hour_start);
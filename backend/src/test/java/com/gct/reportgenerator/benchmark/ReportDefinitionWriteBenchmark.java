@@ -0,0 +1,217 @@
+package com.gct.reportgenerator.benchmark;
+
+import com.gct.reportgenerator.dto.ReportColumnDTO;
+import com.gct.reportgenerator.dto.ReportParamDTO;
+import com.gct.reportgenerator.repository.ReportDefinitionJdbcRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 报表定义写入基准测试
+ *
+ * 对比保存一个含N列报表定义的耗时：
+ * <ul>
+ *   <li>before：按原实现的语句形态逐行写入——每行一次INSERT加一次取自增主键；
+ *       修改时先逐行查出并逐行DELETE，再全部重新插入</li>
+ *   <li>after：ReportDefinitionJdbcRepository，新增为多行INSERT，修改为按位置差异写入</li>
+ * </ul>
+ * 使用临时文件数据库（WAL），每次保存为一个事务：
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.gct.reportgenerator.benchmark.ReportDefinitionWriteBenchmark 80 200
+ * </pre>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public class ReportDefinitionWriteBenchmark {
+
+    private static final String SCHEMA = """
+            CREATE TABLE report_params (
+                id INTEGER PRIMARY KEY AUTOINCREMENT, report_id INTEGER NOT NULL,
+                param_name VARCHAR(50) NOT NULL, param_type VARCHAR(20) NOT NULL, required BOOLEAN NOT NULL DEFAULT 0,
+                created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL);
+            CREATE INDEX idx_report_params_report_id ON report_params(report_id);
+            CREATE TABLE report_columns (
+                id INTEGER PRIMARY KEY AUTOINCREMENT, report_id INTEGER NOT NULL,
+                field_name VARCHAR(50) NOT NULL, display_name VARCHAR(100) NOT NULL, format_type VARCHAR(20) NOT NULL,
+                created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL);
+            CREATE INDEX idx_report_columns_report_id ON report_columns(report_id);
+            """;
+
+    public static void main(String[] args) throws Exception {
+        int columnCount = args.length > 0 ? Integer.parseInt(args[0]) : 80;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Path file = Files.createTempFile("report-definition-benchmark", ".db");
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:sqlite:" + file + "?journal_mode=WAL", true);
+        try {
+            Connection conn = dataSource.getConnection();
+            try (Statement stmt = conn.createStatement()) {
+                for (String ddl : SCHEMA.split(";")) {
+                    if (!ddl.isBlank()) {
+                        stmt.execute(ddl);
+                    }
+                }
+            }
+            ReportDefinitionJdbcRepository repository = new ReportDefinitionJdbcRepository(new JdbcTemplate(dataSource));
+            List<ReportParamDTO> params = params();
+            List<ReportColumnDTO> columns = columns(columnCount);
+            List<ReportColumnDTO> edited = columns(columnCount);
+            edited.get(columnCount / 2).setDisplayName("edited");
+
+            // 预热
+            run(conn, iterations / 4, reportId -> legacyInsert(conn, reportId, params, columns));
+            run(conn, iterations / 4, reportId -> {
+                repository.insertParams(reportId, params);
+                repository.insertColumns(reportId, columns);
+            });
+
+            System.out.printf("columns: %d, iterations: %d%n", columnCount, iterations);
+            System.out.printf("%-28s %12s%n", "case", "avg(ms)");
+            report("create  before (per-row)", run(conn, iterations,
+                    reportId -> legacyInsert(conn, reportId, params, columns)), iterations);
+            report("create  after  (multi-row)", run(conn, iterations, reportId -> {
+                repository.insertParams(reportId, params);
+                repository.insertColumns(reportId, columns);
+            }), iterations);
+
+            long reportId = 1_000_000;
+            repository.insertParams(reportId, params);
+            repository.insertColumns(reportId, columns);
+            report("update  before (rewrite)", run(conn, iterations, ignored -> {
+                legacyDelete(conn, "report_params", reportId);
+                legacyDelete(conn, "report_columns", reportId);
+                legacyInsert(conn, reportId, params, edited);
+            }), iterations);
+            // 交替提交两个版本，每次保存都恰好有一列发生变化
+            report("update  after  (diff)", run(conn, iterations, iteration -> {
+                repository.syncParams(reportId, params);
+                repository.syncColumns(reportId, iteration % 2 == 0 ? columns : edited);
+            }), iterations);
+        } finally {
+            dataSource.destroy();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(Path.of(file + "-wal"));
+            Files.deleteIfExists(Path.of(file + "-shm"));
+        }
+    }
+
+    private static long run(Connection conn, int iterations, Body body) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            conn.setAutoCommit(false);
+            body.save((long) i + 1);
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, long nanos, int iterations) {
+        System.out.printf("%-28s %12.3f%n", name, nanos / 1e6 / iterations);
+    }
+
+    /**
+     * 原实现逐行save时发出的语句：INSERT后再查询自增主键
+     */
+    private static void legacyInsert(Connection conn, long reportId, List<ReportParamDTO> params,
+                                     List<ReportColumnDTO> columns) throws Exception {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (ReportParamDTO param : params) {
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO report_params "
+                    + "(created_at, param_name, param_type, report_id, required, updated_at) VALUES (?, ?, ?, ?, ?, ?)")) {
+                ps.setTimestamp(1, now);
+                ps.setString(2, param.getParamName());
+                ps.setString(3, param.getParamType());
+                ps.setLong(4, reportId);
+                ps.setBoolean(5, param.getRequired());
+                ps.setTimestamp(6, now);
+                ps.executeUpdate();
+            }
+            lastInsertId(conn);
+        }
+        for (ReportColumnDTO column : columns) {
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO report_columns "
+                    + "(created_at, display_name, field_name, format_type, report_id, updated_at) VALUES (?, ?, ?, ?, ?, ?)")) {
+                ps.setTimestamp(1, now);
+                ps.setString(2, column.getDisplayName());
+                ps.setString(3, column.getFieldName());
+                ps.setString(4, column.getFormatType());
+                ps.setLong(5, reportId);
+                ps.setTimestamp(6, now);
+                ps.executeUpdate();
+            }
+            lastInsertId(conn);
+        }
+    }
+
+    /**
+     * 原实现deleteByReportId的语句：先查出实体，再逐个DELETE
+     */
+    private static void legacyDelete(Connection conn, String table, long reportId) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM " + table + " WHERE report_id = ?")) {
+            ps.setLong(1, reportId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong("id"));
+                }
+            }
+        }
+        for (Long id : ids) {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+                ps.setLong(1, id);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private static void lastInsertId(Connection conn) throws Exception {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            rs.next();
+        }
+    }
+
+    private static List<ReportParamDTO> params() {
+        List<ReportParamDTO> params = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ReportParamDTO param = new ReportParamDTO();
+            param.setParamName("p" + i);
+            param.setParamType("STRING");
+            param.setRequired(i == 0);
+            params.add(param);
+        }
+        return params;
+    }
+
+    private static List<ReportColumnDTO> columns(int count) {
+        List<ReportColumnDTO> columns = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ReportColumnDTO column = new ReportColumnDTO();
+            column.setFieldName("col_" + i);
+            column.setDisplayName("列" + i);
+            column.setFormatType(i % 3 == 0 ? "NUMBER" : "TEXT");
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void save(long reportId) throws Exception;
+    }
+}
@@ -0,0 +1,119 @@
+package com.gct.reportgenerator.benchmark;
+
+import com.gct.reportgenerator.util.SqlParamExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL参数提取基准测试（JMH）
+ *
+ * 对比1KB、50KB、1MB的SQL上：
+ * <ul>
+ *   <li>legacy：原实现，三次正则全量扫描（去注释、去字符串、匹配:param），每次生成新字符串</li>
+ *   <li>singlePass：SqlParamExtractor单遍扫描</li>
+ * </ul>
+ * 输出每次调用的平均耗时，并通过GC profiler输出分配字节数（gc.alloc.rate.norm）：
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.gct.reportgenerator.benchmark.SqlParamExtractorBenchmark
+ * </pre>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlParamExtractorBenchmark {
+
+    private static final Pattern PARAM_PATTERN = Pattern.compile(":(\\w+)");
+    private static final Pattern SINGLE_LINE_COMMENT_PATTERN = Pattern.compile("--[^\n]*");
+    private static final Pattern MULTI_LINE_COMMENT_PATTERN = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern STRING_LITERAL_PATTERN = Pattern.compile("'([^']*)'|\"([^\"]*)\"");
+
+    private static final String FRAGMENT = """
+            SELECT o.id, o.amount, u.name AS "user name", o.created_at
+            FROM orders o JOIN users u ON u.id = o.user_id
+            /* 按部门与时间过滤 :ignored */
+            WHERE u.department = :dept
+              AND o.created_at BETWEEN :startDate AND :endDate
+              AND o.note <> 'n/a: none' -- :commented
+              AND o.status IN (:status1, :status2)
+            UNION ALL
+            """;
+
+    /**
+     * SQL长度（字符）：1KB、50KB、1MB
+     */
+    @Param({"1024", "51200", "1048576"})
+    private int size;
+
+    private String sql;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(size + FRAGMENT.length());
+        while (sb.length() < size) {
+            sb.append(FRAGMENT);
+        }
+        sb.setLength(size);
+        sql = sb.toString();
+    }
+
+    @Benchmark
+    public List<String> legacy() {
+        return legacyExtract(sql);
+    }
+
+    @Benchmark
+    public List<String> singlePass() {
+        return SqlParamExtractor.extractParams(sql);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SqlParamExtractorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * 原实现：三次正则全量扫描
+     */
+    private static List<String> legacyExtract(String sql) {
+        String cleaned = SINGLE_LINE_COMMENT_PATTERN.matcher(sql).replaceAll("");
+        cleaned = MULTI_LINE_COMMENT_PATTERN.matcher(cleaned).replaceAll("");
+        cleaned = STRING_LITERAL_PATTERN.matcher(cleaned).replaceAll("''");
+        Set<String> names = new LinkedHashSet<>();
+        Matcher matcher = PARAM_PATTERN.matcher(cleaned);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return new ArrayList<>(names);
+    }
+}
@@ -0,0 +1,282 @@
+package com.gct.reportgenerator.benchmark;
+
+import com.gct.reportgenerator.config.SqliteDataSourceConfig;
+import com.gct.reportgenerator.service.WalCheckpointService;
+import com.gct.reportgenerator.util.LatencyHistogram;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SQLite读写混合并发基准测试
+ *
+ * R个读线程反复执行按报表聚合的查询（只读事务），W个写线程反复提交小事务（插入若干日志行），持续若干秒：
+ * <ul>
+ *   <li>before：拆分前的配置——spring.datasource.url上的journal_mode=WAL、busy_timeout=5000、
+ *       transaction_mode=IMMEDIATE（synchronous为默认的FULL），读写共用Spring Boot默认的10连接连接池。
+ *       只读事务同样以BEGIN IMMEDIATE开始，读写事务实际上逐个执行</li>
+ *   <li>after：由SqliteDataSourceConfig按application.yml中的report.sqlite.*创建的单连接写池与只读读池
+ *       （连接数为reader-pool-size，读线程多于连接数时在连接池中等待），并运行WalCheckpointService</li>
+ * </ul>
+ * 输出每秒成功完成的读/写事务数、延迟分位数（微秒，含取得连接的时间）、取得连接的等待时间p99（wait p99）、
+ * SQLITE_BUSY失败数、其他失败数（errors）与结束时WAL文件的大小：
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.gct.reportgenerator.benchmark.SqliteConcurrencyBenchmark 8 2 10
+ * </pre>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public class SqliteConcurrencyBenchmark {
+
+    private static final int REPORTS = 200;
+    private static final int SEED_ROWS = 200_000;
+    private static final int ROWS_PER_WRITE = 10;
+
+    /**
+     * 拆分前应用数据源的连接数（Spring Boot默认的Hikari maximumPoolSize）
+     */
+    private static final int SHARED_POOL_SIZE = 10;
+
+    private static final String SCHEMA = """
+            CREATE TABLE execution_logs (
+                id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER NOT NULL, report_id INTEGER NOT NULL,
+                execute_time TIMESTAMP NOT NULL, duration_ms INTEGER NOT NULL, row_count INTEGER NOT NULL,
+                success BOOLEAN NOT NULL);
+            CREATE INDEX idx_execution_logs_report_id ON execution_logs(report_id, execute_time)
+            """;
+
+    private static final String READ_SQL = "SELECT COUNT(*), AVG(duration_ms), MAX(duration_ms), SUM(row_count) "
+            + "FROM execution_logs WHERE report_id = ? AND execute_time >= ?";
+
+    private static final String WRITE_SQL = "INSERT INTO execution_logs "
+            + "(user_id, report_id, execute_time, duration_ms, row_count, success) VALUES (?, ?, ?, ?, ?, ?)";
+
+    public static void main(String[] args) throws Exception {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int writers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        System.out.printf("readers: %d, writers: %d, duration: %ds, seed rows: %d%n", readers, writers, seconds, SEED_ROWS);
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %10s %10s %10s %8s %8s %8s%n",
+                "case", "reads/s", "read p50", "read p99", "wait p99", "writes/s", "write p50", "write p99", "wait p99",
+                "busy", "errors", "wal MB");
+
+        Path file = Files.createTempFile("sqlite-concurrency-benchmark", ".db");
+        try {
+            SQLiteConfig shared = new SQLiteConfig();
+            shared.setJournalMode(SQLiteConfig.JournalMode.WAL);
+            shared.setBusyTimeout(5000);
+            shared.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+            seed(file, shared);
+            try (HikariDataSource pool = pool(file, "shared", SHARED_POOL_SIZE, shared, false)) {
+                run("before", file, pool, pool, readers, writers, seconds);
+            }
+
+            Properties application = new YamlPropertiesFactoryBean() {{
+                setResources(new ClassPathResource("application.yml"));
+            }}.getObject();
+            SqliteDataSourceConfig config = new SqliteDataSourceConfig("jdbc:sqlite:" + file,
+                    SQLiteConfig.SynchronousMode.valueOf(application.getProperty("report.sqlite.synchronous")),
+                    DurationStyle.detectAndParse(application.getProperty("report.sqlite.busy-timeout")),
+                    DataSize.parse(application.getProperty("report.sqlite.cache-size")),
+                    DataSize.parse(application.getProperty("report.sqlite.mmap-size")),
+                    DataSize.parse(application.getProperty("report.sqlite.wal-size-limit")),
+                    DurationStyle.detectAndParse(application.getProperty("report.sqlite.connection-timeout")));
+            int readerPoolSize = Integer.parseInt(application.getProperty("report.sqlite.reader-pool-size"));
+            try (HikariDataSource writer = config.sqliteWriterDataSource();
+                 HikariDataSource reader = config.sqliteReaderDataSource(writer, readerPoolSize)) {
+                WalCheckpointService checkpoints = new WalCheckpointService(new JdbcTemplate(writer),
+                        DataSize.parse(application.getProperty("report.sqlite.wal-size-limit")),
+                        DurationStyle.detectAndParse(application.getProperty("report.sqlite.wal-checkpoint-interval")));
+                checkpoints.start();
+                try {
+                    run("after", file, reader, writer, readers, writers, seconds);
+                } finally {
+                    checkpoints.shutdown();
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(Path.of(file + "-journal"));
+            Files.deleteIfExists(Path.of(file + "-wal"));
+            Files.deleteIfExists(Path.of(file + "-shm"));
+        }
+    }
+
+    private static HikariDataSource pool(Path file, String name, int size, SQLiteConfig sqlite, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl("jdbc:sqlite:" + file);
+        config.setDataSourceProperties(sqlite.toProperties());
+        config.setMaximumPoolSize(size);
+        config.setReadOnly(readOnly);
+        return new HikariDataSource(config);
+    }
+
+    private static void seed(Path file, SQLiteConfig config) throws SQLException {
+        try (Connection conn = config.createConnection("jdbc:sqlite:" + file)) {
+            try (Statement stmt = conn.createStatement()) {
+                for (String ddl : SCHEMA.split(";")) {
+                    stmt.execute(ddl);
+                }
+            }
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(WRITE_SQL)) {
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < SEED_ROWS; i++) {
+                    bindRow(ps, now - (long) i * 1000);
+                    ps.addBatch();
+                    if (i % 10_000 == 9_999) {
+                        ps.executeBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    private static void run(String name, Path file, DataSource readPool, DataSource writePool,
+                            int readers, int writers, int seconds) throws Exception {
+        Result reads = new Result();
+        Result writes = new Result();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(readers + writers);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            threads.add(new Thread(() -> loop(deadline, reads, done, waits -> read(readPool, waits))));
+        }
+        for (int i = 0; i < writers; i++) {
+            threads.add(new Thread(() -> loop(deadline, writes, done, waits -> write(writePool, waits))));
+        }
+        threads.forEach(Thread::start);
+        done.await();
+
+        Path wal = Path.of(file + "-wal");
+        System.out.printf("%-8s %10.0f %10d %10d %10d %10.0f %10d %10d %10d %8d %8d %8.1f%n", name,
+                reads.histogram.getTotalCount() / (double) seconds,
+                reads.histogram.valueAtPercentile(50), reads.histogram.valueAtPercentile(99),
+                reads.waits.valueAtPercentile(99),
+                writes.histogram.getTotalCount() / (double) seconds,
+                writes.histogram.valueAtPercentile(50), writes.histogram.valueAtPercentile(99),
+                writes.waits.valueAtPercentile(99),
+                reads.busy.get() + writes.busy.get(), reads.errors.get() + writes.errors.get(),
+                Files.exists(wal) ? Files.size(wal) / 1048576.0 : 0);
+    }
+
+    private static void loop(long deadline, Result result, CountDownLatch done, Body body) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LatencyHistogram waits = new LatencyHistogram();
+        try {
+            while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                try {
+                    body.run(waits);
+                    histogram.record((System.nanoTime() - start) / 1000);
+                } catch (SQLException e) {
+                    (isBusy(e) ? result.busy : result.errors).incrementAndGet();
+                }
+            }
+        } finally {
+            synchronized (result) {
+                result.histogram.add(histogram);
+                result.waits.add(waits);
+            }
+            done.countDown();
+        }
+    }
+
+    private static boolean isBusy(SQLException e) {
+        return e instanceof SQLiteException sqlite && (sqlite.getResultCode() == SQLiteErrorCode.SQLITE_BUSY
+                || sqlite.getResultCode().name().startsWith("SQLITE_BUSY_"));
+    }
+
+    private static void read(DataSource dataSource, LatencyHistogram waits) throws SQLException {
+        try (Connection conn = getConnection(dataSource, waits)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(READ_SQL)) {
+                ps.setLong(1, ThreadLocalRandom.current().nextInt(REPORTS));
+                ps.setLong(2, System.currentTimeMillis() - 86_400_000L);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+    }
+
+    private static void write(DataSource dataSource, LatencyHistogram waits) throws SQLException {
+        try (Connection conn = getConnection(dataSource, waits)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(WRITE_SQL)) {
+                for (int i = 0; i < ROWS_PER_WRITE; i++) {
+                    bindRow(ps, System.currentTimeMillis());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 记录从连接池取得连接的等待时间
+     */
+    private static Connection getConnection(DataSource dataSource, LatencyHistogram waits) throws SQLException {
+        long start = System.nanoTime();
+        Connection conn = dataSource.getConnection();
+        waits.record((System.nanoTime() - start) / 1000);
+        return conn;
+    }
+
+    private static void bindRow(PreparedStatement ps, long executeTime) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ps.setLong(1, 1 + random.nextInt(50));
+        ps.setLong(2, random.nextInt(REPORTS));
+        ps.setLong(3, executeTime);
+        ps.setLong(4, random.nextInt(5000));
+        ps.setLong(5, random.nextInt(100_000));
+        ps.setBoolean(6, random.nextInt(20) != 0);
+    }
+
+    private static class Result {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LatencyHistogram waits = new LatencyHistogram();
+        private final AtomicLong busy = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void run(LatencyHistogram waits) throws SQLException;
+    }
+}
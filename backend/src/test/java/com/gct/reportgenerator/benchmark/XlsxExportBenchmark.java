@@ -0,0 +1,107 @@
+package com.gct.reportgenerator.benchmark;
+
+import com.gct.reportgenerator.util.ResultColumn;
+import com.gct.reportgenerator.util.XlsxRowWriter;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * XLSX流式导出基准测试
+ *
+ * 从内存SQLite生成N行（递归CTE，不占用Java堆），经XlsxRowWriter写到丢弃输出流，
+ * 统计耗时、输出字节数与堆内存峰值。建议用较小的堆运行以验证内存有界：
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Xmx64m -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.gct.reportgenerator.benchmark.XlsxExportBenchmark 100000 1000000
+ * </pre>
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+public class XlsxExportBenchmark {
+
+    private static final String SQL = """
+            WITH RECURSIVE cnt(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM cnt WHERE x < ?)
+            SELECT x AS id,
+                   'region-' || (x % 50) AS region,
+                   'customer-' || x AS customer,
+                   x * 1.37 AS amount,
+                   (x % 100) / 100.0 AS ratio,
+                   '2024-' || printf('%02d', x % 12 + 1) || '-' || printf('%02d', x % 28 + 1) AS day
+            FROM cnt
+            """;
+
+    private static final List<ResultColumn> COLUMNS = List.of(
+            new ResultColumn("id", "编号", "NUMBER", Types.INTEGER),
+            new ResultColumn("region", "区域", "TEXT", Types.VARCHAR),
+            new ResultColumn("customer", "客户", "TEXT", Types.VARCHAR),
+            new ResultColumn("amount", "金额", "CURRENCY", Types.NUMERIC),
+            new ResultColumn("ratio", "占比", "PERCENTAGE", Types.NUMERIC),
+            new ResultColumn("day", "日期", "DATE", Types.VARCHAR));
+
+    public static void main(String[] args) throws Exception {
+        long[] sizes = args.length > 0
+                ? java.util.Arrays.stream(args).mapToLong(Long::parseLong).toArray()
+                : new long[]{100_000, 1_000_000};
+
+        System.out.printf("max heap: %d MB%n", Runtime.getRuntime().maxMemory() >> 20);
+        System.out.printf("%12s %10s %12s %14s%n", "rows", "time(ms)", "output(MB)", "peakHeap(MB)");
+        for (long rows : sizes) {
+            run(rows);
+        }
+    }
+
+    private static void run(long rows) throws Exception {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+             PreparedStatement ps = conn.prepareStatement(SQL)) {
+            ps.setLong(1, rows);
+            ps.setFetchSize(500);
+            XlsxRowWriter writer = new XlsxRowWriter(out, "benchmark");
+            try (ResultSet rs = ps.executeQuery()) {
+                writer.start(COLUMNS);
+                long count = 0;
+                while (rs.next()) {
+                    writer.row(rs);
+                    count++;
+                }
+                writer.end(count);
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        System.out.printf("%12d %10d %12.1f %14.1f%n", rows, elapsedMs, out.count / 1048576.0, peak / 1048576.0);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
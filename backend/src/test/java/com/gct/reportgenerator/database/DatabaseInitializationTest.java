@@ -120,7 +120,7 @@ public class DatabaseInitializationTest {
             // Check users table has all required columns
             int columnCount = 0;
             boolean hasId = false, hasUsername = false, hasPassword = false, hasRole = false, 
-                    hasEnabled = false, hasCreatedAt = false, hasUpdatedAt = false;
+                    hasEnabled = false, hasCreatedAt = false, hasUpdatedAt = false, hasTokenVersion = false;
             
             while (rs.next()) {
                 columnCount++;
@@ -132,9 +132,10 @@ public class DatabaseInitializationTest {
                 if ("enabled".equals(columnName)) hasEnabled = true;
                 if ("created_at".equals(columnName)) hasCreatedAt = true;
                 if ("updated_at".equals(columnName)) hasUpdatedAt = true;
+                if ("token_version".equals(columnName)) hasTokenVersion = true;
             }
             
-            assertEquals(7, columnCount, "users table should have 7 columns");
+            assertEquals(8, columnCount, "users table should have 8 columns");
             assertTrue(hasId, "users table should have 'id' column");
             assertTrue(hasUsername, "users table should have 'username' column");
             assertTrue(hasPassword, "users table should have 'password' column");
@@ -142,6 +143,7 @@ public class DatabaseInitializationTest {
             assertTrue(hasEnabled, "users table should have 'enabled' column");
             assertTrue(hasCreatedAt, "users table should have 'created_at' column");
             assertTrue(hasUpdatedAt, "users table should have 'updated_at' column");
+            assertTrue(hasTokenVersion, "users table should have 'token_version' column");
         }
     }
 }
@@ -0,0 +1,59 @@
+package com.gct.reportgenerator.database;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SqliteDataSourceConfig测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class SqliteDataSourceConfigTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("连接打开时应用PRAGMA")
+    void pragmasAppliedOnConnect() {
+        assertEquals("wal", jdbcTemplate.queryForObject("PRAGMA journal_mode", String.class));
+        // NORMAL
+        assertEquals(1, jdbcTemplate.queryForObject("PRAGMA synchronous", Integer.class));
+        assertEquals(5000, jdbcTemplate.queryForObject("PRAGMA busy_timeout", Integer.class));
+        assertEquals(-16384, jdbcTemplate.queryForObject("PRAGMA cache_size", Integer.class));
+        assertEquals(64L * 1024 * 1024, jdbcTemplate.queryForObject("PRAGMA journal_size_limit", Long.class));
+    }
+
+    @Test
+    @DisplayName("只读事务使用只读连接，其他访问使用写连接")
+    void readOnlyTransactionsUseReaderPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Long count = readOnly.execute(status -> {
+            assertThrows(DataAccessException.class,
+                    () -> jdbcTemplate.update("UPDATE users SET updated_at = updated_at WHERE id = 1"));
+            return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        });
+        assertNotNull(count);
+        assertTrue(count > 0);
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Integer updated = readWrite.execute(status ->
+                jdbcTemplate.update("UPDATE users SET updated_at = updated_at WHERE id = 1"));
+        assertEquals(1, updated);
+        assertEquals(1, jdbcTemplate.update("UPDATE users SET updated_at = updated_at WHERE id = 1"));
+    }
+}
@@ -1,5 +1,9 @@
 package com.gct.reportgenerator.interceptor;
 
+import com.gct.reportgenerator.dto.CreateUserRequest;
+import com.gct.reportgenerator.dto.UpdateUserRequest;
+import com.gct.reportgenerator.service.UserService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -27,6 +31,9 @@ class AuthInterceptorIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
     
+    @Autowired
+    private UserService userService;
+    
     private MockHttpSession mockSession;
     
     @BeforeEach
@@ -95,4 +102,99 @@ class AuthInterceptorIntegrationTest {
                 .session(Objects.requireNonNull(mockSession)))
                .andExpect(status().isUnauthorized());
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("使用登录令牌访问受保护接口 - 不依赖Session")
+    void accessProtectedEndpoint_WithToken_Success() throws Exception {
+        String body = mockMvc.perform(post("/api/v1/auth/login")
+                .contentType("application/json")
+                .content("{\"username\":\"admin\",\"password\":\"admin123\"}"))
+               .andExpect(status().isOk())
+               .andReturn().getResponse().getContentAsString();
+        String token = JsonPath.read(body, "$.token");
+        
+        mockMvc.perform(get("/api/v1/test/current-user")
+                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.username").value("admin"))
+               .andExpect(jsonPath("$.role").value("ADMIN"));
+        
+        mockMvc.perform(get("/api/v1/test/current-user")
+                .header("Authorization", "Bearer " + token + "x"))
+               .andExpect(status().isUnauthorized());
+    }
+    
+    @Test
+    @DisplayName("令牌登出后失效 - 返回401")
+    void tokenLogout_RevokesToken() throws Exception {
+        String token = loginForToken("admin", "admin123");
+        
+        mockMvc.perform(post("/api/v1/auth/logout")
+                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isOk());
+        
+        mockMvc.perform(get("/api/v1/test/current-user")
+                .header("Authorization", "Bearer " + token))
+               .andExpect(status().isUnauthorized());
+        
+        // 重新登录签发的令牌不受影响
+        mockMvc.perform(get("/api/v1/test/current-user")
+                .header("Authorization", "Bearer " + loginForToken("admin", "admin123")))
+               .andExpect(status().isOk());
+    }
+    
+    @Test
+    @DisplayName("角色变更或禁用后令牌与Session失效 - 返回401")
+    void roleChangeAndDisable_RevokeTokenAndSession() throws Exception {
+        String username = "revoke" + System.nanoTime();
+        Long userId = userService.createUser(CreateUserRequest.builder()
+                .username(username).password("secret123").role("VIEWER").enabled(true).build()).getId();
+        try {
+            String token = loginForToken(username, "secret123");
+            mockMvc.perform(post("/api/v1/auth/login")
+                    .contentType("application/json")
+                    .content("{\"username\":\"" + username + "\",\"password\":\"secret123\"}")
+                    .session(Objects.requireNonNull(mockSession)))
+                   .andExpect(status().isOk());
+            
+            userService.updateUser(userId, UpdateUserRequest.builder().role("DESIGNER").build());
+            mockMvc.perform(get("/api/v1/test/current-user")
+                    .header("Authorization", "Bearer " + token))
+                   .andExpect(status().isUnauthorized());
+            mockMvc.perform(get("/api/v1/test/current-user")
+                    .session(Objects.requireNonNull(mockSession)))
+                   .andExpect(status().isUnauthorized());
+            
+            String designerToken = loginForToken(username, "secret123");
+            mockMvc.perform(get("/api/v1/test/current-user")
+                    .header("Authorization", "Bearer " + designerToken))
+                   .andExpect(status().isOk())
+                   .andExpect(jsonPath("$.role").value("DESIGNER"));
+            
+            userService.updateUser(userId, UpdateUserRequest.builder().enabled(false).build());
+            mockMvc.perform(get("/api/v1/test/current-user")
+                    .header("Authorization", "Bearer " + designerToken))
+                   .andExpect(status().isUnauthorized());
+        } finally {
+            userService.deleteUser(userId);
+        }
+    }
+    
+    private String loginForToken(String username, String password) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/auth/login")
+                .contentType("application/json")
+                .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+               .andExpect(status().isOk())
+               .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.token");
+    }
+    
+    @Test
+    @DisplayName("Actuator - 未登录只能访问health，metrics不公开")
+    void actuator_OnlyHealthExposed() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+               .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics"))
+               .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,69 @@
+package com.gct.reportgenerator.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AuditLogWriter测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+class AuditLogWriterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("缓冲区满时丢弃新事件，写出后槽位可复用")
+    void bufferFull_DropsAndRecovers() {
+        // 后台线程未启动，只能手动写出
+        AuditLogWriter writer = new AuditLogWriter(meterRegistry, true, 8, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 10; i++) {
+            writer.access("GET", "/api/v1/reports/{id}", 200, 1000, 1L);
+        }
+        assertEquals(2, writer.getDroppedCount());
+        assertEquals(2, meterRegistry.get("report.audit-log.dropped").counter().count());
+
+        assertEquals(8, writer.drain());
+        assertEquals(0, writer.drain());
+        writer.audit("REPORT_DELETE", 1L, null);
+        writer.sql("SELECT 1");
+        assertEquals(2, writer.drain());
+        assertEquals(2, writer.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("多线程并发提交，每个事件恰好写出一次")
+    void concurrentProducers() throws Exception {
+        AuditLogWriter writer = new AuditLogWriter(meterRegistry, true, 1024, Duration.ofMillis(1));
+        writer.start();
+        try {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        writer.sql("SELECT " + i);
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } finally {
+            writer.shutdown();
+        }
+        assertEquals(0, writer.drain());
+        // 写出的事件 + 丢弃的事件 = 提交的事件
+        assertEquals(8_000, writer.getWrittenCount() + writer.getDroppedCount());
+    }
+}
@@ -0,0 +1,55 @@
+package com.gct.reportgenerator.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AuthTokenService测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+class AuthTokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @Test
+    @DisplayName("签发的令牌可在持有相同密钥的节点上校验")
+    void issueAndVerify() {
+        AuthTokenService node1 = new AuthTokenService(SECRET, Duration.ofHours(1));
+        AuthTokenService node2 = new AuthTokenService(SECRET, Duration.ofHours(1));
+
+        String token = node1.issue(2L, "de|signer", "DESIGNER", 7);
+        AuthenticatedUser user = node2.verify(token);
+
+        assertNotNull(user);
+        assertEquals(2L, user.userId());
+        assertEquals("de|signer", user.username());
+        assertEquals("DESIGNER", user.role());
+        assertEquals(7, user.tokenVersion());
+    }
+
+    @Test
+    @DisplayName("篡改、密钥不同、过期与格式错误的令牌校验失败")
+    void verify_Rejects() {
+        AuthTokenService service = new AuthTokenService(SECRET, Duration.ofHours(1));
+        String token = service.issue(3L, "viewer", "VIEWER", 0);
+
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("v2|3|ADMIN|" + Long.MAX_VALUE + "|0|viewer").getBytes());
+        assertNull(service.verify(forgedPayload + token.substring(token.indexOf('.'))));
+        assertNull(new AuthTokenService("", Duration.ofHours(1)).verify(token));
+        assertNull(new AuthTokenService(SECRET, Duration.ZERO).verify(
+                new AuthTokenService(SECRET, Duration.ZERO).issue(3L, "viewer", "VIEWER", 0)));
+        assertNull(service.verify("Bearer-" + UUID.randomUUID()));
+        assertNull(service.verify("a.b.c"));
+        assertNull(service.verify("!!!.???"));
+        assertNull(service.verify(null));
+    }
+}
@@ -0,0 +1,216 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.DataSourceDTO;
+import com.gct.reportgenerator.dto.DataSourceHealthDTO;
+import com.gct.reportgenerator.dto.DataSourceRequest;
+import com.gct.reportgenerator.dto.ReportCreateRequest;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ReportRepository;
+import com.gct.reportgenerator.util.RowCollector;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DataSourceService测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class DataSourceServiceTest {
+
+    @Autowired
+    private DataSourceService dataSourceService;
+
+    @Autowired
+    private DataSourceRegistry dataSourceRegistry;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportExecutionService reportExecutionService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportColumnMetadataService reportColumnMetadataService;
+
+    @TempDir
+    Path tempDir;
+
+    private MockHttpServletRequest request;
+    private Long dataSourceId;
+    private Long reportId;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        request.setAttribute("currentUserId", 1L);
+        request.setAttribute("currentUserRole", "ADMIN");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        request.setAttribute("currentUserRole", "ADMIN");
+        if (reportId != null) {
+            reportService.deleteReport(reportId);
+        }
+        if (dataSourceId != null) {
+            dataSourceService.deleteDataSource(dataSourceId);
+        }
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("业务数据源 - 报表在独立的只读连接池上执行")
+    void reportRunsOnRegisteredDataSource() throws Exception {
+        String url = "jdbc:sqlite:" + tempDir.resolve("business.db");
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE orders (id INTEGER PRIMARY KEY, amount DECIMAL(10,2))");
+            stmt.execute("INSERT INTO orders (amount) VALUES (12.50), (7.25), (30.00)");
+        }
+
+        DataSourceRequest create = new DataSourceRequest();
+        create.setName("business-" + System.nanoTime());
+        create.setJdbcUrl(url);
+        create.setMaxPoolSize(2);
+        DataSourceDTO dataSource = dataSourceService.createDataSource(create);
+        dataSourceId = dataSource.getId();
+        assertTrue(dataSource.getReadOnly());
+
+        ReportCreateRequest report = new ReportCreateRequest();
+        report.setName("datasource-test-" + System.nanoTime());
+        report.setSqlContent("SELECT id, amount FROM orders WHERE amount > :min ORDER BY id");
+        report.setDataSourceId(dataSourceId);
+        reportId = reportService.createReport(report).getId();
+        assertEquals(dataSourceId, reportService.getReportById(reportId).getDataSourceId());
+
+        RowCollector collector = new RowCollector();
+        long rows = reportExecutionService.execute(reportExecutionService.prepare(reportId, Map.of("min", 10)), collector);
+        assertEquals(2, rows);
+
+        // 只读打开，写入被拒绝
+        try (Connection conn = dataSourceRegistry.getDataSource(dataSourceId).getConnection();
+             Statement stmt = conn.createStatement()) {
+            assertThrows(SQLException.class, () -> stmt.execute("DELETE FROM orders"));
+        }
+
+        DataSourceHealthDTO health = dataSourceService.checkHealth(dataSourceId);
+        assertEquals("UP", health.getStatus());
+        assertTrue(health.getTotalConnections() <= 2);
+
+        // 停用后连接池关闭，报表无法执行
+        DataSourceRequest disable = new DataSourceRequest();
+        disable.setEnabled(false);
+        dataSourceService.updateDataSource(dataSourceId, disable);
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> reportExecutionService.execute(reportExecutionService.prepare(reportId, Map.of()), new RowCollector()));
+        assertEquals("DATA_SOURCE_DISABLED", e.getCode());
+
+        e = assertThrows(BusinessException.class, () -> dataSourceService.deleteDataSource(dataSourceId));
+        assertEquals("DATA_SOURCE_IN_USE", e.getCode());
+    }
+
+    @Test
+    @DisplayName("数据源修改后清除该数据源的结果列缓存")
+    void updateDataSource_InvalidatesColumnCache() throws Exception {
+        String url = "jdbc:sqlite:" + tempDir.resolve("columns.db");
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+        }
+        DataSourceRequest create = new DataSourceRequest();
+        create.setName("columns-" + System.nanoTime());
+        create.setJdbcUrl(url);
+        dataSourceId = dataSourceService.createDataSource(create).getId();
+
+        String sql = "SELECT * FROM items";
+        assertEquals(2, reportColumnMetadataService.describe(sql, dataSourceId).size());
+
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE items ADD COLUMN price DECIMAL(10,2)");
+        }
+        // 缓存命中，仍是旧的列
+        assertEquals(2, reportColumnMetadataService.describe(sql, dataSourceId).size());
+
+        DataSourceRequest update = new DataSourceRequest();
+        update.setMaxPoolSize(3);
+        dataSourceService.updateDataSource(dataSourceId, update);
+        assertEquals(3, reportColumnMetadataService.describe(sql, dataSourceId).size());
+    }
+
+    @Test
+    @DisplayName("数据源修改时使用中的连接不受影响，归还后旧连接池关闭")
+    void updateDataSource_RetiresPoolInUse() throws Exception {
+        String url = "jdbc:sqlite:" + tempDir.resolve("retire.db");
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY)");
+        }
+        DataSourceRequest create = new DataSourceRequest();
+        create.setName("retire-" + System.nanoTime());
+        create.setJdbcUrl(url);
+        dataSourceId = dataSourceService.createDataSource(create).getId();
+
+        HikariDataSource oldPool = (HikariDataSource) dataSourceRegistry.getDataSource(dataSourceId);
+        try (Connection conn = oldPool.getConnection(); Statement stmt = conn.createStatement()) {
+            DataSourceRequest update = new DataSourceRequest();
+            update.setMaxPoolSize(3);
+            dataSourceService.updateDataSource(dataSourceId, update);
+
+            HikariDataSource newPool = (HikariDataSource) dataSourceRegistry.getDataSource(dataSourceId);
+            assertNotSame(oldPool, newPool);
+            assertEquals(3, newPool.getMaximumPoolSize());
+
+            dataSourceRegistry.closeRetiredPools();
+            assertFalse(oldPool.isClosed());
+            assertTrue(stmt.executeQuery("SELECT COUNT(*) FROM items").next());
+        }
+        dataSourceRegistry.closeRetiredPools();
+        assertTrue(oldPool.isClosed());
+    }
+
+    @Test
+    @DisplayName("内置数据源 - 只读连接应用数据库；非管理员不能管理数据源")
+    void defaultDataSourceAndPermissions() throws Exception {
+        try (Connection conn = dataSourceRegistry.getDataSource(null).getConnection();
+             Statement stmt = conn.createStatement()) {
+            assertTrue(stmt.executeQuery("SELECT COUNT(*) FROM users").next());
+            assertThrows(SQLException.class, () -> stmt.execute("UPDATE users SET enabled = enabled"));
+        }
+        assertEquals("UP", dataSourceService.checkHealth(null).getStatus());
+
+        request.setAttribute("currentUserRole", "VIEWER");
+        BusinessException e = assertThrows(BusinessException.class, () -> dataSourceService.listDataSources());
+        assertEquals("FORBIDDEN", e.getCode());
+    }
+
+    @Test
+    @DisplayName("内置数据源默认关闭，未指定数据源的报表无法读取应用数据库")
+    void defaultDataSource_DisabledByDefault() {
+        DataSourceRegistry registry = new DataSourceRegistry(null, false, "jdbc:sqlite::memory:", 1,
+            Duration.ofSeconds(1), Duration.ofMinutes(1));
+        BusinessException e = assertThrows(BusinessException.class, () -> registry.getDataSource(null));
+        assertEquals("DATA_SOURCE_REQUIRED", e.getCode());
+    }
+}
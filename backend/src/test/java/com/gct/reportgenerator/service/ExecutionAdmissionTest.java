@@ -0,0 +1,146 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.exception.TooManyRequestsException;
+import com.gct.reportgenerator.service.ExecutionAdmission.AdmissionPermit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ExecutionAdmission测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+class ExecutionAdmissionTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("准入 - 容量已满时排队，超过最长等待返回429与Retry-After")
+    void acquire_QueueTimeout() {
+        ExecutionAdmission admission = admission(1, 2, Duration.ofMillis(200));
+
+        try (AdmissionPermit ignored = admission.acquire(execution(1L, 100L))) {
+            TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> admission.acquire(execution(2L, 101L)));
+            assertEquals("EXECUTION_QUEUE_TIMEOUT", e.getCode());
+            assertTrue(e.getRetryAfterSeconds() >= 1);
+        }
+
+        // 许可释放后可立即进入
+        admission.acquire(execution(2L, 101L)).close();
+        assertEquals(3, meterRegistry.get("report.admission.wait").timer().count());
+        assertEquals(0, meterRegistry.get("report.admission.running").gauge().value());
+    }
+
+    @Test
+    @DisplayName("准入 - 每个用户的并发上限不影响其他用户")
+    void acquire_PerUserLimit() {
+        ExecutionAdmission admission = admission(4, 1, Duration.ofMillis(100));
+
+        try (AdmissionPermit ignored = admission.acquire(execution(1L, 100L))) {
+            TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> admission.acquire(execution(1L, 101L)));
+            assertEquals("EXECUTION_QUEUE_TIMEOUT", e.getCode());
+            admission.acquire(execution(2L, 102L)).close();
+        }
+    }
+
+    @Test
+    @DisplayName("准入 - 排队数不超过Servlet线程数的四分之一，超出时直接返回429")
+    void acquire_QueueCappedBelowServletThreads() throws Exception {
+        // max-queue配置为100，按8个Servlet线程限制为2
+        ExecutionAdmission admission = admission(1, 10, 100, Duration.ofSeconds(10), 8);
+        List<Long> admitted = new CopyOnWriteArrayList<>();
+
+        AdmissionPermit first = admission.acquire(execution(1L, 100L));
+        List<Thread> threads = List.of(waiter(admission, 2L, 200L, admitted), waiter(admission, 3L, 300L, admitted));
+        for (int i = 0; i < threads.size(); i++) {
+            threads.get(i).start();
+            awaitQueued(i + 1);
+        }
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+            () -> admission.acquire(execution(4L, 400L)));
+        assertEquals("EXECUTION_QUEUE_FULL", e.getCode());
+
+        first.close();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        assertEquals(2, admitted.size());
+        assertEquals(0, meterRegistry.get("report.admission.queued").gauge().value());
+    }
+
+    @Test
+    @DisplayName("公平排队 - 后到的其他用户先于同一用户积压的请求获准")
+    void acquire_FairAcrossUsers() throws Exception {
+        ExecutionAdmission admission = admission(1, 10, Duration.ofSeconds(10));
+        List<Long> admitted = new CopyOnWriteArrayList<>();
+
+        AdmissionPermit first = admission.acquire(execution(1L, 100L));
+        List<Thread> threads = List.of(
+            waiter(admission, 1L, 101L, admitted),
+            waiter(admission, 1L, 102L, admitted),
+            waiter(admission, 1L, 103L, admitted),
+            waiter(admission, 2L, 200L, admitted));
+        // 依次进入队列，保证入队顺序确定
+        for (int i = 0; i < threads.size(); i++) {
+            threads.get(i).start();
+            awaitQueued(i + 1);
+        }
+
+        first.close();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        assertEquals(List.of(200L, 101L, 102L, 103L), admitted);
+    }
+
+    private Thread waiter(ExecutionAdmission admission, Long userId, Long reportId, List<Long> admitted) {
+        return new Thread(() -> {
+            try (AdmissionPermit ignored = admission.acquire(execution(userId, reportId))) {
+                admitted.add(reportId);
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("report.admission.queued").gauge().value() < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "请求未进入队列");
+            Thread.sleep(5);
+        }
+    }
+
+    private ExecutionAdmission admission(int capacity, int perUserLimit, Duration maxWait) {
+        return admission(capacity, perUserLimit, 100, maxWait, 200);
+    }
+
+    private ExecutionAdmission admission(int capacity, int perUserLimit, int maxQueue, Duration maxWait,
+                                         int servletThreads) {
+        DataSourceRegistry registry = mock(DataSourceRegistry.class);
+        when(registry.getMaxPoolSize(null)).thenReturn(capacity);
+        return new ExecutionAdmission(registry, meterRegistry, perUserLimit, 10, maxQueue, maxWait, servletThreads,
+            4, 2, 1);
+    }
+
+    private static PreparedReportExecution execution(Long userId, Long reportId) {
+        return new PreparedReportExecution(reportId, "report-" + reportId, null, "hash", "SELECT 1", new Object[0],
+            List.of(), userId, "VIEWER", new ExecutionLimits(60_000, 100, Long.MAX_VALUE));
+    }
+}
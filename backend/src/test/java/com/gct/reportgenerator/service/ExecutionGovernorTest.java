@@ -0,0 +1,181 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.RunningExecutionDTO;
+import com.gct.reportgenerator.entity.Report;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ReportRepository;
+import com.gct.reportgenerator.util.RowCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExecutionGovernor测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class ExecutionGovernorTest {
+
+    /**
+     * 无限生成行的查询，只能靠取消结束
+     */
+    private static final String ENDLESS_SQL = "WITH RECURSIVE t(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM t) SELECT x FROM t";
+
+    /**
+     * 不返回行、一直计算的查询
+     */
+    private static final String ENDLESS_AGGREGATE_SQL =
+        "WITH RECURSIVE t(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM t) SELECT COUNT(*) FROM t";
+
+    @Autowired
+    private ReportExecutionService reportExecutionService;
+
+    @Autowired
+    private ExecutionGovernor executionGovernor;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    private MockHttpServletRequest request;
+    private Long reportId;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        request.setAttribute("currentUserId", 1L);
+        request.setAttribute("currentUserRole", "ADMIN");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (reportId != null) {
+            reportRepository.deleteById(reportId);
+        }
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("执行限制 - 报表超时与角色超时取较小值")
+    void limitsFor_UsesLowerTimeout() {
+        assertEquals(Duration.ofMinutes(10).toMillis(), executionGovernor.limitsFor("DESIGNER", null).timeoutMillis());
+        assertEquals(Duration.ofMinutes(5).toMillis(), executionGovernor.limitsFor(null, null).timeoutMillis());
+        assertEquals(2000, executionGovernor.limitsFor("ADMIN", 2).timeoutMillis());
+        assertEquals(Duration.ofMinutes(5).toMillis(), executionGovernor.limitsFor("VIEWER", 3600).timeoutMillis());
+    }
+
+    @Test
+    @DisplayName("超时 - 到期后取消语句")
+    void execute_TimesOut() {
+        reportId = saveReport(ENDLESS_AGGREGATE_SQL, 1);
+        PreparedReportExecution execution = reportExecutionService.prepare(reportId, Map.of());
+
+        BusinessException e = assertTimeoutPreemptively(Duration.ofSeconds(20), () -> assertThrows(BusinessException.class,
+            () -> reportExecutionService.execute(execution, new DiscardingHandler())));
+        assertEquals("EXECUTION_TIMEOUT", e.getCode());
+        assertTrue(executionGovernor.listRunning().isEmpty());
+    }
+
+    @Test
+    @DisplayName("取消 - 出现在执行列表中，其他用户无权取消，本人或管理员可取消")
+    void cancel_StopsRunningExecution() throws Exception {
+        reportId = saveReport(ENDLESS_SQL, null);
+        PreparedReportExecution execution = reportExecutionService.prepare(reportId, Map.of());
+        CompletableFuture<Long> result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return reportExecutionService.execute(execution, new DiscardingHandler());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        RunningExecutionDTO running = awaitRunning();
+        assertEquals(reportId, running.getReportId());
+        assertEquals(1L, running.getUserId());
+
+        request.setAttribute("currentUserId", 3L);
+        request.setAttribute("currentUserRole", "VIEWER");
+        assertTrue(executionGovernor.listRunning().isEmpty());
+        BusinessException forbidden = assertThrows(BusinessException.class,
+            () -> executionGovernor.cancel(running.getExecutionId()));
+        assertEquals("FORBIDDEN", forbidden.getCode());
+
+        request.setAttribute("currentUserId", 1L);
+        request.setAttribute("currentUserRole", "ADMIN");
+        executionGovernor.cancel(running.getExecutionId());
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(20, TimeUnit.SECONDS));
+        BusinessException cause = assertInstanceOf(BusinessException.class, e.getCause());
+        assertEquals("EXECUTION_CANCELLED", cause.getCode());
+
+        BusinessException notFound = assertThrows(BusinessException.class,
+            () -> executionGovernor.cancel(running.getExecutionId()));
+        assertEquals("EXECUTION_NOT_FOUND", notFound.getCode());
+    }
+
+    @Test
+    @DisplayName("行数上限 - 超出即终止")
+    void execute_RowLimit() {
+        reportId = saveReport(ENDLESS_SQL, null);
+        PreparedReportExecution prepared = reportExecutionService.prepare(reportId, Map.of());
+        PreparedReportExecution limited = new PreparedReportExecution(prepared.getReportId(), prepared.getReportName(),
+            prepared.getDataSourceId(), prepared.getSqlHash(), prepared.getSql(), prepared.getArgs(), prepared.getColumns(),
+            prepared.getUserId(), prepared.getRole(), new ExecutionLimits(60_000, 100, Long.MAX_VALUE));
+
+        RowCollector collector = new RowCollector();
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> reportExecutionService.execute(limited, collector));
+        assertEquals("EXECUTION_ROW_LIMIT", e.getCode());
+        assertEquals(100, collector.getRows().size());
+    }
+
+    private Long saveReport(String sql, Integer queryTimeoutSeconds) {
+        Report report = new Report();
+        report.setName("governor-test-" + System.nanoTime());
+        report.setSqlContent(sql);
+        report.setCreatorId(1L);
+        report.setQueryTimeoutSeconds(queryTimeoutSeconds);
+        return reportRepository.save(report).getId();
+    }
+
+    private RunningExecutionDTO awaitRunning() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            List<RunningExecutionDTO> running = executionGovernor.listRunning();
+            if (!running.isEmpty() && running.get(0).getRowsStreamed() > 0) {
+                return running.get(0);
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("执行未出现在列表中");
+    }
+
+    /**
+     * 读取并丢弃结果行
+     */
+    private static final class DiscardingHandler extends RowCollector {
+        @Override
+        public void row(ResultSet rs) {
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.entity.Report;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ReportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExecutionLogRetentionService测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class ExecutionLogRetentionServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @TempDir
+    Path archiveDir;
+
+    private Long reportId;
+
+    @BeforeEach
+    void setUp() {
+        Report report = new Report();
+        report.setName("retention-test-" + System.nanoTime());
+        report.setSqlContent("SELECT 1");
+        report.setCreatorId(1L);
+        reportId = reportRepository.save(report).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM execution_logs WHERE report_id = ?", reportId);
+        reportRepository.deleteById(reportId);
+    }
+
+    @Test
+    @DisplayName("保留策略 - 过期日志按月归档后删除，未过期的保留")
+    void purge_ArchivesByMonthAndDeletes() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime older = now.minusDays(70);
+        LocalDateTime old = now.minusDays(40);
+        for (int i = 0; i < 3; i++) {
+            insertLog(older.plusMinutes(i), "ERR, \"quoted\"");
+        }
+        for (int i = 0; i < 4; i++) {
+            insertLog(old.plusMinutes(i), null);
+        }
+        insertLog(now, null);
+
+        // 块大小2，覆盖多块追加同一归档文件
+        ExecutionLogRetentionService service = service(Duration.ZERO, 16, false);
+        assertEquals(7, service.purge());
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM execution_logs WHERE report_id = ?", Integer.class, reportId));
+        assertEquals(0, service.purge());
+
+        List<String> olderLines = readArchive(YearMonth.from(older));
+        List<String> oldLines = readArchive(YearMonth.from(old));
+        if (YearMonth.from(older).equals(YearMonth.from(old))) {
+            assertEquals(8, olderLines.size());
+        } else {
+            assertEquals(4, olderLines.size());
+            assertEquals(5, oldLines.size());
+            assertTrue(olderLines.get(1).endsWith(",false,\"ERR, \"\"quoted\"\"\","));
+        }
+        assertTrue(olderLines.get(0).startsWith("id,user_id,report_id,execute_time"));
+    }
+
+    @Test
+    @DisplayName("清理模式转换 - 默认关闭，开启后仅管理员可执行")
+    void enableIncrementalVacuum_OptIn() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("currentUserId", 1L);
+        request.setAttribute("currentUserRole", "ADMIN");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            BusinessException e = assertThrows(BusinessException.class,
+                () -> service(Duration.ZERO, 16, false).enableIncrementalVacuum());
+            assertEquals("VACUUM_CONVERSION_DISABLED", e.getCode());
+
+            ExecutionLogRetentionService service = service(Duration.ZERO, 16, true);
+            service.enableIncrementalVacuum();
+            assertEquals(2, jdbcTemplate.queryForObject("PRAGMA auto_vacuum", Integer.class));
+            assertFalse(service.enableIncrementalVacuum());
+
+            request.setAttribute("currentUserRole", "VIEWER");
+            e = assertThrows(BusinessException.class, service::enableIncrementalVacuum);
+            assertEquals("FORBIDDEN", e.getCode());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    @DisplayName("空间回收 - 每步回收vacuum-pages个空闲页，直到全部回收")
+    void purge_ReclaimsFreePages() throws IOException {
+        createFreePages(500);
+        long initial = freelistCount();
+        assertTrue(initial > 100);
+
+        ExecutionLogRetentionService service = service(Duration.ZERO, 16, false);
+        assertEquals(16, service.vacuumStep());
+        assertEquals(initial - 16, freelistCount());
+
+        service.purge();
+        assertEquals(0, freelistCount());
+    }
+
+    @Test
+    @DisplayName("空间回收 - 有暂停时，回收数百页在有限时间内完成")
+    void purge_WithPauseFinishesPromptly() throws IOException {
+        createFreePages(500);
+        assertTrue(freelistCount() > 400);
+
+        // 每步64页、暂停50ms：约8步；若每步只回收一页则需要20秒以上
+        long start = System.nanoTime();
+        service(Duration.ofMillis(50), 64, false).purge();
+        assertEquals(0, freelistCount());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+    }
+
+    /**
+     * 转换为增量清理模式后，建表写入再删除，产生空闲页
+     */
+    private void createFreePages(int pages) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("currentUserRole", "ADMIN");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            service(Duration.ZERO, 16, true).enableIncrementalVacuum();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        jdbcTemplate.execute("CREATE TABLE retention_test_filler (data BLOB)");
+        jdbcTemplate.execute("INSERT INTO retention_test_filler WITH RECURSIVE t(x) AS "
+            + "(SELECT 1 UNION ALL SELECT x + 1 FROM t WHERE x < " + pages + ") SELECT randomblob(4000) FROM t");
+        jdbcTemplate.execute("DROP TABLE retention_test_filler");
+    }
+
+    private long freelistCount() {
+        return jdbcTemplate.queryForObject("PRAGMA freelist_count", Long.class);
+    }
+
+    private ExecutionLogRetentionService service(Duration chunkPause, int vacuumPages, boolean vacuumConversion) {
+        return new ExecutionLogRetentionService(jdbcTemplate, true, Duration.ofDays(30), archiveDir.toString(), 2,
+            chunkPause, 1000, vacuumPages, vacuumConversion, Duration.ofMinutes(15), Duration.ofHours(1));
+    }
+
+    private void insertLog(LocalDateTime executeTime, String errorCode) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO execution_logs (user_id, report_id, execute_time, duration_ms, queue_wait_ms, "
+                + "row_count, success, error_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            1L, reportId, Timestamp.valueOf(executeTime), 10, 0, 1, errorCode == null, errorCode, now, now);
+    }
+
+    private List<String> readArchive(YearMonth month) throws IOException {
+        Path file = archiveDir.resolve("execution_logs-" + month + ".csv.gz");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.entity.ExecutionLog;
+import com.gct.reportgenerator.entity.Report;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ExecutionLogRepository;
+import com.gct.reportgenerator.repository.ReportRepository;
+import com.gct.reportgenerator.util.RowCollector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * ExecutionLogWriter测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class ExecutionLogWriterTest {
+
+    @Autowired
+    private ReportExecutionService reportExecutionService;
+
+    @Autowired
+    private ExecutionLogWriter executionLogWriter;
+
+    @Autowired
+    private ExecutionLogRepository executionLogRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long reportId;
+
+    @BeforeEach
+    void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("currentUserId", 1L);
+        request.setAttribute("currentUserRole", "ADMIN");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (reportId != null) {
+            jdbcTemplate.update("DELETE FROM execution_logs WHERE report_id = ?", reportId);
+            jdbcTemplate.update("DELETE FROM execution_stats_hourly WHERE report_id = ?", reportId);
+            jdbcTemplate.update("DELETE FROM execution_user_stats_hourly WHERE report_id = ?", reportId);
+            reportRepository.deleteById(reportId);
+        }
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("执行日志 - 成功与失败的执行都写入日志")
+    void execute_WritesLogs() throws Exception {
+        reportId = saveReport("SELECT 1 AS a UNION ALL SELECT 2 UNION ALL SELECT 3");
+        reportExecutionService.execute(reportExecutionService.prepare(reportId, Map.of()), new RowCollector());
+
+        PreparedReportExecution prepared = reportExecutionService.prepare(reportId, Map.of());
+        PreparedReportExecution limited = new PreparedReportExecution(prepared.getReportId(), prepared.getReportName(),
+            prepared.getDataSourceId(), prepared.getSqlHash(), prepared.getSql(), prepared.getArgs(), prepared.getColumns(),
+            prepared.getUserId(), prepared.getRole(), new ExecutionLimits(60_000, 2, Long.MAX_VALUE));
+        assertThrows(BusinessException.class, () -> reportExecutionService.execute(limited, new RowCollector()));
+
+        executionLogWriter.flush();
+        List<ExecutionLog> logs = executionLogRepository.findByReportIdOrderByIdDesc(reportId);
+        assertEquals(2, logs.size());
+
+        ExecutionLog failed = logs.get(0);
+        assertFalse(failed.getSuccess());
+        assertEquals("EXECUTION_ROW_LIMIT", failed.getErrorCode());
+        assertEquals(2L, failed.getRowCount());
+
+        ExecutionLog succeeded = logs.get(1);
+        assertTrue(succeeded.getSuccess());
+        assertEquals(1L, succeeded.getUserId());
+        assertEquals(3L, succeeded.getRowCount());
+        assertNull(succeeded.getErrorCode());
+        assertTrue(succeeded.getDurationMs() >= 0);
+        assertTrue(succeeded.getQueueWaitMs() >= 0);
+    }
+
+    @Test
+    @DisplayName("执行日志 - 队列已满时丢弃并计数，不阻塞提交")
+    void submit_DropsWhenFull() {
+        // 未启动后台线程，日志只会留在队列中
+        ExecutionLogWriter writer = new ExecutionLogWriter(jdbcTemplate, mock(TransactionTemplate.class),
+            mock(ExecutionStatsService.class), new SimpleMeterRegistry(), true, 2, 10, Duration.ofSeconds(1));
+        ExecutionLogRecord record = new ExecutionLogRecord(1L, 1L, LocalDateTime.now(), 10, 0, 1, true, null, null);
+
+        assertTrue(writer.submit(record));
+        assertTrue(writer.submit(record));
+        assertFalse(writer.submit(record));
+        assertEquals(1, writer.getDroppedCount());
+        assertFalse(writer.submit(new ExecutionLogRecord(null, 1L, LocalDateTime.now(), 10, 0, 1, true, null, null)));
+    }
+
+    private Long saveReport(String sql) {
+        Report report = new Report();
+        report.setName("execution-log-test-" + System.nanoTime());
+        report.setSqlContent(sql);
+        report.setCreatorId(1L);
+        return reportRepository.save(report).getId();
+    }
+}
@@ -0,0 +1,138 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ExecutionStatsDTO;
+import com.gct.reportgenerator.dto.ReportStatsDTO;
+import com.gct.reportgenerator.dto.UserExecutionStatsDTO;
+import com.gct.reportgenerator.entity.Report;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ReportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExecutionStatsService测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class ExecutionStatsServiceTest {
+
+    @Autowired
+    private ExecutionStatsService executionStatsService;
+
+    @Autowired
+    private ExecutionLogWriter executionLogWriter;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockHttpServletRequest request;
+    private Long reportId;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        request.setAttribute("currentUserId", 1L);
+        request.setAttribute("currentUserRole", "ADMIN");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Report report = new Report();
+        report.setName("stats-test-" + System.nanoTime());
+        report.setSqlContent("SELECT 1");
+        report.setCreatorId(1L);
+        reportId = reportRepository.save(report).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM execution_logs WHERE report_id = ?", reportId);
+        jdbcTemplate.update("DELETE FROM execution_stats_hourly WHERE report_id = ?", reportId);
+        jdbcTemplate.update("DELETE FROM execution_user_stats_hourly WHERE report_id = ?", reportId);
+        reportRepository.deleteById(reportId);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("报表统计 - 多次写入累加到小时桶，分位数与用户排行正确")
+    void getReportStats_AggregatesIncrementally() {
+        LocalDateTime now = LocalDateTime.now();
+        // 分两批写入，第二批需与已有直方图合并
+        for (int i = 1; i <= 50; i++) {
+            executionLogWriter.submit(record(1L, now, i * 10L, i % 10 != 0));
+        }
+        executionLogWriter.flush();
+        for (int i = 51; i <= 100; i++) {
+            executionLogWriter.submit(record(i % 2 == 0 ? 1L : 2L, now, i * 10L, i % 10 != 0));
+        }
+        // 两小时前的执行
+        executionLogWriter.submit(record(2L, now.minusHours(2), 5_000, true));
+        executionLogWriter.flush();
+
+        ReportStatsDTO stats = executionStatsService.getReportStats(reportId, 24, 10);
+        ExecutionStatsDTO summary = stats.getSummary();
+        assertEquals(101, summary.getExecutionCount());
+        assertEquals(10, summary.getFailureCount());
+        assertEquals(5_000, summary.getMaxDurationMs());
+        assertEquals(101 * 5, summary.getTotalRows());
+        assertWithin(500, summary.getP50DurationMs());
+        assertWithin(950, summary.getP95DurationMs());
+        assertEquals(2, stats.getHourly().size());
+        assertEquals(100, stats.getHourly().get(1).getExecutionCount());
+
+        List<UserExecutionStatsDTO> users = stats.getTopUsers();
+        assertEquals(List.of(1L, 2L), users.stream().map(UserExecutionStatsDTO::getUserId).toList());
+        assertEquals(75, users.get(0).getExecutionCount());
+        assertEquals("admin", users.get(0).getUsername());
+
+        // 只统计最近一小时
+        assertEquals(100, executionStatsService.getReportStats(reportId, 1, 10).getSummary().getExecutionCount());
+    }
+
+    @Test
+    @DisplayName("排行 - 仅管理员可查看，排序指标需合法")
+    void getTopReports_AdminOnly() {
+        executionLogWriter.submit(record(1L, LocalDateTime.now(), 100, false));
+        executionLogWriter.flush();
+
+        List<ExecutionStatsDTO> top = executionStatsService.getTopReports("failures", 24, 100);
+        ExecutionStatsDTO entry = top.stream().filter(dto -> dto.getReportId().equals(reportId)).findFirst().orElseThrow();
+        assertEquals(1, entry.getFailureCount());
+        assertEquals(1.0, entry.getErrorRate());
+        assertNotNull(entry.getReportName());
+
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> executionStatsService.getTopReports("unknown", 24, 10));
+        assertEquals("INVALID_PARAM", e.getCode());
+
+        request.setAttribute("currentUserRole", "VIEWER");
+        e = assertThrows(BusinessException.class, () -> executionStatsService.getTopUsers(24, 10));
+        assertEquals("FORBIDDEN", e.getCode());
+    }
+
+    private ExecutionLogRecord record(Long userId, LocalDateTime executeTime, long durationMs, boolean success) {
+        return new ExecutionLogRecord(userId, reportId, executeTime, durationMs, 0, 5, success,
+            success ? null : "EXECUTION_TIMEOUT", success ? null : "报表执行超时");
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 16,
+            "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,178 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ExportJobDTO;
+import com.gct.reportgenerator.dto.ExportJobRequest;
+import com.gct.reportgenerator.entity.Report;
+import com.gct.reportgenerator.entity.ReportParam;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ExportJobRepository;
+import com.gct.reportgenerator.repository.ReportParamRepository;
+import com.gct.reportgenerator.repository.ReportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExportJobService测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class ExportJobServiceTest {
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private ExportJobRepository exportJobRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportParamRepository reportParamRepository;
+
+    private Long reportId;
+
+    @BeforeEach
+    void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("currentUserId", 2L);
+        request.setAttribute("currentUserRole", "DESIGNER");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Report report = new Report();
+        report.setName("export-job-test-" + System.nanoTime());
+        report.setSqlContent("""
+            WITH RECURSIVE cnt(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM cnt WHERE x < :total)
+            SELECT x AS id, 'row-' || x AS label FROM cnt
+            """);
+        report.setCreatorId(2L);
+        reportId = reportRepository.save(report).getId();
+
+        ReportParam param = new ReportParam();
+        param.setReportId(reportId);
+        param.setParamName("total");
+        param.setParamType("NUMBER");
+        param.setRequired(true);
+        reportParamRepository.save(param);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportJobService.listJobs().forEach(job -> {
+            if (isActive(job)) {
+                exportJobService.cancelOrDelete(job.getId());
+                awaitFinished(job.getId());
+            }
+            exportJobService.cancelOrDelete(job.getId());
+        });
+        reportParamRepository.deleteAll(reportParamRepository.findByReportId(reportId));
+        reportRepository.deleteById(reportId);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("导出任务完成后可下载文件")
+    void submit_CompletesAndSpoolsFile() throws Exception {
+        ExportJobDTO job = exportJobService.submit(request("CSV", 1000));
+        assertEquals(ExportJobService.STATUS_QUEUED, job.getStatus());
+
+        ExportJobDTO finished = awaitFinished(job.getId());
+        assertEquals(ExportJobService.STATUS_COMPLETED, finished.getStatus());
+        assertEquals(1000L, finished.getRowsWritten());
+
+        ExportJobService.ExportFile file = exportJobService.getFile(job.getId());
+        List<String> lines = Files.readAllLines(file.path(), StandardCharsets.UTF_8);
+        assertEquals(1001, lines.size());
+        assertEquals("1000,row-1000", lines.get(1000));
+        assertEquals(finished.getFileSize(), Files.size(file.path()));
+        assertTrue(file.fileName().endsWith(".csv"));
+    }
+
+    @Test
+    @DisplayName("取消执行中的任务")
+    void cancel_StopsRunningJob() throws Exception {
+        ExportJobDTO job = exportJobService.submit(request("TSV", 100_000_000));
+        while (exportJobService.getJob(job.getId()).getRowsWritten() == 0) {
+            Thread.sleep(10);
+        }
+
+        exportJobService.cancelOrDelete(job.getId());
+        ExportJobDTO finished = awaitFinished(job.getId());
+
+        assertEquals(ExportJobService.STATUS_CANCELLED, finished.getStatus());
+        assertTrue(finished.getRowsWritten() > 0);
+        BusinessException e = assertThrows(BusinessException.class, () -> exportJobService.getFile(job.getId()));
+        assertEquals("EXPORT_NOT_READY", e.getCode());
+    }
+
+    @Test
+    @DisplayName("超出每用户并发上限时拒绝提交")
+    void submit_RejectsOverPerUserLimit() {
+        exportJobService.submit(request("CSV", 100_000_000));
+        exportJobService.submit(request("CSV", 100_000_000));
+
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> exportJobService.submit(request("CSV", 10)));
+        assertEquals("EXPORT_LIMIT_EXCEEDED", e.getCode());
+    }
+
+    @Test
+    @DisplayName("参数不合法时不创建任务")
+    void submit_InvalidRequest() {
+        BusinessException format = assertThrows(BusinessException.class,
+            () -> exportJobService.submit(request("PDF", 10)));
+        assertEquals("INVALID_EXPORT_FORMAT", format.getCode());
+
+        ExportJobRequest missing = request("CSV", 10);
+        missing.setParams(Map.of());
+        BusinessException param = assertThrows(BusinessException.class, () -> exportJobService.submit(missing));
+        assertEquals("PARAM_REQUIRED", param.getCode());
+        assertTrue(exportJobService.listJobs().isEmpty());
+    }
+
+    private ExportJobRequest request(String format, long total) {
+        ExportJobRequest request = new ExportJobRequest();
+        request.setReportId(reportId);
+        request.setFormat(format);
+        request.setParams(Map.of("total", total));
+        return request;
+    }
+
+    private ExportJobDTO awaitFinished(Long jobId) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ExportJobDTO job = exportJobService.getJob(jobId);
+            if (!isActive(job)) {
+                return job;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return fail("导出任务未在预期时间内结束: " + jobId);
+    }
+
+    private boolean isActive(ExportJobDTO job) {
+        return ExportJobService.STATUS_QUEUED.equals(job.getStatus())
+            || ExportJobService.STATUS_RUNNING.equals(job.getStatus());
+    }
+}
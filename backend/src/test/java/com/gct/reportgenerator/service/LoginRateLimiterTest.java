@@ -0,0 +1,78 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LoginRateLimiter测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+class LoginRateLimiterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("同一IP对同一用户名失败次数达到上限后拒绝，成功登录清除计数")
+    void perUserIpLimit() {
+        LoginRateLimiter limiter = new LoginRateLimiter(meterRegistry, 3, 100, 100, Duration.ofMinutes(15));
+
+        for (int i = 0; i < 3; i++) {
+            limiter.check("admin", "10.0.0.1");
+            limiter.recordFailure("admin", "10.0.0.1");
+        }
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> limiter.check("Admin", "10.0.0.1"));
+        assertEquals("LOGIN_THROTTLED", e.getCode());
+        assertTrue(e.getRetryAfterSeconds() > 0);
+        assertEquals(1, meterRegistry.get("report.auth.login.throttled").counter().count());
+
+        // 其他IP与其他用户不受影响
+        limiter.check("admin", "10.0.0.2");
+        limiter.check("designer", "10.0.0.1");
+
+        limiter.recordSuccess("admin", "10.0.0.1");
+        limiter.check("admin", "10.0.0.1");
+    }
+
+    @Test
+    @DisplayName("用户名失败次数达到上限后只拒绝有失败记录的IP，他人无法锁定账号")
+    void perUserLimit_ExemptsCleanIps() {
+        LoginRateLimiter limiter = new LoginRateLimiter(meterRegistry, 100, 3, 100, Duration.ofMinutes(15));
+
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("admin", "10.0.0." + i);
+        }
+        assertThrows(TooManyRequestsException.class, () -> limiter.check("admin", "10.0.0.1"));
+        limiter.check("admin", "10.0.0.5");
+        // 该IP对其他用户名的失败也算作失败记录
+        limiter.recordFailure("viewer", "10.0.0.5");
+        assertThrows(TooManyRequestsException.class, () -> limiter.check("admin", "10.0.0.5"));
+
+        // 账号所有者从没有失败记录的IP登录不受影响
+        limiter.check("admin", "192.168.1.10");
+    }
+
+    @Test
+    @DisplayName("IP失败次数达到上限后拒绝该IP的所有用户名，窗口过期后恢复")
+    void perIpLimit() throws InterruptedException {
+        LoginRateLimiter limiter = new LoginRateLimiter(meterRegistry, 100, 100, 2, Duration.ofMillis(200));
+
+        limiter.recordFailure("user1", "10.0.0.1");
+        limiter.recordFailure("user2", "10.0.0.1");
+        assertThrows(TooManyRequestsException.class, () -> limiter.check("user3", "10.0.0.1"));
+        limiter.check("user3", "10.0.0.2");
+
+        Thread.sleep(250);
+        limiter.check("user3", "10.0.0.1");
+        limiter.evictExpired();
+    }
+}
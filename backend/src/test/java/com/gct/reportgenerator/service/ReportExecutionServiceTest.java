@@ -0,0 +1,107 @@
+package com.gct.reportgenerator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gct.reportgenerator.entity.Report;
+import com.gct.reportgenerator.entity.ReportParam;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ReportParamRepository;
+import com.gct.reportgenerator.repository.ReportRepository;
+import com.gct.reportgenerator.util.JsonRowWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReportExecutionService测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class ReportExecutionServiceTest {
+
+    @Autowired
+    private ReportExecutionService reportExecutionService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportParamRepository reportParamRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long reportId;
+
+    @BeforeEach
+    void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("currentUserId", 1L);
+        request.setAttribute("currentUserRole", "ADMIN");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Report report = new Report();
+        report.setName("execution-test-" + System.nanoTime());
+        report.setSqlContent("SELECT id, username FROM users WHERE role = :role -- :ignored\nORDER BY id");
+        report.setCreatorId(1L);
+        reportId = reportRepository.save(report).getId();
+
+        ReportParam param = new ReportParam();
+        param.setReportId(reportId);
+        param.setParamName("role");
+        param.setParamType("STRING");
+        param.setRequired(true);
+        reportParamRepository.save(param);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportParamRepository.deleteAll(reportParamRepository.findByReportId(reportId));
+        reportRepository.deleteById(reportId);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("执行报表 - 绑定参数并流式输出JSON")
+    void execute_StreamsRows() throws Exception {
+        PreparedReportExecution execution = reportExecutionService.prepare(reportId, Map.of("role", "ADMIN"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = reportExecutionService.execute(execution, new JsonRowWriter(objectMapper.getFactory(), out));
+
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertEquals(rows, json.get("rowCount").asLong());
+        assertEquals(rows, json.get("rows").size());
+        assertEquals("username", json.get("columns").get(1).get("fieldName").asText());
+        assertEquals("admin", json.get("rows").get(0).get(1).asText());
+    }
+
+    @Test
+    @DisplayName("执行报表 - 缺少必填参数")
+    void prepare_MissingRequiredParam() {
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> reportExecutionService.prepare(reportId, Map.of()));
+        assertEquals("PARAM_REQUIRED", e.getCode());
+    }
+
+    @Test
+    @DisplayName("执行报表 - 报表不存在")
+    void prepare_ReportNotFound() {
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> reportExecutionService.prepare(-1L, Map.of()));
+        assertEquals("REPORT_NOT_FOUND", e.getCode());
+    }
+}
@@ -0,0 +1,185 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ReportPageDTO;
+import com.gct.reportgenerator.dto.ReportPageRequest;
+import com.gct.reportgenerator.entity.Report;
+import com.gct.reportgenerator.entity.ReportParam;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ReportParamRepository;
+import com.gct.reportgenerator.repository.ReportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReportPageService测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class ReportPageServiceTest {
+
+    private static final int TOTAL_ROWS = 230;
+
+    @Autowired
+    private ReportPageService reportPageService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportParamRepository reportParamRepository;
+
+    private Long reportId;
+
+    @BeforeEach
+    void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("currentUserId", 1L);
+        request.setAttribute("currentUserRole", "ADMIN");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Report report = new Report();
+        report.setName("page-test-" + System.nanoTime());
+        // bucket存在大量并列值，且每7行有一个NULL
+        report.setSqlContent("""
+            WITH RECURSIVE cnt(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM cnt WHERE x < :total)
+            SELECT x AS id, CASE WHEN x % 7 = 0 THEN NULL ELSE x / 10 END AS bucket, (x % 13) / 4.0 AS ratio
+            FROM cnt;
+            """);
+        report.setCreatorId(1L);
+        reportId = reportRepository.save(report).getId();
+
+        ReportParam param = new ReportParam();
+        param.setReportId(reportId);
+        param.setParamName("total");
+        param.setParamType("NUMBER");
+        param.setRequired(true);
+        reportParamRepository.save(param);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportParamRepository.deleteAll(reportParamRepository.findByReportId(reportId));
+        reportRepository.deleteById(reportId);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("keyset分页 - 并列值与NULL不重不漏")
+    void keysetPaging_CoversAllRowsOnce() {
+        List<Long> ids = pageThrough("bucket", "ASC", 17);
+
+        assertEquals(TOTAL_ROWS, ids.size());
+        assertEquals(TOTAL_ROWS, new HashSet<>(ids).size());
+    }
+
+    @Test
+    @DisplayName("keyset分页 - 降序")
+    void keysetPaging_Descending() {
+        List<Long> ids = pageThrough("bucket", "DESC", 25);
+
+        assertEquals(TOTAL_ROWS, new HashSet<>(ids).size());
+    }
+
+    @Test
+    @DisplayName("keyset分页 - 浮点排序值按类型还原")
+    void keysetPaging_DoubleSortValue() {
+        List<Long> ids = pageThrough("ratio", "DESC", 20);
+
+        assertEquals(TOTAL_ROWS, ids.size());
+        assertEquals(TOTAL_ROWS, new HashSet<>(ids).size());
+    }
+
+    @Test
+    @DisplayName("只按唯一键排序")
+    void keysetPaging_KeyOnly() {
+        List<Long> ids = pageThrough("id", "ASC", 40);
+
+        assertEquals(TOTAL_ROWS, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, ids.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("未指定唯一键 - 使用OFFSET分页")
+    void offsetPaging_WithoutKeyField() {
+        ReportPageRequest request = request("bucket", "ASC", 100);
+        request.setKeyField(null);
+        ReportPageDTO page = reportPageService.executePage(reportId, request);
+
+        assertEquals("OFFSET", page.getPagingMode());
+    }
+
+    @Test
+    @DisplayName("无排序字段 - 退化为OFFSET分页")
+    void offsetPaging_WithoutSortField() {
+        ReportPageRequest request = request(null, null, 100);
+        request.setKeyField(null);
+        ReportPageDTO page = reportPageService.executePage(reportId, request);
+
+        assertEquals("OFFSET", page.getPagingMode());
+        assertEquals(100, page.getRows().size());
+        assertTrue(page.getHasMore());
+        assertEquals(TOTAL_ROWS, pageThrough(null, null, 100).size());
+    }
+
+    @Test
+    @DisplayName("令牌与查询条件不匹配")
+    void cursor_MismatchRejected() {
+        ReportPageDTO page = reportPageService.executePage(reportId, request("bucket", "ASC", 10));
+
+        ReportPageRequest other = request("id", "ASC", 10);
+        other.setCursor(page.getNextCursor());
+
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> reportPageService.executePage(reportId, other));
+        assertEquals("INVALID_CURSOR", e.getCode());
+    }
+
+    private List<Long> pageThrough(String sortField, String sortOrder, int pageSize) {
+        List<Long> ids = new ArrayList<>();
+        Set<String> modes = new HashSet<>();
+        String cursor = null;
+        do {
+            ReportPageRequest request = request(sortField, sortOrder, pageSize);
+            request.setCursor(cursor);
+            ReportPageDTO page = reportPageService.executePage(reportId, request);
+            for (List<Object> row : page.getRows()) {
+                ids.add(((Number) row.get(0)).longValue());
+            }
+            modes.add(page.getPagingMode());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        if (sortField != null) {
+            assertTrue(modes.contains("KEYSET"));
+        }
+        return ids;
+    }
+
+    private ReportPageRequest request(String sortField, String sortOrder, int pageSize) {
+        ReportPageRequest request = new ReportPageRequest();
+        request.setParams(Map.of("total", TOTAL_ROWS));
+        request.setSortField(sortField);
+        request.setSortOrder(sortOrder);
+        request.setKeyField(sortField != null ? "id" : null);
+        request.setPageSize(pageSize);
+        return request;
+    }
+}
@@ -0,0 +1,156 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.PageResult;
+import com.gct.reportgenerator.dto.ReportCreateRequest;
+import com.gct.reportgenerator.dto.ReportDTO;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.util.RowCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReportPermissionService测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class ReportPermissionServiceTest {
+
+    @Autowired
+    private ReportPermissionService reportPermissionService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportExecutionService reportExecutionService;
+
+    private MockHttpServletRequest request;
+    private final List<Long> reportIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        actAs(2L, "DESIGNER");
+    }
+
+    @AfterEach
+    void tearDown() {
+        actAs(1L, "ADMIN");
+        reportIds.forEach(reportService::deleteReport);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("访问检查 - 创建人与管理员始终可访问，其他角色需授权")
+    void checkAccess_ByRoleGrant() throws Exception {
+        Long reportId = createReport();
+
+        actAs(3L, "VIEWER");
+        BusinessException e = assertThrows(BusinessException.class, () -> reportService.getReportById(reportId));
+        assertEquals("FORBIDDEN", e.getCode());
+        e = assertThrows(BusinessException.class, () -> reportExecutionService.prepare(reportId, Map.of()));
+        assertEquals("FORBIDDEN", e.getCode());
+        e = assertThrows(BusinessException.class, () -> reportPermissionService.setRoles(reportId, List.of("VIEWER")));
+        assertEquals("FORBIDDEN", e.getCode());
+
+        actAs(1L, "ADMIN");
+        assertNotNull(reportService.getReportById(reportId));
+
+        // 创建人授权后立即生效
+        actAs(2L, "DESIGNER");
+        assertEquals(List.of("VIEWER"), reportPermissionService.setRoles(reportId, List.of("VIEWER", "VIEWER")));
+        actAs(3L, "VIEWER");
+        assertEquals(1, reportExecutionService.execute(reportExecutionService.prepare(reportId, Map.of()),
+            new RowCollector()));
+        assertEquals(List.of("VIEWER"), reportPermissionService.getRoles(reportId));
+
+        actAs(2L, "DESIGNER");
+        reportPermissionService.setRoles(reportId, List.of());
+        actAs(3L, "VIEWER");
+        assertThrows(BusinessException.class, () -> reportService.getReportById(reportId));
+
+        actAs(2L, "DESIGNER");
+        e = assertThrows(BusinessException.class, () -> reportPermissionService.setRoles(reportId, List.of("GUEST")));
+        assertEquals("INVALID_PARAM", e.getCode());
+    }
+
+    @Test
+    @DisplayName("报表列表 - 只返回可访问的报表，分页与总数基于可见集合")
+    void listReports_FilteredByIndex() {
+        Long first = createReport();
+        Long second = createReport();
+        Long third = createReport();
+        reportPermissionService.setRoles(first, List.of("VIEWER"));
+        reportPermissionService.setRoles(third, List.of("VIEWER", "DESIGNER"));
+
+        actAs(3L, "VIEWER");
+        List<Long> visible = reportService.getAllReports().stream().map(ReportDTO::getId).toList();
+        assertTrue(visible.containsAll(List.of(first, third)));
+        assertFalse(visible.contains(second));
+
+        PageResult<ReportDTO> page = reportService.getReportPage(0, 1, 2L);
+        assertEquals(third, page.getItems().get(0).getId());
+        assertEquals(2, page.getTotal());
+        assertEquals(2, page.getTotalPages());
+        assertEquals(first, reportService.getReportPage(1, 1, 2L).getItems().get(0).getId());
+        assertTrue(reportService.getReportPage(2, 1, 2L).getItems().isEmpty());
+
+        // 删除后从索引中移除
+        actAs(1L, "ADMIN");
+        reportService.deleteReport(third);
+        reportIds.remove(third);
+        actAs(3L, "VIEWER");
+        assertEquals(1, reportService.getReportPage(0, 20, 2L).getTotal());
+    }
+
+    @Test
+    @DisplayName("访问检查 - 请求中没有登录用户时拒绝，只有无请求上下文的内部调用不受限制")
+    void checkAccess_RequestWithoutUser() {
+        Long reportId = createReport();
+
+        request.removeAttribute("currentUserId");
+        request.removeAttribute("currentUserRole");
+        BusinessException e = assertThrows(BusinessException.class, () -> reportService.getReportById(reportId));
+        assertEquals("UNAUTHORIZED", e.getCode());
+        e = assertThrows(BusinessException.class, () -> reportPermissionService.canAccessAll());
+        assertEquals("UNAUTHORIZED", e.getCode());
+
+        RequestContextHolder.resetRequestAttributes();
+        try {
+            assertTrue(reportPermissionService.canAccessAll());
+            assertNotNull(reportPermissionService.checkAccess(reportId));
+        } finally {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        }
+    }
+
+    private Long createReport() {
+        ReportCreateRequest create = new ReportCreateRequest();
+        create.setName("permission-test-" + System.nanoTime());
+        create.setSqlContent("SELECT 1 AS x");
+        Long id = reportService.createReport(create).getId();
+        reportIds.add(id);
+        return id;
+    }
+
+    private void actAs(Long userId, String role) {
+        request.setAttribute("currentUserId", userId);
+        request.setAttribute("currentUserRole", role);
+    }
+}
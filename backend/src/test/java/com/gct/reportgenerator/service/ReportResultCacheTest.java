@@ -0,0 +1,129 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.ReportPageDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReportResultCache单元测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+class ReportResultCacheTest {
+
+    @Test
+    @DisplayName("命中缓存 - 参数顺序与数字格式不影响key")
+    void get_HitsWithNormalizedParams() {
+        ReportResultCache cache = new ReportResultCache(true, Duration.ofMinutes(5), 1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(ReportResultCache.key(1L, "h", Map.of("a", 1, "b", "x"), "p1"), () -> page(loads, 1));
+        ReportPageDTO second = cache.get(
+            ReportResultCache.key(1L, "h", Map.of("b", " x ", "a", 1.0), "p1"), () -> page(loads, 1));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, second.getRows().size());
+    }
+
+    @Test
+    @DisplayName("并发相同请求只加载一次")
+    void get_SingleFlight() throws Exception {
+        ReportResultCache cache = new ReportResultCache(true, Duration.ofMinutes(5), 1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ReportResultCache.CacheKey key = ReportResultCache.key(1L, "h", Map.of(), "p1");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ReportPageDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(pool.submit(() -> cache.get(key, () -> {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return page(loads, 1);
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<ReportPageDTO> future : futures) {
+                assertNotNull(future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("超出字节预算时淘汰最久未访问的条目")
+    void store_EvictsLeastRecentlyUsed() {
+        // 每页约6.8KB，预算30KB可容纳4页
+        ReportResultCache cache = new ReportResultCache(true, Duration.ofMinutes(5), 30_000);
+        AtomicInteger loads = new AtomicInteger();
+        List<ReportResultCache.CacheKey> keys = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            keys.add(ReportResultCache.key(1L, "h", Map.of(), "p" + i));
+        }
+
+        for (int i = 0; i < 4; i++) {
+            cache.get(keys.get(i), () -> page(loads, 20));
+        }
+        cache.get(keys.get(0), () -> page(loads, 20));
+        cache.get(keys.get(4), () -> page(loads, 20));
+        assertEquals(5, loads.get());
+
+        // p0最近被访问仍在缓存，p1最久未访问应被淘汰
+        cache.get(keys.get(0), () -> page(loads, 20));
+        assertEquals(5, loads.get());
+        cache.get(keys.get(1), () -> page(loads, 20));
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    @DisplayName("按报表失效与TTL过期")
+    void invalidateAndExpire() throws Exception {
+        ReportResultCache cache = new ReportResultCache(true, Duration.ofMillis(50), 1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        ReportResultCache.CacheKey key = ReportResultCache.key(7L, "h", Map.of(), "p1");
+
+        cache.get(key, () -> page(loads, 1));
+        cache.invalidate(7L);
+        cache.get(key, () -> page(loads, 1));
+        assertEquals(2, loads.get());
+
+        Thread.sleep(80);
+        cache.get(key, () -> page(loads, 1));
+        assertEquals(3, loads.get());
+    }
+
+    private ReportPageDTO page(AtomicInteger loads, int rowCount) {
+        loads.incrementAndGet();
+        List<List<Object>> rows = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(List.of(i, "row-" + "x".repeat(100)));
+        }
+        ReportPageDTO page = new ReportPageDTO();
+        page.setRows(rows);
+        page.setPageSize(rowCount);
+        page.setHasMore(false);
+        return page;
+    }
+}
@@ -0,0 +1,255 @@
+package com.gct.reportgenerator.service;
+
+import com.gct.reportgenerator.dto.PageResult;
+import com.gct.reportgenerator.dto.ReportColumnDTO;
+import com.gct.reportgenerator.dto.ReportCreateRequest;
+import com.gct.reportgenerator.dto.ReportDTO;
+import com.gct.reportgenerator.dto.ReportParamDTO;
+import com.gct.reportgenerator.entity.ReportColumn;
+import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.ReportColumnRepository;
+import com.gct.reportgenerator.repository.ReportDefinitionJdbcRepository;
+import com.gct.reportgenerator.repository.ReportParamRepository;
+import com.gct.reportgenerator.repository.ReportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReportService测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest
+class ReportServiceTest {
+
+    private static final int COLUMN_COUNT = 80;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportDefinitionJdbcRepository reportDefinitionJdbcRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportParamRepository reportParamRepository;
+
+    @Autowired
+    private ReportColumnRepository reportColumnRepository;
+
+    private Long reportId;
+
+    @BeforeEach
+    void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("currentUserId", 1L);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (reportId != null) {
+            reportParamRepository.deleteAll(reportParamRepository.findByReportId(reportId));
+            reportColumnRepository.deleteAll(reportColumnRepository.findByReportId(reportId));
+            reportRepository.deleteById(reportId);
+        }
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("创建报表 - 批量保存参数与列配置并保持顺序")
+    void createReport_BatchInsertsDefinition() {
+        ReportDTO report = reportService.createReport(request(columns(COLUMN_COUNT)));
+        reportId = report.getId();
+
+        assertEquals(2, report.getParams().size());
+        assertEquals(Boolean.TRUE, report.getParams().get(0).getRequired());
+        assertEquals(Boolean.FALSE, report.getParams().get(1).getRequired());
+        assertEquals(COLUMN_COUNT, report.getColumns().size());
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            assertEquals("col_" + i, report.getColumns().get(i).getFieldName());
+        }
+    }
+
+    @Test
+    @DisplayName("更新报表 - 只写入有变化的行")
+    void updateReport_TouchesOnlyChangedRows() {
+        ReportCreateRequest create = request(columns(COLUMN_COUNT));
+        reportId = reportService.createReport(create).getId();
+        Map<String, Long> idsBefore = columnIds();
+
+        // 修改一列的显示名，并删除最后两列
+        List<ReportColumnDTO> changed = columns(COLUMN_COUNT - 2);
+        changed.get(10).setDisplayName("金额（元）");
+        ReportCreateRequest update = request(changed);
+        ReportDTO updated = reportService.updateReport(reportId, update);
+
+        assertEquals(COLUMN_COUNT - 2, updated.getColumns().size());
+        assertEquals("金额（元）", updated.getColumns().get(10).getDisplayName());
+        Map<String, Long> idsAfter = columnIds();
+        idsAfter.forEach((field, id) -> assertEquals(idsBefore.get(field), id, "未变化的行不应重建: " + field));
+
+        // 再次提交相同内容不产生任何写入
+        assertEquals(0, reportDefinitionJdbcRepository.syncColumns(reportId, changed));
+        assertEquals(0, reportDefinitionJdbcRepository.syncParams(reportId, update.getParams()));
+
+        // 追加新列
+        List<ReportColumnDTO> extended = new ArrayList<>(changed);
+        extended.add(column("extra", "TEXT"));
+        assertEquals(1, reportDefinitionJdbcRepository.syncColumns(reportId, extended));
+        assertEquals("extra", reportService.getReportById(reportId).getColumns().get(COLUMN_COUNT - 2).getFieldName());
+    }
+
+    @Test
+    @DisplayName("获取报表 - 定义缓存返回副本，更新提交后失效")
+    void getReportById_CachesDefinitionUntilUpdate() {
+        reportId = reportService.createReport(request(columns(3))).getId();
+
+        ReportDTO first = reportService.getReportById(reportId);
+        first.getColumns().clear();
+        first.setName("modified-by-caller");
+        ReportDTO second = reportService.getReportById(reportId);
+        assertEquals(3, second.getColumns().size(), "调用方修改不应影响缓存");
+        assertNotEquals("modified-by-caller", second.getName());
+
+        ReportCreateRequest update = request(columns(4));
+        reportService.updateReport(reportId, update);
+        ReportDTO updated = reportService.getReportById(reportId);
+        assertEquals(update.getName(), updated.getName());
+        assertEquals(4, updated.getColumns().size());
+        assertEquals(Boolean.TRUE, updated.getParams().get(0).getRequired());
+        assertNotNull(updated.getUpdatedAt());
+
+        assertTrue(reportDefinitionJdbcRepository.loadDefinition(Long.MAX_VALUE).isEmpty());
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> reportService.getReportById(Long.MAX_VALUE));
+        assertEquals("REPORT_NOT_FOUND", e.getCode());
+    }
+
+    @Test
+    @DisplayName("分页获取报表列表 - 按创建人过滤并返回总数")
+    void getReportPage_FiltersByCreator() {
+        reportId = reportService.createReport(request(columns(1))).getId();
+
+        PageResult<ReportDTO> page = reportService.getReportPage(0, 1, 1L);
+        assertEquals(1, page.getItems().size());
+        assertEquals(reportId, page.getItems().get(0).getId(), "按ID倒序，新报表在第一页");
+        assertNull(page.getItems().get(0).getSqlContent());
+        assertEquals(reportRepository.findByCreatorId(1L).size(), page.getTotal());
+
+        PageResult<ReportDTO> none = reportService.getReportPage(0, 20, Long.MAX_VALUE);
+        assertTrue(none.getItems().isEmpty());
+        assertEquals(0, none.getTotal());
+
+        assertThrows(BusinessException.class, () -> reportService.getReportPage(0, 0, null));
+    }
+
+    @Test
+    @DisplayName("名称查重 - 精确匹配、忽略大小写，新建后否定缓存失效")
+    void isNameExists_ExactMatchIgnoringCase() {
+        ReportCreateRequest create = request(columns(1));
+        String name = create.getName();
+        assertFalse(reportService.isNameExists(name));
+        assertFalse(reportService.isNameExists(name), "第二次由否定缓存返回");
+
+        reportId = reportService.createReport(create).getId();
+        assertTrue(reportService.isNameExists(name), "新建提交后否定缓存应失效");
+        assertTrue(reportService.isNameExists(name.toUpperCase()));
+        assertFalse(reportService.isNameExists(name.substring(0, name.length() - 1)), "不做模糊匹配");
+
+        ReportCreateRequest duplicate = request(columns(1));
+        duplicate.setName(name.toUpperCase());
+        BusinessException e = assertThrows(BusinessException.class, () -> reportService.createReport(duplicate));
+        assertEquals("REPORT_NAME_EXISTS", e.getCode());
+
+        // 不改名的更新不受唯一约束影响
+        ReportCreateRequest update = request(columns(1));
+        update.setName(name);
+        assertEquals(name, reportService.updateReport(reportId, update).getName());
+    }
+
+    @Test
+    @DisplayName("提取列 - 从预编译语句元数据读取列与格式类型，不执行SQL")
+    void extractColumnsFromSql_UsesStatementMetadata() {
+        String sql = """
+            WITH recent AS (SELECT * FROM users WHERE created_at > :since)
+            SELECT id, username, created_at, COALESCE(role, 'NONE') AS role_name
+            FROM recent WHERE id > :minId
+            """;
+        List<ReportColumnDTO> columns = reportService.extractColumnsFromSql(sql, List.of(), null, null);
+
+        assertEquals(List.of("id", "username", "created_at", "role_name"),
+            columns.stream().map(ReportColumnDTO::getFieldName).collect(Collectors.toList()));
+        assertEquals(List.of("NUMBER", "TEXT", "DATE", "TEXT"),
+            columns.stream().map(ReportColumnDTO::getFormatType).collect(Collectors.toList()));
+
+        // 缓存返回副本
+        columns.get(0).setDisplayName("changed");
+        assertEquals("id", reportService.extractColumnsFromSql(sql, List.of(), null, "METADATA").get(0).getDisplayName());
+
+        assertEquals(2, reportService.extractColumnsFromSql("SELECT id, username FROM users", List.of(), null, "PARSE").size());
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> reportService.extractColumnsFromSql("DELETE FROM users", List.of(), null, null));
+        assertEquals("INVALID_SQL", e.getCode());
+        e = assertThrows(BusinessException.class,
+            () -> reportService.extractColumnsFromSql("SELECT nope FROM missing_table", List.of(), null, null));
+        assertEquals("SQL_PARSE_ERROR", e.getCode());
+    }
+
+    private Map<String, Long> columnIds() {
+        return reportColumnRepository.findByReportId(reportId).stream()
+            .collect(Collectors.toMap(ReportColumn::getFieldName, ReportColumn::getId));
+    }
+
+    private ReportCreateRequest request(List<ReportColumnDTO> columns) {
+        ReportCreateRequest request = new ReportCreateRequest();
+        request.setName("service-test-" + System.nanoTime());
+        request.setSqlContent("SELECT * FROM users WHERE role = :role AND id > :minId");
+        request.setParams(List.of(param("role", "STRING", true), param("minId", "NUMBER", null)));
+        request.setColumns(columns);
+        return request;
+    }
+
+    private List<ReportColumnDTO> columns(int count) {
+        List<ReportColumnDTO> columns = new ArrayList<>();
+        Function<Integer, String> format = i -> i % 5 == 0 ? "NUMBER" : "TEXT";
+        for (int i = 0; i < count; i++) {
+            columns.add(column("col_" + i, format.apply(i)));
+        }
+        return columns;
+    }
+
+    private ReportColumnDTO column(String fieldName, String formatType) {
+        ReportColumnDTO column = new ReportColumnDTO();
+        column.setFieldName(fieldName);
+        column.setDisplayName("列 " + fieldName);
+        column.setFormatType(formatType);
+        return column;
+    }
+
+    private ReportParamDTO param(String name, String type, Boolean required) {
+        ReportParamDTO param = new ReportParamDTO();
+        param.setParamName(name);
+        param.setParamType(type);
+        param.setRequired(required);
+        return param;
+    }
+}
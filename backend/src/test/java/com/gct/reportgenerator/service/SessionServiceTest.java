@@ -1,6 +1,8 @@
 package com.gct.reportgenerator.service;
 
 import com.gct.reportgenerator.exception.BusinessException;
+import com.gct.reportgenerator.repository.SessionStore;
+import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,8 @@ import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -26,6 +30,9 @@ class SessionServiceTest {
     
     @Autowired
     private SessionService sessionService;
+
+    @Autowired
+    private SessionStore sessionStore;
     
     private MockHttpServletRequest mockRequest;
     private MockHttpSession mockSession;
@@ -129,4 +136,25 @@ class SessionServiceTest {
         assertEquals("designer", sessionService.getCurrentUsername());
         assertEquals("DESIGNER", sessionService.getCurrentUserRole());
     }
+
+    @Test
+    @DisplayName("多节点共享存储 - 销毁后其他节点轮询失效事件")
+    void destroySession_InvalidatesOtherNodes() {
+        // Given - 另一个节点，近缓存TTL足够长，只能靠失效事件清除
+        SessionService otherNode = new SessionService(sessionStore, Duration.ofMinutes(30), Duration.ofMinutes(1),
+                Duration.ofHours(1), Duration.ofHours(1), "GCT_SESSION", false, true, "strict");
+        otherNode.initEventCursor();
+        sessionService.createSession(1L, "admin", "ADMIN");
+        MockHttpServletRequest otherRequest = new MockHttpServletRequest();
+        otherRequest.setCookies(new Cookie("GCT_SESSION", (String) mockSession.getAttribute("sessionId")));
+        assertEquals(1L, otherNode.findSessionUser(otherRequest).userId());
+
+        // When
+        sessionService.destroySession();
+
+        // Then - 轮询前仍命中近缓存，轮询后失效
+        assertNotNull(otherNode.findSessionUser(otherRequest));
+        otherNode.pollInvalidations();
+        assertNull(otherNode.findSessionUser(otherRequest));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.gct.reportgenerator.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WalCheckpointService测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+@SpringBootTest(properties = "report.sqlite.wal-checkpoint-interval=1h")
+class WalCheckpointServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("sqliteReaderDataSource")
+    private DataSource readerDataSource;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS wal_checkpoint_test (id INTEGER PRIMARY KEY, payload TEXT)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS wal_checkpoint_test");
+    }
+
+    @Test
+    @DisplayName("WAL超过上限时等待已有读事务结束后执行RESTART检查点，之后的写入从头重用WAL")
+    void checkpoint_RestartsWalAboveLimit() throws Exception {
+        insertPages(64);
+        assertTrue(walFrames() >= 64);
+        // 上面的检查点已全部写回，没有读事务时下一次写入从头重用WAL
+        insertPages(64);
+
+        // 读事务的快照包含尚未写回的帧：被动检查点之后的写入不能重用WAL，只能继续追加
+        Connection reader = readerDataSource.getConnection();
+        reader.setAutoCommit(false);
+        try (Statement stmt = reader.createStatement()) {
+            stmt.executeQuery("SELECT COUNT(*) FROM wal_checkpoint_test").close();
+        }
+        CompletableFuture<Void> finishRead = CompletableFuture.runAsync(() -> {
+            try (reader) {
+                reader.rollback();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }, CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS));
+
+        assertFalse(service(DataSize.ofGigabytes(1)).checkpoint());
+        assertTrue(service(DataSize.ofKilobytes(64)).checkpoint());
+        insertPages(1);
+        finishRead.get(5, TimeUnit.SECONDS);
+        assertTrue(walFrames() < 16, "RESTART后的写入应从WAL开头写入");
+    }
+
+    private void insertPages(int count) {
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("INSERT INTO wal_checkpoint_test (payload) VALUES (?)", "x".repeat(4000));
+        }
+    }
+
+    private WalCheckpointService service(DataSize walSizeLimit) {
+        return new WalCheckpointService(jdbcTemplate, walSizeLimit, Duration.ofHours(1));
+    }
+
+    private long walFrames() {
+        Long frames = jdbcTemplate.queryForObject("PRAGMA wal_checkpoint(PASSIVE)", (rs, rowNum) -> rs.getLong(2));
+        return frames != null ? frames : 0;
+    }
+}
@@ -0,0 +1,106 @@
+package com.gct.reportgenerator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CsvRowWriter单元测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+class CsvRowWriterTest {
+
+    private static final String SQL = """
+        SELECT 1 AS id, '华东' AS region, 1234.5 AS amount, 0.125 AS ratio, '2024-01-05' AS day, 'a,"b"' AS note
+        UNION ALL
+        SELECT -42, NULL, -7.256, NULL, NULL, 'x' || char(9) || 'y' || char(10) || 'z\\'
+        """;
+
+    private static final List<ResultColumn> COLUMNS = List.of(
+        new ResultColumn("id", "编号", "NUMBER", Types.INTEGER),
+        new ResultColumn("region", "区域", "TEXT", Types.VARCHAR),
+        new ResultColumn("amount", "金额", "CURRENCY", Types.NUMERIC),
+        new ResultColumn("ratio", "占比", "PERCENTAGE", Types.NUMERIC),
+        new ResultColumn("day", "日期", "DATE", Types.VARCHAR),
+        new ResultColumn("note", "备注, 说明", "TEXT", Types.VARCHAR));
+
+    @Test
+    @DisplayName("CSV - 表头使用显示名，按RFC 4180加引号，金额保留两位小数")
+    void csv_QuotesAndFormats() throws Exception {
+        String csv = export(',');
+
+        assertEquals(
+            "编号,区域,金额,占比,日期,\"备注, 说明\"\r\n"
+                + "1,华东,1234.50,0.125,2024-01-05,\"a,\"\"b\"\"\"\r\n"
+                + "-42,,-7.26,,,\"x\ty\nz\\\"\r\n",
+            csv);
+    }
+
+    @Test
+    @DisplayName("TSV - 不加引号，制表符、换行与反斜杠转义")
+    void tsv_EscapesControlCharacters() throws Exception {
+        String tsv = export('\t');
+
+        assertEquals(
+            "编号\t区域\t金额\t占比\t日期\t备注, 说明\n"
+                + "1\t华东\t1234.50\t0.125\t2024-01-05\ta,\"b\"\n"
+                + "-42\t\t-7.26\t\t\tx\\ty\\nz\\\\\n",
+            tsv);
+    }
+
+    @Test
+    @DisplayName("超出缓冲区大小的输出完整写出")
+    void write_SpansBufferBoundary() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvRowWriter writer = new CsvRowWriter(out, ',');
+        long rows = 0;
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("""
+                 WITH RECURSIVE cnt(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM cnt WHERE x < 20000)
+                 SELECT x AS id, '客户-' || x AS name FROM cnt
+                 """)) {
+            writer.start(List.of(
+                new ResultColumn("id", "id", "NUMBER", Types.INTEGER),
+                new ResultColumn("name", "name", "TEXT", Types.VARCHAR)));
+            while (rs.next()) {
+                writer.row(rs);
+                rows++;
+            }
+            writer.end(rows);
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(20001, lines.length);
+        assertEquals("20000,客户-20000", lines[20000]);
+    }
+
+    private String export(char delimiter) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvRowWriter writer = new CsvRowWriter(out, delimiter);
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SQL)) {
+            writer.start(COLUMNS);
+            long rows = 0;
+            while (rs.next()) {
+                writer.row(rs);
+                rows++;
+            }
+            writer.end(rows);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,68 @@
+package com.gct.reportgenerator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LatencyHistogram测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("分位数 - 相对误差不超过1/16")
+    void valueAtPercentile_WithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(10_000, histogram.getTotalCount());
+        assertWithin(5_000, histogram.valueAtPercentile(50));
+        assertWithin(9_500, histogram.valueAtPercentile(95));
+        assertWithin(9_900, histogram.valueAtPercentile(99));
+        assertEquals(0, new LatencyHistogram().valueAtPercentile(50));
+    }
+
+    @Test
+    @DisplayName("桶边界 - 小值精确，下标与上界对应")
+    void buckets_Boundaries() {
+        for (long value : new long[]{0, 1, 15, 16, 31, 32, 33, 1_000, 123_456_789L, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestEquivalentValue(index - 1) < value);
+            }
+        }
+        assertEquals(15, LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(15)));
+    }
+
+    @Test
+    @DisplayName("序列化与合并 - 往返一致，合并等于分别记录之和")
+    void toBytes_RoundTripAndMerge() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (long i = 0; i < 1_000; i++) {
+            long value = i * i;
+            (i % 2 == 0 ? a : b).record(value);
+            all.record(value);
+        }
+
+        LatencyHistogram merged = LatencyHistogram.fromBytes(a.toBytes());
+        merged.add(LatencyHistogram.fromBytes(b.toBytes()));
+        assertEquals(all, merged);
+        assertEquals(all.getTotalCount(), merged.getTotalCount());
+        assertEquals(all.valueAtPercentile(99), merged.valueAtPercentile(99));
+        assertEquals(0, LatencyHistogram.fromBytes(null).getTotalCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 16,
+            "expected ~" + expected + " but was " + actual);
+    }
+}
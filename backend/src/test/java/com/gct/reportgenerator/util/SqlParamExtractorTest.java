@@ -119,6 +119,42 @@ class SqlParamExtractorTest {
         assertEquals("second", params.get(2));
     }
 
+    @Test
+    void testExtractParams_PostgresCast() {
+        String sql = "SELECT amount::numeric, created_at::date FROM orders WHERE id = :id::int AND total > :minTotal";
+        List<String> params = SqlParamExtractor.extractParams(sql);
+
+        assertEquals(Arrays.asList("id", "minTotal"), params);
+    }
+
+    @Test
+    void testExtractParams_EscapedQuotesAndCommentMarkersInLiterals() {
+        String sql = "SELECT 'It''s :notAParam' AS a, '-- :alsoNot' AS b, \"col\"\":x\" FROM t "
+            + "WHERE c = '/* :nope */' AND d = :real -- trailing :comment";
+        List<String> params = SqlParamExtractor.extractParams(sql);
+
+        assertEquals(List.of("real"), params);
+    }
+
+    @Test
+    void testScan_ReportsPositions() {
+        String sql = "SELECT * FROM t WHERE a = :first AND b = :second AND c = :first";
+        List<SqlParamExtractor.ParamOccurrence> occurrences = SqlParamExtractor.scan(sql);
+
+        assertEquals(3, occurrences.size());
+        SqlParamExtractor.ParamOccurrence second = occurrences.get(1);
+        assertEquals("second", second.name());
+        assertEquals(sql.indexOf(":second"), second.start());
+        assertEquals(":second", sql.substring(second.start(), second.end()));
+    }
+
+    @Test
+    void testScan_UnterminatedLiteralAndComment() {
+        assertTrue(SqlParamExtractor.scan("SELECT ':open").isEmpty());
+        assertTrue(SqlParamExtractor.scan("SELECT 1 /* :open").isEmpty());
+        assertEquals(List.of("a"), SqlParamExtractor.extractParams("SELECT :a -- :b"));
+    }
+
     @Test
     void testValidateParams_AllMatch() {
         String sql = "SELECT * FROM users WHERE age > :minAge AND status = :status";
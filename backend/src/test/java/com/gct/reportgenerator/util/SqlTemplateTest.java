@@ -0,0 +1,29 @@
+package com.gct.reportgenerator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlTemplateTest {
+
+    @Test
+    void testCompile_RewritesParamsToPositionalSlots() {
+        String sql = "SELECT * FROM orders WHERE created_at >= :start AND (closed_at IS NULL OR closed_at >= :start) "
+            + "AND note <> ':literal' AND amount::numeric > :min";
+        SqlTemplate template = SqlTemplate.compile(sql, "hash");
+
+        assertEquals("SELECT * FROM orders WHERE created_at >= ? AND (closed_at IS NULL OR closed_at >= ?) "
+            + "AND note <> ':literal' AND amount::numeric > ?", template.getSql());
+        assertEquals(List.of("start", "start", "min"), template.getSlots());
+        assertEquals(List.of("start", "min"), template.getParamNames());
+        assertTrue(template.isQuery());
+    }
+
+    @Test
+    void testCompile_DetectsNonQuery() {
+        assertTrue(SqlTemplate.compile("-- 注释\n ( WITH t AS (SELECT 1) SELECT * FROM t)", "h").isQuery());
+        assertFalse(SqlTemplate.compile("/* x */ DELETE FROM users WHERE id = :id", "h").isQuery());
+    }
+}
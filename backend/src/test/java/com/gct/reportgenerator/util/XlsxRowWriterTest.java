@@ -0,0 +1,92 @@
+package com.gct.reportgenerator.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XlsxRowWriter单元测试
+ *
+ * @author GCT Team
+ * @since 1.0.0
+ */
+class XlsxRowWriterTest {
+
+    @Test
+    @DisplayName("生成合法的XLSX包结构并按格式类型写出单元格")
+    void write_ProducesWellFormedWorkbook() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XlsxRowWriter writer = new XlsxRowWriter(out, "销售/报表");
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("""
+                 WITH RECURSIVE cnt(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM cnt WHERE x < 100)
+                 SELECT x AS id, 'region-' || (x % 3) AS region, x * 1.5 AS amount,
+                        x / 100.0 AS ratio, '2024-01-' || printf('%02d', x % 28 + 1) AS day,
+                        '<a&b>' AS note
+                 FROM cnt
+                 """)) {
+            writer.start(List.of(
+                new ResultColumn("id", "编号", "NUMBER", Types.INTEGER),
+                new ResultColumn("region", "区域", "TEXT", Types.VARCHAR),
+                new ResultColumn("amount", "金额", "CURRENCY", Types.NUMERIC),
+                new ResultColumn("ratio", "占比", "PERCENTAGE", Types.NUMERIC),
+                new ResultColumn("day", "日期", "DATE", Types.VARCHAR),
+                new ResultColumn("note", "备注", "TEXT", Types.VARCHAR)));
+            long rows = 0;
+            while (rs.next()) {
+                writer.row(rs);
+                rows++;
+            }
+            writer.end(rows);
+        }
+
+        Map<String, byte[]> entries = unzip(out.toByteArray());
+        assertTrue(entries.keySet().containsAll(List.of(
+            "[Content_Types].xml", "_rels/.rels", "xl/workbook.xml", "xl/_rels/workbook.xml.rels",
+            "xl/styles.xml", "xl/sharedStrings.xml", "xl/worksheets/sheet1.xml")));
+
+        Document sheet = parse(entries.get("xl/worksheets/sheet1.xml"));
+        assertEquals(101, sheet.getElementsByTagName("row").getLength());
+
+        // 3个区域值 + 1个备注值进入共享字符串表
+        Document strings = parse(entries.get("xl/sharedStrings.xml"));
+        assertEquals("4", strings.getDocumentElement().getAttribute("uniqueCount"));
+
+        Document workbook = parse(entries.get("xl/workbook.xml"));
+        assertEquals("销售_报表", ((org.w3c.dom.Element) workbook.getElementsByTagName("sheet").item(0))
+            .getAttribute("name"));
+    }
+
+    private Map<String, byte[]> unzip(byte[] bytes) throws Exception {
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private Document parse(byte[] xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+    }
+}